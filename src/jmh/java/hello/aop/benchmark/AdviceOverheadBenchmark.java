@@ -0,0 +1,120 @@
+package hello.aop.benchmark;
+
+import hello.aop.event.AdviceEventPipeline;
+import hello.aop.event.Slf4jAdviceEventSink;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV1;
+import hello.aop.order.aop.AspectV2;
+import hello.aop.order.aop.AspectV3;
+import hello.aop.order.aop.AspectV4Pointcut;
+import hello.aop.order.aop.AspectV5Order;
+import hello.aop.order.aop.AspectV6Advice;
+import hello.aop.order.aop.AspectV7Light;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `hello.aop.order.aop` 의 애스펙트별로 `OrderService.orderItem` / `OrderRepository.save` 호출 비용을 잰다.
+ * 로그 출력 비용(appender I/O)이 아니라 어드바이스 자체의 비용을 보기 위해 jmh 용 logback.xml 에서 INFO 로그를 끈다.
+ * `-prof gc` 가 기본으로 붙어 있어 gc.alloc.rate.norm 으로 호출당 할당량도 함께 나온다.
+ * `V6AdviceFused` 는 `AspectV6Advice` 의 다섯 어드바이스를 체인 한 칸으로 합친 프록시다 (체인 길이 6 -> 2).
+ * `V7Light` 는 `V5Order` 와 같은 로그/트랜잭션을 `ProceedingJoinPoint` 없이 하는 {@link AspectV7Light} 다.
+ * 둘의 gc.alloc.rate.norm 차이가 조인 포인트 비용이다. `V7Light` 에 남는 할당은 CGLIB 프록시 자체의 인자 배열과
+ * `MethodInvocation` 이다 (`none` 은 프록시가 없다).
+ * `V6AdviceAsync` 는 `AspectV6Advice` 의 before/return/ex/after 를 {@link AdviceEventPipeline} 으로 넘긴다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdviceOverheadBenchmark {
+
+    @Param({"none", "V1", "V2", "V3", "V4Pointcut", "V5Order", "V6Advice", "V6AdviceAsync", "V6AdviceFused", "V7Light"})
+    String aspect;
+
+    OrderService orderService;
+    OrderRepository orderRepository;
+    AdviceEventPipeline events;
+
+    @Setup
+    public void setUp() {
+        if ("V6AdviceFused".equals(aspect)) {
+            orderRepository = AspectProxies.fusedProxy(new OrderRepository(), new AspectV6Advice());
+            orderService = AspectProxies.fusedProxy(new OrderService(orderRepository), new AspectV6Advice());
+            return;
+        }
+        orderRepository = AspectProxies.proxy(new OrderRepository(), aspects());
+        orderService = AspectProxies.proxy(new OrderService(orderRepository), aspects());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (events != null) {
+            events.close();
+            events = null;
+        }
+    }
+
+    private Object[] aspects() {
+        switch (aspect) {
+            case "none":
+                return new Object[0];
+            case "V1":
+                return new Object[]{new AspectV1()};
+            case "V2":
+                return new Object[]{new AspectV2()};
+            case "V3":
+                return new Object[]{new AspectV3()};
+            case "V4Pointcut":
+                return new Object[]{new AspectV4Pointcut()};
+            case "V5Order":
+                // @Order(1) 인 TxAspect 가 바깥에 오도록 먼저 추가한다.
+                return new Object[]{new AspectV5Order.TxAspect(), new AspectV5Order.LogAspect()};
+            case "V7Light":
+                return new Object[]{AspectV7Light.TxAdvice.advisor(null), AspectV7Light.LogAdvice.advisor()};
+            case "V6Advice":
+                return new Object[]{new AspectV6Advice()};
+            case "V6AdviceAsync":
+                if (events == null) {
+                    events = new AdviceEventPipeline(new Slf4jAdviceEventSink());
+                }
+                return new Object[]{new AspectV6Advice(null, events)};
+            default:
+                throw new IllegalArgumentException("unknown aspect: " + aspect);
+        }
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+
+    @Benchmark
+    public String save() {
+        return orderRepository.save("itemA");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Threads(Threads.MAX)
+    public void orderItemConcurrent() {
+        orderService.orderItem("itemA");
+    }
+}
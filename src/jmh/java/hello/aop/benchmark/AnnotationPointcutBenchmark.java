@@ -0,0 +1,106 @@
+package hello.aop.benchmark;
+
+import hello.aop.member.annotation.ClassAop;
+import hello.aop.member.annotation.MethodAop;
+import hello.aop.pointcut.AnnotationIndex;
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 애노테이션 포인트컷이 걸린 빈의 호출 비용.
+ * `atTarget` 은 `@target(ClassAop)` 빈의 부모 메서드 호출로, AspectJ 는 호출마다 대상 객체의 애노테이션을 확인하고
+ * 컴파일된 포인트컷은 프록시를 만들 때 {@link AnnotationIndex} 로 한 번만 판단한다.
+ * `methodAop` 은 `MethodAop.value()` 를 쓰는 어드바이스로, AspectJ 는 `@annotation(methodAop)` 바인딩으로,
+ * 컴파일된 쪽은 색인에서 값을 읽는다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotationPointcutBenchmark {
+
+    @Param({"none", "aspectJ", "compiled"})
+    String proxy;
+
+    Child child;
+
+    @Setup
+    public void setUp() {
+        if ("none".equals(proxy)) {
+            child = AspectProxies.proxy(new Child());
+        } else if ("aspectJ".equals(proxy)) {
+            child = AspectProxies.proxy(new Child(), new AtTargetAspect(), new BindingAspect());
+        } else {
+            child = AspectProxies.compiledProxy(new Child(), new AtTargetAspect(), new IndexAspect());
+        }
+    }
+
+    @Benchmark
+    public int atTarget() {
+        return child.parentMethod();
+    }
+
+    @Benchmark
+    public int methodAop() {
+        return child.childMethod();
+    }
+
+    public static class Parent {
+        public int parentMethod() {
+            return 1;
+        }
+    }
+
+    @ClassAop
+    public static class Child extends Parent {
+        @MethodAop("test value")
+        public int childMethod() {
+            return 2;
+        }
+    }
+
+    @Aspect
+    public static class AtTargetAspect {
+        @Around("execution(* parentMethod()) && @target(hello.aop.member.annotation.ClassAop)")
+        public Object atTarget(ProceedingJoinPoint joinPoint) throws Throwable {
+            return joinPoint.proceed();
+        }
+    }
+
+    @Aspect
+    public static class BindingAspect {
+        @Around("@annotation(methodAop)")
+        public Object doMethodAop(ProceedingJoinPoint joinPoint, MethodAop methodAop) throws Throwable {
+            return methodAop.value().isEmpty() ? null : joinPoint.proceed();
+        }
+    }
+
+    @Aspect
+    public static class IndexAspect {
+        @Around("@annotation(hello.aop.member.annotation.MethodAop)")
+        public Object doMethodAop(ProceedingJoinPoint joinPoint) throws Throwable {
+            MethodInvocation invocation = ExposeInvocationInterceptor.currentInvocation();
+            MethodAop methodAop = AnnotationIndex.of(invocation.getThis().getClass())
+                    .methodAnnotation(invocation.getMethod(), MethodAop.class);
+            return methodAop.value().isEmpty() ? null : joinPoint.proceed();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package hello.aop.benchmark;
+
+import hello.aop.member.MemberServiceImpl;
+import hello.aop.member.MyClass;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `args(..)` 어드바이스가 걸린 `MemberServiceImpl` 의 호출 비용.
+ * AspectJ 포인트컷은 호출마다 `matches(Method, Class, Object...)` 로 인수를 다시 판단한다.
+ * 컴파일된 쪽은 `hello(String)` 에 `args(String)` 처럼 타입으로 결정되면 판단을 빼고,
+ * `testMethod(MyClass)` 에 `args(java.io.Serializable)` 처럼 남으면 그 위치의 `isInstance` 만 한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArgsPointcutBenchmark {
+
+    @Param({"none", "aspectJ", "compiled"})
+    String proxy;
+
+    MemberServiceImpl memberService;
+    MyClass myClass = new MyClass();
+
+    @Setup
+    public void setUp() {
+        if ("none".equals(proxy)) {
+            memberService = AspectProxies.proxy(new MemberServiceImpl());
+        } else if ("aspectJ".equals(proxy)) {
+            memberService = AspectProxies.proxy(new MemberServiceImpl(), new ArgsAspect());
+        } else {
+            memberService = AspectProxies.compiledProxy(new MemberServiceImpl(), new ArgsAspect());
+        }
+    }
+
+    /**
+     * 타입으로 결정되는 경우
+     */
+    @Benchmark
+    public String decided() {
+        return memberService.hello("helloA");
+    }
+
+    /**
+     * 인수 타입을 확인해야 하는 경우 (통과하지 못해서 어드바이스는 실행되지 않는다)
+     */
+    @Benchmark
+    public MyClass residue() {
+        memberService.testMethod(myClass);
+        return myClass;
+    }
+
+    @Aspect
+    public static class ArgsAspect {
+        @Around("execution(* hello.aop.member..*(..)) && args(String)")
+        public Object doString(ProceedingJoinPoint joinPoint) throws Throwable {
+            return joinPoint.proceed();
+        }
+
+        @Around("execution(* hello.aop.member..*(..)) && args(java.io.Serializable)")
+        public Object doSerializable(ProceedingJoinPoint joinPoint) throws Throwable {
+            return joinPoint.proceed();
+        }
+    }
+}
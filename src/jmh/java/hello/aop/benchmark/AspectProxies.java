@@ -0,0 +1,86 @@
+package hello.aop.benchmark;
+
+import hello.aop.pointcut.PointcutCompiler;
+import hello.aop.proxy.AdvisorFusion;
+import hello.aop.proxy.ResidueAdvisorChainFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.InstantiationModelAwarePointcutAdvisor;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+
+/**
+ * 스프링 컨테이너 없이 `@Aspect` 인스턴스를 직접 적용한 프록시를 만든다.
+ * 애스펙트를 넘기지 않으면 프록시 없이 원본 객체를 그대로 돌려준다.
+ */
+public final class AspectProxies {
+
+    private AspectProxies() {
+    }
+
+    public static <T> T proxy(T target, Object... aspects) {
+        return createProxy(target, false, false, aspects);
+    }
+
+    /**
+     * `aop.proxy.fused-advices=true` 처럼 같은 포인트컷의 어드바이스를 {@link AdvisorFusion} 으로 합친다.
+     */
+    public static <T> T fusedProxy(T target, Object... aspects) {
+        return createProxy(target, true, false, aspects);
+    }
+
+    /**
+     * `aop.proxy.compiled-pointcuts=true` 처럼 `@Aspect` 어드바이스의 포인트컷을 {@link PointcutCompiler} 로 컴파일해서 쓰고,
+     * 동적 판단은 {@link ResidueAdvisorChainFactory} 로 줄인다.
+     */
+    public static <T> T compiledProxy(T target, Object... aspects) {
+        return createProxy(target, false, true, aspects);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T createProxy(T target, boolean fused, boolean compiled, Object... aspects) {
+        if (aspects.length == 0) {
+            return target;
+        }
+
+        AspectJProxyFactory factory = factory(target, aspects);
+        if (fused) {
+            AdvisorFusion.fuse(factory);
+        }
+        if (compiled) {
+            compile(factory);
+        }
+        return (T) factory.getProxy();
+    }
+
+    /**
+     * {@link #proxy} 와 같은 설정의 프록시 팩토리. 프록시를 만들기 전에 설정을 바꿀 때 쓴다.
+     */
+    public static AspectJProxyFactory factory(Object target, Object... aspects) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true); // 스프링 부트 기본값과 동일하게 CGLIB 사용
+        for (Object aspect : aspects) {
+            if (aspect instanceof Advisor) {
+                // `@Aspect` 가 아닌 어드바이저(예: AspectV7Light)는 넣은 순서대로 체인에 들어간다.
+                factory.addAdvisor((Advisor) aspect);
+            } else {
+                factory.addAspect(aspect);
+            }
+        }
+        return factory;
+    }
+
+    private static void compile(AspectJProxyFactory factory) {
+        factory.setAdvisorChainFactory(new ResidueAdvisorChainFactory());
+        PointcutCompiler compiler = new PointcutCompiler();
+        Advisor[] advisors = factory.getAdvisors();
+        for (int i = 0; i < advisors.length; i++) {
+            if (advisors[i] instanceof InstantiationModelAwarePointcutAdvisor
+                    && advisors[i].getAdvice() instanceof AbstractAspectJAdvice) {
+                AbstractAspectJAdvice advice = (AbstractAspectJAdvice) advisors[i].getAdvice();
+                factory.replaceAdvisor(advisors[i], new DefaultPointcutAdvisor(compiler.compile(
+                        advice.getPointcut().getExpression(), advice.getAspectJAdviceMethod().getDeclaringClass()), advice));
+            }
+        }
+    }
+}
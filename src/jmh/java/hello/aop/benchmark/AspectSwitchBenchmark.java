@@ -0,0 +1,96 @@
+package hello.aop.benchmark;
+
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV4Pointcut;
+import hello.aop.proxy.AspectSwitches;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.Advised;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AspectSwitches} 로 `AspectV4Pointcut.doLog` 를 켜고 끈 상태의 `OrderService.orderItem` 비용.
+ *
+ * <ul>
+ *     <li>`on`, `off`, `toggled`: 자동 프록시 생성기처럼 프록시를 만들기 전에 설정을 등록한다. 꺼진 어드바이스는 체인에 없으므로
+ *     `off` 는 처음부터 doLog 를 뺀 프록시(`txOnly`)와 같아야 하고, `toggled`(껐다 켠 상태)는 `on` 과 같아야 한다.</li>
+ *     <li>`offGated`: 다 만들어진 프록시를 등록한 경우. 어드바이스를 감싸므로 꺼져 있어도 체인에 한 칸이 남고,
+ *     호출마다 volatile 읽기와 `proceed()` 한 번만큼 `txOnly` 보다 느리다.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AspectSwitchBenchmark {
+
+    private static final String LOG = "AspectV4Pointcut.doLog";
+
+    @Param({"on", "off", "toggled", "txOnly", "offGated"})
+    String state;
+
+    OrderService orderService;
+
+    @Setup
+    public void setUp() {
+        AspectSwitches switches = new AspectSwitches(false, List.of());
+        AspectJProxyFactory repositoryFactory = AspectProxies.factory(new OrderRepository(), new AspectV4Pointcut());
+        OrderRepository orderRepository = repositoryFactory.getProxy();
+        AspectJProxyFactory serviceFactory = AspectProxies.factory(new OrderService(orderRepository), new AspectV4Pointcut());
+        orderService = serviceFactory.getProxy();
+        List<AspectJProxyFactory> factories = List.of(repositoryFactory, serviceFactory);
+
+        switch (state) {
+            case "on":
+                factories.forEach(factory -> switches.register(factory));
+                break;
+            case "off":
+                factories.forEach(factory -> switches.register(factory));
+                switches.setEnabled(LOG, false);
+                break;
+            case "toggled":
+                factories.forEach(factory -> switches.register(factory));
+                switches.setEnabled(LOG, false);
+                switches.setEnabled(LOG, true);
+                break;
+            case "txOnly":
+                // 스위치 없이 처음부터 doLog 를 뺀 프록시
+                for (AspectJProxyFactory factory : factories) {
+                    for (Advisor advisor : factory.getAdvisors()) {
+                        if (LOG.equals(AspectSwitches.switchName(advisor))) {
+                            factory.removeAdvisor(advisor);
+                        }
+                    }
+                }
+                break;
+            case "offGated":
+                switches.register((Advised) orderRepository);
+                switches.register((Advised) orderService);
+                switches.setEnabled(LOG, false);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown state: " + state);
+        }
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+}
@@ -0,0 +1,88 @@
+package hello.aop.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import hello.aop.audit.AuditWriter;
+import hello.aop.benchmark.LoggingAspectBenchmark.NopAppender;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `AspectV6Advice.doReturn` 이 반환값을 남기는 비용. 모든 스레드가 같은 `OrderService` 를 부른다.
+ * <ul>
+ *     <li>log: `[return] ... return={}` 로그 줄. 애스펙트 로거에는 아무것도 하지 않는 appender 만 붙인다.</li>
+ *     <li>audit: {@link AuditWriter} 의 매핑된 세그먼트에 바이너리 레코드를 바로 쓴다.</li>
+ * </ul>
+ * 나머지 어드바이스의 로그는 두 경우 모두 같다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class AuditBenchmark {
+
+    @Param({"log", "audit"})
+    String sink;
+
+    Path dir;
+    AuditWriter writer;
+    OrderService orderService;
+    Logger aspectLogger;
+    NopAppender appender;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("audit-benchmark");
+        writer = "audit".equals(sink) ? new AuditWriter(dir, 64 * 1024 * 1024, 4) : null;
+        orderService = AspectProxies.proxy(new OrderService(new OrderRepository()), new AspectV6Advice(null, null, writer));
+
+        aspectLogger = (Logger) LoggerFactory.getLogger(AspectV6Advice.class);
+        appender = new NopAppender();
+        appender.setContext(aspectLogger.getLoggerContext());
+        appender.start();
+        aspectLogger.addAppender(appender);
+        aspectLogger.setAdditive(false);
+        aspectLogger.setLevel(Level.INFO);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        aspectLogger.detachAppender(appender);
+        aspectLogger.setAdditive(true);
+        aspectLogger.setLevel(null);
+        appender.stop();
+        if (writer != null) {
+            writer.close();
+        }
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+}
@@ -0,0 +1,75 @@
+package hello.aop.benchmark;
+
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV5Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `AspectV5Order` (tx + log) 가 적용된 상태에서 주문 {@value #ITEMS} 건을 하나씩 처리할 때와 `batchSize` 씩 묶어 처리할 때의 처리량.
+ * 결과는 주문 한 건 기준이다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchOrderBenchmark {
+
+    static final int ITEMS = 1000;
+
+    @Param({"10", "100", "1000"})
+    int batchSize;
+
+    OrderService orderService;
+    List<String> itemIds;
+    List<List<String>> batches;
+
+    @Setup
+    public void setUp() {
+        Object[] aspects = {new AspectV5Order.TxAspect(), new AspectV5Order.LogAspect()};
+        OrderRepository orderRepository = AspectProxies.proxy(new OrderRepository(), aspects);
+        orderService = AspectProxies.proxy(new OrderService(orderRepository), aspects);
+
+        itemIds = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            itemIds.add("item" + i);
+        }
+        batches = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i += batchSize) {
+            batches.add(itemIds.subList(i, Math.min(ITEMS, i + batchSize)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void perItem() {
+        for (String itemId : itemIds) {
+            orderService.orderItem(itemId);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void batched() {
+        for (List<String> batch : batches) {
+            orderService.orderItems(batch);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package hello.aop.benchmark;
+
+import hello.aop.cache.TinyLfuCache;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `CachedResultAspect` 가 쓰는 {@link TinyLfuCache} 와 크기 제한 없는 {@link ConcurrentHashMap} 메모이저 비교.
+ * `hit` 은 모든 키가 캐시에 있을 때 조회 한 번의 시간이고, 읽기 기록을 남기는 비용이 차이로 드러난다.
+ * `fill` 은 항목 100만 개를 넣은 뒤 GC 후 늘어난 힙을 항목당 바이트(`bytesPerEntry`)로 보고한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachedResultBenchmark {
+
+    static final int ENTRIES = 1_000_000;
+
+    @Param({"memoizer", "tinyLfu"})
+    String cache;
+
+    @Param({"1000"})
+    int keys;
+
+    Map<Object, Object> memoizer;
+    TinyLfuCache<Object, Object> tinyLfu;
+    String[] itemIds;
+
+    @Setup
+    public void setUp() {
+        itemIds = new String[keys];
+        memoizer = new ConcurrentHashMap<>();
+        tinyLfu = new TinyLfuCache<>(keys, 0);
+        for (int i = 0; i < keys; i++) {
+            itemIds[i] = "item" + i;
+            memoizer.put(itemIds[i], itemIds[i]);
+            tinyLfu.put(itemIds[i], itemIds[i]);
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object hit() {
+        String itemId = itemIds[ThreadLocalRandom.current().nextInt(keys)];
+        return "memoizer".equals(cache) ? memoizer.computeIfAbsent(itemId, key -> key) : tinyLfu.get(itemId);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public Object fill(Heap heap) {
+        long before = heap.usedAfterGc();
+        Object filled;
+        if ("memoizer".equals(cache)) {
+            Map<Object, Object> map = new ConcurrentHashMap<>();
+            for (long i = 0; i < ENTRIES; i++) {
+                map.computeIfAbsent(i, key -> key);
+            }
+            filled = map;
+        } else {
+            TinyLfuCache<Object, Object> map = new TinyLfuCache<>(ENTRIES, 0);
+            for (long i = 0; i < ENTRIES; i++) {
+                Long key = i;
+                if (map.get(key) == null) {
+                    map.put(key, key);
+                }
+            }
+            filled = map;
+        }
+        heap.bytesPerEntry = (heap.usedAfterGc() - before) / ENTRIES;
+        return filled;
+    }
+
+    /**
+     * `fill` 이 잰 항목당 힙 사용량. 키와 값(같은 Long)도 포함한다.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public long bytesPerEntry;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerEntry = 0;
+        }
+
+        long usedAfterGc() {
+            Runtime runtime = Runtime.getRuntime();
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+            }
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
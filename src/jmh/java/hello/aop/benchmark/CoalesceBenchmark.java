@@ -0,0 +1,67 @@
+package hello.aop.benchmark;
+
+import hello.aop.member.annotation.Coalesce;
+import hello.aop.order.aop.CoalesceAspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모든 스레드가 `keys` 개의 키에 몰릴 때 {@link CoalesceAspect} 가 있고 없을 때의 처리량.
+ * 키가 적을수록(핫 키) 합쳐지는 호출이 많아서 처리량이 오르고, 키가 많으면 합칠 게 없어 표 비용만 남는다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoalesceBenchmark {
+
+    @Param({"none", "coalesce"})
+    String aspect;
+
+    @Param({"1", "1000"})
+    int keys;
+
+    Lookup lookup;
+    String[] itemIds;
+
+    @Setup
+    public void setUp() {
+        lookup = "coalesce".equals(aspect) ? AspectProxies.proxy(new Lookup(), new CoalesceAspect())
+                : AspectProxies.proxy(new Lookup());
+        itemIds = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            itemIds[i] = "item" + i;
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String find() {
+        return lookup.find(itemIds[ThreadLocalRandom.current().nextInt(keys)]);
+    }
+
+    public static class Lookup {
+        @Coalesce
+        public String find(String itemId) {
+            // 조회 한 번의 비용 흉내 (수 마이크로초)
+            Blackhole.consumeCPU(10_000);
+            return itemId;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package hello.aop.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import hello.aop.benchmark.LoggingAspectBenchmark.NopAppender;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모든 호출이 실패할 때 `AspectV6Advice` 가 걸린 `OrderService.orderItem("ex")` 의 처리량.
+ * <ul>
+ *     <li>stack: 저장소가 보통 예외를 던지고 `doThrowing` 이 메시지를 로그에 남긴다.</li>
+ *     <li>stackless: `OrderFailureException` 을 던지고 `doThrowing` 은 횟수만 센다.</li>
+ * </ul>
+ * 애스펙트 로거에는 아무것도 하지 않는 appender 만 붙여서, 로그 이벤트까지 만들어지는 경로를 잰다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class ErrorPathBenchmark {
+
+    @Param({"stack", "stackless"})
+    String mode;
+
+    OrderService orderService;
+    Logger aspectLogger;
+    NopAppender appender;
+
+    @Setup
+    public void setUp() {
+        AspectV6Advice aspect = new AspectV6Advice();
+        OrderRepository orderRepository = new OrderRepository(null, "stackless".equals(mode));
+        orderService = AspectProxies.proxy(new OrderService(orderRepository), aspect);
+
+        aspectLogger = (Logger) LoggerFactory.getLogger(AspectV6Advice.class);
+        appender = new NopAppender();
+        appender.setContext(aspectLogger.getLoggerContext());
+        appender.start();
+        aspectLogger.addAppender(appender);
+        aspectLogger.setAdditive(false);
+        aspectLogger.setLevel(Level.INFO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        aspectLogger.detachAppender(appender);
+        aspectLogger.setAdditive(true);
+        aspectLogger.setLevel(null);
+        appender.stop();
+    }
+
+    @Benchmark
+    public Object orderItem() {
+        try {
+            orderService.orderItem("ex");
+            return null;
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package hello.aop.benchmark;
+
+import hello.aop.AopApplication;
+import hello.aop.order.OrderService;
+import hello.aop.proxy.SideEffectFree;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 컨텍스트가 뜬 직후 `OrderService.orderItem` 을 처음 부를 때의 지연. 포크마다 한 번만 재므로 JVM 이 매번 새로 뜬 상태다.
+ * 세 경우 모두 `aop.proxy.warmup` 을 지정해서 같은 자동 프록시 생성기를 쓴다.
+ * <ul>
+ *     <li>off: 첫 호출이 체인 계산과 어드바이스 초기화를 모두 낸다.</li>
+ *     <li>chains: `aop.proxy.warmup=true` 로 체인만 미리 만든다.</li>
+ *     <li>invocations: 메서드마다 합성 호출을 돌려서 어드바이스 코드까지 데운다.</li>
+ * </ul>
+ * 합성 호출은 {@link SideEffectFree} 어드바이스에만 돌기 때문에, 트랜잭션 애스펙트 대신 진행만 하는 {@link ProceedAspect} 를 건다.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class FirstCallBenchmark {
+
+    @Param({"off", "chains", "invocations"})
+    String warmup;
+
+    ConfigurableApplicationContext context;
+    OrderService orderService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AopApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties("logging.level.hello.aop=WARN",
+                        "aop.proxy.warmup=" + !"off".equals(warmup),
+                        "aop.proxy.warmup-invocations=" + ("invocations".equals(warmup) ? 10_000 : 0))
+                .initializers(context -> ((GenericApplicationContext) context)
+                        .registerBean(ProceedAspect.class, ProceedAspect::new))
+                .run();
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+
+    @Aspect
+    @SideEffectFree
+    public static class ProceedAspect {
+
+        @Around("execution(* hello.aop.order..*(..))")
+        public Object proceed(ProceedingJoinPoint joinPoint) throws Throwable {
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package hello.aop.benchmark;
+
+import hello.aop.order.store.OrderStore;
+import hello.aop.tx.FileTransactionLog;
+import hello.aop.tx.Transaction;
+import hello.aop.tx.TransactionLog;
+import hello.aop.tx.TransactionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 쓰기 하나짜리 트랜잭션의 커밋 처리량. `maxBatchSize=1` 은 커밋마다 fsync 하는 경우다.
+ * 스레드 수는 `-t` 로 바꿔 가며 본다. 그룹 커밋이면 스레드가 늘수록 처리량이 같이 늘어야 한다.
+ * `log=store` 는 커밋 로그 대신 {@link OrderStore} 에 쓰고 색인까지 바꾼다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class GroupCommitBenchmark {
+
+    @Param({"1", "256"})
+    int maxBatchSize;
+
+    @Param({"file", "store"})
+    String log;
+
+    Path dir;
+    TransactionManager transactionManager;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("group-commit");
+        TransactionLog transactionLog = "store".equals(log)
+                ? OrderStore.open(dir.resolve("orders"))
+                : new FileTransactionLog(dir.resolve("tx.log"));
+        transactionManager = new TransactionManager(transactionLog, maxBatchSize);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        transactionManager.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Transaction commit() {
+        Transaction transaction = transactionManager.begin();
+        transaction.write("itemA");
+        transactionManager.commit(transaction);
+        return transaction;
+    }
+}
@@ -0,0 +1,83 @@
+package hello.aop.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV1;
+import hello.aop.order.aop.FastLogAspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `AspectV1` 과 `FastLogAspect` 의 `OrderService.orderItem` 호출당 비용과 할당량(gc.alloc.rate.norm)을 비교한다.
+ * `level=INFO` 에서는 애스펙트 로거에 아무것도 하지 않는 appender 만 붙여서, 로그 이벤트까지 만들어지는 경로를 잰다.
+ * 이때 남는 할당은 logback 이 만드는 `LoggingEvent` 몫이다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingAspectBenchmark {
+
+    @Param({"V1", "FastLog"})
+    String aspect;
+
+    @Param({"WARN", "INFO"})
+    String level;
+
+    OrderService orderService;
+    Logger aspectLogger;
+    NopAppender appender;
+
+    @Setup
+    public void setUp() {
+        Object logAspect = "V1".equals(aspect) ? new AspectV1() : new FastLogAspect();
+        OrderRepository orderRepository = AspectProxies.proxy(new OrderRepository(), logAspect);
+        orderService = AspectProxies.proxy(new OrderService(orderRepository), logAspect);
+
+        aspectLogger = (Logger) LoggerFactory.getLogger(logAspect.getClass());
+        appender = new NopAppender();
+        appender.setContext(aspectLogger.getLoggerContext());
+        appender.start();
+        aspectLogger.addAppender(appender);
+        aspectLogger.setAdditive(false);
+        aspectLogger.setLevel(Level.toLevel(level));
+    }
+
+    @TearDown
+    public void tearDown() {
+        aspectLogger.detachAppender(appender);
+        aspectLogger.setAdditive(true);
+        aspectLogger.setLevel(null);
+        appender.stop();
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+
+    static class NopAppender extends AppenderBase<ILoggingEvent> {
+        @Override
+        protected void append(ILoggingEvent event) {
+        }
+    }
+}
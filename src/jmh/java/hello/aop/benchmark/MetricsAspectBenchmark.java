@@ -0,0 +1,62 @@
+package hello.aop.benchmark;
+
+import hello.aop.metrics.LatencyHistogram;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.MetricsAspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `MetricsAspect` 를 `OrderService` 에만 적용했을 때와 프록시 없는 `OrderService` 의 `orderItem` 비용 차이.
+ * `record` 는 히스토그램 기록만 잰다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsAspectBenchmark {
+
+    @Param({"none", "Metrics"})
+    String aspect;
+
+    OrderService orderService;
+    LatencyHistogram histogram = new LatencyHistogram();
+    long value;
+
+    @Setup
+    public void setUp() {
+        OrderService target = new OrderService(new OrderRepository());
+        orderService = "Metrics".equals(aspect) ? AspectProxies.proxy(target, new MetricsAspect()) : target;
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void orderItemConcurrent() {
+        orderService.orderItem("itemA");
+    }
+
+    @Benchmark
+    public void record() {
+        histogram.record(value++ & 0xFFFFF);
+    }
+}
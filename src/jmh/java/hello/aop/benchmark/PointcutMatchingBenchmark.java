@@ -0,0 +1,66 @@
+package hello.aop.benchmark;
+
+import hello.aop.member.MemberServiceImpl;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.Pointcuts;
+import hello.aop.pointcut.PointcutCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.AopUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 프록시 생성 시 하는 일(새 포인트컷으로 빈 클래스에 적용 가능한지 판단)을 AspectJ 해석 방식과 컴파일 방식으로 비교한다.
+ * AspectJ 는 메서드별 shadow 매칭 결과를 포인트컷 인스턴스에 캐시하므로 매번 새 포인트컷을 만든다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PointcutMatchingBenchmark {
+
+    @Param({"hello.aop.order.aop.Pointcuts.allOrder()", "hello.aop.order.aop.Pointcuts.orderAndService()",
+            "within(hello.aop.member.*Service*)", "args(String, ..)"})
+    String expression;
+
+    final PointcutCompiler compiler = new PointcutCompiler();
+    final List<Class<?>> beanClasses = List.of(OrderService.class, OrderRepository.class, MemberServiceImpl.class);
+
+    @Benchmark
+    public int aspectJ() {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setPointcutDeclarationScope(Pointcuts.class);
+        pointcut.setExpression(expression);
+        return canApply(pointcut);
+    }
+
+    @Benchmark
+    public int compiled() {
+        return canApply(compiler.compile(expression, Pointcuts.class));
+    }
+
+    private int canApply(Pointcut pointcut) {
+        int matched = 0;
+        for (Class<?> beanClass : beanClasses) {
+            if (AopUtils.canApply(pointcut, beanClass)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,118 @@
+package hello.aop.benchmark;
+
+import hello.aop.limit.KeyedTokenBuckets;
+import hello.aop.limit.TokenBucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 토큰 버킷 허가 처리량을 스레드 수별로 잰다. `./gradlew jmh -Pjmh.includes=RateLimit` 후 threads 를 바꿔 가며 비교한다.
+ * <ul>
+ *     <li>synchronized: 락으로 토큰 수를 세는 버킷. 비교 기준이다.</li>
+ *     <li>global: {@link TokenBucket} 하나를 모든 스레드가 쓴다. 락은 없지만 CAS 대상 하나를 다툰다.</li>
+ *     <li>perKey: {@link KeyedTokenBuckets} 에서 itemId 1,000개에 나눠 쓴다. 키끼리는 다투지 않는다.</li>
+ *     <li>rejecting: 한도를 넘은 global 버킷. 거절은 읽기만 해서 캐시 라인을 뺏지 않는다.</li>
+ * </ul>
+ * 허가 경로를 재려고 한도는 사실상 무제한으로 둔다 (rejecting 제외).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    static final double UNLIMITED = 1e9;
+    static final int KEYS = 1_000;
+
+    @Param({"synchronized", "global", "perKey", "rejecting"})
+    String bucket;
+
+    TokenBucket global;
+    KeyedTokenBuckets perKey;
+    SynchronizedBucket locked;
+    String[] keys;
+
+    @Setup
+    public void setUp() {
+        long now = System.nanoTime();
+        global = new TokenBucket("rejecting".equals(bucket) ? 1 : UNLIMITED, 1, now);
+        perKey = new KeyedTokenBuckets(UNLIMITED, 1, KEYS * 2, TimeUnit.MINUTES.toNanos(1), now);
+        locked = new SynchronizedBucket(UNLIMITED, now);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "item" + i;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean acquire1() {
+        return acquire();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean acquire4() {
+        return acquire();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean acquireMax() {
+        return acquire();
+    }
+
+    private boolean acquire() {
+        long now = System.nanoTime();
+        switch (bucket) {
+            case "synchronized":
+                return locked.tryAcquire(now);
+            case "perKey":
+                return perKey.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEYS)], now);
+            default:
+                return global.tryAcquire(now);
+        }
+    }
+
+    /**
+     * 흔한 구현: 토큰 수와 마지막 충전 시각을 락 안에서 갱신한다.
+     */
+    static class SynchronizedBucket {
+        private final double permitsPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+
+        SynchronizedBucket(double permitsPerSecond, long now) {
+            this.permitsPerNano = permitsPerSecond / 1e9;
+            this.capacity = permitsPerSecond;
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+            refilledAt = Math.max(refilledAt, now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package hello.aop.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV1;
+import hello.aop.order.aop.SampledLogAspect;
+import hello.aop.sampling.SamplingPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모든 호출을 남기는 `AspectV1` 과 {@link SampledLogAspect} 의 비율별 `OrderService.orderItem` 비용.
+ * 로그는 INFO 로 켜고 아무것도 하지 않는 appender 에 보내서, 로그 이벤트를 만드는 비용까지 넣는다.
+ * `sampled-0` 이 고르지 않은 호출의 비용(난수 하나)이다. 여러 스레드에서도 재서 난수 경합이 없는지 본다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SamplingBenchmark {
+
+    @Param({"V1", "sampled-1", "sampled-0.01", "sampled-0"})
+    String mode;
+
+    OrderService orderService;
+    Logger aspectLogger;
+    LoggingAspectBenchmark.NopAppender appender;
+
+    @Setup
+    public void setUp() {
+        Object logAspect;
+        Class<?> loggerClass;
+        if ("V1".equals(mode)) {
+            logAspect = new AspectV1();
+            loggerClass = AspectV1.class;
+        } else {
+            double rate = Double.parseDouble(mode.substring("sampled-".length()));
+            logAspect = SampledLogAspect.advisor(new SamplingPolicy(Collections.emptyList(), rate, true));
+            loggerClass = SampledLogAspect.class;
+        }
+        OrderRepository orderRepository = AspectProxies.proxy(new OrderRepository(), logAspect);
+        orderService = AspectProxies.proxy(new OrderService(orderRepository), logAspect);
+
+        aspectLogger = (Logger) LoggerFactory.getLogger(loggerClass);
+        appender = new LoggingAspectBenchmark.NopAppender();
+        appender.setContext(aspectLogger.getLoggerContext());
+        appender.start();
+        aspectLogger.addAppender(appender);
+        aspectLogger.setAdditive(false);
+        aspectLogger.setLevel(Level.INFO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        aspectLogger.detachAppender(appender);
+        aspectLogger.setAdditive(true);
+        aspectLogger.setLevel(null);
+        appender.stop();
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void orderItemConcurrent() {
+        orderService.orderItem("itemA");
+    }
+}
@@ -0,0 +1,60 @@
+package hello.aop.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 빈이 수천 개인 `AopApplication` 컨텍스트의 시작 시간.
+ * `mode` 로 프록시 생성 시 포인트컷 매칭 방식을 바꾼다. `parallel` 은 모든 빈 클래스를 fork-join 풀에서 미리 매칭한다.
+ * `classes=distinct` 면 빈마다 클래스가 달라서 매칭할 클래스가 빈 수만큼 있고, `copies` 면 같은 클래스의 빈을 여러 벌 등록한다.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"1000"})
+    int copies;
+
+    @Param({"aspectj", "index", "parallel"})
+    String mode;
+
+    @Param({"copies", "distinct"})
+    String classes;
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        try (ConfigurableApplicationContext context = "distinct".equals(classes)
+                ? SyntheticContexts.startDistinct(copies * 3, properties())
+                : SyntheticContexts.start(copies, properties())) {
+            return context;
+        }
+    }
+
+    private String[] properties() {
+        switch (mode) {
+            case "aspectj":
+                return new String[0];
+            case "index":
+                return new String[]{"aop.proxy.pointcut-index=true"};
+            case "parallel":
+                return new String[]{"aop.proxy.parallel-matching=true"};
+            default:
+                throw new IllegalArgumentException("unknown mode: " + mode);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package hello.aop.benchmark;
+
+import hello.aop.AopApplication;
+import hello.aop.member.MemberServiceImpl;
+import hello.aop.member.annotation.ClassAop;
+import hello.aop.member.annotation.MethodAop;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV5Order;
+import hello.aop.order.aop.AspectV6Advice;
+import hello.aop.order.aop.MethodAopAspect;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.DefaultResourceLoader;
+
+/**
+ * `AopApplication` 에 빈을 수천 개 더 등록해서 띄운다. 시작 시간 벤치마크에서 함께 쓴다.
+ * 추가한 빈은 기존 빈의 의존관계 주입에 끼어들지 않도록 autowire 후보에서 뺀다.
+ *
+ * <ul>
+ *     <li>{@link #start}: 기존 클래스의 빈을 이름만 바꿔서 여러 벌 등록한다. 클래스는 몇 개뿐이다.</li>
+ *     <li>{@link #startDistinct}: 빈마다 클래스가 다르다. `hello.aop.order.synthetic.SyntheticService{n}` 을 만들어서
+ *     `@ClassAop` 을 붙이고, 메서드 {@value #METHODS} 개 중 하나에 `@MethodAop` 을 붙인다. `Pointcuts`, `@within(ClassAop)`,
+ *     `@annotation(MethodAop)` 애스펙트가 모두 걸린다.</li>
+ * </ul>
+ */
+public final class SyntheticContexts {
+
+    private SyntheticContexts() {
+    }
+
+    public static ConfigurableApplicationContext start(int copies, String... properties) {
+        return new SpringApplicationBuilder(AopApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties(properties)
+                .initializers(context -> register((GenericApplicationContext) context, copies))
+                .run();
+    }
+
+    public static ConfigurableApplicationContext startDistinct(int classes, String... properties) {
+        SyntheticClassLoader classLoader = new SyntheticClassLoader(SyntheticContexts.class.getClassLoader());
+        return new SpringApplicationBuilder(AopApplication.class)
+                .resourceLoader(new DefaultResourceLoader(classLoader))
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties(properties)
+                .initializers(context -> registerDistinct((GenericApplicationContext) context, classLoader, classes))
+                .run();
+    }
+
+    private static void register(GenericApplicationContext context, int copies) {
+        context.registerBean(AspectV5Order.LogAspect.class);
+        context.registerBean(AspectV5Order.TxAspect.class);
+        context.registerBean(AspectV6Advice.class);
+
+        for (int i = 0; i < copies; i++) {
+            context.registerBean("syntheticOrderRepository" + i, OrderRepository.class,
+                    definition -> definition.setAutowireCandidate(false));
+            context.registerBean("syntheticOrderService" + i, OrderService.class,
+                    () -> new OrderService(new OrderRepository()),
+                    definition -> definition.setAutowireCandidate(false));
+            context.registerBean("syntheticMemberService" + i, MemberServiceImpl.class,
+                    definition -> definition.setAutowireCandidate(false));
+        }
+    }
+
+    private static final int METHODS = 8;
+
+    private static void registerDistinct(GenericApplicationContext context, SyntheticClassLoader classLoader, int classes) {
+        context.registerBean(AspectV5Order.LogAspect.class);
+        context.registerBean(AspectV5Order.TxAspect.class);
+        context.registerBean(AspectV6Advice.class);
+        context.registerBean(MethodAopAspect.class);
+        context.registerBean(WithinClassAopAspect.class);
+
+        for (int i = 0; i < classes; i++) {
+            Class<?> beanClass = classLoader.define(i);
+            context.registerBean("syntheticService" + i, beanClass, definition -> definition.setAutowireCandidate(false));
+        }
+    }
+
+    @Aspect
+    public static class WithinClassAopAspect {
+        @Around("@within(hello.aop.member.annotation.ClassAop)")
+        public Object doWithin(ProceedingJoinPoint joinPoint) throws Throwable {
+            return joinPoint.proceed();
+        }
+    }
+
+    /**
+     * <pre>
+     * &#64;ClassAop
+     * public class SyntheticService{n} {
+     *     &#64;MethodAop("synthetic") public String call0(String value) { return value; }
+     *     public String call1(String value) { return value; }
+     *     ...
+     * }
+     * </pre>
+     * 컨텍스트의 클래스 로더로 써서 CGLIB 프록시 클래스도 여기에 정의되게 한다.
+     */
+    static final class SyntheticClassLoader extends ClassLoader {
+
+        SyntheticClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(int n) {
+            String name = "hello/aop/order/synthetic/SyntheticService" + n;
+            ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, "java/lang/Object", null);
+            writer.visitAnnotation(Type.getDescriptor(ClassAop.class), true).visitEnd();
+
+            MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+            constructor.visitCode();
+            constructor.visitVarInsn(Opcodes.ALOAD, 0);
+            constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+            constructor.visitInsn(Opcodes.RETURN);
+            constructor.visitMaxs(0, 0);
+            constructor.visitEnd();
+
+            for (int m = 0; m < METHODS; m++) {
+                MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "call" + m,
+                        "(Ljava/lang/String;)Ljava/lang/String;", null, null);
+                if (m == 0) {
+                    AnnotationVisitor methodAop = method.visitAnnotation(Type.getDescriptor(MethodAop.class), true);
+                    methodAop.visit("value", "synthetic");
+                    methodAop.visitEnd();
+                }
+                method.visitCode();
+                method.visitVarInsn(Opcodes.ALOAD, 1);
+                method.visitInsn(Opcodes.ARETURN);
+                method.visitMaxs(0, 0);
+                method.visitEnd();
+            }
+            writer.visitEnd();
+
+            byte[] bytes = writer.toByteArray();
+            return defineClass(name.replace('/', '.'), bytes, 0, bytes.length);
+        }
+    }
+}
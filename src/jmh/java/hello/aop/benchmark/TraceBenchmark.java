@@ -0,0 +1,79 @@
+package hello.aop.benchmark;
+
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.TraceAspect;
+import hello.aop.sampling.Sampler;
+import hello.aop.trace.SpanWriter;
+import hello.aop.trace.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TraceAspect} 를 건 `OrderService.orderItem` 의 호출당 비용과 할당량. 호출 하나가 스팬 두 개다.
+ * `rate=0` 은 트레이스 문맥만 쌓고 쓰지 않는 경우, `rate=1` 은 모든 스팬을 파일에 쓰는 경우다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraceBenchmark {
+
+    @Param({"none", "0", "0.01", "1"})
+    String rate;
+
+    OrderService orderService;
+    Tracer tracer;
+    Path dir;
+
+    @Setup
+    public void setUp() throws IOException {
+        if ("none".equals(rate)) {
+            orderService = new OrderService(new OrderRepository());
+            return;
+        }
+        dir = Files.createTempDirectory("trace-bench");
+        tracer = new Tracer(new SpanWriter(dir, 64L << 20, 4, Duration.ofSeconds(1)), Sampler.of(Double.parseDouble(rate)));
+        OrderRepository orderRepository = AspectProxies.proxy(new OrderRepository(), TraceAspect.advisor(tracer));
+        orderService = AspectProxies.proxy(new OrderService(orderRepository), TraceAspect.advisor(tracer));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (tracer != null) {
+            tracer.close();
+            FileSystemUtils.deleteRecursively(dir);
+        }
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void orderItemConcurrent() {
+        orderService.orderItem("itemA");
+    }
+}
@@ -0,0 +1,90 @@
+package hello.aop.benchmark;
+
+import hello.aop.AopApplication;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV5Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `AspectV5Order` 를 프록시로 적용할 때와 AspectJ 로드 타임 위빙으로 적용할 때의 호출 비용과 시작 시간.
+ * 모드는 JVM 단위로 정해지므로 두 번 돌려 비교한다.
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=Weaving
+ * ./gradlew jmh -Pjmh.includes=Weaving -Pweaving=ltw
+ * </pre>
+ * 두 모드 모두 트랜잭션 매니저 없이 로그만 남기는 애스펙트를 쓴다.
+ */
+@Fork(1)
+public class WeavingBenchmark {
+
+    static final boolean WOVEN = "ltw".equals(System.getProperty("aop.weaving"));
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(AopApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties("spring.aop.auto=" + !WOVEN)
+                .initializers(context -> {
+                    if (!WOVEN) {
+                        // 위빙된 애스펙트처럼 기본 생성자로 만든다.
+                        GenericApplicationContext generic = (GenericApplicationContext) context;
+                        generic.registerBean(AspectV5Order.TxAspect.class, AspectV5Order.TxAspect::new);
+                        generic.registerBean(AspectV5Order.LogAspect.class, AspectV5Order.LogAspect::new);
+                    }
+                })
+                .run();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Context {
+        ConfigurableApplicationContext context;
+        OrderService orderService;
+
+        @Setup
+        public void setUp() {
+            context = start();
+            orderService = context.getBean(OrderService.class);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public void orderItem(Context context) {
+        context.orderService.orderItem("itemA");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public void startup() {
+        start().close();
+    }
+}
@@ -0,0 +1,43 @@
+package hello.aop.advice;
+
+import org.aopalliance.intercept.Joinpoint;
+
+/**
+ * `ProceedingJoinPoint` 없이 쓰는 가벼운 around 어드바이스.
+ * 조인 포인트 객체, 시그니처 객체, 인자 배열 복사본을 만들지 않고, 선언한 것만 받는다.
+ * <ul>
+ *     <li>methodId: {@link MethodIds} 의 아이디. 시그니처 문자열은 {@link MethodIds#signature(int)}</li>
+ *     <li>target: 프록시 대상 객체</li>
+ *     <li>arg: {@link LightAdviceInterceptor} 에 지정한 위치의 인자. 지정하지 않았거나 인자가 모자라면 null</li>
+ *     <li>chain: 다음 어드바이스나 대상 메서드. {@code chain.proceed()} 만 부른다.</li>
+ * </ul>
+ * 인자를 두 개 받으려면 {@link Binary}, 셋 이상이거나 개수가 메서드마다 다르면 {@link Spread} 를 쓴다.
+ *
+ * <p>기본형 전용 콜백은 두지 않는다. 스프링 프록시는 체인을 부르기 전에 인자를 `MethodInvocation` 의 `Object[]` 에
+ * 박싱해서 넣으므로, `int` 로 받아도 그 래퍼를 언박싱하는 일만 늘어난다. 래퍼 타입(`Integer` 등)으로 받으면 추가 할당이 없다.</p>
+ *
+ * @param <A> 받을 인자의 타입
+ */
+@FunctionalInterface
+public interface LightAdvice<A> {
+
+    Object around(int methodId, Object target, A arg, Joinpoint chain) throws Throwable;
+
+    /**
+     * 지정한 두 위치의 인자를 받는다. 지정하지 않았거나 인자가 모자라면 null
+     */
+    @FunctionalInterface
+    interface Binary<A, B> {
+
+        Object around(int methodId, Object target, A first, B second, Joinpoint chain) throws Throwable;
+    }
+
+    /**
+     * 프록시가 가진 인자 배열을 복사하지 않고 받는다. 대상 메서드에 그대로 넘어가는 배열이므로 바꾸지 않는다.
+     */
+    @FunctionalInterface
+    interface Spread {
+
+        Object around(int methodId, Object target, Object[] args, Joinpoint chain) throws Throwable;
+    }
+}
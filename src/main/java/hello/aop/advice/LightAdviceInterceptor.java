@@ -0,0 +1,110 @@
+package hello.aop.advice;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+
+/**
+ * {@link LightAdvice} 를 스프링 AOP 체인에 끼운다. {@link LightAdvice.Binary}, {@link LightAdvice.Spread} 는 안쪽 클래스가 맡는다.
+ * 현재 {@link MethodInvocation} 에서 메서드, 대상, 인자를 꺼내 그대로 넘긴다. 인자 배열은 복사하지 않는다.
+ */
+public class LightAdviceInterceptor implements MethodInterceptor {
+
+    /** 인자를 받지 않는다. */
+    public static final int NO_ARG = -1;
+
+    private final LightAdvice<Object> advice;
+    private final int argIndex;
+
+    @SuppressWarnings("unchecked")
+    public LightAdviceInterceptor(LightAdvice<?> advice, int argIndex) {
+        this.advice = (LightAdvice<Object>) advice;
+        this.argIndex = argIndex;
+    }
+
+    /**
+     * `@Around(expression)` + `@Order(order)` 애스펙트와 같은 자리에 들어가는 어드바이저를 만든다.
+     */
+    public static Advisor advisor(String expression, int order, LightAdvice<?> advice, int argIndex) {
+        return pointcutAdvisor(expression, order, new LightAdviceInterceptor(advice, argIndex));
+    }
+
+    /**
+     * 인자 두 개를 받는 {@link LightAdvice.Binary} 의 어드바이저
+     */
+    public static Advisor advisor(String expression, int order, LightAdvice.Binary<?, ?> advice,
+                                  int firstIndex, int secondIndex) {
+        return pointcutAdvisor(expression, order, new BinaryInterceptor(advice, firstIndex, secondIndex));
+    }
+
+    /**
+     * 인자 배열을 받는 {@link LightAdvice.Spread} 의 어드바이저
+     */
+    public static Advisor advisor(String expression, int order, LightAdvice.Spread advice) {
+        return pointcutAdvisor(expression, order, new SpreadInterceptor(advice));
+    }
+
+    private static Advisor pointcutAdvisor(String expression, int order, MethodInterceptor interceptor) {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(expression);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+        advisor.setOrder(order);
+        return advisor;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object arg = argument(invocation.getArguments(), argIndex);
+        return advice.around(MethodIds.id(invocation.getMethod()), invocation.getThis(), arg, invocation);
+    }
+
+    public LightAdvice<?> getAdvice() {
+        return advice;
+    }
+
+    public int getArgIndex() {
+        return argIndex;
+    }
+
+    private static Object argument(Object[] args, int index) {
+        return index >= 0 && index < args.length ? args[index] : null;
+    }
+
+    static final class BinaryInterceptor implements MethodInterceptor {
+
+        private final LightAdvice.Binary<Object, Object> advice;
+        private final int firstIndex;
+        private final int secondIndex;
+
+        @SuppressWarnings("unchecked")
+        BinaryInterceptor(LightAdvice.Binary<?, ?> advice, int firstIndex, int secondIndex) {
+            this.advice = (LightAdvice.Binary<Object, Object>) advice;
+            this.firstIndex = firstIndex;
+            this.secondIndex = secondIndex;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object[] args = invocation.getArguments();
+            return advice.around(MethodIds.id(invocation.getMethod()), invocation.getThis(),
+                    argument(args, firstIndex), argument(args, secondIndex), invocation);
+        }
+    }
+
+    static final class SpreadInterceptor implements MethodInterceptor {
+
+        private final LightAdvice.Spread advice;
+
+        SpreadInterceptor(LightAdvice.Spread advice) {
+            this.advice = advice;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            return advice.around(MethodIds.id(invocation.getMethod()), invocation.getThis(),
+                    invocation.getArguments(), invocation);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package hello.aop.advice;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link Method} 에 0 부터 차례로 int 아이디를 붙인다. 가벼운 어드바이스는 메서드를 이 아이디로 받는다.
+ * 처음 보는 메서드만 등록(락)하고, 이후 조회는 맵 조회 한 번이라 할당이 없다.
+ */
+public final class MethodIds {
+
+    private static final ConcurrentMap<Method, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile Method[] methods = new Method[64];
+    private static volatile String[] signatures = new String[64];
+    private static int next;
+
+    private MethodIds() {
+    }
+
+    public static int id(Method method) {
+        Integer id = ids.get(method);
+        return id != null ? id : register(method);
+    }
+
+    public static Method method(int id) {
+        return methods[id];
+    }
+
+    /**
+     * `joinPoint.getSignature()` 의 출력과 같은 형식. 예) `String hello.aop.order.OrderRepository.save(String)`
+     */
+    public static String signature(int id) {
+        return signatures[id];
+    }
+
+    private static synchronized int register(Method method) {
+        Integer existing = ids.get(method);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = next++;
+        if (id == methods.length) {
+            // 조회 쪽이 새 아이디를 보기 전에 배열부터 채워 둔다.
+            signatures = Arrays.copyOf(signatures, id * 2);
+            methods = Arrays.copyOf(methods, id * 2);
+        }
+        signatures[id] = signature(method);
+        methods[id] = method;
+        // 배열을 채운 뒤에 맵에 넣는다. 맵에서 아이디를 받은 스레드는 채워진 칸을 본다.
+        ids.put(method, id);
+        return id;
+    }
+
+    /**
+     * {@link #signature(int)} 와 같은 형식. 아이디를 붙이지 않는다.
+     */
+    public static String signature(Method method) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(method.getReturnType().getSimpleName()).append(' ')
+                .append(method.getDeclaringClass().getName()).append('.');
+        return appendName(sb, method, false).toString();
+    }
+
+    /**
+     * 시그니처에서 반환 타입과 클래스를 뺀 것. 예) `save(String)`
+     */
+    public static String name(Method method) {
+        return appendName(new StringBuilder(), method, false).toString();
+    }
+
+    /**
+     * 파라미터 타입을 패키지까지 쓴 이름. 이름이 같은 타입의 오버로드도 구분한다. 예) `save(java.lang.String)`
+     */
+    public static String qualifiedName(Method method) {
+        return appendName(new StringBuilder(), method, true).toString();
+    }
+
+    private static StringBuilder appendName(StringBuilder sb, Method method, boolean qualified) {
+        sb.append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(qualified ? parameterTypes[i].getTypeName() : parameterTypes[i].getSimpleName());
+        }
+        return sb.append(')');
+    }
+}
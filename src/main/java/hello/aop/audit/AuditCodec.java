@@ -0,0 +1,186 @@
+package hello.aop.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 감사 레코드의 인수와 반환값 인코딩. 쓰는 쪽은 크기를 먼저 구하고 매핑의 절대 위치에 바로 쓰므로 중간 버퍼나 문자열을 만들지 않는다.
+ *
+ * <pre>
+ * NULL:    [0]
+ * BOOLEAN: [1][byte]
+ * INT:     [2][int]       (Byte, Short 도)
+ * LONG:    [3][long]
+ * DOUBLE:  [4][double]    (Float 도)
+ * STRING:  [5][len short][utf-8]   (MAX_TEXT 바이트에서 자른다)
+ * OTHER:   [6][len short][클래스 이름 utf-8]   (toString 을 부르지 않는다)
+ * </pre>
+ */
+final class AuditCodec {
+
+    static final byte NULL = 0;
+    static final byte BOOLEAN = 1;
+    static final byte INT = 2;
+    static final byte LONG = 3;
+    static final byte DOUBLE = 4;
+    static final byte STRING = 5;
+    static final byte OTHER = 6;
+
+    static final int MAX_TEXT = 1024;
+
+    private AuditCodec() {
+    }
+
+    static int size(Object value) {
+        if (value == null) {
+            return 1;
+        }
+        if (value instanceof Boolean) {
+            return 1 + 1;
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return 1 + 4;
+        }
+        if (value instanceof Long || value instanceof Double || value instanceof Float) {
+            return 1 + 8;
+        }
+        return 1 + 2 + utf8Length(text(value));
+    }
+
+    /**
+     * @return 다음 위치
+     */
+    static int put(ByteBuffer buffer, int index, Object value) {
+        if (value == null) {
+            buffer.put(index, NULL);
+            return index + 1;
+        }
+        if (value instanceof Boolean) {
+            buffer.put(index, BOOLEAN).put(index + 1, (byte) ((Boolean) value ? 1 : 0));
+            return index + 2;
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            buffer.put(index, INT).putInt(index + 1, ((Number) value).intValue());
+            return index + 5;
+        }
+        if (value instanceof Long) {
+            buffer.put(index, LONG).putLong(index + 1, (Long) value);
+            return index + 9;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            buffer.put(index, DOUBLE).putDouble(index + 1, ((Number) value).doubleValue());
+            return index + 9;
+        }
+        buffer.put(index, value instanceof String ? STRING : OTHER);
+        return putText(buffer, index + 1, text(value));
+    }
+
+    static Object get(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case INT:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case STRING:
+                return getText(buffer);
+            case OTHER:
+                return "<" + getText(buffer) + ">";
+            default:
+                throw new IllegalArgumentException("unknown value tag " + tag + " at " + (buffer.position() - 1));
+        }
+    }
+
+    static int textSize(String text) {
+        return 2 + utf8Length(text);
+    }
+
+    /**
+     * `[len short][utf-8]` 을 쓴다.
+     *
+     * @return 다음 위치
+     */
+    static int putText(ByteBuffer buffer, int index, String text) {
+        int start = index + 2;
+        int position = start;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int codePoint = c;
+            if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, text.charAt(++i));
+            } else if (Character.isSurrogate(c)) {
+                codePoint = '?';
+            }
+            int length = utf8Length(codePoint);
+            if (position - start + length > MAX_TEXT) {
+                break;
+            }
+            if (length == 1) {
+                buffer.put(position, (byte) codePoint);
+            } else if (length == 2) {
+                buffer.put(position, (byte) (0xc0 | codePoint >> 6))
+                        .put(position + 1, (byte) (0x80 | codePoint & 0x3f));
+            } else if (length == 3) {
+                buffer.put(position, (byte) (0xe0 | codePoint >> 12))
+                        .put(position + 1, (byte) (0x80 | codePoint >> 6 & 0x3f))
+                        .put(position + 2, (byte) (0x80 | codePoint & 0x3f));
+            } else {
+                buffer.put(position, (byte) (0xf0 | codePoint >> 18))
+                        .put(position + 1, (byte) (0x80 | codePoint >> 12 & 0x3f))
+                        .put(position + 2, (byte) (0x80 | codePoint >> 6 & 0x3f))
+                        .put(position + 3, (byte) (0x80 | codePoint & 0x3f));
+            }
+            position += length;
+        }
+        buffer.putShort(index, (short) (position - start));
+        return position;
+    }
+
+    static String getText(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String text(Object value) {
+        return value instanceof String ? (String) value : value.getClass().getName();
+    }
+
+    /**
+     * {@link #putText} 가 쓰는 바이트 수. 같은 규칙으로 자른다.
+     */
+    private static int utf8Length(String text) {
+        int total = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int length;
+            if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length = 4;
+                i++;
+            } else {
+                length = Character.isSurrogate(c) ? 1 : utf8Length((int) c);
+            }
+            if (total + length > MAX_TEXT) {
+                break;
+            }
+            total += length;
+        }
+        return total;
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+}
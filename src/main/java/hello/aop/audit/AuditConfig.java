@@ -0,0 +1,40 @@
+package hello.aop.audit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * `aop.audit.enabled=true` 이면 {@link AuditWriter} 를 등록한다. `AspectV6Advice.doReturn` 은 있으면 로그 대신 여기로 남긴다.
+ *
+ * <pre>
+ * aop.audit.dir=/tmp/hello-aop/audit   # 감사 파일 디렉터리
+ * aop.audit.segment-size=16MB          # 세그먼트 하나를 이 크기로 매핑한다
+ * aop.audit.max-files=8                # 남겨 둘 파일 수
+ * aop.audit.force-interval=1s          # 지금 세그먼트를 디스크로 내리는 주기, 0 이면 교체할 때만
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(name = "aop.audit.enabled", havingValue = "true")
+public class AuditConfig {
+
+    @Bean
+    public AuditWriter auditWriter(
+            @Value("${aop.audit.dir:${java.io.tmpdir}/hello-aop/audit}") String dir,
+            @Value("${aop.audit.segment-size:16MB}") DataSize segmentSize,
+            @Value("${aop.audit.max-files:8}") int maxFiles,
+            @Value("${aop.audit.force-interval:1s}") Duration forceInterval) {
+        try {
+            return new AuditWriter(Paths.get(dir), segmentSize.toBytes(), maxFiles, forceInterval);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
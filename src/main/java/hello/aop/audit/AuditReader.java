@@ -0,0 +1,152 @@
+package hello.aop.audit;
+
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * {@link AuditWriter} 가 쓴 세그먼트를 읽는다. 레코드는 세그먼트 안에서 예약한 순서대로 나온다.
+ * 쓰는 중인 레코드(음수 길이)는 건너뛰고, 길이가 0 인 곳(비어 있는 나머지)이나 END 에서 그 파일을 끝낸다.
+ *
+ * <pre>AuditReader &lt;감사 파일 또는 디렉터리&gt; [--method=시그니처 일부] [--from=ISO-8601] [--to=ISO-8601]</pre>
+ */
+public final class AuditReader {
+
+    private AuditReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException(
+                    "usage: AuditReader <audit-file-or-dir> [--method=<signature-part>] [--from=<instant>] [--to=<instant>]");
+        }
+        Predicate<AuditRecord> filter = record -> true;
+        for (int i = 1; i < args.length; i++) {
+            filter = filter.and(option(args[i]));
+        }
+        Path path = Paths.get(args[0]);
+        for (AuditRecord record : Files.isDirectory(path) ? readDirectory(path) : read(path)) {
+            if (filter.test(record)) {
+                System.out.println(record);
+            }
+        }
+    }
+
+    static Predicate<AuditRecord> option(String arg) {
+        int eq = arg.indexOf('=');
+        String name = eq > 0 ? arg.substring(0, eq) : arg;
+        String value = eq > 0 ? arg.substring(eq + 1) : "";
+        switch (name) {
+            case "--method":
+                return record -> record.getSignature().contains(value);
+            case "--from":
+                long from = epochNanos(Instant.parse(value));
+                return record -> record.getEpochNanos() >= from;
+            case "--to":
+                long to = epochNanos(Instant.parse(value));
+                return record -> record.getEpochNanos() < to;
+            default:
+                throw new IllegalArgumentException("unknown option " + arg);
+        }
+    }
+
+    /**
+     * 디렉터리의 감사 파일을 오래된 것부터 읽는다.
+     */
+    public static List<AuditRecord> readDirectory(Path dir) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Path file : AuditWriter.files(dir)) {
+            records.addAll(read(file));
+        }
+        return records;
+    }
+
+    public static List<AuditRecord> read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        List<AuditRecord> records = new ArrayList<>();
+        if (buffer.remaining() < AuditWriter.HEADER_SIZE) {
+            return records;
+        }
+        if (buffer.getInt() != AuditWriter.MAGIC) {
+            throw new IOException("not an audit file: " + file);
+        }
+        short version = buffer.getShort();
+        if (version != AuditWriter.VERSION) {
+            throw new IOException("unsupported audit file version " + version + ": " + file);
+        }
+        buffer.getShort();
+        long epochMillis = buffer.getLong();
+        long baseNanos = buffer.getLong();
+
+        // 다른 스레드의 METHOD 가 그 메서드의 첫 레코드보다 뒤에 있을 수 있어서, 시그니처를 먼저 다 모은다.
+        Map<Integer, String> signatures = new HashMap<>();
+        scan(buffer, file, signatures, null, 0);
+        scan(buffer, file, signatures, records, epochMillis * 1_000_000 - baseNanos);
+        return records;
+    }
+
+    /**
+     * @param records null 이면 METHOD 만 모으고, 아니면 RETURN 만 읽어서 넣는다.
+     */
+    private static void scan(ByteBuffer buffer, Path file, Map<Integer, String> signatures,
+                             @Nullable List<AuditRecord> records, long epochOffsetNanos) throws IOException {
+        try {
+            int offset = AuditWriter.HEADER_SIZE;
+            while (offset + 4 <= buffer.limit()) {
+                int length = buffer.getInt(offset);
+                if (length == 0 || length == AuditWriter.END) {
+                    break;
+                }
+                if (length < 0) {
+                    // 예약만 하고 아직 다 쓰지 않은 자리. 예약한 크기만큼 건너뛴다.
+                    offset += -length;
+                    continue;
+                }
+                buffer.position(offset + 4);
+                byte type = buffer.get();
+                if (type == AuditWriter.METHOD) {
+                    if (records == null) {
+                        int methodId = buffer.getInt();
+                        signatures.put(methodId, AuditCodec.getText(buffer));
+                    }
+                } else if (type == AuditWriter.RETURN) {
+                    if (records != null) {
+                        records.add(readReturn(buffer, signatures, epochOffsetNanos));
+                    }
+                } else {
+                    throw new IOException("corrupt audit file " + file + " at " + offset);
+                }
+                offset += (length + 7) & ~7;
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            // 잘린 파일의 마지막 레코드
+        }
+    }
+
+    private static AuditRecord readReturn(ByteBuffer buffer, Map<Integer, String> signatures, long epochOffsetNanos) {
+        int methodId = buffer.getInt();
+        long nanoTime = buffer.getLong();
+        int argCount = buffer.getShort();
+        List<Object> args = new ArrayList<>(argCount);
+        for (int i = 0; i < argCount; i++) {
+            args.add(AuditCodec.get(buffer));
+        }
+        Object result = AuditCodec.get(buffer);
+        return new AuditRecord(signatures.getOrDefault(methodId, "#" + methodId), nanoTime + epochOffsetNanos, args, result);
+    }
+
+    private static long epochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000 + instant.getNano();
+    }
+}
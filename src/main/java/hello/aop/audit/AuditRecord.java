@@ -0,0 +1,56 @@
+package hello.aop.audit;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link AuditReader} 가 읽은 반환 레코드 하나.
+ * 문자열과 기본 타입 래퍼는 그대로, 그 밖의 객체는 클래스 이름을 꺾쇠로 감싼 문자열로 돌려준다.
+ */
+public class AuditRecord {
+
+    private final String signature;
+    private final long epochNanos;
+    private final List<Object> args;
+    @Nullable
+    private final Object result;
+
+    public AuditRecord(String signature, long epochNanos, List<Object> args, @Nullable Object result) {
+        this.signature = signature;
+        this.epochNanos = epochNanos;
+        this.args = args;
+        this.result = result;
+    }
+
+    /**
+     * 예) `void hello.aop.order.OrderService.orderItem(String)`
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * 1970-01-01 부터의 나노초. 파일을 열 때의 벽시계 기준이다.
+     */
+    public long getEpochNanos() {
+        return epochNanos;
+    }
+
+    public List<Object> getArgs() {
+        return Collections.unmodifiableList(args);
+    }
+
+    @Nullable
+    public Object getResult() {
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        Instant time = Instant.ofEpochSecond(0, epochNanos);
+        return time + " " + signature + " args=" + args + " return=" + result;
+    }
+}
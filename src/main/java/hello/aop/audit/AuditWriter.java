@@ -0,0 +1,312 @@
+package hello.aop.audit;
+
+import hello.aop.advice.MethodIds;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 메서드 호출의 인수와 반환값을 `audit-00000001.bin` 같은 세그먼트 파일에 바이너리로 남긴다.
+ * 세그먼트는 `segmentSize` 크기로 미리 매핑해 두고, 레코드는 그 매핑에 바로 인코딩한다. 쓰기마다 시스템 콜이나 복사가 없다.
+ *
+ * <ul>
+ *     <li>동시 쓰기: 레코드 크기만큼 세그먼트의 쓰기 위치를 `getAndAdd` 로 예약하고, 각자 자기 구간에 쓴다. 락은 없다.</li>
+ *     <li>커밋: 예약하자마자 길이 자리에 `-예약한 크기`(쓰는 중)를 쓰고, 본문을 다 쓴 다음 진짜 길이를 `setRelease` 로 쓴다.
+ *     읽는 쪽은 쓰는 중인 레코드를 건너뛰고 그 뒤를 읽는다. 쓰다가 죽은 스레드의 자리도 같다.
+ *     길이가 0 인 곳(예약은 했지만 표시를 아직 못 쓴 아주 짧은 순간 포함)에서 읽기가 멈춘다.</li>
+ *     <li>교체: 예약이 세그먼트 끝을 넘은 스레드가 그 자리에 END 를 쓰고 다음 세그먼트를 연다. 교체만 락을 잡는다.
+ *     maxFiles 개보다 오래된 파일은 지운다.</li>
+ * </ul>
+ *
+ * <pre>
+ * 파일 헤더: [magic int][version short][pad short][epochMillis long][nanoTime long]
+ * 레코드:   [length int][본문]   length 는 자기 자신을 포함하고, 다음 레코드는 8 바이트 경계에서 시작한다
+ *           쓰는 중이면 length = -(8 바이트 경계로 올린 크기)
+ * METHOD:   [1][methodId int][len short][signature utf-8]         (세그먼트마다 처음 나오는 메서드에 한 번)
+ * RETURN:   [2][methodId int][nanoTime long][argCount short][인수...][반환값]   값 인코딩은 {@link AuditCodec}
+ * END:      length = -1                                           (세그먼트의 나머지는 비어 있다)
+ * </pre>
+ *
+ * 페이지 캐시에 쓰므로 프로세스가 죽어도 남는다. 디스크까지는 forceInterval 마다, 교체할 때, {@link #flush()},
+ * {@link #close()} 에서 내린다.
+ * 레코드를 못 쓰면 호출은 그대로 두고 버린 수만 센다.
+ */
+@Slf4j
+public class AuditWriter implements Closeable {
+
+    static final int MAGIC = 0x41554454; // "AUDT"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 2 + 8 + 8;
+    static final byte METHOD = 1;
+    static final byte RETURN = 2;
+    static final int END = -1;
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".bin";
+
+    private static final int RETURN_SIZE = 4 + 1 + 4 + 8 + 2;
+    private static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path dir;
+    private final int segmentSize;
+    private final int maxFiles;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    @Nullable
+    private final ScheduledExecutorService forcer;
+
+    private volatile Segment current;
+    private volatile boolean closed;
+    // 교체할 때만 쓴다.
+    private long fileIndex;
+
+    public AuditWriter(Path dir, long segmentSize, int maxFiles) throws IOException {
+        this(dir, segmentSize, maxFiles, Duration.ZERO);
+    }
+
+    /**
+     * @param forceInterval 지금 세그먼트를 디스크로 내리는 주기. 0 이면 교체, flush, close 에서만 내린다.
+     */
+    public AuditWriter(Path dir, long segmentSize, int maxFiles, Duration forceInterval) throws IOException {
+        if (segmentSize < HEADER_SIZE + 64 * 1024 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentSize out of range: " + segmentSize);
+        }
+        this.dir = Files.createDirectories(dir);
+        this.segmentSize = (int) (segmentSize & ~7);
+        this.maxFiles = maxFiles;
+        this.fileIndex = files(dir).stream().mapToLong(AuditWriter::index).max().orElse(0);
+        this.current = open();
+
+        if (forceInterval.isZero()) {
+            this.forcer = null;
+        } else {
+            this.forcer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "audit-forcer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = forceInterval.toMillis();
+            this.forcer.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @param args 호출의 인수. 여기서 복사하지 않고 바로 인코딩한다.
+     */
+    public void append(int methodId, Object[] args, @Nullable Object result) {
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+        long nanoTime = System.nanoTime();
+        int argCount = Math.min(args.length, Short.MAX_VALUE);
+        int size = RETURN_SIZE + AuditCodec.size(result);
+        for (int i = 0; i < argCount; i++) {
+            size += AuditCodec.size(args[i]);
+        }
+        if (size > segmentSize - HEADER_SIZE) {
+            dropped.increment();
+            return;
+        }
+
+        try {
+            while (true) {
+                Segment segment = current;
+                if (!segment.define(methodId)) {
+                    roll(segment);
+                    continue;
+                }
+                int offset = segment.reserve(size);
+                if (offset < 0) {
+                    roll(segment);
+                    continue;
+                }
+                MappedByteBuffer buffer = segment.buffer;
+                int index = offset + 4;
+                buffer.put(index, RETURN).putInt(index + 1, methodId).putLong(index + 5, nanoTime)
+                        .putShort(index + 13, (short) argCount);
+                index += 15;
+                for (int i = 0; i < argCount; i++) {
+                    index = AuditCodec.put(buffer, index, args[i]);
+                }
+                AuditCodec.put(buffer, index, result);
+                LENGTH.setRelease(buffer, offset, size);
+                written.increment();
+                return;
+            }
+        } catch (IOException e) {
+            dropped.increment();
+            log.warn("[audit] 세그먼트 교체 실패 {}", dir, e);
+        }
+    }
+
+    public void flush() {
+        if (!closed) {
+            current.buffer.force();
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    @Override
+    public void close() {
+        if (forcer != null) {
+            forcer.shutdown();
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            current.buffer.force();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("[audit] force 실패 {}", dir, e);
+        }
+    }
+
+    private synchronized void roll(Segment full) throws IOException {
+        if (current != full || closed) {
+            return;
+        }
+        full.buffer.force();
+        current = open();
+
+        List<Path> files = files(dir);
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private Segment open() throws IOException {
+        fileIndex++;
+        Path file = dir.resolve(String.format("%s%08d%s", PREFIX, fileIndex, SUFFIX));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.putInt(0, MAGIC).putShort(4, VERSION).putShort(6, (short) 0)
+                .putLong(8, System.currentTimeMillis()).putLong(16, System.nanoTime());
+        return new Segment(buffer);
+    }
+
+    /**
+     * 디렉터리의 감사 파일을 오래된 것부터
+     */
+    static List<Path> files(Path dir) throws IOException {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                            && file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long index(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * 매핑된 세그먼트 하나와 그 쓰기 위치.
+     */
+    private static final class Segment {
+
+        private static final VarHandle POSITION;
+
+        static {
+            try {
+                POSITION = MethodHandles.lookup().findVarHandle(Segment.class, "position", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final MappedByteBuffer buffer;
+        private final Set<Integer> definedMethods = ConcurrentHashMap.newKeySet();
+        // POSITION 으로만 바꾼다. 세그먼트 끝을 넘어서 계속 늘어날 수 있다.
+        @SuppressWarnings("unused")
+        private volatile long position = HEADER_SIZE;
+
+        Segment(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * @return 예약한 구간의 시작. 세그먼트에 자리가 없으면 -1
+         */
+        int reserve(int size) {
+            int aligned = (size + 7) & ~7;
+            long offset = (long) POSITION.getAndAdd(this, (long) aligned);
+            int capacity = buffer.capacity();
+            if (offset + aligned <= capacity) {
+                // 본문을 쓰는 동안 읽는 쪽이 이 자리를 건너뛸 수 있게 한다.
+                LENGTH.setRelease(buffer, (int) offset, -aligned);
+                return (int) offset;
+            }
+            if (offset < capacity) {
+                // 끝을 처음 넘은 예약. 읽는 쪽이 여기서 다음 파일로 넘어가게 한다.
+                LENGTH.setRelease(buffer, (int) offset, END);
+            }
+            return -1;
+        }
+
+        /**
+         * 이 세그먼트에서 처음 나온 메서드면 METHOD 레코드를 쓴다.
+         *
+         * @return 세그먼트에 자리가 없어서 못 썼으면 false
+         */
+        boolean define(int methodId) {
+            if (definedMethods.contains(methodId)) {
+                return true;
+            }
+            String signature = MethodIds.signature(methodId);
+            int size = 4 + 1 + 4 + AuditCodec.textSize(signature);
+            int offset = reserve(size);
+            if (offset < 0) {
+                return false;
+            }
+            // 두 스레드가 같이 쓰면 METHOD 가 두 번 남지만 읽는 쪽에서는 같다.
+            buffer.put(offset + 4, METHOD).putInt(offset + 5, methodId);
+            AuditCodec.putText(buffer, offset + 9, signature);
+            LENGTH.setRelease(buffer, offset, size);
+            definedMethods.add(methodId);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package hello.aop.cache;
+
+import java.util.Arrays;
+
+/**
+ * 인자 배열로 만든 캐시 키. 캐시는 빈과 메서드마다 따로 두므로 둘 다 키에 넣지 않는다.
+ *
+ * <p>인자가 없으면 상수 하나를, 인자가 배열이 아닌 값 하나면 그 값을 그대로 키로 쓴다. 기본형 인자는 프록시가 넘겨준
+ * 래퍼 객체를 그대로 쓰므로, 조회할 때 새 객체를 만들지 않는다. 인자가 여럿일 때만 배열을 감싼 키를 만들고,
+ * 조회용 키는 배열을 복사하지 않는다. 캐시에 넣을 때 {@link #retain(Object)} 로 복사해서, 뒤에 배열이 바뀌어도 키가 바뀌지 않게 한다.</p>
+ */
+public final class ArgumentKey {
+
+    private static final Object EMPTY = new Object() {
+        @Override
+        public String toString() {
+            return "[]";
+        }
+    };
+
+    private final Object[] args;
+    private final int hash;
+
+    private ArgumentKey(Object[] args) {
+        this.args = args;
+        this.hash = Arrays.deepHashCode(args);
+    }
+
+    /**
+     * 조회용 키. 넘긴 배열을 복사하지 않고 감싼다.
+     */
+    public static Object of(Object[] args) {
+        if (args.length == 0) {
+            return EMPTY;
+        }
+        if (args.length == 1 && args[0] != null && !args[0].getClass().isArray()) {
+            return args[0];
+        }
+        return new ArgumentKey(args);
+    }
+
+    /**
+     * 캐시에 오래 둘 키. 배열을 감싼 키면 배열을 복사한다.
+     */
+    public static Object retain(Object key) {
+        if (key instanceof ArgumentKey) {
+            ArgumentKey argumentKey = (ArgumentKey) key;
+            return new ArgumentKey(argumentKey.args.clone());
+        }
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ArgumentKey)) {
+            return false;
+        }
+        ArgumentKey other = (ArgumentKey) o;
+        return hash == other.hash && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.deepToString(args);
+    }
+}
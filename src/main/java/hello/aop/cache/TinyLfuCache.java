@@ -0,0 +1,354 @@
+package hello.aop.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 크기와 시간으로 제한되는 동시성 캐시. 내보낼 항목은 W-TinyLFU 로 고른다.
+ *
+ * <p>새 항목은 전체의 1% 인 window LRU 로 들어간다. window 에서 밀려난 항목은 main 영역(probation 20%, protected 80% 의 SLRU)의
+ * probation 끝으로 가서, probation 맨 앞 항목과 {@link FrequencySketch} 의 빈도로 겨룬다. 빈도가 더 높은 쪽이 남는다.
+ * 한 번만 쓰이고 마는 키가 자주 쓰이는 키를 밀어내지 못하게 하는 것이 목적이다.</p>
+ *
+ * <p>값은 {@link ConcurrentHashMap} 에 있고, 읽기는 락 없이 값을 꺼낸 뒤 접근 기록만 스레드별 조각의 링 버퍼에 남긴다.
+ * 버퍼가 차면 그때 락을 잡을 수 있는 스레드 하나가 기록을 정책에 반영한다. 버퍼가 가득 찬 사이의 기록은 버린다.
+ * 쓰기는 드물다고 보고 락 안에서 바로 정책에 반영한다.</p>
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    private final ConcurrentHashMap<Object, Node> data;
+    private final long maximumSize;
+    private final long expireAfterWriteNanos;
+    private final ReadBuffer[] readBuffers;
+    private final int readBufferMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // 아래는 모두 evictionLock 으로 보호한다.
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final Node[] accessOrder = {new Node(null, null, 0), new Node(null, null, 0), new Node(null, null, 0)};
+    private final Node writeOrder = new Node(null, null, 0);
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private long windowSize;
+    private long protectedSize;
+    private long size;
+
+    /**
+     * @param maximumSize           최대 항목 수
+     * @param expireAfterWriteNanos 쓴 뒤 이만큼 지나면 만료. 0 이면 만료하지 않는다.
+     */
+    public TinyLfuCache(long maximumSize, long expireAfterWriteNanos) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = Math.max(0, expireAfterWriteNanos);
+        this.data = new ConcurrentHashMap<>((int) Math.min(maximumSize, 1 << 16));
+        this.sketch = new FrequencySketch(maximumSize);
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (maximumSize - windowMaximum) * 8 / 10;
+        for (Node head : accessOrder) {
+            head.prev = head;
+            head.next = head;
+        }
+        writeOrder.writePrev = writeOrder;
+        writeOrder.writeNext = writeOrder;
+
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+        this.readBuffers = new ReadBuffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+        this.readBufferMask = stripes - 1;
+    }
+
+    /**
+     * 캐시된 값. 없거나 만료됐으면 null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        Node node = data.get(key);
+        if (node == null || isExpired(node)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        afterRead(node);
+        return (V) node.value;
+    }
+
+    public void put(K key, V value) {
+        Node added = new Node(key, value, expireAfterWriteNanos == 0 ? 0 : System.nanoTime());
+        evictionLock.lock();
+        try {
+            Node existing = data.putIfAbsent(key, added);
+            if (existing == null) {
+                sketch.increment(key);
+                linkLast(accessOrder[WINDOW], added);
+                linkWriteLast(added);
+                windowSize++;
+                size++;
+            } else {
+                existing.value = value;
+                existing.writeTime = added.writeTime;
+                unlinkWrite(existing);
+                linkWriteLast(existing);
+                onAccess(existing);
+            }
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        evictionLock.lock();
+        try {
+            Node node = data.remove(key);
+            if (node != null) {
+                remove(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 읽기 버퍼를 비우고 만료·초과 항목을 지금 정리한다.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 현재 항목 수. 만료됐지만 아직 정리되지 않은 항목도 센다.
+     */
+    public long size() {
+        return data.mappingCount();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 크기나 시간 때문에 내보낸 항목 수
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private boolean isExpired(Node node) {
+        return expireAfterWriteNanos != 0 && System.nanoTime() - node.writeTime >= expireAfterWriteNanos;
+    }
+
+    private void afterRead(Node node) {
+        ReadBuffer buffer = readBuffers[(int) Thread.currentThread().getId() & readBufferMask];
+        if (!buffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void maintenance() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drain(this);
+        }
+        if (expireAfterWriteNanos != 0) {
+            expire(System.nanoTime());
+        }
+        evict();
+    }
+
+    private void onAccess(Node node) {
+        if (node.queue < 0) {
+            return; // 기록이 버퍼에 있는 사이에 지워진 항목
+        }
+        sketch.increment(node.key);
+        if (node.queue == PROBATION) {
+            unlink(node);
+            node.queue = PROTECTED;
+            linkLast(accessOrder[PROTECTED], node);
+            protectedSize++;
+            while (protectedSize > protectedMaximum) {
+                Node demoted = accessOrder[PROTECTED].next;
+                unlink(demoted);
+                protectedSize--;
+                demoted.queue = PROBATION;
+                linkLast(accessOrder[PROBATION], demoted);
+            }
+        } else {
+            unlink(node);
+            linkLast(accessOrder[node.queue], node);
+        }
+    }
+
+    private void expire(long now) {
+        Node node = writeOrder.writeNext;
+        while (node != writeOrder && now - node.writeTime >= expireAfterWriteNanos) {
+            Node next = node.writeNext;
+            data.remove(node.key, node);
+            remove(node);
+            evictions.increment();
+            node = next;
+        }
+    }
+
+    private void evict() {
+        Node window = accessOrder[WINDOW];
+        Node probation = accessOrder[PROBATION];
+        while (windowSize > windowMaximum) {
+            Node moved = window.next;
+            unlink(moved);
+            windowSize--;
+            moved.queue = PROBATION;
+            linkLast(probation, moved);
+        }
+        while (size > maximumSize) {
+            Node victim = probation.next;
+            Node candidate = probation.prev;
+            Node evicted;
+            if (victim == probation) {
+                // probation 이 비었으면 window, protected 순서로 가장 오래된 것을 내보낸다.
+                evicted = window.next != window ? window.next : accessOrder[PROTECTED].next;
+            } else if (victim == candidate) {
+                evicted = victim;
+            } else {
+                evicted = sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+            }
+            data.remove(evicted.key, evicted);
+            remove(evicted);
+            evictions.increment();
+        }
+    }
+
+    private void remove(Node node) {
+        if (node.queue < 0) {
+            return;
+        }
+        if (node.queue == WINDOW) {
+            windowSize--;
+        } else if (node.queue == PROTECTED) {
+            protectedSize--;
+        }
+        size--;
+        unlink(node);
+        unlinkWrite(node);
+        node.queue = -1;
+    }
+
+    private static void linkLast(Node head, Node node) {
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+    }
+
+    private static void unlink(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    private void linkWriteLast(Node node) {
+        node.writePrev = writeOrder.writePrev;
+        node.writeNext = writeOrder;
+        writeOrder.writePrev.writeNext = node;
+        writeOrder.writePrev = node;
+    }
+
+    private static void unlinkWrite(Node node) {
+        node.writePrev.writeNext = node.writeNext;
+        node.writeNext.writePrev = node.writePrev;
+        node.writePrev = null;
+        node.writeNext = null;
+    }
+
+    private static final class Node {
+        final Object key;
+        volatile Object value;
+        volatile long writeTime;
+
+        // 아래는 evictionLock 으로 보호한다.
+        int queue = WINDOW;
+        Node prev;
+        Node next;
+        Node writePrev;
+        Node writeNext;
+
+        Node(Object key, Object value, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * 접근 기록을 모으는 링 버퍼. 여러 스레드가 CAS 로 자리를 잡아 쓰고, 락을 잡은 스레드 하나가 비운다.
+     */
+    private static final class ReadBuffer {
+        final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        final AtomicLong writeIndex = new AtomicLong();
+        volatile long readIndex;
+
+        /**
+         * @return 버퍼가 가득 찼으면 false. 이때 기록은 버려진다.
+         */
+        boolean offer(Node node) {
+            long write = writeIndex.get();
+            if (write - readIndex >= READ_BUFFER_SIZE) {
+                return false;
+            }
+            if (writeIndex.compareAndSet(write, write + 1)) {
+                slots.lazySet((int) write & READ_BUFFER_MASK, node);
+            }
+            return true;
+        }
+
+        void drain(TinyLfuCache<?, ?> cache) {
+            long read = readIndex;
+            long write = writeIndex.get();
+            for (; read < write; read++) {
+                int index = (int) read & READ_BUFFER_MASK;
+                Node node = slots.get(index);
+                if (node == null) {
+                    break; // 자리만 잡고 아직 쓰지 않은 기록. 다음에 읽는다.
+                }
+                slots.lazySet(index, null);
+                cache.onAccess(node);
+            }
+            readIndex = read;
+        }
+    }
+}
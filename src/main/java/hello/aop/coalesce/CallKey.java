@@ -0,0 +1,52 @@
+package hello.aop.coalesce;
+
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * 대상 객체, 메서드, 인자 값으로 같은 호출인지 가린다. 대상은 동일성(==)으로 비교하므로
+ * 같은 클래스의 다른 빈(설정이나 상태가 다른 인스턴스)의 호출은 합치지 않는다. 해시는 만들 때 한 번만 계산한다.
+ */
+public final class CallKey {
+
+    @Nullable
+    private final Object target;
+    private final Method method;
+    private final Object[] args;
+    private final int hash;
+
+    /**
+     * @param target 호출 대상. 정적 메서드처럼 대상이 없으면 null
+     */
+    public CallKey(@Nullable Object target, Method method, Object[] args) {
+        this.target = target;
+        this.method = method;
+        this.args = args;
+        this.hash = 31 * (31 * System.identityHashCode(target) + method.hashCode()) + Arrays.deepHashCode(args);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CallKey)) {
+            return false;
+        }
+        CallKey other = (CallKey) o;
+        return hash == other.hash && target == other.target && method.equals(other.method)
+                && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return method.getName() + Arrays.deepToString(args);
+    }
+}
@@ -0,0 +1,161 @@
+package hello.aop.coalesce;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 실행 중인 호출 표. 같은 {@link CallKey} 로 먼저 들어온 호출(리더)만 실행하고, 뒤에 온 호출은 리더의 결과를 기다린다.
+ * 표는 키 해시로 고른 여러 조각(stripe)으로 나뉘어 있어서 전역 락이 없고, 서로 다른 키는 거의 다투지 않는다.
+ * 리더가 끝나면 결과를 넘기기 전에 표에서 먼저 빼므로, 끝난 뒤에 온 호출은 새로 실행한다.
+ *
+ * <ul>
+ *     <li>예외: 기다린 호출은 리더의 예외를 원인으로 하는 같은 타입의 새 예외를 받는다. 예외 객체 하나를 여러 스레드가 던지면
+ *     스택 트레이스가 리더의 것이고, 받은 쪽의 `addSuppressed` 가 서로 섞인다.</li>
+ *     <li>기다리기: 인터럽트되면 {@link InterruptedException} 을 던진다. 기다릴 시간을 주면 그 시간이 지난 호출은
+ *     더 기다리지 않고 직접 실행한다.</li>
+ * </ul>
+ */
+public class InFlightTable {
+
+    /**
+     * 실행할 호출. `ProceedingJoinPoint::proceed` 처럼 아무 예외나 던질 수 있다.
+     */
+    @FunctionalInterface
+    public interface Call {
+        Object call() throws Throwable;
+    }
+
+    private final ConcurrentMap<CallKey, Flight>[] stripes;
+    private final int mask;
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public InFlightTable() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    @SuppressWarnings("unchecked")
+    public InFlightTable(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ConcurrentMap[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.mask = size - 1;
+    }
+
+    public Object execute(CallKey key, Call call) throws Throwable {
+        return execute(key, 0, call);
+    }
+
+    /**
+     * @param timeoutNanos 먼저 들어온 호출을 기다릴 최대 시간. 0 이면 끝날 때까지 기다린다.
+     */
+    public Object execute(CallKey key, long timeoutNanos, Call call) throws Throwable {
+        ConcurrentMap<CallKey, Flight> stripe = stripes[spread(key.hashCode()) & mask];
+        Flight flight = new Flight(Thread.currentThread());
+        Flight running = stripe.putIfAbsent(key, flight);
+        if (running != null) {
+            if (running.leader == Thread.currentThread()) {
+                // 리더가 같은 호출을 다시 부르면 자기를 기다리게 되므로 그냥 실행한다.
+                return call.call();
+            }
+            coalesced.increment();
+            try {
+                return running.await(timeoutNanos);
+            } catch (TimeoutException e) {
+                // 리더를 기다리지 않고 따로 실행한다.
+                coalesced.decrement();
+                executed.increment();
+                return call.call();
+            }
+        }
+
+        executed.increment();
+        Object result = null;
+        Throwable error = null;
+        try {
+            result = call.call();
+            return result;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            stripe.remove(key, flight);
+            flight.finish(result, error);
+        }
+    }
+
+    /**
+     * 실제로 실행한 호출 수
+     */
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * 다른 호출의 결과를 받아 간 호출 수
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Flight {
+        final Thread leader;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Flight(Thread leader) {
+            this.leader = leader;
+        }
+
+        void finish(Object value, Throwable error) {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        }
+
+        Object await(long timeoutNanos) throws Throwable {
+            try {
+                return timeoutNanos > 0 ? result.get(timeoutNanos, TimeUnit.NANOSECONDS) : result.get();
+            } catch (ExecutionException e) {
+                throw forWaiter(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * 리더의 예외를 원인으로 하는 같은 타입의 새 예외. `ForkJoinTask` 처럼 공개 생성자 (String, Throwable), (Throwable), ()
+     * 순으로 찾고, 하나도 없으면 원래 예외를 돌려준다.
+     */
+    static Throwable forWaiter(Throwable error) {
+        Class<? extends Throwable> type = error.getClass();
+        try {
+            return type.getConstructor(String.class, Throwable.class).newInstance(error.getMessage(), error);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // 다음 생성자
+        }
+        try {
+            return type.getConstructor(Throwable.class).newInstance(error);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // 다음 생성자
+        }
+        try {
+            Throwable copy = type.getConstructor().newInstance();
+            copy.initCause(error);
+            return copy;
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package hello.aop.event;
+
+import java.lang.reflect.Method;
+
+/**
+ * 링 버퍼의 슬롯. 미리 만들어 두고 계속 덮어쓰므로 발행하는 쪽에서는 새로 할당하지 않는다.
+ * 소비자는 {@link AdviceEventSink#onEvent} 안에서만 값을 읽어야 한다. 반환 뒤에는 다른 이벤트로 바뀐다.
+ */
+public final class AdviceEvent {
+    private AdviceEventType type;
+    private Method method;
+    private Object value;
+    private long timestamp;
+    private long threadId;
+
+    void set(AdviceEventType type, Method method, Object value, long timestamp, long threadId) {
+        this.type = type;
+        this.method = method;
+        this.value = value;
+        this.timestamp = timestamp;
+        this.threadId = threadId;
+    }
+
+    void clear() {
+        method = null;
+        value = null;
+    }
+
+    public AdviceEventType getType() {
+        return type;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * @return RETURN 이면 반환 값, THROWING 이면 예외. 나머지는 {@code null}
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * @return 발행 시각 (epoch millis)
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+}
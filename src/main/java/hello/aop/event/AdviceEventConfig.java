@@ -0,0 +1,36 @@
+package hello.aop.event;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * `aop.event.enabled=true` 이면 {@link AdviceEventPipeline} 을 등록한다. `AspectV6Advice` 는 있으면 이걸로 발행한다.
+ * 싱크 빈이 없으면 {@link Slf4jAdviceEventSink} 를 쓴다.
+ *
+ * <pre>
+ * aop.event.buffer-size=8192       # 2의 거듭제곱
+ * aop.event.overflow=BLOCK         # BLOCK, DROP, SAMPLE
+ * aop.event.sample-rate=10         # SAMPLE 일 때 n 개 중 하나
+ * aop.event.metrics-interval=10s   # 큐 깊이 로그 주기, 0 이면 끈다
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(name = "aop.event.enabled", havingValue = "true")
+public class AdviceEventConfig {
+
+    @Bean
+    public AdviceEventPipeline adviceEventPipeline(
+            ObjectProvider<AdviceEventSink> sink,
+            @Value("${aop.event.buffer-size:" + AdviceEventPipeline.DEFAULT_BUFFER_SIZE + "}") int bufferSize,
+            @Value("${aop.event.overflow:BLOCK}") OverflowPolicy overflowPolicy,
+            @Value("${aop.event.sample-rate:10}") int sampleRate,
+            @Value("${aop.event.metrics-interval:0}") Duration metricsInterval) {
+        return new AdviceEventPipeline(sink.getIfAvailable(Slf4jAdviceEventSink::new),
+                bufferSize, overflowPolicy, sampleRate, metricsInterval);
+    }
+}
@@ -0,0 +1,240 @@
+package hello.aop.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 어드바이스 이벤트를 미리 할당한 링 버퍼에 넣고, 백그라운드 스레드가 묶음으로 꺼내 {@link AdviceEventSink} 로 넘긴다.
+ * 호출 스레드는 슬롯 하나를 CAS 로 차지해서 값을 채우는 데까지만 비용을 낸다.
+ *
+ * <p>여러 스레드가 발행하고 소비자는 하나다. 슬롯마다 발행된 시퀀스를 기록해서,
+ * 소비자는 앞의 슬롯이 다 채워진 만큼만 순서대로 읽는다.</p>
+ */
+@Slf4j
+public class AdviceEventPipeline implements AutoCloseable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AdviceEvent[] slots;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+
+    private final AdviceEventSink sink;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final int batchSize;
+    private final long metricsIntervalNanos;
+
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private volatile long maxDepth;
+
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    public AdviceEventPipeline(AdviceEventSink sink) {
+        this(sink, DEFAULT_BUFFER_SIZE, OverflowPolicy.BLOCK, 1, Duration.ZERO);
+    }
+
+    /**
+     * @param bufferSize      슬롯 수. 2의 거듭제곱이어야 한다.
+     * @param sampleRate      {@link OverflowPolicy#SAMPLE} 일 때 몇 개 중 하나를 남길지
+     * @param metricsInterval 큐 깊이를 로그로 남기는 주기. 0 이면 남기지 않는다.
+     */
+    public AdviceEventPipeline(AdviceEventSink sink, int bufferSize, OverflowPolicy overflowPolicy,
+                               int sampleRate, Duration metricsInterval) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of two: " + bufferSize);
+        }
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("sampleRate must be positive: " + sampleRate);
+        }
+
+        this.slots = new AdviceEvent[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            slots[i] = new AdviceEvent();
+        }
+        this.mask = bufferSize - 1;
+        this.published = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            published.set(i, -1);
+        }
+
+        this.sink = sink;
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = sampleRate;
+        this.batchSize = Math.min(DEFAULT_BATCH_SIZE, bufferSize);
+        this.metricsIntervalNanos = metricsInterval.toNanos();
+
+        this.consumer = new Thread(this::consume, "advice-event-consumer");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * @param value RETURN 이면 반환 값, THROWING 이면 예외
+     * @return 버퍼에 넣었으면 true, 넘쳐서 버렸으면 false
+     */
+    public boolean publish(AdviceEventType type, Method method, @Nullable Object value) {
+        long sequence = claim();
+        if (sequence < 0) {
+            droppedCount.increment();
+            return false;
+        }
+
+        int index = (int) sequence & mask;
+        slots[index].set(type, method, value, System.currentTimeMillis(), Thread.currentThread().getId());
+        published.lazySet(index, sequence);
+        publishedCount.increment();
+        return true;
+    }
+
+    private long claim() {
+        int idle = 0;
+        while (running) {
+            long current = claimed.get();
+            long depth = current - consumed.get();
+            if (depth >= slots.length) {
+                if (overflowPolicy != OverflowPolicy.BLOCK) {
+                    return -1;
+                }
+                idle = backOff(idle);
+                continue;
+            }
+            if (overflowPolicy == OverflowPolicy.SAMPLE && depth >= slots.length / 2
+                    && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+                return -1;
+            }
+            if (claimed.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+        // 닫힌 뒤에는 소비자가 없으므로 버린다.
+        return -1;
+    }
+
+    private void consume() {
+        long next = consumed.get();
+        long lastReport = System.nanoTime();
+        int idle = 0;
+
+        while (running) {
+            long before = next;
+            next = drain(next);
+            idle = next == before ? backOff(idle) : 0;
+
+            if (metricsIntervalNanos > 0 && System.nanoTime() - lastReport >= metricsIntervalNanos) {
+                lastReport = System.nanoTime();
+                log.info("[advice-event] depth={} maxDepth={} published={} dropped={}",
+                        getDepth(), maxDepth, publishedCount.sum(), droppedCount.sum());
+            }
+        }
+
+        // 닫을 때 이미 발행된 이벤트는 모두 넘긴다.
+        long before;
+        do {
+            before = next;
+            next = drain(next);
+        } while (next != before);
+    }
+
+    private long drain(long next) {
+        long depth = claimed.get() - next;
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+
+        int count = 0;
+        while (count < batchSize) {
+            int index = (int) next & mask;
+            if (published.get(index) != next) {
+                break;
+            }
+
+            AdviceEvent event = slots[index];
+            try {
+                sink.onEvent(event);
+            } catch (RuntimeException e) {
+                log.warn("advice event sink failed", e);
+            }
+            event.clear();
+            next++;
+            count++;
+        }
+
+        if (count > 0) {
+            try {
+                sink.endOfBatch();
+            } catch (RuntimeException e) {
+                log.warn("advice event sink failed", e);
+            }
+            consumed.lazySet(next);
+        }
+        return next;
+    }
+
+    private static int backOff(int idle) {
+        if (idle < 100) {
+            Thread.onSpinWait();
+        } else if (idle < 200) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        return idle + 1;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return 발행됐지만 아직 소비자가 꺼내지 않은 이벤트 수
+     */
+    public long getDepth() {
+        return Math.max(0, claimed.get() - consumed.get());
+    }
+
+    public long getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * 새 이벤트를 더 받지 않고, 이미 발행된 이벤트를 싱크로 넘긴 뒤 소비자 스레드를 끝낸다.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
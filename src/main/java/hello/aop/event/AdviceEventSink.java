@@ -0,0 +1,15 @@
+package hello.aop.event;
+
+/**
+ * 백그라운드 소비자 스레드가 이벤트를 넘기는 곳. 한 스레드에서만 호출된다.
+ */
+public interface AdviceEventSink {
+
+    void onEvent(AdviceEvent event);
+
+    /**
+     * 한 번에 꺼낸 묶음을 다 넘긴 뒤 호출된다. 버퍼링하는 싱크는 여기서 내보낸다.
+     */
+    default void endOfBatch() {
+    }
+}
@@ -0,0 +1,5 @@
+package hello.aop.event;
+
+public enum AdviceEventType {
+    BEFORE, RETURN, THROWING, AFTER
+}
@@ -0,0 +1,19 @@
+package hello.aop.event;
+
+/**
+ * 링 버퍼가 찼을 때 발행하는 쪽의 동작.
+ */
+public enum OverflowPolicy {
+    /**
+     * 빈 슬롯이 생길 때까지 호출 스레드를 기다리게 한다. 이벤트는 잃지 않는다.
+     */
+    BLOCK,
+    /**
+     * 버리고 바로 돌아간다.
+     */
+    DROP,
+    /**
+     * 절반 이상 차면 `sampleRate` 개 중 하나만 발행하고, 다 차면 버린다.
+     */
+    SAMPLE
+}
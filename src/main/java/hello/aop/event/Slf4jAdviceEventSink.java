@@ -0,0 +1,34 @@
+package hello.aop.event;
+
+import hello.aop.advice.MethodIds;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * `AspectV6Advice` 가 직접 남기던 로그를 소비자 스레드에서 같은 모양으로 남긴다.
+ */
+@Slf4j
+public class Slf4jAdviceEventSink implements AdviceEventSink {
+
+    @Override
+    public void onEvent(AdviceEvent event) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+
+        String signature = MethodIds.signature(MethodIds.id(event.getMethod()));
+        switch (event.getType()) {
+            case BEFORE:
+                log.info("[before] {}", signature);
+                break;
+            case RETURN:
+                log.info("[return] {} return={}", signature, event.getValue());
+                break;
+            case THROWING:
+                log.info("[ex] {} message={}", signature, ((Throwable) event.getValue()).getMessage());
+                break;
+            case AFTER:
+                log.info("[after] {}", signature);
+                break;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package hello.aop.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 지연 시간 기울기(gradient)로 동시 실행 한도를 조절하는 리미터.
+ *
+ * <p>허가는 CAS 로 세는 카운터 하나다. 한도에 닿으면 기다리지 않고 바로 거절한다.
+ * 끝난 호출의 지연 시간을 윈도우(한도만큼, 최소 {@value #MIN_WINDOW}개)로 모아서, 윈도우마다 한 스레드가 한도를 다시 정한다.</p>
+ *
+ * <pre>
+ * gradient = clamp(TOLERANCE * 무부하 지연 / 윈도우 평균 지연, 0.5, 1.0)
+ * 새 한도   = 한도 * gradient + sqrt(한도)
+ * </pre>
+ * 큐가 쌓여 평균 지연이 무부하 지연보다 커지면 gradient 가 1 아래로 내려가 한도가 줄고, 아니면 sqrt(한도)만큼 늘어난다.
+ * 호출이 한도의 절반도 안 찼던 윈도우에서는 한도를 늘리지 않는다.
+ *
+ * <p>무부하 지연은 큐가 없을 때 재야 한다. 처음 한 윈도우 동안 한도를 4분의 1로 낮춰 큐를 비우고, 그 윈도우의 최솟값을
+ * 무부하 지연으로 삼는다. 이후에는 긴 구간의 최솟값으로 유지한다. 윈도우 최솟값이 기준 근처({@value #REFRESH_TOLERANCE} 배 안)에
+ * 오면 기준을 갱신하고, {@value #NO_LOAD_RTT_EXPIRY_SECONDS}초 동안 한 번도 오지 않았을 때만 다시 한도를 낮춰 잰다.
+ * 부하가 한도보다 낮으면 최솟값이 늘 기준 근처라서 다시 재는 일이 없다.
+ * 포화 상태의 최솟값은 큐만큼 부풀어 있어서, 그것으로 기준을 올리면(감쇠 최솟값 등) 한도가 계속 오른다.</p>
+ */
+public class AdaptiveLimiter {
+
+    static final int MIN_WINDOW = 20;
+    static final int NO_LOAD_RTT_EXPIRY_SECONDS = 10;
+    private static final long NO_LOAD_RTT_EXPIRY_NANOS = TimeUnit.SECONDS.toNanos(NO_LOAD_RTT_EXPIRY_SECONDS);
+    private static final double REFRESH_TOLERANCE = 1.1;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile int limit;
+
+    // 현재 윈도우
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private final AtomicLong windowSum = new AtomicLong();
+    private final AtomicLong windowMin = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    // 한도를 다시 정하는 스레드만 쓴다.
+    private double estimatedLimit;
+    private long noLoadRtt = Long.MAX_VALUE;
+    // 윈도우 최솟값이 마지막으로 기준 근처에 온 시각
+    private long noLoadRttAt;
+    private boolean probing;
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must be 1 <= min <= initial <= max: "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+        startProbe();
+    }
+
+    /**
+     * @return 허가를 받았으면 현재 실행 중인 수(자기 포함), 한도를 넘었으면 -1
+     */
+    public int tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.incrementAndGet();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * {@link #tryAcquire()} 로 받은 허가를 돌려주고 지연 시간을 기록한다.
+     *
+     * @param inFlightAtStart tryAcquire 가 돌려준 값
+     */
+    public void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        sample(rttNanos, inFlightAtStart);
+    }
+
+    private void sample(long rttNanos, int inFlightAtStart) {
+        windowSum.addAndGet(rttNanos);
+        long min;
+        while (rttNanos < (min = windowMin.get()) && !windowMin.compareAndSet(min, rttNanos)) {
+            // 다른 스레드가 먼저 바꿨으면 다시 비교한다.
+        }
+        int max;
+        while (inFlightAtStart > (max = windowMaxInFlight.get()) && !windowMaxInFlight.compareAndSet(max, inFlightAtStart)) {
+            // 위와 같다.
+        }
+
+        int count = windowCount.incrementAndGet();
+        if (count >= Math.max(MIN_WINDOW, limit) && updating.compareAndSet(false, true)) {
+            try {
+                update();
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    private void update() {
+        int count = windowCount.getAndSet(0);
+        if (count == 0) {
+            return;
+        }
+        long sum = windowSum.getAndSet(0);
+        long min = windowMin.getAndSet(Long.MAX_VALUE);
+        int maxInFlight = windowMaxInFlight.getAndSet(0);
+        double averageRtt = (double) sum / count;
+
+        long now = System.nanoTime();
+        if (probing) {
+            noLoadRtt = min;
+            noLoadRttAt = now;
+            probing = false;
+            limit = (int) estimatedLimit;
+            return;
+        }
+        if (min <= noLoadRtt * REFRESH_TOLERANCE) {
+            noLoadRtt = Math.min(noLoadRtt, min);
+            noLoadRttAt = now;
+        } else if (now - noLoadRttAt > NO_LOAD_RTT_EXPIRY_NANOS) {
+            // 대상이 느려졌거나 계속 포화 상태다. 큐를 비우고 다시 잰다.
+            startProbe();
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * noLoadRtt / averageRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        if (newLimit > estimatedLimit && maxInFlight < estimatedLimit / 2) {
+            // 부하가 한도에 못 미쳐서 늘려도 확인할 길이 없다.
+            return;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, (1 - SMOOTHING) * estimatedLimit + SMOOTHING * newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    private void startProbe() {
+        probing = true;
+        limit = Math.max(minLimit, (int) (estimatedLimit / 4));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
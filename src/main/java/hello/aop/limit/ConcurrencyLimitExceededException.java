@@ -0,0 +1,11 @@
+package hello.aop.limit;
+
+/**
+ * 동시 실행 한도를 넘어서 실행하지 않은 호출. 과부하일 때 많이 나오므로 스택 트레이스를 만들지 않는다.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
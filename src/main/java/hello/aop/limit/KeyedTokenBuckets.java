@@ -0,0 +1,62 @@
+package hello.aop.limit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 키마다 {@link TokenBucket} 을 둔다. 버킷 수는 maxKeys 근처로 묶는다(동시에 만들어지는 만큼은 넘을 수 있다).
+ * 가득 차면 새 키들은 다음 정리 때까지 overflow 버킷 하나를 같이 쓴다. 새 키마다 전체를 훑지는 않는다.
+ * 쓰이지 않은 버킷은 idle 시간마다 한 스레드가 지운다. 지워진 버킷은 가득 찬 버킷이라 새로 만들어도 한도는 같다.
+ */
+public class KeyedTokenBuckets {
+
+    // ConcurrentHashMap 은 null 키를 못 넣는다.
+    private static final Object NULL_KEY = new Object();
+
+    private final Map<Object, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final double permitsPerSecond;
+    private final double burstSeconds;
+    private final int maxKeys;
+    private final long idleNanos;
+    private final TokenBucket overflow;
+    private final AtomicLong nextSweep;
+
+    public KeyedTokenBuckets(double permitsPerSecond, double burstSeconds, int maxKeys, long idleNanos, long nowNanos) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burstSeconds = burstSeconds;
+        this.maxKeys = maxKeys;
+        this.idleNanos = idleNanos;
+        this.overflow = new TokenBucket(permitsPerSecond, burstSeconds, nowNanos);
+        this.nextSweep = new AtomicLong(nowNanos + idleNanos);
+    }
+
+    public boolean tryAcquire(Object key, long nowNanos) {
+        long sweepAt = nextSweep.get();
+        if (nowNanos - sweepAt > 0 && nextSweep.compareAndSet(sweepAt, nowNanos + idleNanos)) {
+            evictIdle(nowNanos);
+        }
+
+        Object mapKey = key != null ? key : NULL_KEY;
+        TokenBucket bucket = buckets.get(mapKey);
+        if (bucket == null) {
+            bucket = create(mapKey, nowNanos);
+        }
+        return bucket.tryAcquire(nowNanos);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public void evictIdle(long nowNanos) {
+        buckets.values().removeIf(bucket -> bucket.isIdle(nowNanos, idleNanos));
+    }
+
+    private TokenBucket create(Object key, long nowNanos) {
+        if (buckets.size() >= maxKeys) {
+            return overflow;
+        }
+        return buckets.computeIfAbsent(key, ignored -> new TokenBucket(permitsPerSecond, burstSeconds, nowNanos));
+    }
+}
@@ -0,0 +1,83 @@
+package hello.aop.limit;
+
+import hello.aop.member.annotation.RateLimited;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메서드 하나의 {@link RateLimited} 한도. 키 한도를 먼저 보고, 통과한 호출만 전체 한도를 쓴다.
+ * 한 키가 몰려도 다른 키의 몫(전체 한도)을 깎지 않게 하려는 순서다.
+ */
+public class RateLimiter {
+
+    private final String name;
+    @Nullable
+    private final TokenBucket global;
+    @Nullable
+    private final KeyedTokenBuckets perKey;
+    private final int keyArg;
+    private final boolean batch;
+
+    public RateLimiter(String name, RateLimited rateLimited, long nowNanos) {
+        this(name, rateLimited, rateLimited.permitsPerSecond(), rateLimited.permitsPerSecondPerKey(), nowNanos);
+    }
+
+    /**
+     * 초당 호출 수만 설정에서 읽은 값으로 바꾼다.
+     */
+    public RateLimiter(String name, RateLimited rateLimited, double permitsPerSecond, double permitsPerSecondPerKey,
+                       long nowNanos) {
+        this.name = name;
+        this.global = permitsPerSecond > 0
+                ? new TokenBucket(permitsPerSecond, rateLimited.burstSeconds(), nowNanos) : null;
+        this.perKey = permitsPerSecondPerKey > 0
+                ? new KeyedTokenBuckets(permitsPerSecondPerKey, rateLimited.burstSeconds(),
+                rateLimited.maxKeys(), TimeUnit.SECONDS.toNanos(rateLimited.idleSeconds()), nowNanos) : null;
+        this.keyArg = rateLimited.keyArg();
+        this.batch = rateLimited.batch();
+    }
+
+    /**
+     * @param args 호출 인자. 복사하지 않은 배열을 그대로 받는다.
+     */
+    public boolean tryAcquire(Object[] args, long nowNanos) {
+        Object key = keyArg < args.length ? args[keyArg] : null;
+        if (batch && key instanceof Collection) {
+            return tryAcquireAll((Collection<?>) key, nowNanos);
+        }
+        if (perKey != null && !perKey.tryAcquire(key, nowNanos)) {
+            return false;
+        }
+        return global == null || global.tryAcquire(nowNanos);
+    }
+
+    /**
+     * 원소마다 키 한도를 쓰고 전체 한도는 원소 수만큼 한꺼번에 쓴다. 중간에 거절되면 이미 쓴 키 한도는 돌려주지 않는다.
+     */
+    private boolean tryAcquireAll(Collection<?> keys, long nowNanos) {
+        if (keys.isEmpty()) {
+            return true;
+        }
+        if (perKey != null) {
+            for (Object key : keys) {
+                if (!perKey.tryAcquire(key, nowNanos)) {
+                    return false;
+                }
+            }
+        }
+        return global == null || global.tryAcquire(nowNanos, keys.size());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 키 한도가 없으면 0
+     */
+    public int getKeyCount() {
+        return perKey != null ? perKey.size() : 0;
+    }
+}
@@ -0,0 +1,55 @@
+package hello.aop.limit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CAS 하나로 동작하는 토큰 버킷. 토큰 수 대신 "버킷이 비는 시각"(GCRA 의 이론 도착 시각) 하나를 저장한다.
+ * 허가 하나마다 그 시각을 간격만큼 미루고, 지금보다 용량 이상 미래로 가면 거절한다.
+ * 거절할 때는 읽기만 하고 쓰지 않으므로 넘친 호출끼리 캐시 라인을 다투지 않는다.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong emptyAt;
+
+    /**
+     * 가득 찬 상태로 시작한다.
+     */
+    public TokenBucket(double permitsPerSecond, double burstSeconds, long nowNanos) {
+        if (!(permitsPerSecond > 0) || !(burstSeconds > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond and burstSeconds must be positive: "
+                    + permitsPerSecond + ", " + burstSeconds);
+        }
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000 / permitsPerSecond));
+        this.capacityNanos = Math.max(intervalNanos, Math.round(burstSeconds * 1_000_000_000));
+        this.emptyAt = new AtomicLong(nowNanos);
+    }
+
+    public boolean tryAcquire(long nowNanos) {
+        return tryAcquire(nowNanos, 1);
+    }
+
+    /**
+     * 허가 여러 개를 한꺼번에 받는다. 모자라면 하나도 쓰지 않는다. 용량보다 많으면 언제나 거절된다.
+     */
+    public boolean tryAcquire(long nowNanos, int permits) {
+        for (;;) {
+            long current = emptyAt.get();
+            long next = (current - nowNanos > 0 ? current : nowNanos) + intervalNanos * permits;
+            if (next - nowNanos > capacityNanos) {
+                return false;
+            }
+            if (emptyAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * idleNanos 넘게 가득 차 있었는지
+     */
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - emptyAt.get() > idleNanos;
+    }
+}
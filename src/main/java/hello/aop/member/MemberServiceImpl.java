@@ -1,6 +1,8 @@
 package hello.aop.member;
 
+import hello.aop.member.annotation.CachedResult;
 import hello.aop.member.annotation.ClassAop;
+import hello.aop.member.annotation.Coalesce;
 import hello.aop.member.annotation.MethodAop;
 import org.springframework.stereotype.Component;
 
@@ -9,9 +11,13 @@ import org.springframework.stereotype.Component;
 public class MemberServiceImpl implements MemberService {
     @Override
     @MethodAop("test value")
+    @Coalesce
+    @CachedResult(maximumSize = 1_000)
     public String hello(String param) {
-        return "ok";
+        // 자기 호출. 프록시 방식에서는 internal 의 어드바이스가 적용되지 않는다.
+        return internal(param);
     }
+    @MethodAop("internal")
     public String internal(String param) {
         return "ok";
     }
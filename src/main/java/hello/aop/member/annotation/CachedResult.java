@@ -0,0 +1,25 @@
+package hello.aop.member.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 인자 값이 같은 호출의 결과를 캐시해서 다시 실행하지 않는다. null 결과도 캐시하고, 예외는 캐시하지 않는다.
+ * 인자는 equals/hashCode 로, 빈은 동일성으로 비교한다. `CachedResultAspect` 가 처리한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResult {
+
+    /**
+     * 빈과 메서드마다 둘 최대 항목 수. 넘으면 W-TinyLFU 로 고른 항목을 내보낸다.
+     */
+    long maximumSize() default 10_000;
+
+    /**
+     * 결과를 넣은 뒤 이만큼 지나면 만료한다. 0 이면 만료하지 않는다.
+     */
+    long expireAfterWriteSeconds() default 0;
+}
@@ -0,0 +1,23 @@
+package hello.aop.member.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 같은 빈에 같은 인자로 동시에 들어온 호출을 한 번만 실행하고, 그 결과나 예외를 기다린 호출 모두에게 돌려준다.
+ * 인자는 equals/hashCode 로, 빈은 동일성으로 비교한다. `CoalesceAspect` 가 처리한다.
+ *
+ * <p>호출마다 따로 일어나야 하는 부수 효과가 있는 메서드에는 붙이지 않는다.
+ * 예를 들어 `OrderRepository.save` 는 호출한 스레드의 트랜잭션에 쓰기를 남기므로, 합치면 다른 트랜잭션의 쓰기가 사라진다.</p>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesce {
+
+    /**
+     * 먼저 들어온 호출을 기다릴 최대 시간. 넘으면 기다리지 않고 직접 실행한다. 0 이면 끝날 때까지 기다린다.
+     */
+    long timeoutMillis() default 0;
+}
@@ -0,0 +1,24 @@
+package hello.aop.member.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 동시에 실행 중인 호출 수를 지연 시간을 보고 스스로 정한 한도 아래로 묶는다. 한도를 넘은 호출은 바로 실패한다.
+ * `ConcurrencyLimitAspect` 가 처리한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimited {
+
+    /**
+     * 처음 한도
+     */
+    int initialLimit() default 20;
+
+    int minLimit() default 1;
+
+    int maxLimit() default 200;
+}
@@ -0,0 +1,62 @@
+package hello.aop.member.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 초당 호출 수를 메서드 전체로, 또는 인자 값(키)마다 제한한다. 넘는 호출은 바로 실패한다.
+ * 두 한도를 같이 주면 키 한도를 먼저 본다. `RateLimitAspect` 가 처리한다.
+ *
+ * <p>{@link #name()} 을 주면 같은 이름의 메서드가 한도를 같이 쓰고, 초당 호출 수는 설정으로 바꿀 수 있다.</p>
+ * <pre>
+ * aop.rate-limit.&lt;이름&gt;.permits-per-second=10000
+ * aop.rate-limit.&lt;이름&gt;.permits-per-second-per-key=1000
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    /**
+     * 한도 이름. 비어 있으면 메서드마다 따로 두고 설정으로 바꿀 수 없다.
+     */
+    String name() default "";
+
+    /**
+     * 메서드 전체의 초당 호출 수. 0 이면 제한하지 않는다.
+     */
+    double permitsPerSecond() default 0;
+
+    /**
+     * 키마다의 초당 호출 수. 0 이면 제한하지 않는다.
+     */
+    double permitsPerSecondPerKey() default 0;
+
+    /**
+     * 키로 쓸 인자 위치
+     */
+    int keyArg() default 0;
+
+    /**
+     * 키 인자가 컬렉션인 배치 호출이면 true. 원소 하나를 호출 하나로 센다. 전체 한도는 원소 수만큼 한꺼번에 쓰고,
+     * 키 한도는 원소마다 쓴다.
+     */
+    boolean batch() default false;
+
+    /**
+     * 한 번에 몰아 쓸 수 있는 양. 초 단위라서 1 이면 초당 호출 수만큼이다.
+     */
+    double burstSeconds() default 1;
+
+    /**
+     * 키별 버킷을 최대 몇 개까지 둘지. 넘으면 새 키들은 버킷 하나를 같이 쓴다.
+     */
+    int maxKeys() default 10_000;
+
+    /**
+     * 이만큼 쓰이지 않은 키 버킷은 지운다.
+     */
+    long idleSeconds() default 60;
+}
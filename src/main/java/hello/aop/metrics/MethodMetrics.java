@@ -0,0 +1,75 @@
+package hello.aop.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메서드 하나의 호출 수, 예외 수, 지연 시간 히스토그램.
+ */
+public class MethodMetrics implements MethodMetricsMBean {
+
+    private final String method;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public MethodMetrics(String method) {
+        this.method = method;
+    }
+
+    public void record(long elapsedNanos, boolean error) {
+        calls.increment();
+        if (error) {
+            errors.increment();
+        }
+        latency.record(elapsedNanos);
+    }
+
+    public LatencyHistogram.Snapshot snapshot() {
+        return latency.snapshot();
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return snapshot().getMean();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return snapshot().getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return snapshot().getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return snapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return snapshot().getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return snapshot().getMax();
+    }
+}
@@ -0,0 +1,25 @@
+package hello.aop.metrics;
+
+/**
+ * JMX 로 보이는 메서드별 지표. 지연 시간은 나노초.
+ */
+public interface MethodMetricsMBean {
+
+    String getMethod();
+
+    long getCalls();
+
+    long getErrors();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+}
@@ -0,0 +1,17 @@
+package hello.aop.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 지표 애스펙트가 쓰는 {@link MetricsRegistry}. `aop.metrics.jmx=false` 이면 JMX 에 등록하지 않는다.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MetricsRegistry metricsRegistry(@Value("${aop.metrics.jmx:true}") boolean jmx) {
+        return new MetricsRegistry(jmx);
+    }
+}
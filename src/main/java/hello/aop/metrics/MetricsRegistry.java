@@ -0,0 +1,124 @@
+package hello.aop.metrics;
+
+import hello.aop.advice.MethodIds;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메서드별 {@link MethodMetrics} 를 만들어 두고, 켜져 있으면 처음 만들 때 JMX MBean 으로 등록한다.
+ * ObjectName 은 `hello.aop:type=MethodMetrics,class=<클래스>,method=<메서드(파라미터)>` 이다.
+ *
+ * <p>같은 JVM 에 떠 있는 다른 컨텍스트의 레지스트리가 이미 그 이름을 쓰고 있으면 지우지 않고,
+ * `registry=<아이디>` 키를 붙인 이름으로 등록한다. 닫을 때는 이 레지스트리가 등록해서 아직 남아 있는 MBean 만 지운다.</p>
+ */
+@Slf4j
+public class MetricsRegistry implements AutoCloseable {
+
+    public static final String DOMAIN = "hello.aop";
+
+    private final Map<Method, MethodMetrics> metrics = new ConcurrentHashMap<>();
+    // 이 레지스트리가 등록한 MBean 의 이름. 다른 쪽에서 지우면 빠진다.
+    private final Map<Method, ObjectName> registered = new ConcurrentHashMap<>();
+    private final MBeanServer mBeanServer;
+
+    public MetricsRegistry(boolean jmx) {
+        this.mBeanServer = jmx ? ManagementFactory.getPlatformMBeanServer() : null;
+    }
+
+    public MethodMetrics metrics(Method method) {
+        MethodMetrics found = metrics.get(method);
+        if (found != null) {
+            return found;
+        }
+        return metrics.computeIfAbsent(method, this::create);
+    }
+
+    public Collection<MethodMetrics> all() {
+        return Collections.unmodifiableCollection(metrics.values());
+    }
+
+    /**
+     * 이 레지스트리가 메서드의 지표를 등록한 이름. 등록하지 않았거나 이미 지워졌으면 {@code null}
+     */
+    @Nullable
+    public ObjectName registeredName(Method method) {
+        return registered.get(method);
+    }
+
+    private MethodMetrics create(Method method) {
+        MethodMetrics created = new MethodMetrics(MethodIds.name(method));
+        if (mBeanServer != null) {
+            register(method, created);
+        }
+        return created;
+    }
+
+    private void register(Method method, MethodMetrics created) {
+        try {
+            ObjectName name = objectName(method);
+            Registration registration = new Registration(method, created);
+            try {
+                mBeanServer.registerMBean(registration, name);
+            } catch (InstanceAlreadyExistsException e) {
+                // 같은 JVM 에서 다른 컨텍스트가 먼저 등록했다. 그쪽 것은 그대로 둔다.
+                name = ObjectName.getInstance(name + ",registry=" + Integer.toHexString(System.identityHashCode(this)));
+                mBeanServer.registerMBean(registration, name);
+            }
+            registered.put(method, name);
+        } catch (JMException e) {
+            log.warn("[metrics] JMX 등록 실패 {}", method, e);
+        }
+    }
+
+    public static ObjectName objectName(Method method) throws JMException {
+        return new ObjectName(DOMAIN + ":type=MethodMetrics"
+                + ",class=" + ObjectName.quote(method.getDeclaringClass().getSimpleName())
+                + ",method=" + ObjectName.quote(MethodIds.name(method)));
+    }
+
+    @Override
+    public void close() {
+        registered.forEach((method, name) -> {
+            try {
+                mBeanServer.unregisterMBean(name);
+            } catch (InstanceNotFoundException e) {
+                // 그 사이에 다른 쪽에서 지웠다.
+            } catch (JMException e) {
+                log.warn("[metrics] JMX 해제 실패 {}", name, e);
+            }
+        });
+        registered.clear();
+    }
+
+    /**
+     * 등록한 MBean. 누가 지우든 지워지면 {@link #registered} 에서 빠지므로, 같은 이름으로 새로 등록된 남의 MBean 을 지우지 않는다.
+     */
+    private final class Registration extends StandardMBean {
+
+        private final Method method;
+
+        Registration(Method method, MethodMetrics metrics) throws NotCompliantMBeanException {
+            super(metrics, MethodMetricsMBean.class);
+            this.method = method;
+        }
+
+        @Override
+        public void postDeregister() {
+            registered.remove(method);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package hello.aop.order;
+
+/**
+ * 스택 트레이스를 채우지 않는 도메인 실패. `aop.order.stackless-failures=true` 일 때 {@link OrderRepository} 가 던진다.
+ *
+ * <p>실패가 몰릴 때 예외를 던지는 비용은 대부분 스택을 채우는 데서 나오고, 예상된 실패라 스택으로 알아낼 것도 없다.
+ * 기존 코드처럼 `IllegalStateException` 으로 잡을 수 있고, 어드바이스는 이 예외면 메시지를 포맷하지 않고 횟수만 센다.
+ * 던질 때마다 새로 만든다. 미리 만든 인스턴스를 같이 쓰면 `addSuppressed` 나 `initCause` 가 호출 사이에 새어 나간다.</p>
+ */
+public class OrderFailureException extends IllegalStateException {
+
+    public OrderFailureException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -1,19 +1,101 @@
 package hello.aop.order;
 
+import hello.aop.member.annotation.ConcurrencyLimited;
+import hello.aop.order.store.OrderStore;
+import hello.aop.tx.Transaction;
+import hello.aop.tx.TransactionContext;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
 @Slf4j
 @Repository
 public class OrderRepository {
+    // 없으면 저장하지 않는다.
+    @Nullable
+    private final OrderStore orderStore;
+    // 실패가 몰리는 상황을 위해 스택 없는 예외를 던진다. (aop.order.stackless-failures)
+    private final boolean stacklessFailures;
+
+    public OrderRepository() {
+        this(null);
+    }
+
+    public OrderRepository(@Nullable OrderStore orderStore) {
+        this(orderStore, false);
+    }
+
+    @Autowired
+    public OrderRepository(@Nullable OrderStore orderStore,
+                           @Value("${aop.order.stackless-failures:false}") boolean stacklessFailures) {
+        this.orderStore = orderStore;
+        this.stacklessFailures = stacklessFailures;
+    }
+
+    @ConcurrencyLimited
     public String save(String itemId) {
         log.info("[orderRepository] 실행");
 
         // 저장 로직
         if(itemId.equals("ex")) {
-            throw new IllegalStateException("예외 발생");
+            throw failure();
+        }
+
+        // 트랜잭션 안이면 커밋할 때 로그에 남는다. 저장소가 있으면 저장소가 곧 트랜잭션 로그다.
+        Transaction transaction = TransactionContext.current();
+        if (transaction != null) {
+            transaction.write(itemId);
+        } else if (orderStore != null) {
+            try {
+                orderStore.save(itemId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
 
         return "ok";
     }
+
+    /**
+     * 하나라도 실패하면 아무것도 저장하지 않는다.
+     * 동시 실행 한도는 {@link #save} 와 따로 센다. 묶음 하나가 한 건보다 오래 걸려서, 같은 리미터에 넣으면 그 지연 때문에 save 의 한도가 줄어든다.
+     *
+     * @return 저장한 주문 수
+     */
+    @ConcurrencyLimited
+    public int saveAll(Collection<String> itemIds) {
+        log.info("[orderRepository] 실행 {}건", itemIds.size());
+
+        // 저장 로직
+        for (String itemId : itemIds) {
+            if (itemId.equals("ex")) {
+                throw failure();
+            }
+        }
+
+        Transaction transaction = TransactionContext.current();
+        if (transaction != null) {
+            for (String itemId : itemIds) {
+                transaction.write(itemId);
+            }
+        } else if (orderStore != null) {
+            try {
+                orderStore.saveAll(itemIds);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return itemIds.size();
+    }
+
+    private IllegalStateException failure() {
+        return stacklessFailures ? new OrderFailureException("예외 발생") : new IllegalStateException("예외 발생");
+    }
 }
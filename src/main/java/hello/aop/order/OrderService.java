@@ -1,8 +1,11 @@
 package hello.aop.order;
 
+import hello.aop.member.annotation.RateLimited;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
 @Slf4j
 @Service
 public class OrderService {
@@ -12,8 +15,20 @@ public class OrderService {
         this.orderRepository = orderRepository;
     }
 
+    // 한도는 `aop.rate-limit.order-item.*` 설정으로 정한다.
+    @RateLimited(name = "order-item")
     public void orderItem(String itemId) {
         log.info("[orderService] 실행");
         orderRepository.save(itemId);
     }
+
+    /**
+     * 여러 주문을 한 번에 처리한다. 프록시와 어드바이스를 주문마다가 아니라 한 번만 거친다.
+     * 속도 제한은 {@link #orderItem} 과 같은 한도에서 주문 수만큼 쓴다.
+     */
+    @RateLimited(name = "order-item", batch = true)
+    public void orderItems(Collection<String> itemIds) {
+        log.info("[orderService] 실행 {}건", itemIds.size());
+        orderRepository.saveAll(itemIds);
+    }
 }
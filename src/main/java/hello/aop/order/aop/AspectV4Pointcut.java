@@ -1,13 +1,30 @@
 package hello.aop.order.aop;
 
+import hello.aop.tx.Transaction;
+import hello.aop.tx.TransactionManager;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 
 @Slf4j
 @Aspect
 public class AspectV4Pointcut {
+    // 없으면 로그만 남긴다.
+    @Nullable
+    private final TransactionManager transactionManager;
+
+    public AspectV4Pointcut() {
+        this(null);
+    }
+
+    @Autowired
+    public AspectV4Pointcut(@Nullable TransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
     @Around("hello.aop.order.aop.Pointcuts.allOrder()")
     public Object doLog(ProceedingJoinPoint joinPoint) throws Throwable {
         log.info("[log] {}", joinPoint.getSignature());
@@ -19,11 +36,18 @@ public class AspectV4Pointcut {
     public Object doTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
         Object result = null;
 
+        Transaction transaction = transactionManager != null ? transactionManager.begin() : null;
         try {
             log.info("[트랜잭션 시작] {}", joinPoint.getSignature());
             result = joinPoint.proceed();
+            if (transaction != null) {
+                transactionManager.commit(transaction);
+            }
             log.info("[트랜잭션 커밋] {}", joinPoint.getSignature());
-        } catch (Exception e) {
+        } catch (Throwable e) {
+            if (transaction != null) {
+                transactionManager.rollback(transaction);
+            }
             log.info("[트랜잭션 롤백] {}", joinPoint.getSignature());
             throw e;
         } finally {
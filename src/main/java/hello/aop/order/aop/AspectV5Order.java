@@ -1,10 +1,14 @@
 package hello.aop.order.aop;
 
+import hello.aop.tx.Transaction;
+import hello.aop.tx.TransactionManager;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.annotation.Order;
+import org.springframework.lang.Nullable;
 
 @Slf4j
 public class AspectV5Order {
@@ -14,7 +18,12 @@ public class AspectV5Order {
     public static class LogAspect {
         @Around("hello.aop.order.aop.Pointcuts.allOrder()")
         public Object doLog(ProceedingJoinPoint joinPoint) throws Throwable {
-            log.info("[log] {}", joinPoint.getSignature());
+            int batchSize = JoinPoints.batchSize(joinPoint);
+            if (batchSize < 0) {
+                log.info("[log] {}", joinPoint.getSignature());
+            } else {
+                log.info("[log] {} batch={}", joinPoint.getSignature(), batchSize);
+            }
             return joinPoint.proceed();
         }
     }
@@ -22,15 +31,40 @@ public class AspectV5Order {
     @Aspect
     @Order(1)
     public static class TxAspect {
+        // 없으면 로그만 남긴다.
+        @Nullable
+        private final TransactionManager transactionManager;
+
+        public TxAspect() {
+            this(null);
+        }
+
+        @Autowired
+        public TxAspect(@Nullable TransactionManager transactionManager) {
+            this.transactionManager = transactionManager;
+        }
+
         @Around("hello.aop.order.aop.Pointcuts.orderAndService()")
         public Object doTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
             Object result = null;
 
+            Transaction transaction = transactionManager != null ? transactionManager.begin() : null;
             try {
-                log.info("[트랜잭션 시작] {}", joinPoint.getSignature());
+                int batchSize = JoinPoints.batchSize(joinPoint);
+                if (batchSize < 0) {
+                    log.info("[트랜잭션 시작] {}", joinPoint.getSignature());
+                } else {
+                    log.info("[트랜잭션 시작] {} batch={}", joinPoint.getSignature(), batchSize);
+                }
                 result = joinPoint.proceed();
+                if (transaction != null) {
+                    transactionManager.commit(transaction);
+                }
                 log.info("[트랜잭션 커밋] {}", joinPoint.getSignature());
-            } catch (Exception e) {
+            } catch (Throwable e) {
+                if (transaction != null) {
+                    transactionManager.rollback(transaction);
+                }
                 log.info("[트랜잭션 롤백] {}", joinPoint.getSignature());
                 throw e;
             } finally {
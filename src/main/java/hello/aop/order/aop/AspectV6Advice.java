@@ -1,17 +1,55 @@
 package hello.aop.order.aop;
 
+import hello.aop.advice.MethodIds;
+import hello.aop.audit.AuditWriter;
+import hello.aop.event.AdviceEventPipeline;
+import hello.aop.event.AdviceEventType;
+import hello.aop.tx.Transaction;
+import hello.aop.tx.TransactionManager;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 
 @Slf4j
 @Aspect
 public class AspectV6Advice {
+    // 없으면 로그만 남긴다.
+    @Nullable
+    private final TransactionManager transactionManager;
+    // 있으면 before/return/ex/after 로그를 직접 남기지 않고 백그라운드로 넘긴다.
+    @Nullable
+    private final AdviceEventPipeline events;
+    // 있으면 return 로그 대신 인수와 반환값을 바이너리로 남긴다. 이벤트는 그대로 보낸다.
+    @Nullable
+    private final AuditWriter audit;
+    // 스택 없는 도메인 실패는 로그 대신 여기에 센다.
+    private final DomainFailures failures = new DomainFailures();
+
+    public AspectV6Advice() {
+        this(null, null);
+    }
+
+    public AspectV6Advice(@Nullable TransactionManager transactionManager, @Nullable AdviceEventPipeline events) {
+        this(transactionManager, events, null);
+    }
+
+    @Autowired
+    public AspectV6Advice(@Nullable TransactionManager transactionManager, @Nullable AdviceEventPipeline events,
+                          @Nullable AuditWriter audit) {
+        this.transactionManager = transactionManager;
+        this.events = events;
+        this.audit = audit;
+    }
+
     @Around("hello.aop.order.aop.Pointcuts.orderAndService()")
     public Object doTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
         Object result = null;
 
+        Transaction transaction = transactionManager != null ? transactionManager.begin() : null;
         try {
             // @Before
             log.info("[트랜잭션 시작] {}", joinPoint.getSignature());
@@ -19,10 +57,16 @@ public class AspectV6Advice {
             log.info("[joinPoint.toString()] {}", joinPoint.toString());
 
             // @AfterReturning
+            if (transaction != null) {
+                transactionManager.commit(transaction);
+            }
             log.info("[트랜잭션 커밋] {}", joinPoint.getSignature());
-        } catch (Exception e) {
+        } catch (Throwable e) {
 
             // @AfterThrowing
+            if (transaction != null) {
+                transactionManager.rollback(transaction);
+            }
             log.info("[트랜잭션 롤백] {}", joinPoint.getSignature());
             throw e;
         } finally {
@@ -37,22 +81,53 @@ public class AspectV6Advice {
     @Before("hello.aop.order.aop.Pointcuts.orderAndService()")
     // 여기서는 `@Around`처럼 `ProceedingJoinPoint` 타입의 파라미터를 받을 수 없다.
     public void doBefore(JoinPoint joinPoint) {
+        if (events != null) {
+            publish(joinPoint, AdviceEventType.BEFORE, null);
+            return;
+        }
         log.info("[before] {}", joinPoint.getSignature());
     }
 
     @AfterReturning(value = "hello.aop.order.aop.Pointcuts.orderAndService()", returning = "result")
     // return 값을 출력해볼 수 있지만, `@Around` 애노테이션이 붙은 메서드처럼 return 값을 직접 변경하는 것은 불가능하다.
     public void doReturn(JoinPoint joinPoint, Object result) {
-        log.info("[return] {} return={}", joinPoint.getSignature(), result);
+        if (audit != null) {
+            audit.append(MethodIds.id(((MethodSignature) joinPoint.getSignature()).getMethod()), joinPoint.getArgs(), result);
+        }
+        if (events != null) {
+            publish(joinPoint, AdviceEventType.RETURN, result);
+        } else if (audit == null) {
+            log.info("[return] {} return={}", joinPoint.getSignature(), result);
+        }
     }
 
     @AfterThrowing(value = "hello.aop.order.aop.Pointcuts.orderAndService()", throwing = "ex")
     public void doThrowing(JoinPoint joinPoint, Exception ex) {
+        if (DomainFailures.isQuiet(ex)) {
+            failures.record(((MethodSignature) joinPoint.getSignature()).getMethod());
+            return;
+        }
+        if (events != null) {
+            publish(joinPoint, AdviceEventType.THROWING, ex);
+            return;
+        }
         log.info("[ex] {} message={}", joinPoint.getSignature(), ex.getMessage());
     }
 
     @After(value = "hello.aop.order.aop.Pointcuts.orderAndService()")
     public void doAfter(JoinPoint joinPoint) {
+        if (events != null) {
+            publish(joinPoint, AdviceEventType.AFTER, null);
+            return;
+        }
         log.info("[after] {}", joinPoint.getSignature());
     }
+
+    public DomainFailures getFailures() {
+        return failures;
+    }
+
+    private void publish(JoinPoint joinPoint, AdviceEventType type, @Nullable Object value) {
+        events.publish(type, JoinPoints.method(joinPoint), value);
+    }
 }
@@ -0,0 +1,99 @@
+package hello.aop.order.aop;
+
+import hello.aop.advice.LightAdvice;
+import hello.aop.advice.LightAdviceInterceptor;
+import hello.aop.advice.MethodIds;
+import hello.aop.tx.Transaction;
+import hello.aop.tx.TransactionManager;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.Joinpoint;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+
+/**
+ * `AspectV5Order` 의 로그/트랜잭션 애스펙트를 {@link LightAdvice} 로 다시 쓴 것. 로그 내용과 순서(트랜잭션 -> 로그)는 같다.
+ * `ProceedingJoinPoint` 를 만들지 않으므로, 로그 레벨이 꺼져 있으면 어드바이스가 호출당 아무것도 할당하지 않는다.
+ * `@Import(AspectV7Light.class)` 로 두 어드바이저를 빈으로 등록한다.
+ */
+@Slf4j
+public class AspectV7Light {
+
+    @Bean
+    public Advisor lightTxAdvisor(ObjectProvider<TransactionManager> transactionManager) {
+        return TxAdvice.advisor(transactionManager.getIfAvailable());
+    }
+
+    @Bean
+    public Advisor lightLogAdvisor() {
+        return LogAdvice.advisor();
+    }
+
+    public static class LogAdvice implements LightAdvice<Object> {
+
+        public static Advisor advisor() {
+            return LightAdviceInterceptor.advisor("hello.aop.order.aop.Pointcuts.allOrder()", 2, new LogAdvice(), 0);
+        }
+
+        @Override
+        public Object around(int methodId, Object target, Object arg, Joinpoint chain) throws Throwable {
+            if (log.isInfoEnabled()) {
+                if (arg instanceof Collection) {
+                    log.info("[log] {} batch={}", MethodIds.signature(methodId), ((Collection<?>) arg).size());
+                } else {
+                    log.info("[log] {}", MethodIds.signature(methodId));
+                }
+            }
+            return chain.proceed();
+        }
+    }
+
+    public static class TxAdvice implements LightAdvice<Object> {
+        // 없으면 로그만 남긴다.
+        @Nullable
+        private final TransactionManager transactionManager;
+
+        public TxAdvice(@Nullable TransactionManager transactionManager) {
+            this.transactionManager = transactionManager;
+        }
+
+        public static Advisor advisor(@Nullable TransactionManager transactionManager) {
+            return LightAdviceInterceptor.advisor("hello.aop.order.aop.Pointcuts.orderAndService()", 1,
+                    new TxAdvice(transactionManager), 0);
+        }
+
+        @Override
+        public Object around(int methodId, Object target, Object arg, Joinpoint chain) throws Throwable {
+            Object result = null;
+
+            Transaction transaction = transactionManager != null ? transactionManager.begin() : null;
+            try {
+                if (log.isInfoEnabled()) {
+                    if (arg instanceof Collection) {
+                        log.info("[트랜잭션 시작] {} batch={}", MethodIds.signature(methodId), ((Collection<?>) arg).size());
+                    } else {
+                        log.info("[트랜잭션 시작] {}", MethodIds.signature(methodId));
+                    }
+                }
+                result = chain.proceed();
+                if (transaction != null) {
+                    transactionManager.commit(transaction);
+                }
+                log.info("[트랜잭션 커밋] {}", MethodIds.signature(methodId));
+            } catch (Throwable e) {
+                if (transaction != null) {
+                    transactionManager.rollback(transaction);
+                }
+                log.info("[트랜잭션 롤백] {}", MethodIds.signature(methodId));
+                throw e;
+            } finally {
+                log.info("[리소스 릴리즈] {}", MethodIds.signature(methodId));
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package hello.aop.order.aop;
+
+import hello.aop.cache.ArgumentKey;
+import hello.aop.cache.TinyLfuCache;
+import hello.aop.member.annotation.CachedResult;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CachedResult} 메서드의 결과를 빈과 메서드마다 따로 둔 {@link TinyLfuCache} 에 캐시한다.
+ * 같은 클래스의 빈이 여럿이어도 서로의 결과를 돌려주지 않는다. 캐시는 빈이 살아 있는 동안 남는다.
+ * 인자는 {@link JoinPoints#arguments} 로 읽어서 키를 만든다. 프록시에서는 복사하지 않는다.
+ *
+ * <p>{@link CoalesceAspect} 보다 바깥에서 실행한다. 캐시에 있으면 합치기까지 가지 않는다.</p>
+ */
+@Aspect
+@Order(CachedResultAspect.ORDER)
+public class CachedResultAspect {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    private static final Object NULL = new Object();
+
+    private final Map<CacheId, TinyLfuCache<Object, Object>> caches = new ConcurrentHashMap<>();
+
+    @Around("@annotation(cachedResult)")
+    public Object doCache(ProceedingJoinPoint joinPoint, CachedResult cachedResult) throws Throwable {
+        TinyLfuCache<Object, Object> cache = cache(new CacheId(joinPoint.getTarget(), JoinPoints.method(joinPoint)), cachedResult);
+        Object key = ArgumentKey.of(JoinPoints.arguments(joinPoint));
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return cached == NULL ? null : cached;
+        }
+        Object result = joinPoint.proceed();
+        cache.put(ArgumentKey.retain(key), result == null ? NULL : result);
+        return result;
+    }
+
+    public TinyLfuCache<Object, Object> cache(Object target, Method method) {
+        return caches.get(new CacheId(target, method));
+    }
+
+    private TinyLfuCache<Object, Object> cache(CacheId id, CachedResult cachedResult) {
+        TinyLfuCache<Object, Object> cache = caches.get(id);
+        if (cache == null) {
+            cache = caches.computeIfAbsent(id, key -> new TinyLfuCache<>(cachedResult.maximumSize(),
+                    TimeUnit.SECONDS.toNanos(cachedResult.expireAfterWriteSeconds())));
+        }
+        return cache;
+    }
+
+    /**
+     * 빈은 동일성으로, 메서드는 equals 로 비교한다.
+     */
+    private static final class CacheId {
+        private final Object target;
+        private final Method method;
+
+        CacheId(Object target, Method method) {
+            this.target = target;
+            this.method = method;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheId)) {
+                return false;
+            }
+            CacheId other = (CacheId) o;
+            return target == other.target && method.equals(other.method);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(target) + method.hashCode();
+        }
+    }
+}
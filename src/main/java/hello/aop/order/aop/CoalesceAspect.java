@@ -0,0 +1,43 @@
+package hello.aop.order.aop;
+
+import hello.aop.coalesce.CallKey;
+import hello.aop.coalesce.InFlightTable;
+import hello.aop.member.annotation.Coalesce;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Coalesce} 메서드에 같은 인자로 동시에 들어온 호출을 {@link InFlightTable} 로 하나로 합친다.
+ * {@link CachedResultAspect} 바로 안쪽에서 실행한다.
+ */
+@Aspect
+@Order(CoalesceAspect.ORDER)
+public class CoalesceAspect {
+
+    public static final int ORDER = CachedResultAspect.ORDER + 1;
+
+    private final InFlightTable inFlight;
+
+    public CoalesceAspect() {
+        this(new InFlightTable());
+    }
+
+    public CoalesceAspect(InFlightTable inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    @Around("@annotation(coalesce)")
+    public Object doCoalesce(ProceedingJoinPoint joinPoint, Coalesce coalesce) throws Throwable {
+        CallKey key = new CallKey(joinPoint.getTarget(), JoinPoints.method(joinPoint),
+                joinPoint.getArgs());
+        return inFlight.execute(key, TimeUnit.MILLISECONDS.toNanos(coalesce.timeoutMillis()), joinPoint::proceed);
+    }
+
+    public InFlightTable getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,54 @@
+package hello.aop.order.aop;
+
+import hello.aop.limit.AdaptiveLimiter;
+import hello.aop.limit.ConcurrencyLimitExceededException;
+import hello.aop.member.annotation.ConcurrencyLimited;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ConcurrencyLimited} 메서드마다 {@link AdaptiveLimiter} 를 두고, 한도를 넘는 호출은 실행하지 않고
+ * {@link ConcurrencyLimitExceededException} 으로 바로 실패시킨다. 예외로 끝난 호출의 지연 시간도 한도 계산에 넣는다.
+ */
+@Aspect
+public class ConcurrencyLimitAspect {
+
+    private final Map<Method, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Around("@annotation(limited)")
+    public Object doLimit(ProceedingJoinPoint joinPoint, ConcurrencyLimited limited) throws Throwable {
+        AdaptiveLimiter limiter = limiter(JoinPoints.method(joinPoint), limited);
+        int inFlight = limiter.tryAcquire();
+        if (inFlight < 0) {
+            throw new ConcurrencyLimitExceededException("concurrency limit " + limiter.getLimit() + " exceeded: " + limiter.getName());
+        }
+
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            limiter.release(System.nanoTime() - start, inFlight);
+        }
+    }
+
+    public Collection<AdaptiveLimiter> limiters() {
+        return Collections.unmodifiableCollection(limiters.values());
+    }
+
+    private AdaptiveLimiter limiter(Method method, ConcurrencyLimited limited) {
+        AdaptiveLimiter limiter = limiters.get(method);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(method, key -> new AdaptiveLimiter(
+                    key.getDeclaringClass().getSimpleName() + "." + key.getName(),
+                    limited.initialLimit(), limited.minLimit(), limited.maxLimit()));
+        }
+        return limiter;
+    }
+}
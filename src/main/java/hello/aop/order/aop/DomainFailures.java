@@ -0,0 +1,34 @@
+package hello.aop.order.aop;
+
+import hello.aop.order.OrderFailureException;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 어드바이스가 로그 대신 횟수만 남기는 도메인 실패({@link OrderFailureException}).
+ * 실패가 몰려도 메시지를 포맷하거나 로그 이벤트를 만들지 않고, 메서드마다 `LongAdder` 하나만 올린다.
+ */
+public class DomainFailures {
+
+    private final Map<Method, LongAdder> counts = new ConcurrentHashMap<>();
+
+    public static boolean isQuiet(Throwable e) {
+        return e instanceof OrderFailureException;
+    }
+
+    public void record(Method method) {
+        LongAdder count = counts.get(method);
+        if (count == null) {
+            count = counts.computeIfAbsent(method, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    public long count(Method method) {
+        LongAdder count = counts.get(method);
+        return count == null ? 0 : count.sum();
+    }
+}
@@ -0,0 +1,41 @@
+package hello.aop.order.aop;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * `AspectV1` 과 같은 로그를 남기되 호출마다 할당하지 않는 운영용 로그 애스펙트.
+ * - 로그 레벨부터 확인해서 꺼져 있으면 아무것도 하지 않는다.
+ * - `joinPoint.getSignature()` 대신 {@link JoinPoints#method} 로 조회한다. 프록시에서는 시그니처 객체를 만들지 않는다.
+ * - "[log] 시그니처" 문자열은 메서드마다 처음 한 번만 만들어 두고, 이후에는 포맷팅 없이 그대로 넘긴다.
+ */
+@Slf4j
+@Aspect
+public class FastLogAspect {
+
+    private final ConcurrentMap<Method, String> messages = new ConcurrentHashMap<>();
+
+    @Around("hello.aop.order.aop.Pointcuts.allOrder()")
+    public Object doLog(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (log.isInfoEnabled()) {
+            log.info(message(joinPoint));
+        }
+        return joinPoint.proceed();
+    }
+
+    private String message(ProceedingJoinPoint joinPoint) {
+        Method method = JoinPoints.method(joinPoint);
+        String message = messages.get(method);
+        if (message == null) {
+            // 시그니처 문자열은 `AspectV1` 의 출력과 같게 맞춘다.
+            message = messages.computeIfAbsent(method, key -> "[log] " + joinPoint.getSignature());
+        }
+        return message;
+    }
+}
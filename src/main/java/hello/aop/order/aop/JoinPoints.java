@@ -0,0 +1,52 @@
+package hello.aop.order.aop;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.aspectj.MethodInvocationProceedingJoinPoint;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+/**
+ * 애스펙트에서 같이 쓰는 조인 포인트 도우미.
+ *
+ * <p>스프링 프록시에서는 현재 `MethodInvocation` 에서 바로 읽어서 시그니처 객체나 인수 복사본을 만들지 않는다.
+ * 로드 타임 위빙(`-Pweaving=ltw`)처럼 프록시가 없으면 `MethodInvocation` 도 없으므로 조인 포인트에서 읽는다.</p>
+ */
+public final class JoinPoints {
+
+    private JoinPoints() {
+    }
+
+    /**
+     * 호출 중인 메서드
+     */
+    public static Method method(JoinPoint joinPoint) {
+        if (joinPoint instanceof MethodInvocationProceedingJoinPoint) {
+            return ExposeInvocationInterceptor.currentInvocation().getMethod();
+        }
+        return ((MethodSignature) joinPoint.getSignature()).getMethod();
+    }
+
+    /**
+     * 호출의 인수. 프록시에서는 호출이 쓰는 배열 그대로이므로 바꾸면 안 된다.
+     */
+    public static Object[] arguments(JoinPoint joinPoint) {
+        if (joinPoint instanceof MethodInvocationProceedingJoinPoint) {
+            return ExposeInvocationInterceptor.currentInvocation().getArguments();
+        }
+        return joinPoint.getArgs();
+    }
+
+    /**
+     * `orderItems(Collection)` 처럼 첫 번째 인자가 컬렉션인 배치 호출이면 그 크기, 아니면 -1
+     */
+    public static int batchSize(JoinPoint joinPoint) {
+        Object[] args = joinPoint.getArgs();
+        if (args.length > 0 && args[0] instanceof Collection) {
+            return ((Collection<?>) args[0]).size();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,27 @@
+package hello.aop.order.aop;
+
+import hello.aop.member.annotation.MethodAop;
+import hello.aop.pointcut.AnnotationIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * {@link MethodAop} 메서드의 호출을 애노테이션 값과 함께 남긴다.
+ * `@annotation(methodAop)` 로 값을 바인딩하면 AspectJ 가 호출마다 리플렉션으로 애노테이션을 찾으므로,
+ * 포인트컷은 타입으로만 걸고 값은 프록시를 만들 때 만들어진 {@link AnnotationIndex} 에서 읽는다.
+ */
+@Slf4j
+@Aspect
+public class MethodAopAspect {
+
+    // 위빙할 때 `@annotation` 만 쓰면 호출하는 쪽(call)에도 걸리므로 프록시처럼 실행(execution)으로 한정한다.
+    @Around("execution(* hello..*(..)) && @annotation(hello.aop.member.annotation.MethodAop)")
+    public Object doMethodAop(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodAop methodAop = AnnotationIndex.of(joinPoint.getTarget().getClass())
+                .methodAnnotation(JoinPoints.method(joinPoint), MethodAop.class);
+        log.info("[@annotation] {} value={}", joinPoint.getSignature(), methodAop.value());
+        return joinPoint.proceed();
+    }
+}
@@ -0,0 +1,41 @@
+package hello.aop.order.aop;
+
+import hello.aop.metrics.MethodMetrics;
+import hello.aop.metrics.MetricsRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * `hello.aop.order` 의 메서드마다 호출 수, 예외 수, 지연 시간 히스토그램을 남긴다. JMX 로 볼 수 있다.
+ * 호출 경로에는 락이 없다. 메서드별 지표는 처음 호출할 때만 만든다.
+ */
+@Aspect
+public class MetricsAspect {
+
+    private final MetricsRegistry registry;
+
+    public MetricsAspect() {
+        this(new MetricsRegistry(false));
+    }
+
+    @Autowired
+    public MetricsAspect(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("hello.aop.order.aop.Pointcuts.allOrder()")
+    public Object doMetrics(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodMetrics metrics = registry.metrics(JoinPoints.method(joinPoint));
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            Object result = joinPoint.proceed();
+            error = false;
+            return result;
+        } finally {
+            metrics.record(System.nanoTime() - start, error);
+        }
+    }
+}
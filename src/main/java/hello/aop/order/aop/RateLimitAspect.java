@@ -0,0 +1,78 @@
+package hello.aop.order.aop;
+
+import hello.aop.limit.RateLimitExceededException;
+import hello.aop.limit.RateLimiter;
+import hello.aop.member.annotation.RateLimited;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link RateLimited} 메서드의 초당 호출 수를 제한한다. 넘는 호출은 실행하지 않고 {@link RateLimitExceededException} 으로 실패시킨다.
+ * 버킷은 CAS 로만 갱신하고, 인자는 {@link JoinPoints#arguments} 로 읽는다. 프록시에서는 복사하지 않는다.
+ *
+ * <p>이름이 있는 한도는 `aop.rate-limit.<이름>.permits-per-second(-per-key)` 설정이 있으면 애노테이션 값 대신 쓴다.
+ * 설정은 그 한도를 처음 쓸 때 한 번 읽는다.</p>
+ */
+@Aspect
+public class RateLimitAspect {
+
+    public static final String PREFIX = "aop.rate-limit.";
+
+    // 없으면 애노테이션 값만 쓴다.
+    @Nullable
+    private final PropertyResolver properties;
+    private final Map<Method, RateLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, RateLimiter> named = new ConcurrentHashMap<>();
+
+    public RateLimitAspect() {
+        this(null);
+    }
+
+    @Autowired
+    public RateLimitAspect(@Nullable PropertyResolver properties) {
+        this.properties = properties;
+    }
+
+    @Around("@annotation(rateLimited)")
+    public Object doRateLimit(ProceedingJoinPoint joinPoint, RateLimited rateLimited) throws Throwable {
+        long now = System.nanoTime();
+        RateLimiter limiter = limiter(JoinPoints.method(joinPoint), rateLimited, now);
+        if (!limiter.tryAcquire(JoinPoints.arguments(joinPoint), now)) {
+            throw new RateLimitExceededException("rate limit exceeded: " + limiter.getName());
+        }
+        return joinPoint.proceed();
+    }
+
+    public RateLimiter limiter(Method method) {
+        return limiters.get(method);
+    }
+
+    private RateLimiter limiter(Method method, RateLimited rateLimited, long now) {
+        RateLimiter limiter = limiters.get(method);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(method, key -> rateLimited.name().isEmpty()
+                    ? new RateLimiter(key.getDeclaringClass().getSimpleName() + "." + key.getName(), rateLimited, now)
+                    : named.computeIfAbsent(rateLimited.name(), name -> create(name, rateLimited, now)));
+        }
+        return limiter;
+    }
+
+    private RateLimiter create(String name, RateLimited rateLimited, long now) {
+        double permitsPerSecond = rateLimited.permitsPerSecond();
+        double permitsPerSecondPerKey = rateLimited.permitsPerSecondPerKey();
+        if (properties != null) {
+            permitsPerSecond = properties.getProperty(PREFIX + name + ".permits-per-second", Double.class, permitsPerSecond);
+            permitsPerSecondPerKey = properties.getProperty(PREFIX + name + ".permits-per-second-per-key", Double.class,
+                    permitsPerSecondPerKey);
+        }
+        return new RateLimiter(name, rateLimited, permitsPerSecond, permitsPerSecondPerKey, now);
+    }
+}
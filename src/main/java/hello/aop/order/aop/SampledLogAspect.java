@@ -0,0 +1,79 @@
+package hello.aop.order.aop;
+
+import hello.aop.advice.LightAdvice;
+import hello.aop.advice.LightAdviceInterceptor;
+import hello.aop.advice.MethodIds;
+import hello.aop.sampling.Sampler;
+import hello.aop.sampling.SamplingPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.Joinpoint;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * `AspectV1` 의 로그를 {@link SamplingPolicy} 가 고른 호출에만 남긴다.
+ * 고른 호출은 시그니처와 인자, 예외까지 다 남기고, 고르지 않은 호출은 난수 하나만 뽑고 지나간다.
+ * always-on-error 이면 고르지 않은 호출도 예외가 나면 `AspectV6Advice.doThrowing` 처럼 남긴다.
+ * 스택 없는 도메인 실패는 고른 호출이라도 로그 대신 {@link DomainFailures} 에 센다.
+ * `@Import(SampledLogAspect.class)` 로 어드바이저를 빈으로 등록한다.
+ */
+@Slf4j
+public class SampledLogAspect implements LightAdvice<Object> {
+
+    private final SamplingPolicy policy;
+    private final DomainFailures failures = new DomainFailures();
+
+    public SampledLogAspect() {
+        this(SamplingPolicy.always());
+    }
+
+    public SampledLogAspect(SamplingPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Bean
+    public static Advisor sampledLogAdvisor(ObjectProvider<SamplingPolicy> policy) {
+        return advisor(policy.getIfAvailable(SamplingPolicy::always));
+    }
+
+    public static Advisor advisor(SamplingPolicy policy) {
+        return LightAdviceInterceptor.advisor("hello.aop.order.aop.Pointcuts.allOrder()", 2, new SampledLogAspect(policy), 0);
+    }
+
+    @Override
+    public Object around(int methodId, Object target, Object arg, Joinpoint chain) throws Throwable {
+        Sampler sampler = policy.sampler(methodId, target.getClass());
+        if (sampler.sample()) {
+            log.info("[log] {} arg={}", MethodIds.signature(methodId), arg);
+            try {
+                return chain.proceed();
+            } catch (Exception e) {
+                failed(methodId, arg, e);
+                throw e;
+            }
+        }
+
+        if (!policy.isAlwaysOnError()) {
+            return chain.proceed();
+        }
+        try {
+            return chain.proceed();
+        } catch (Exception e) {
+            failed(methodId, arg, e);
+            throw e;
+        }
+    }
+
+    public DomainFailures getFailures() {
+        return failures;
+    }
+
+    private void failed(int methodId, Object arg, Exception e) {
+        if (DomainFailures.isQuiet(e)) {
+            failures.record(MethodIds.method(methodId));
+            return;
+        }
+        log.info("[ex] {} arg={} message={}", MethodIds.signature(methodId), arg, e.getMessage());
+    }
+}
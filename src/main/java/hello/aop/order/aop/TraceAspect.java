@@ -0,0 +1,56 @@
+package hello.aop.order.aop;
+
+import hello.aop.advice.LightAdvice;
+import hello.aop.advice.LightAdviceInterceptor;
+import hello.aop.trace.TraceContext;
+import hello.aop.trace.Tracer;
+import org.aopalliance.intercept.Joinpoint;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.lang.Nullable;
+
+/**
+ * `allOrder()` 호출을 스팬 트리로 남긴다. `OrderService.orderItem` 아래에 `OrderRepository.save` 가 자식으로 붙는다.
+ * 트랜잭션/로그 애스펙트까지 스팬 시간에 들어가도록 가장 바깥에서 돈다.
+ * 트레이스 문맥은 스레드별 배열 스택이라 호출마다 맵이나 스팬 객체를 만들지 않는다.
+ * `@Import(TraceAspect.class)` 로 어드바이저를 빈으로 등록한다. {@link Tracer} 가 없으면(`aop.trace.enabled`) 그냥 넘긴다.
+ */
+public class TraceAspect implements LightAdvice<Object> {
+
+    // 없으면 그냥 넘긴다.
+    @Nullable
+    private final Tracer tracer;
+
+    public TraceAspect(@Nullable Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Bean
+    public static Advisor traceAdvisor(ObjectProvider<Tracer> tracer) {
+        return advisor(tracer.getIfAvailable());
+    }
+
+    public static Advisor advisor(@Nullable Tracer tracer) {
+        return LightAdviceInterceptor.advisor("hello.aop.order.aop.Pointcuts.allOrder()", Ordered.HIGHEST_PRECEDENCE,
+                new TraceAspect(tracer), LightAdviceInterceptor.NO_ARG);
+    }
+
+    @Override
+    public Object around(int methodId, Object target, Object arg, Joinpoint chain) throws Throwable {
+        if (tracer == null) {
+            return chain.proceed();
+        }
+        TraceContext context = tracer.enter();
+        Throwable error = null;
+        try {
+            return chain.proceed();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            tracer.exit(context, methodId, error);
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package hello.aop.order.store;
+
+import hello.aop.tx.Transaction;
+import hello.aop.tx.TransactionLog;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 주문을 디렉터리 안의 세그먼트 파일에 이어 쓰는 저장소. 세그먼트 파일이 곧 write-ahead log 다.
+ *
+ * <ul>
+ *     <li>쓰기: 쓰는 중인 세그먼트 끝에 레코드를 붙이고 fsync 한 뒤 메모리 색인(itemId -> 세그먼트, 위치)을 바꾼다.
+ *     세그먼트가 `segmentSize` 를 넘으면 닫고 새 세그먼트를 연다.</li>
+ *     <li>읽기: 색인으로 위치를 찾아 닫힌 세그먼트는 매핑에서, 쓰는 중인 세그먼트는 채널에서 읽는다.</li>
+ *     <li>복구: 열 때 세그먼트를 순서대로 훑어 색인을 다시 만든다. 커밋 플래그까지 온전한 트랜잭션만 반영하고
+ *     마지막 세그먼트 끝의 나머지는 잘라 낸다.</li>
+ *     <li>컴팩션: 백그라운드에서 닫힌 세그먼트들의 살아 있는 레코드만 모아 하나로 합친다.</li>
+ * </ul>
+ *
+ * <p>{@link TransactionLog} 이기도 해서, 트랜잭션 매니저의 그룹 커밋이 여기로 바로 쓴다.</p>
+ */
+@Slf4j
+public class OrderStore implements TransactionLog {
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    private final Path dir;
+    private final long segmentSize;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    // 오래된 순서. 쓰기 락 안에서만 바꾼다.
+    private final List<Segment> sealed = new CopyOnWriteArrayList<>();
+    private volatile Segment active;
+    private volatile boolean closed;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    // 쓰기 락 안에서만 쓴다.
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    private final ScheduledExecutorService compactor;
+
+    private OrderStore(Path dir, long segmentSize, Duration compactionInterval) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        recover();
+
+        if (compactionInterval.isZero() || compactionInterval.isNegative()) {
+            compactor = null;
+        } else {
+            compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "order-store-compaction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = compactionInterval.toMillis();
+            compactor.scheduleWithFixedDelay(this::compactQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static OrderStore open(Path dir) throws IOException {
+        return open(dir, DEFAULT_SEGMENT_SIZE, Duration.ZERO);
+    }
+
+    /**
+     * @param compactionInterval 백그라운드 컴팩션 주기. 0 이면 {@link #compact()} 를 직접 부를 때만 한다.
+     */
+    public static OrderStore open(Path dir, long segmentSize, Duration compactionInterval) throws IOException {
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentSize out of range: " + segmentSize);
+        }
+        Files.createDirectories(dir);
+        return new OrderStore(dir, segmentSize, compactionInterval);
+    }
+
+    /**
+     * 트랜잭션 밖에서 주문 하나를 바로 저장한다.
+     */
+    public void save(String itemId) throws IOException {
+        saveAll(Collections.singletonList(itemId));
+    }
+
+    /**
+     * 트랜잭션 밖에서 여러 주문을 한 번의 쓰기와 fsync 로 저장한다. 복구할 때는 전부 반영되거나 전부 버려진다.
+     */
+    public void saveAll(Collection<String> itemIds) throws IOException {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        long savedAt = System.currentTimeMillis();
+
+        writeLock.lock();
+        try {
+            buffer.clear();
+            List<String> written = new ArrayList<>(itemIds.size());
+            int[] offsets = new int[itemIds.size() + 1];
+            for (String itemId : itemIds) {
+                byte[] key = Records.key(itemId);
+                ensureCapacity(Records.size(key));
+                offsets[written.size()] = buffer.position();
+                Records.write(buffer, key, 0, savedAt, written.size() == itemIds.size() - 1);
+                written.add(itemId);
+            }
+            offsets[written.size()] = buffer.position();
+            write(written, offsets);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 그룹 커밋 리더가 모은 트랜잭션들을 한 번에 쓰고 fsync 한다.
+     */
+    @Override
+    public void append(List<Transaction> transactions) throws IOException {
+        long savedAt = System.currentTimeMillis();
+
+        writeLock.lock();
+        try {
+            buffer.clear();
+            List<String> itemIds = new ArrayList<>();
+            int count = 0;
+            for (Transaction transaction : transactions) {
+                count += transaction.getWrites().size();
+            }
+
+            int[] offsets = new int[count + 1];
+            int i = 0;
+            for (Transaction transaction : transactions) {
+                List<String> writes = transaction.getWrites();
+                for (int w = 0; w < writes.size(); w++) {
+                    byte[] key = Records.key(writes.get(w));
+                    ensureCapacity(Records.size(key));
+                    offsets[i++] = buffer.position();
+                    Records.write(buffer, key, transaction.getId(), savedAt, w == writes.size() - 1);
+                    itemIds.add(writes.get(w));
+                }
+            }
+            offsets[i] = buffer.position();
+            write(itemIds, offsets);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 버퍼에 모은 레코드를 쓰고 색인을 바꾼다. `offsets[i]` 는 i 번째 레코드의 버퍼 안 위치, 마지막 값은 끝이다.
+     */
+    private void write(List<String> itemIds, int[] offsets) throws IOException {
+        buffer.flip();
+        if (!buffer.hasRemaining()) {
+            return;
+        }
+        if (active.size() > 0 && active.size() + buffer.remaining() > segmentSize) {
+            roll();
+        }
+
+        Segment segment = active;
+        long position = segment.append(buffer);
+        for (int i = 0; i < itemIds.size(); i++) {
+            index.put(itemIds.get(i), new Location(segment, position + offsets[i], offsets[i + 1] - offsets[i]));
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (buffer.remaining() >= size) {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + size));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+
+    private void roll() throws IOException {
+        Segment previous = active;
+        active = Segment.active(previous.id + 1, segmentFile(previous.id + 1));
+        previous.seal();
+        sealed.add(previous);
+    }
+
+    public Optional<StoredOrder> find(String itemId) throws IOException {
+        while (true) {
+            Location location = index.get(itemId);
+            if (location == null) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(location.segment.read(location.offset, location.length));
+            } catch (ClosedChannelException e) {
+                // 읽는 사이에 세그먼트가 닫혔다. 닫힌 세그먼트면 같은 위치를 매핑에서, 컴팩션으로 빠진 세그먼트면 새 위치에서 다시 읽는다.
+                if (closed) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    int segmentCount() {
+        return sealed.size() + 1;
+    }
+
+    List<Segment> sealedSegments() {
+        return List.copyOf(sealed);
+    }
+
+    /**
+     * 닫힌 세그먼트가 둘 이상이면 살아 있는 레코드만 모아 가장 최근 닫힌 세그먼트 자리에 하나로 합친다.
+     * 합친 파일은 임시 이름으로 다 쓴 뒤 rename 하므로, 도중에 죽어도 복구 결과는 같다.
+     */
+    public void compact() throws IOException {
+        compactionLock.lock();
+        try {
+            List<Segment> targets = new ArrayList<>(sealed);
+            if (targets.size() < 2) {
+                return;
+            }
+
+            Set<Segment> targetSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            targetSet.addAll(targets);
+            Segment last = targets.get(targets.size() - 1);
+            Path compactFile = dir.resolve(last.file.getFileName() + COMPACT_SUFFIX);
+
+            List<String> itemIds = new ArrayList<>();
+            List<Location> previous = new ArrayList<>();
+            List<long[]> positions = new ArrayList<>();
+            try (FileChannel channel = FileChannel.open(compactFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer out = ByteBuffer.allocate(64 * 1024);
+                long position = 0;
+                for (Map.Entry<String, Location> entry : index.entrySet()) {
+                    Location location = entry.getValue();
+                    if (!targetSet.contains(location.segment)) {
+                        continue;
+                    }
+
+                    StoredOrder order = location.segment.read(location.offset, location.length);
+                    byte[] key = Records.key(order.getItemId());
+                    int size = Records.size(key);
+                    if (out.remaining() < size) {
+                        position += flush(channel, out);
+                        if (out.capacity() < size) {
+                            out = ByteBuffer.allocate(size);
+                        }
+                    }
+                    long recordPosition = position + out.position();
+                    // 옮긴 레코드는 각자 커밋된 것으로 남긴다.
+                    Records.write(out, key, order.getTransactionId(), order.getSavedAt(), true);
+
+                    itemIds.add(entry.getKey());
+                    previous.add(location);
+                    positions.add(new long[]{recordPosition, size});
+                }
+                flush(channel, out);
+                channel.force(true);
+            }
+
+            Files.move(compactFile, last.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // 이름 바꾸기는 디렉터리 엔트리에 남으므로 디렉터리까지 fsync 해야 전원이 나가도 유지된다.
+            syncDirectory(dir);
+            Segment compacted = Segment.sealed(last.id, last.file);
+            for (int i = 0; i < itemIds.size(); i++) {
+                long[] position = positions.get(i);
+                // 그 사이에 새로 저장된 주문은 건드리지 않는다.
+                index.replace(itemIds.get(i), previous.get(i), new Location(compacted, position[0], (int) position[1]));
+            }
+
+            writeLock.lock();
+            try {
+                sealed.removeAll(targets);
+                sealed.add(0, compacted);
+            } finally {
+                writeLock.unlock();
+            }
+            // 색인이 모두 새 세그먼트를 가리키므로 옛 세그먼트는 닫는다. 읽던 스레드는 다시 찾아서 새 세그먼트에서 읽는다.
+            for (Segment target : targets) {
+                target.close();
+                if (target != last) {
+                    Files.deleteIfExists(target.file);
+                }
+            }
+            log.info("[order-store] compacted {} segments into {} ({} orders)", targets.size(), last.file.getFileName(), itemIds.size());
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * 디렉터리를 fsync 한다. 디렉터리를 열 수 없는 플랫폼(윈도우)에서는 건너뛴다.
+     */
+    static void syncDirectory(Path dir) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(dir, StandardOpenOption.READ);
+        } catch (IOException e) {
+            log.debug("[order-store] directory fsync not supported for {}: {}", dir, e.toString());
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    private static long flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        long written = out.remaining();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+        return written;
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.warn("[order-store] compaction failed", e);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(COMPACT_SUFFIX)) {
+                    // rename 전에 멈춘 컴팩션. 원래 세그먼트가 그대로 남아 있다.
+                    Files.delete(file);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            long id = segmentId(file);
+            if (i == files.size() - 1) {
+                active = Segment.active(id, file);
+                active.truncate(scan(file, active));
+            } else {
+                Segment segment = Segment.sealed(id, file);
+                scan(file, segment);
+                sealed.add(segment);
+            }
+        }
+        if (active == null) {
+            active = Segment.active(1, segmentFile(1));
+        }
+        log.info("[order-store] recovered {} orders from {} segments", index.size(), files.size());
+    }
+
+    /**
+     * 세그먼트를 처음부터 훑으며 커밋된 레코드를 색인에 넣는다.
+     *
+     * @return 마지막으로 온전히 커밋된 트랜잭션의 끝 위치
+     */
+    private long scan(Path file, Segment segment) throws IOException {
+        MappedByteBuffer data = Segment.map(file);
+        List<String> pendingIds = new ArrayList<>();
+        List<Location> pending = new ArrayList<>();
+        int committedEnd = 0;
+        int offset = 0;
+        while (true) {
+            int length = Records.validate(data, offset);
+            if (length < 0) {
+                break;
+            }
+            pendingIds.add(Records.read(data, offset).getItemId());
+            pending.add(new Location(segment, offset, length));
+            offset += length;
+            if (Records.isCommit(data, offset - length)) {
+                for (int i = 0; i < pending.size(); i++) {
+                    index.put(pendingIds.get(i), pending.get(i));
+                }
+                pendingIds.clear();
+                pending.clear();
+                committedEnd = offset;
+            }
+        }
+        if (committedEnd < data.limit()) {
+            log.warn("[order-store] ignoring {} bytes after the last commit in {}", data.limit() - committedEnd, file.getFileName());
+        }
+        return committedEnd;
+    }
+
+    private Path segmentFile(long id) {
+        return dir.resolve(String.format("%010d%s", id, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+        compactionLock.lock();
+        writeLock.lock();
+        try {
+            for (Segment segment : sealed) {
+                segment.close();
+            }
+            active.close();
+        } finally {
+            writeLock.unlock();
+            compactionLock.unlock();
+        }
+    }
+
+    private static class Location {
+        final Segment segment;
+        final long offset;
+        final int length;
+
+        Location(Segment segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package hello.aop.order.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * `aop.order.store.dir` 가 있으면 {@link OrderStore} 를 등록한다. `OrderRepository` 가 여기에 저장하고,
+ * {@link hello.aop.tx.TransactionLog} 빈이기도 해서 `aop.tx.enabled=true` 이면 트랜잭션 커밋도 이 저장소에 남는다.
+ *
+ * <pre>
+ * aop.order.store.dir=/var/lib/hello-aop/orders
+ * aop.order.store.segment-size=64MB
+ * aop.order.store.compaction-interval=1m   # 0 이면 백그라운드 컴팩션을 하지 않는다
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(name = "aop.order.store.dir")
+public class OrderStoreConfig {
+
+    @Bean
+    public OrderStore orderStore(
+            @Value("${aop.order.store.dir}") String dir,
+            @Value("${aop.order.store.segment-size:64MB}") DataSize segmentSize,
+            @Value("${aop.order.store.compaction-interval:1m}") Duration compactionInterval) throws IOException {
+        return OrderStore.open(Paths.get(dir), segmentSize.toBytes(), compactionInterval);
+    }
+}
@@ -0,0 +1,96 @@
+package hello.aop.order.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * 세그먼트 파일의 레코드 형식.
+ *
+ * <pre>
+ * record  = [int crc32(body)][int body 길이] body
+ * body    = [long 트랜잭션 id][long 저장 시각][byte flags][short 키 길이][키 UTF-8]
+ * </pre>
+ * 트랜잭션의 마지막 레코드에만 {@link #COMMIT} 플래그가 붙는다. 복구할 때 이 플래그까지 온전한 레코드만 반영한다.
+ */
+final class Records {
+
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+    static final int FIXED_BODY_SIZE = Long.BYTES * 2 + Byte.BYTES + Short.BYTES;
+    static final byte COMMIT = 1;
+
+    private Records() {
+    }
+
+    static byte[] key(String itemId) {
+        byte[] key = itemId.getBytes(StandardCharsets.UTF_8);
+        if (key.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("itemId too long: " + key.length + " bytes");
+        }
+        return key;
+    }
+
+    static int size(byte[] key) {
+        return HEADER_SIZE + FIXED_BODY_SIZE + key.length;
+    }
+
+    /**
+     * 버퍼의 현재 위치에 레코드를 쓴다. 버퍼에 {@link #size(byte[])} 만큼 자리가 있어야 한다.
+     */
+    static void write(ByteBuffer buffer, byte[] key, long transactionId, long savedAt, boolean commit) {
+        int start = buffer.position();
+        int bodySize = FIXED_BODY_SIZE + key.length;
+        buffer.putInt(0).putInt(bodySize);
+        buffer.putLong(transactionId).putLong(savedAt).put(commit ? COMMIT : 0).putShort((short) key.length).put(key);
+        buffer.putInt(start, crc(buffer, start + HEADER_SIZE, bodySize));
+    }
+
+    /**
+     * @return 레코드 전체 길이. 남은 바이트가 모자라거나 crc 가 맞지 않으면 -1
+     */
+    static int validate(ByteBuffer buffer, int offset) {
+        if (buffer.limit() - offset < HEADER_SIZE) {
+            return -1;
+        }
+        int crc = buffer.getInt(offset);
+        int bodySize = buffer.getInt(offset + Integer.BYTES);
+        if (bodySize < FIXED_BODY_SIZE || bodySize > buffer.limit() - offset - HEADER_SIZE) {
+            return -1;
+        }
+        if (crc(buffer, offset + HEADER_SIZE, bodySize) != crc) {
+            return -1;
+        }
+        int keyLength = buffer.getShort(offset + HEADER_SIZE + Long.BYTES * 2 + Byte.BYTES);
+        if (keyLength != bodySize - FIXED_BODY_SIZE) {
+            return -1;
+        }
+        return HEADER_SIZE + bodySize;
+    }
+
+    static boolean isCommit(ByteBuffer buffer, int offset) {
+        return (buffer.get(offset + HEADER_SIZE + Long.BYTES * 2) & COMMIT) != 0;
+    }
+
+    /**
+     * {@link #validate} 를 통과한 레코드를 읽는다.
+     */
+    static StoredOrder read(ByteBuffer buffer, int offset) {
+        int body = offset + HEADER_SIZE;
+        long transactionId = buffer.getLong(body);
+        long savedAt = buffer.getLong(body + Long.BYTES);
+        int keyLength = buffer.getShort(body + Long.BYTES * 2 + Byte.BYTES);
+        byte[] key = new byte[keyLength];
+        ByteBuffer view = buffer.duplicate();
+        view.position(body + FIXED_BODY_SIZE);
+        view.get(key);
+        return new StoredOrder(new String(key, StandardCharsets.UTF_8), transactionId, savedAt);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.limit(offset + length).position(offset);
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
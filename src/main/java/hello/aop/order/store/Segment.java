@@ -0,0 +1,145 @@
+package hello.aop.order.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 세그먼트 파일 하나. 쓰는 중인(active) 세그먼트는 `FileChannel` 로 이어 쓰고 읽고,
+ * 닫힌(sealed) 세그먼트는 읽기 전용으로 매핑해서 읽는다.
+ * 쓰기는 {@link OrderStore} 의 쓰기 락 안에서만 한다.
+ */
+final class Segment {
+
+    final long id;
+    final Path file;
+
+    private volatile FileChannel channel;
+    private volatile MappedByteBuffer mapped;
+    private volatile long size;
+
+    private Segment(long id, Path file, FileChannel channel, MappedByteBuffer mapped, long size) {
+        this.id = id;
+        this.file = file;
+        this.channel = channel;
+        this.mapped = mapped;
+        this.size = size;
+    }
+
+    static Segment active(long id, Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        channel.position(size);
+        return new Segment(id, file, channel, null, size);
+    }
+
+    static Segment sealed(long id, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            return new Segment(id, file, null, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), size);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    boolean isSealed() {
+        return mapped != null;
+    }
+
+    /**
+     * `size` 위치부터 명시적으로 쓴다. 쓰기나 fsync 가 실패하면 `size` 뒤를 잘라 내서, 반쯤 쓴 바이트 뒤에 다음 레코드가
+     * 붙지 않게 한다. 잘라 내지 못해도 다음 쓰기는 `size` 부터 덮어쓴다.
+     *
+     * @return 쓴 위치
+     */
+    long append(ByteBuffer records) throws IOException {
+        long position = size;
+        long written = position;
+        try {
+            while (records.hasRemaining()) {
+                written += channel.write(records, written);
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException | Error e) {
+            try {
+                channel.truncate(position);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        size = written;
+        return position;
+    }
+
+    /**
+     * 복구할 때 찾은 마지막 커밋 뒤의 나머지를 잘라 낸다.
+     */
+    void truncate(long size) throws IOException {
+        if (channel.size() > size) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+        channel.position(size);
+        this.size = size;
+    }
+
+    /**
+     * 더 쓰지 않는다. 이후 읽기는 매핑으로 한다.
+     */
+    void seal() throws IOException {
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        channel.close();
+        channel = null;
+    }
+
+    /**
+     * @throws ClosedChannelException 읽는 도중에 세그먼트가 닫혔으면. 다시 읽으면 매핑에서 읽는다.
+     */
+    StoredOrder read(long offset, int length) throws IOException {
+        MappedByteBuffer mapped = this.mapped;
+        if (mapped != null) {
+            return Records.read(mapped, (int) offset);
+        }
+
+        FileChannel channel = this.channel;
+        if (channel == null) {
+            throw new ClosedChannelException();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("unexpected end of segment " + file);
+            }
+        }
+        return Records.read(buffer, 0);
+    }
+
+    /**
+     * 복구할 때 처음부터 훑어보기 위한 매핑.
+     */
+    static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * 채널을 닫고 매핑을 놓는다. 이후 읽기는 {@link ClosedChannelException} 으로 실패한다.
+     * 자바 11 에는 매핑을 바로 푸는 공개 API 가 없다. 읽던 스레드가 매핑을 놓고 나면 GC 가 푼다.
+     */
+    void close() throws IOException {
+        FileChannel channel = this.channel;
+        this.channel = null;
+        mapped = null;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package hello.aop.order.store;
+
+/**
+ * 저장소에 남은 주문 한 건.
+ */
+public class StoredOrder {
+    private final String itemId;
+    private final long transactionId;
+    private final long savedAt;
+
+    public StoredOrder(String itemId, long transactionId, long savedAt) {
+        this.itemId = itemId;
+        this.transactionId = transactionId;
+        this.savedAt = savedAt;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * @return 트랜잭션 밖에서 저장했으면 0
+     */
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * @return 저장 시각 (epoch millis)
+     */
+    public long getSavedAt() {
+        return savedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "StoredOrder{itemId=" + itemId + ", transactionId=" + transactionId + ", savedAt=" + savedAt + "}";
+    }
+}
@@ -0,0 +1,136 @@
+package hello.aop.pointcut;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 한 클래스의 애노테이션 정보. 클래스마다 한 번, 보통 프록시를 만들 때 포인트컷 매칭 중에 만들어진다.
+ * `@annotation`/`@within`/`@target` 판단과, 애노테이션 값을 읽는 어드바이스가 호출마다 리플렉션을 하지 않고 여기서 읽는다.
+ *
+ * <ul>
+ *     <li>`@target`: 대상 클래스의 애노테이션 (`@Inherited` 포함)</li>
+ *     <li>`@annotation`: 대상 클래스에서 실제로 실행될 메서드의 애노테이션</li>
+ *     <li>`@within`: 그 메서드를 선언한 클래스에 직접 붙은 애노테이션. 부모에게 물려받은 메서드는 부모 기준이다.</li>
+ * </ul>
+ */
+public final class AnnotationIndex {
+
+    private static final ClassValue<AnnotationIndex> INDEXES = new ClassValue<>() {
+        @Override
+        protected AnnotationIndex computeValue(Class<?> type) {
+            return new AnnotationIndex(type);
+        }
+    };
+
+    private static final Annotation[] NONE = new Annotation[0];
+
+    private final Class<?> targetClass;
+    private final Annotation[] classAnnotations;
+    private final Map<Method, MethodAnnotations> methods = new ConcurrentHashMap<>();
+
+    private AnnotationIndex(Class<?> targetClass) {
+        this.targetClass = targetClass;
+        this.classAnnotations = targetClass.getAnnotations();
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(targetClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+            methods.put(method, new MethodAnnotations(method));
+        }
+    }
+
+    /**
+     * CGLIB 프록시 클래스를 넘기면 원래 클래스의 색인을 돌려준다.
+     */
+    public static AnnotationIndex of(Class<?> targetClass) {
+        return INDEXES.get(ClassUtils.getUserClass(targetClass));
+    }
+
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * `@target` 기준의 클래스 애노테이션
+     */
+    @Nullable
+    public <A extends Annotation> A targetAnnotation(Class<A> type) {
+        return find(classAnnotations, type);
+    }
+
+    /**
+     * `@annotation` 기준의 메서드 애노테이션. 인터페이스 메서드를 넘겨도 구현 메서드를 본다.
+     */
+    @Nullable
+    public <A extends Annotation> A methodAnnotation(Method method, Class<A> type) {
+        return find(methodAnnotations(method).annotations, type);
+    }
+
+    /**
+     * `@within` 기준의 선언 클래스 애노테이션
+     */
+    @Nullable
+    public <A extends Annotation> A withinAnnotation(Method method, Class<A> type) {
+        return find(methodAnnotations(method).declaringClassAnnotations, type);
+    }
+
+    /**
+     * 이 애노테이션이 붙은 메서드가 하나라도 있는지. 없으면 `@annotation` 포인트컷은 이 클래스에 적용될 수 없다.
+     */
+    public boolean hasMethodAnnotation(Class<? extends Annotation> type) {
+        for (MethodAnnotations annotations : methods.values()) {
+            if (find(annotations.annotations, type) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 계층의 어떤 클래스라도 이 애노테이션을 직접 달고 있는지. 없으면 `@within` 포인트컷은 이 클래스에 적용될 수 없다.
+     */
+    public boolean hasWithinAnnotation(Class<? extends Annotation> type) {
+        for (Class<?> c = targetClass; c != null; c = c.getSuperclass()) {
+            if (c.getDeclaredAnnotation(type) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private MethodAnnotations methodAnnotations(Method method) {
+        MethodAnnotations annotations = methods.get(method);
+        if (annotations == null) {
+            // 인터페이스나 브리지 메서드로 들어온 경우. 구현 메서드로 바꿔서 한 번만 계산해 둔다.
+            annotations = methods.computeIfAbsent(method, key -> new MethodAnnotations(
+                    ClassUtils.getMostSpecificMethod(key, targetClass)));
+        }
+        return annotations;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static <A extends Annotation> A find(Annotation[] annotations, Class<A> type) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType() == type) {
+                return (A) annotation;
+            }
+        }
+        return null;
+    }
+
+    private static final class MethodAnnotations {
+        final Annotation[] annotations;
+        final Annotation[] declaringClassAnnotations;
+
+        MethodAnnotations(Method method) {
+            Annotation[] annotations = method.getAnnotations();
+            Annotation[] declaringClassAnnotations = method.getDeclaringClass().getDeclaredAnnotations();
+            this.annotations = annotations.length == 0 ? NONE : annotations;
+            this.declaringClassAnnotations = declaringClassAnnotations.length == 0 ? NONE : declaringClassAnnotations;
+        }
+    }
+}
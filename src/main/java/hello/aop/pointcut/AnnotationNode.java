@@ -0,0 +1,49 @@
+package hello.aop.pointcut;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * `@annotation(Type)`, `@within(Type)`, `@target(Type)`. 모두 {@link AnnotationIndex} 에서 읽는다.
+ *
+ * <p>AspectJ 는 `@target` 을 호출마다 실제 대상 객체로 판단하지만, 여기서는 프록시를 만들 때 받은 대상 클래스로 정적으로 판단한다.
+ * 스프링 프록시의 대상은 만들 때 정해지므로 결과가 같고, 대상이 애노테이션을 달지 않았으면 프록시를 만들지도 않는다.</p>
+ */
+final class AnnotationNode implements PointcutNode {
+
+    enum Kind { ANNOTATION, WITHIN, TARGET }
+
+    private final Kind kind;
+    private final Class<? extends Annotation> type;
+
+    AnnotationNode(Kind kind, Class<? extends Annotation> type) {
+        this.kind = kind;
+        this.type = type;
+    }
+
+    @Override
+    public boolean couldMatch(Class<?> targetClass) {
+        AnnotationIndex index = AnnotationIndex.of(targetClass);
+        switch (kind) {
+            case ANNOTATION:
+                return index.hasMethodAnnotation(type);
+            case WITHIN:
+                return index.hasWithinAnnotation(type);
+            default:
+                return index.targetAnnotation(type) != null;
+        }
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        AnnotationIndex index = AnnotationIndex.of(targetClass);
+        switch (kind) {
+            case ANNOTATION:
+                return index.methodAnnotation(method, type) != null;
+            case WITHIN:
+                return index.withinAnnotation(method, type) != null;
+            default:
+                return index.targetAnnotation(type) != null;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package hello.aop.pointcut;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+/**
+ * `args(..)`. 선언된 파라미터 타입만으로 결정되지 않는 경우(예: `args(String)` 에 `Object` 파라미터)에는
+ * 런타임에 실제 인수의 타입으로 다시 판단한다.
+ * 위치가 모호해지지 않도록 `..` 는 하나만 허용한다.
+ */
+final class ArgsNode implements PointcutNode {
+
+    enum Match { YES, MAYBE, NO }
+
+    private final TypePattern[] prefix;
+    private final boolean ellipsis;
+    private final TypePattern[] suffix;
+
+    ArgsNode(TypePattern[] prefix, boolean ellipsis, TypePattern[] suffix) {
+        this.prefix = prefix;
+        this.ellipsis = ellipsis;
+        this.suffix = suffix;
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        Class<?>[] types = ClassUtils.getMostSpecificMethod(method, targetClass).getParameterTypes();
+        if (!acceptsCount(types.length)) {
+            return false;
+        }
+        for (int i = 0; i < types.length; i++) {
+            TypePattern pattern = patternAt(i, types.length);
+            if (pattern != null && staticMatch(pattern, types[i]) == Match.NO) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isRuntime() {
+        return true;
+    }
+
+    /**
+     * 정적 판단을 통과한 메서드에 대해서만 호출된다. (MethodMatcher 계약)
+     */
+    @Override
+    public boolean matches(Method method, Class<?> targetClass, Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            TypePattern pattern = patternAt(i, args.length);
+            if (pattern != null && !pattern.isAny()
+                    && !ClassUtils.resolvePrimitiveIfNecessary(pattern.exactType()).isInstance(args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 선언 타입으로 이미 결정된 위치는 빼고, `MAYBE` 인 위치만 순서대로 `isInstance` 로 확인한다.
+     * 예를 들어 `hello(String)` 에 `args(String)` 은 남는 판단이 없다.
+     */
+    @Override
+    @Nullable
+    public Residue residue(Method method, Class<?> targetClass) {
+        Class<?>[] types = ClassUtils.getMostSpecificMethod(method, targetClass).getParameterTypes();
+        int[] positions = new int[types.length];
+        Class<?>[] checks = new Class<?>[types.length];
+        int count = 0;
+        for (int i = 0; i < types.length; i++) {
+            TypePattern pattern = patternAt(i, types.length);
+            if (pattern != null && staticMatch(pattern, types[i]) == Match.MAYBE) {
+                positions[count] = i;
+                checks[count] = ClassUtils.resolvePrimitiveIfNecessary(pattern.exactType());
+                count++;
+            }
+        }
+        return count == 0 ? null : new TypeChecks(Arrays.copyOf(positions, count), Arrays.copyOf(checks, count));
+    }
+
+    boolean acceptsCount(int count) {
+        return ellipsis ? count >= prefix.length + suffix.length : count == prefix.length;
+    }
+
+    /**
+     * i 번째 인수에 대응하는 패턴. `..` 에 흡수되는 위치면 {@code null}.
+     */
+    TypePattern patternAt(int i, int count) {
+        if (i < prefix.length) {
+            return prefix[i];
+        }
+        int fromEnd = count - i;
+        return fromEnd <= suffix.length ? suffix[suffix.length - fromEnd] : null;
+    }
+
+    static Match staticMatch(TypePattern pattern, Class<?> declared) {
+        if (pattern.isAny()) {
+            return Match.YES;
+        }
+        Class<?> expected = ClassUtils.resolvePrimitiveIfNecessary(pattern.exactType());
+        Class<?> actual = ClassUtils.resolvePrimitiveIfNecessary(declared);
+        if (expected.isAssignableFrom(actual)) {
+            return Match.YES;
+        }
+        if (actual.isAssignableFrom(expected)) {
+            return Match.MAYBE; // 선언 타입의 하위 타입이 넘어올 수 있다.
+        }
+        if (Modifier.isFinal(actual.getModifiers()) || Modifier.isFinal(expected.getModifiers())) {
+            return Match.NO;
+        }
+        return actual.isInterface() || expected.isInterface() ? Match.MAYBE : Match.NO;
+    }
+
+    private static final class TypeChecks implements Residue {
+        private final int[] positions;
+        private final Class<?>[] types;
+
+        TypeChecks(int[] positions, Class<?>[] types) {
+            this.positions = positions;
+            this.types = types;
+        }
+
+        @Override
+        public boolean matches(Object[] args) {
+            for (int i = 0; i < positions.length; i++) {
+                if (!types[i].isInstance(args[positions[i]])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package hello.aop.pointcut;
+
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.Method;
+
+/**
+ * {@link PointcutCompiler} 가 만든 포인트컷. `AspectJExpressionPointcut` 대신 스프링에 그대로 넘길 수 있다.
+ */
+public class CompiledPointcut implements Pointcut, ClassFilter, MethodMatcher {
+
+    private final String expression;
+    private final PointcutNode root;
+
+    CompiledPointcut(String expression, PointcutNode root) {
+        this.expression = expression;
+        this.root = root;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    @Override
+    public ClassFilter getClassFilter() {
+        return this;
+    }
+
+    @Override
+    public MethodMatcher getMethodMatcher() {
+        return this;
+    }
+
+    @Override
+    public boolean matches(Class<?> clazz) {
+        return root.couldMatch(clazz);
+    }
+
+    @Override
+    public boolean matches(Method method, @Nullable Class<?> targetClass) {
+        return root.matches(method, targetClass != null ? targetClass : method.getDeclaringClass());
+    }
+
+    @Override
+    public boolean isRuntime() {
+        return root.isRuntime();
+    }
+
+    @Override
+    public boolean matches(Method method, @Nullable Class<?> targetClass, Object... args) {
+        return root.matches(method, targetClass != null ? targetClass : method.getDeclaringClass(), args);
+    }
+
+    /**
+     * 이 메서드에서 호출마다 남는 판단. 포인트컷이 런타임이 아니거나, 파라미터 타입만으로 결정되면 {@code null} 이다.
+     * `matches(Method, Class)` 가 true 인 메서드에 대해서만 부른다.
+     */
+    @Nullable
+    public Residue residue(Method method, @Nullable Class<?> targetClass) {
+        return root.isRuntime() ? root.residue(method, targetClass != null ? targetClass : method.getDeclaringClass()) : null;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledPointcut: " + expression;
+    }
+}
@@ -0,0 +1,91 @@
+package hello.aop.pointcut;
+
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * `execution(modifiers? ret-type declaring-type?.name(params))`.
+ * 선언 타입은 메서드를 선언한 타입과, 같은 메서드를 선언한 상위 타입 중 하나만 맞으면 된다.
+ * (그래서 `MemberService.*` 는 `hello` 는 잡고 `internal` 은 잡지 않는다.)
+ */
+final class ExecutionNode implements PointcutNode {
+
+    private final int modifiers;
+    private final TypePattern returnType;
+    private final TypePattern declaringType;
+    private final Pattern name;
+    private final TypePattern[] parameters;
+
+    ExecutionNode(int modifiers, TypePattern returnType, TypePattern declaringType, Pattern name, TypePattern[] parameters) {
+        this.modifiers = modifiers;
+        this.returnType = returnType;
+        this.declaringType = declaringType;
+        this.name = name;
+        this.parameters = parameters;
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        Method specific = ClassUtils.getMostSpecificMethod(method, targetClass);
+        return (specific.getModifiers() & modifiers) == modifiers
+                && (name == null || name.matcher(specific.getName()).matches())
+                && returnType.matches(specific.getReturnType())
+                && matchesParameters(parameters, 0, specific.getParameterTypes(), 0)
+                && (declaringType == null || matchesDeclaringType(specific));
+    }
+
+    private boolean matchesDeclaringType(Method method) {
+        Deque<Class<?>> types = new ArrayDeque<>();
+        Set<Class<?>> visited = new HashSet<>();
+        types.add(method.getDeclaringClass());
+        while (!types.isEmpty()) {
+            Class<?> type = types.poll();
+            if (!visited.add(type)) {
+                continue;
+            }
+            if (declares(type, method) && declaringType.matches(type)) {
+                return true;
+            }
+            if (type.getSuperclass() != null) {
+                types.add(type.getSuperclass());
+            }
+            for (Class<?> ifc : type.getInterfaces()) {
+                types.add(ifc);
+            }
+        }
+        return false;
+    }
+
+    private static boolean declares(Class<?> type, Method method) {
+        try {
+            type.getDeclaredMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 파라미터 패턴의 `..` 는 {@code null} 로 표현한다.
+     */
+    static boolean matchesParameters(TypePattern[] patterns, int p, Class<?>[] types, int t) {
+        if (p == patterns.length) {
+            return t == types.length;
+        }
+        if (patterns[p] == null) {
+            for (int skip = t; skip <= types.length; skip++) {
+                if (matchesParameters(patterns, p + 1, types, skip)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return t < types.length && patterns[p].matches(types[t]) && matchesParameters(patterns, p + 1, types, t + 1);
+    }
+}
@@ -0,0 +1,332 @@
+package hello.aop.pointcut;
+
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 포인트컷 표현식을 한 번 파싱해서 `Method`/`Class` 에 대한 판단 트리로 만든다.
+ * `AspectJExpressionPointcut` 처럼 메서드마다 AspectJ 의 shadow 매칭을 해석하지 않고, 미리 해석된 타입과 정규식만 비교한다.
+ *
+ * <p>지원: `execution`, `within`, `args`, `target`, `@annotation`/`@within`/`@target`, `&&`/`||`/`!`,
+ * `Pointcuts.allOrder()` 같은 이름 있는 포인트컷 참조.
+ * 그 외의 지시자나 파라미터 바인딩(`args(name)`, `@annotation(name)`)은 {@link IllegalArgumentException} 을 던지며,
+ * 호출하는 쪽은 이때 `AspectJExpressionPointcut` 을 그대로 쓴다.</p>
+ */
+public class PointcutCompiler {
+
+    private static final int MAX_REFERENCE_DEPTH = 16;
+
+    private static final Map<String, Integer> MODIFIERS = Map.of(
+            "public", Modifier.PUBLIC,
+            "protected", Modifier.PROTECTED,
+            "private", Modifier.PRIVATE,
+            "static", Modifier.STATIC,
+            "final", Modifier.FINAL,
+            "synchronized", Modifier.SYNCHRONIZED);
+
+    private final ClassLoader classLoader;
+
+    public PointcutCompiler() {
+        this(ClassUtils.getDefaultClassLoader());
+    }
+
+    public PointcutCompiler(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    public CompiledPointcut compile(String expression) {
+        return compile(expression, null);
+    }
+
+    /**
+     * @param scope `allOrder()` 처럼 클래스 이름 없이 참조한 포인트컷을 찾을 타입 (보통 애스펙트 클래스)
+     */
+    public CompiledPointcut compile(String expression, @Nullable Class<?> scope) {
+        return new CompiledPointcut(expression, parse(expression, scope, 0));
+    }
+
+    private PointcutNode parse(String expression, @Nullable Class<?> scope, int depth) {
+        if (depth > MAX_REFERENCE_DEPTH) {
+            throw new IllegalArgumentException("Pointcut references nested too deeply: " + expression);
+        }
+        Parser parser = new Parser(expression, scope, depth);
+        PointcutNode node = parser.orExpression();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("unexpected input");
+        }
+        return node;
+    }
+
+    private class Parser {
+        private final String text;
+        private final Class<?> scope;
+        private final int depth;
+        private int pos;
+
+        Parser(String text, Class<?> scope, int depth) {
+            this.text = text;
+            this.scope = scope;
+            this.depth = depth;
+        }
+
+        PointcutNode orExpression() {
+            PointcutNode node = andExpression();
+            while (accept("||") || acceptWord("or")) {
+                node = new PointcutNode.Or(node, andExpression());
+            }
+            return node;
+        }
+
+        PointcutNode andExpression() {
+            PointcutNode node = unary();
+            while (accept("&&") || acceptWord("and")) {
+                node = new PointcutNode.And(node, unary());
+            }
+            return node;
+        }
+
+        PointcutNode unary() {
+            if (accept("!") || acceptWord("not")) {
+                PointcutNode node = unary();
+                if (node.isRuntime()) {
+                    throw error("negation of a runtime test");
+                }
+                return new PointcutNode.Not(node);
+            }
+            if (accept("(")) {
+                PointcutNode node = orExpression();
+                if (!accept(")")) {
+                    throw error("')' expected");
+                }
+                return node;
+            }
+            return primitive();
+        }
+
+        PointcutNode primitive() {
+            skipWhitespace();
+            int start = pos;
+            while (pos < text.length() && isNameChar(text.charAt(pos))) {
+                pos++;
+            }
+            String name = text.substring(start, pos);
+            if (name.isEmpty() || !accept("(")) {
+                throw error("pointcut designator expected");
+            }
+            String body = body();
+
+            switch (name) {
+                case "execution":
+                    return execution(body);
+                case "within":
+                    return new WithinNode(TypePattern.parse(body.trim(), classLoader));
+                case "args":
+                    return args(body);
+                case "target":
+                    return target(body);
+                case "@annotation":
+                    return annotation(AnnotationNode.Kind.ANNOTATION, body);
+                case "@within":
+                    return annotation(AnnotationNode.Kind.WITHIN, body);
+                case "@target":
+                    return annotation(AnnotationNode.Kind.TARGET, body);
+                case "this":
+                case "bean":
+                case "call":
+                case "get":
+                case "set":
+                case "handler":
+                case "cflow":
+                case "cflowbelow":
+                case "if":
+                    throw error("unsupported designator '" + name + "'");
+                default:
+                    if (name.startsWith("@")) {
+                        throw error("unsupported designator '" + name + "'");
+                    }
+                    if (!body.isBlank()) {
+                        throw error("pointcut parameters are not supported");
+                    }
+                    return reference(name);
+            }
+        }
+
+        private PointcutNode execution(String body) {
+            int open = body.indexOf('(');
+            int close = body.lastIndexOf(')');
+            if (open < 0 || close < open || !body.substring(close + 1).isBlank()) {
+                throw error("unsupported execution pattern '" + body + "'");
+            }
+            String[] head = body.substring(0, open).trim().split("\\s+");
+            if (head.length < 2) {
+                throw error("return type pattern expected");
+            }
+
+            int modifiers = 0;
+            for (int i = 0; i < head.length - 2; i++) {
+                Integer modifier = MODIFIERS.get(head[i]);
+                if (modifier == null) {
+                    throw error("unsupported modifier pattern '" + head[i] + "'");
+                }
+                modifiers |= modifier;
+            }
+
+            TypePattern returnType = TypePattern.parse(head[head.length - 2], classLoader);
+            String qualifiedName = head[head.length - 1];
+            int dot = qualifiedName.lastIndexOf('.');
+            TypePattern declaringType = null;
+            String methodName = qualifiedName;
+            if (dot >= 0) {
+                String type = qualifiedName.substring(0, dot);
+                // `hello.aop.order..*` 처럼 `..` 바로 뒤가 메서드 이름이면 하위 패키지의 모든 타입이다.
+                declaringType = TypePattern.parse(type.endsWith(".") ? type + "*" : type, classLoader);
+                methodName = qualifiedName.substring(dot + 1);
+            }
+            Pattern name = methodName.equals("*") ? null : Pattern.compile(TypePattern.toRegex(methodName));
+
+            List<TypePattern> parameters = new ArrayList<>();
+            for (String parameter : split(body.substring(open + 1, close))) {
+                parameters.add(parameter.equals("..") ? null : TypePattern.parse(parameter, classLoader));
+            }
+            return new ExecutionNode(modifiers, returnType, declaringType, name, parameters.toArray(new TypePattern[0]));
+        }
+
+        private PointcutNode args(String body) {
+            List<TypePattern> prefix = new ArrayList<>();
+            List<TypePattern> suffix = new ArrayList<>();
+            boolean ellipsis = false;
+            for (String parameter : split(body)) {
+                if (parameter.equals("..")) {
+                    if (ellipsis) {
+                        throw error("only one '..' is supported in args()");
+                    }
+                    ellipsis = true;
+                    continue;
+                }
+                TypePattern pattern = TypePattern.parse(parameter, classLoader);
+                if (!pattern.isAny() && pattern.exactType() == null) {
+                    // 타입으로 해석되지 않으면 파라미터 바인딩이다.
+                    throw error("args() binding or type pattern '" + parameter + "' is not supported");
+                }
+                (ellipsis ? suffix : prefix).add(pattern);
+            }
+            return new ArgsNode(prefix.toArray(new TypePattern[0]), ellipsis, suffix.toArray(new TypePattern[0]));
+        }
+
+        private PointcutNode target(String body) {
+            Class<?> type = TypePattern.resolve(body.trim(), classLoader);
+            if (type == null) {
+                throw error("target() binding or type '" + body.trim() + "' is not supported");
+            }
+            return new TargetNode(type);
+        }
+
+        private PointcutNode annotation(AnnotationNode.Kind kind, String body) {
+            Class<?> type = TypePattern.resolve(body.trim(), classLoader);
+            if (type == null || !type.isAnnotation()) {
+                // 타입으로 해석되지 않으면 파라미터 바인딩이다.
+                throw error("annotation binding or type '" + body.trim() + "' is not supported");
+            }
+            return new AnnotationNode(kind, type.asSubclass(Annotation.class));
+        }
+
+        private PointcutNode reference(String name) {
+            int dot = name.lastIndexOf('.');
+            Class<?> owner = scope;
+            String methodName = name;
+            if (dot >= 0) {
+                try {
+                    owner = ClassUtils.forName(name.substring(0, dot), classLoader);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    throw error("unknown pointcut owner '" + name.substring(0, dot) + "'");
+                }
+                methodName = name.substring(dot + 1);
+            }
+            if (owner == null) {
+                throw error("no scope to resolve pointcut '" + name + "'");
+            }
+
+            for (Class<?> type = owner; type != null; type = type.getSuperclass()) {
+                for (Method method : type.getDeclaredMethods()) {
+                    Pointcut pointcut = method.getAnnotation(Pointcut.class);
+                    if (pointcut != null && method.getName().equals(methodName) && method.getParameterCount() == 0) {
+                        return parse(pointcut.value(), method.getDeclaringClass(), depth + 1);
+                    }
+                }
+            }
+            throw error("pointcut '" + name + "' not found in " + owner.getName());
+        }
+
+        private String body() {
+            int start = pos;
+            int open = 1;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '(') {
+                    open++;
+                } else if (c == ')' && --open == 0) {
+                    return text.substring(start, pos - 1);
+                }
+            }
+            throw error("')' expected");
+        }
+
+        private List<String> split(String parameters) {
+            List<String> result = new ArrayList<>();
+            if (parameters.isBlank()) {
+                return result;
+            }
+            for (String parameter : parameters.split(",")) {
+                result.add(parameter.trim());
+            }
+            return result;
+        }
+
+        boolean accept(String token) {
+            skipWhitespace();
+            if (text.startsWith(token, pos)) {
+                pos += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        boolean acceptWord(String word) {
+            skipWhitespace();
+            int end = pos + word.length();
+            if (text.startsWith(word, pos) && (end == text.length() || !isNameChar(text.charAt(end)))) {
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean atEnd() {
+            return pos == text.length();
+        }
+
+        private boolean isNameChar(char c) {
+            return Character.isJavaIdentifierPart(c) || c == '.' || c == '@';
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + pos + " in '" + text + "'");
+        }
+    }
+}
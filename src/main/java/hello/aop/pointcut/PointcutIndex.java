@@ -0,0 +1,157 @@
+package hello.aop.pointcut;
+
+import hello.aop.advice.MethodIds;
+import org.springframework.lang.Nullable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 빌드 시점에 {@link PointcutIndexGenerator} 가 미리 계산한 "어떤 어드바이스가 어떤 클래스의 어떤 메서드에 적용되는가" 색인.
+ * 런타임에는 빈 클래스마다 포인트컷을 다시 매칭하는 대신 이 색인을 조회한다.
+ *
+ * <p>어드바이스는 `애스펙트클래스#메서드(파라미터)` 키와 포인트컷 표현식으로 구분한다.
+ * 표현식이 빌드 때와 다르거나 색인에 없는 클래스는 {@code null} 을 돌려주므로 호출하는 쪽이 직접 매칭해야 한다.</p>
+ */
+public class PointcutIndex {
+
+    public static final String LOCATION = "META-INF/aop/pointcut.idx";
+
+    private static final int MAGIC = 0x41504958; // "APIX"
+    private static final int VERSION = 2;
+
+    private final Map<String, Advice> advices = new LinkedHashMap<>();
+    private final Map<String, Map<Integer, List<String>>> matches = new HashMap<>();
+
+    /**
+     * 클래스패스에 색인이 없으면 {@code null}.
+     */
+    @Nullable
+    public static PointcutIndex load(ClassLoader classLoader) throws IOException {
+        try (InputStream in = classLoader.getResourceAsStream(LOCATION)) {
+            return in != null ? read(in) : null;
+        }
+    }
+
+    public static String adviceKey(Method adviceMethod) {
+        return adviceMethod.getDeclaringClass().getName() + "#" + methodKey(adviceMethod);
+    }
+
+    static String methodKey(Method method) {
+        return MethodIds.qualifiedName(method);
+    }
+
+    int addAdvice(String adviceKey, String expression) {
+        return advices.computeIfAbsent(adviceKey, key -> new Advice(advices.size(), expression)).id;
+    }
+
+    void addClass(String className) {
+        matches.computeIfAbsent(className, name -> new LinkedHashMap<>());
+    }
+
+    void addMatch(String className, int adviceId, String methodKey) {
+        matches.computeIfAbsent(className, name -> new LinkedHashMap<>())
+                .computeIfAbsent(adviceId, id -> new ArrayList<>())
+                .add(methodKey);
+    }
+
+    /**
+     * @return 어드바이스가 클래스의 메서드 중 하나라도 매칭되는지. 색인으로 판단할 수 없으면 {@code null}
+     */
+    @Nullable
+    public Boolean canApply(String adviceKey, String expression, String className) {
+        List<String> methods = matchedMethods(adviceKey, expression, className);
+        return methods != null ? !methods.isEmpty() : null;
+    }
+
+    /**
+     * @return 어드바이스가 매칭되는 메서드 키 목록. 색인으로 판단할 수 없으면 {@code null}
+     */
+    @Nullable
+    public List<String> matchedMethods(String adviceKey, String expression, String className) {
+        Advice advice = advices.get(adviceKey);
+        Map<Integer, List<String>> classMatches = matches.get(className);
+        if (advice == null || classMatches == null || !advice.expression.equals(expression)) {
+            return null;
+        }
+        return classMatches.getOrDefault(advice.id, Collections.emptyList());
+    }
+
+    public int size() {
+        return matches.size();
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+
+        data.writeInt(advices.size());
+        for (Map.Entry<String, Advice> advice : advices.entrySet()) {
+            data.writeUTF(advice.getKey());
+            data.writeUTF(advice.getValue().expression);
+        }
+
+        data.writeInt(matches.size());
+        for (Map.Entry<String, Map<Integer, List<String>>> classMatches : matches.entrySet()) {
+            data.writeUTF(classMatches.getKey());
+            data.writeInt(classMatches.getValue().size());
+            for (Map.Entry<Integer, List<String>> match : classMatches.getValue().entrySet()) {
+                data.writeInt(match.getKey());
+                data.writeInt(match.getValue().size());
+                for (String methodKey : match.getValue()) {
+                    data.writeUTF(methodKey);
+                }
+            }
+        }
+        data.flush();
+    }
+
+    static PointcutIndex read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Not a pointcut index: " + LOCATION);
+        }
+
+        PointcutIndex index = new PointcutIndex();
+        int adviceCount = data.readInt();
+        for (int i = 0; i < adviceCount; i++) {
+            index.addAdvice(data.readUTF(), data.readUTF());
+        }
+
+        int classCount = data.readInt();
+        for (int i = 0; i < classCount; i++) {
+            String className = data.readUTF();
+            index.addClass(className);
+            int matchCount = data.readInt();
+            for (int j = 0; j < matchCount; j++) {
+                int adviceId = data.readInt();
+                int methodCount = data.readInt();
+                for (int k = 0; k < methodCount; k++) {
+                    index.addMatch(className, adviceId, data.readUTF());
+                }
+            }
+        }
+        return index;
+    }
+
+    private static class Advice {
+        final int id;
+        final String expression;
+
+        Advice(int id, String expression) {
+            this.id = id;
+            this.expression = expression;
+        }
+    }
+}
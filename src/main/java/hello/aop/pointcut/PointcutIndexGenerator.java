@@ -0,0 +1,151 @@
+package hello.aop.pointcut;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.annotation.ReflectiveAspectJAdvisorFactory;
+import org.springframework.aop.aspectj.annotation.SimpleMetadataAwareAspectInstanceFactory;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 컴파일된 클래스 디렉터리를 훑어서 {@link PointcutIndex} 를 만든다. `./gradlew pointcutIndex` 가 실행한다.
+ *
+ * <p>어드바이저는 스프링이 런타임에 쓰는 {@link ReflectiveAspectJAdvisorFactory} 로 똑같이 만들고,
+ * 매칭도 `AopUtils.canApply` 와 같은 방식(클래스와 인터페이스의 모든 메서드)으로 한다.</p>
+ *
+ * <pre>PointcutIndexGenerator &lt;classes-dir&gt; &lt;output-dir&gt;</pre>
+ */
+@Slf4j
+public class PointcutIndexGenerator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("usage: PointcutIndexGenerator <classes-dir> <output-dir>");
+        }
+
+        List<Class<?>> classes = loadClasses(Paths.get(args[0]));
+        PointcutIndex index = generate(classes);
+
+        Path output = Paths.get(args[1]).resolve(PointcutIndex.LOCATION);
+        Files.createDirectories(output.getParent());
+        try (OutputStream out = Files.newOutputStream(output)) {
+            index.write(out);
+        }
+        log.info("pointcut index: {} classes -> {}", index.size(), output);
+    }
+
+    public static PointcutIndex generate(List<Class<?>> classes) {
+        ReflectiveAspectJAdvisorFactory advisorFactory = new ReflectiveAspectJAdvisorFactory();
+        List<PointcutAdvisor> advisors = new ArrayList<>();
+        for (Class<?> type : classes) {
+            if (advisorFactory.isAspect(type) && !Modifier.isAbstract(type.getModifiers())) {
+                for (Advisor advisor : advisorFactory.getAdvisors(
+                        new SimpleMetadataAwareAspectInstanceFactory(type, type.getName()))) {
+                    if (advisor instanceof PointcutAdvisor && advisor.getAdvice() instanceof AbstractAspectJAdvice) {
+                        advisors.add((PointcutAdvisor) advisor);
+                    }
+                }
+            }
+        }
+
+        List<Class<?>> targets = new ArrayList<>();
+        PointcutIndex index = new PointcutIndex();
+        for (Class<?> type : classes) {
+            if (!type.isInterface() && !type.isAnnotation() && !type.isAnnotationPresent(Aspect.class)) {
+                targets.add(type);
+                index.addClass(type.getName());
+            }
+        }
+
+        for (PointcutAdvisor advisor : advisors) {
+            AbstractAspectJAdvice advice = (AbstractAspectJAdvice) advisor.getAdvice();
+            Map<Class<?>, Set<Method>> matches = new LinkedHashMap<>();
+            try {
+                for (Class<?> type : targets) {
+                    matches.put(type, matchedMethods(advisor.getPointcut(), type));
+                }
+            } catch (RuntimeException e) {
+                // 색인에 없는 어드바이스는 런타임에 원래대로 매칭한다.
+                log.warn("skip {}: {}", advice.getAspectJAdviceMethod(), e.toString());
+                continue;
+            }
+
+            int adviceId = index.addAdvice(PointcutIndex.adviceKey(advice.getAspectJAdviceMethod()),
+                    advice.getPointcut().getExpression());
+            matches.forEach((type, methods) -> {
+                for (Method method : methods) {
+                    index.addMatch(type.getName(), adviceId, PointcutIndex.methodKey(method));
+                }
+            });
+        }
+        return index;
+    }
+
+    /**
+     * `AopUtils.canApply` 와 같은 범위의 메서드를 보되, 첫 매칭에서 멈추지 않고 모두 모은다.
+     */
+    private static Set<Method> matchedMethods(Pointcut pointcut, Class<?> targetClass) {
+        Set<Method> matched = new LinkedHashSet<>();
+        if (!pointcut.getClassFilter().matches(targetClass)) {
+            return matched;
+        }
+
+        MethodMatcher methodMatcher = pointcut.getMethodMatcher();
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        if (!Proxy.isProxyClass(targetClass)) {
+            classes.add(ClassUtils.getUserClass(targetClass));
+        }
+        classes.addAll(ClassUtils.getAllInterfacesForClassAsSet(targetClass));
+        for (Class<?> type : classes) {
+            for (Method method : ReflectionUtils.getAllDeclaredMethods(type)) {
+                if (methodMatcher.matches(method, targetClass)) {
+                    matched.add(method);
+                }
+            }
+        }
+        return matched;
+    }
+
+    private static List<Class<?>> loadClasses(Path classesDir) throws IOException {
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        List<Class<?>> classes = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(classesDir)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".class")).collect(Collectors.toList())) {
+                String relative = classesDir.relativize(file).toString();
+                String className = relative.substring(0, relative.length() - ".class".length())
+                        .replace(file.getFileSystem().getSeparator(), ".");
+                if (className.endsWith("package-info") || className.endsWith("module-info")) {
+                    continue;
+                }
+                try {
+                    classes.add(ClassUtils.forName(className, classLoader));
+                } catch (ClassNotFoundException | LinkageError e) {
+                    log.warn("skip {}: {}", className, e.toString());
+                }
+            }
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,147 @@
+package hello.aop.pointcut;
+
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.Method;
+
+/**
+ * 컴파일된 포인트컷 표현식의 한 노드.
+ * 정적 판단(`matches(Method, Class)`)이 "가능성 있음"을 돌려주면 `isRuntime()` 인 노드만 인수로 다시 판단한다.
+ */
+interface PointcutNode {
+
+    /**
+     * 이 타입의 어떤 메서드도 매칭될 수 없으면 false. 확신할 수 없으면 true 를 돌려준다.
+     */
+    default boolean couldMatch(Class<?> targetClass) {
+        return true;
+    }
+
+    boolean matches(Method method, Class<?> targetClass);
+
+    default boolean isRuntime() {
+        return false;
+    }
+
+    /**
+     * `matches(Method, Class)` 가 true 였던 메서드에 대해서만 호출된다.
+     */
+    default boolean matches(Method method, Class<?> targetClass, Object[] args) {
+        return true;
+    }
+
+    /**
+     * `matches(Method, Class)` 가 true 였던 메서드에서 호출마다 남는 판단. 시그니처만으로 결정되면 {@code null}.
+     */
+    @Nullable
+    default Residue residue(Method method, Class<?> targetClass) {
+        return null;
+    }
+
+    final class And implements PointcutNode {
+        private final PointcutNode left;
+        private final PointcutNode right;
+
+        And(PointcutNode left, PointcutNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean couldMatch(Class<?> targetClass) {
+            return left.couldMatch(targetClass) && right.couldMatch(targetClass);
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return left.matches(method, targetClass) && right.matches(method, targetClass);
+        }
+
+        @Override
+        public boolean isRuntime() {
+            return left.isRuntime() || right.isRuntime();
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass, Object[] args) {
+            // 정적으로 둘 다 통과했으므로 동적 판단이 필요한 쪽만 다시 본다.
+            return left.matches(method, targetClass, args) && right.matches(method, targetClass, args);
+        }
+
+        @Override
+        @Nullable
+        public Residue residue(Method method, Class<?> targetClass) {
+            Residue leftResidue = left.residue(method, targetClass);
+            Residue rightResidue = right.residue(method, targetClass);
+            if (leftResidue == null || rightResidue == null) {
+                return leftResidue == null ? rightResidue : leftResidue;
+            }
+            return args -> leftResidue.matches(args) && rightResidue.matches(args);
+        }
+    }
+
+    final class Or implements PointcutNode {
+        private final PointcutNode left;
+        private final PointcutNode right;
+
+        Or(PointcutNode left, PointcutNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean couldMatch(Class<?> targetClass) {
+            return left.couldMatch(targetClass) || right.couldMatch(targetClass);
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return left.matches(method, targetClass) || right.matches(method, targetClass);
+        }
+
+        @Override
+        public boolean isRuntime() {
+            return left.isRuntime() || right.isRuntime();
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass, Object[] args) {
+            // 어느 쪽이 정적으로 통과했는지 모르므로 정적 판단부터 다시 한다.
+            return left.matches(method, targetClass) && left.matches(method, targetClass, args)
+                    || right.matches(method, targetClass) && right.matches(method, targetClass, args);
+        }
+
+        @Override
+        @Nullable
+        public Residue residue(Method method, Class<?> targetClass) {
+            // 정적으로 통과한 쪽만 본다. 어느 한쪽이라도 남는 판단이 없으면 항상 매칭이다.
+            boolean leftMatches = left.matches(method, targetClass);
+            boolean rightMatches = right.matches(method, targetClass);
+            Residue leftResidue = leftMatches ? left.residue(method, targetClass) : null;
+            Residue rightResidue = rightMatches ? right.residue(method, targetClass) : null;
+            if (leftMatches && leftResidue == null || rightMatches && rightResidue == null) {
+                return null;
+            }
+            if (!leftMatches || !rightMatches) {
+                return leftMatches ? leftResidue : rightResidue;
+            }
+            return args -> leftResidue.matches(args) || rightResidue.matches(args);
+        }
+    }
+
+    /**
+     * 동적 판단이 필요한 노드의 부정은 정적으로 결정할 수 없으므로 컴파일러가 만들지 않는다.
+     */
+    final class Not implements PointcutNode {
+        private final PointcutNode node;
+
+        Not(PointcutNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return !node.matches(method, targetClass);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package hello.aop.pointcut;
+
+/**
+ * 정적 매칭을 통과한 한 메서드에서 호출마다 남는 동적 판단. {@link CompiledPointcut#residue} 가 시그니처마다 미리 만든다.
+ */
+@FunctionalInterface
+public interface Residue {
+
+    boolean matches(Object[] args);
+}
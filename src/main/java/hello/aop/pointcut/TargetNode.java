@@ -0,0 +1,26 @@
+package hello.aop.pointcut;
+
+import java.lang.reflect.Method;
+
+/**
+ * `target(Type)`. AspectJ 는 호출마다 대상 객체의 타입을 확인하지만, 스프링 프록시의 대상은 만들 때 정해지므로
+ * 대상 클래스로 정적으로 판단한다. 동적 판단이 남지 않는다.
+ */
+final class TargetNode implements PointcutNode {
+
+    private final Class<?> type;
+
+    TargetNode(Class<?> type) {
+        this.type = type;
+    }
+
+    @Override
+    public boolean couldMatch(Class<?> targetClass) {
+        return type.isAssignableFrom(targetClass);
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        return type.isAssignableFrom(targetClass);
+    }
+}
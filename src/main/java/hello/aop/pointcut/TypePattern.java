@@ -0,0 +1,116 @@
+package hello.aop.pointcut;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.regex.Pattern;
+
+/**
+ * AspectJ 타입 패턴(`*`, `hello.aop..*`, `*..*Service`, `String`, `Foo+`)을 정규식 또는 정확한 타입 비교로 바꾼 것.
+ * 와일드카드가 없는 이름은 클래스로 해석해 두고 `==` 비교만 한다.
+ */
+final class TypePattern {
+
+    static final TypePattern ANY = new TypePattern("*", true, false, null, null);
+
+    private final String pattern;
+    private final boolean any;
+    private final boolean includeSubtypes;
+    private final Class<?> exactType;
+    private final Pattern regex;
+
+    private TypePattern(String pattern, boolean any, boolean includeSubtypes, Class<?> exactType, Pattern regex) {
+        this.pattern = pattern;
+        this.any = any;
+        this.includeSubtypes = includeSubtypes;
+        this.exactType = exactType;
+        this.regex = regex;
+    }
+
+    static TypePattern parse(String pattern, ClassLoader classLoader) {
+        if (pattern.equals("*")) {
+            return ANY;
+        }
+
+        boolean includeSubtypes = pattern.endsWith("+");
+        String name = includeSubtypes ? pattern.substring(0, pattern.length() - 1) : pattern;
+        if (name.indexOf('*') < 0) {
+            Class<?> type = resolve(name, classLoader);
+            if (type != null) {
+                return new TypePattern(pattern, false, includeSubtypes, type, null);
+            }
+        }
+        if (includeSubtypes) {
+            throw new IllegalArgumentException("Subtype pattern needs a resolvable type: " + pattern);
+        }
+        return new TypePattern(pattern, false, false, null, Pattern.compile(toRegex(name)));
+    }
+
+    /**
+     * AspectJ 와 같이 패키지가 없는 이름은 `java.lang` 에서 먼저 찾는다.
+     */
+    static Class<?> resolve(String name, ClassLoader classLoader) {
+        String className = name.indexOf('.') < 0 && !isPrimitive(name) ? "java.lang." + name : name;
+        try {
+            return ClassUtils.forName(className, classLoader);
+        } catch (ClassNotFoundException | LinkageError | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isPrimitive(String name) {
+        return ClassUtils.resolvePrimitiveClassName(name) != null;
+    }
+
+    /**
+     * `..` 는 0개 이상의 중간 패키지, `*` 는 `.` 을 넘지 않는 임의의 문자열이다.
+     */
+    static String toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '.' && i + 1 < pattern.length() && pattern.charAt(i + 1) == '.') {
+                regex.append("\\.(?:.*\\.)?");
+                i++;
+            } else if (c == '.') {
+                regex.append("\\.");
+            } else if (c == '*') {
+                regex.append("[^.]*");
+            } else if (Character.isJavaIdentifierPart(c)) {
+                regex.append(c);
+            } else {
+                regex.append('\\').append(c);
+            }
+        }
+        return regex.toString();
+    }
+
+    static String typeName(Class<?> type) {
+        if (type.isArray()) {
+            return typeName(type.getComponentType()) + "[]";
+        }
+        return type.getName().replace('$', '.');
+    }
+
+    boolean isAny() {
+        return any;
+    }
+
+    Class<?> exactType() {
+        return exactType;
+    }
+
+    boolean matches(Class<?> type) {
+        if (any) {
+            return true;
+        }
+        if (exactType != null) {
+            return includeSubtypes ? exactType.isAssignableFrom(type) : exactType == type;
+        }
+        return regex.matcher(typeName(type)).matches();
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
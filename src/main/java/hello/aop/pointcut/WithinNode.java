@@ -0,0 +1,32 @@
+package hello.aop.pointcut;
+
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * `within(type-pattern)`. 메서드를 실제로 선언한 타입으로 판단하므로 부모에게 물려받은 메서드는 부모 타입 기준이다.
+ */
+final class WithinNode implements PointcutNode {
+
+    private final TypePattern type;
+
+    WithinNode(TypePattern type) {
+        this.type = type;
+    }
+
+    @Override
+    public boolean couldMatch(Class<?> targetClass) {
+        for (Class<?> c = targetClass; c != null; c = c.getSuperclass()) {
+            if (type.matches(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        return type.matches(ClassUtils.getMostSpecificMethod(method, targetClass).getDeclaringClass());
+    }
+}
@@ -0,0 +1,92 @@
+package hello.aop.proxy;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.framework.Advised;
+import org.springframework.core.Ordered;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 정렬된 어드바이저 체인에서, 같은 애스펙트가 같은 포인트컷 표현식으로 선언한 어드바이스가 연달아 있으면
+ * {@link FusedAdvisor} 하나로 합친다. 체인 안의 순서를 그대로 유지하므로 실행 순서는 바뀌지 않는다.
+ *
+ * <p>런타임 검사(`args(..)` 바인딩 등)가 필요한 포인트컷은 체인이 호출마다 검사해야 하므로 합치지 않는다.</p>
+ */
+public final class AdvisorFusion {
+
+    private AdvisorFusion() {
+    }
+
+    public static List<Advisor> fuse(List<Advisor> sortedAdvisors) {
+        List<Advisor> fused = new ArrayList<>(sortedAdvisors.size());
+        int i = 0;
+        while (i < sortedAdvisors.size()) {
+            Advisor first = sortedAdvisors.get(i);
+            AbstractAspectJAdvice firstAdvice = fusible(first);
+            int end = i + 1;
+            if (firstAdvice != null) {
+                while (end < sortedAdvisors.size() && sameAspectAndPointcut(firstAdvice, fusible(sortedAdvisors.get(end)))) {
+                    end++;
+                }
+            }
+
+            if (end - i < 2) {
+                fused.add(first);
+            } else {
+                List<Advice> advices = new ArrayList<>(end - i);
+                for (Advisor advisor : sortedAdvisors.subList(i, end)) {
+                    advices.add(advisor.getAdvice());
+                }
+                AspectJExpressionPointcut pointcut = firstAdvice.getPointcut();
+                fused.add(new FusedAdvisor(pointcut, new FusedAdviceInterceptor(advices), pointcut.getExpression(),
+                        firstAdvice.getAspectJAdviceMethod().getDeclaringClass(),
+                        first instanceof Ordered ? ((Ordered) first).getOrder() : Ordered.LOWEST_PRECEDENCE));
+            }
+            i = end;
+        }
+        return fused;
+    }
+
+    /**
+     * 이미 만들어진 프록시 설정(`AspectJProxyFactory` 등)의 어드바이저를 합친 것으로 바꾼다.
+     *
+     * @return 합친 어드바이저가 있으면 true
+     */
+    public static boolean fuse(Advised advised) {
+        List<Advisor> advisors = Arrays.asList(advised.getAdvisors());
+        List<Advisor> fused = fuse(advisors);
+        if (fused.size() == advisors.size()) {
+            return false;
+        }
+        for (int i = advisors.size() - 1; i >= 0; i--) {
+            advised.removeAdvisor(i);
+        }
+        for (int i = 0; i < fused.size(); i++) {
+            advised.addAdvisor(i, fused.get(i));
+        }
+        return true;
+    }
+
+    private static boolean sameAspectAndPointcut(AbstractAspectJAdvice first, @Nullable AbstractAspectJAdvice other) {
+        return other != null
+                && first.getAspectName().equals(other.getAspectName())
+                && first.getAspectJAdviceMethod().getDeclaringClass() == other.getAspectJAdviceMethod().getDeclaringClass()
+                && first.getPointcut().getExpression().equals(other.getPointcut().getExpression());
+    }
+
+    @Nullable
+    private static AbstractAspectJAdvice fusible(Advisor advisor) {
+        AbstractAspectJAdvice advice = OptimizedAspectJAutoProxyCreator.aspectJAdvice(advisor);
+        if (advice == null || advice.getPointcut().getExpression() == null
+                || advice.getPointcut().getMethodMatcher().isRuntime()) {
+            return null;
+        }
+        return advice;
+    }
+}
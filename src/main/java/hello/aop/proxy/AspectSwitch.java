@@ -0,0 +1,245 @@
+package hello.aop.proxy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.IntroductionAwareMethodMatcher;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.adapter.GlobalAdvisorAdapterRegistry;
+import org.springframework.core.Ordered;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 어드바이스 하나(`AspectV4Pointcut.doLog` 처럼 `애스펙트.어드바이스메서드`)를 켜고 끈다.
+ * 프록시를 등록할 때 그 어드바이저를 같은 자리의 {@link SwitchedAdvisor} 로 한 번 바꿔 두고, 이후에는 플래그만 바꾼다.
+ *
+ * <p>자동 프록시 생성기가 만든 프록시는 포인트컷이 스위치를 따른다({@link SwitchedPointcut}). 꺼진 어드바이스는 체인에 들어가지 않고
+ * 켜진 어드바이스는 원래 인터셉터가 그대로 들어가므로, 어느 쪽이든 스위치가 없는 프록시와 비용이 같다.
+ * 스위치를 바꾸면 {@link AspectSwitches} 가 그 프록시들의 체인 캐시를 비워서 다음 호출부터 새 체인을 쓴다.</p>
+ *
+ * <p>다 만들어진 프록시만 받은 경우(빈 후처리기 경로)에는 체인 캐시를 바꿀 수 없으므로 어드바이스를
+ * {@link SwitchedInterceptor} 로 감싸고, 꺼진 어드바이스는 호출마다 volatile 읽기 한 번으로 건너뛴다.</p>
+ *
+ * <p>어느 쪽이든 호출 중인 프록시의 어드바이저 목록은 바꾸지 않는다.</p>
+ */
+@Slf4j
+public class AspectSwitch implements AspectSwitchMBean {
+
+    private final AspectSwitches owner;
+    private final String name;
+    // 프로토타입 빈 프록시가 스위치 때문에 남지 않게 약하게 잡는다.
+    private final List<WeakReference<Advised>> proxies = new ArrayList<>();
+    private volatile boolean enabled;
+
+    AspectSwitch(AspectSwitches owner, String name, boolean enabled) {
+        this.owner = owner;
+        this.name = name;
+        this.enabled = enabled;
+    }
+
+    /**
+     * 프록시의 어드바이저 자리에 넣을, 이 스위치를 따르는 어드바이저를 만든다.
+     *
+     * @param gated 체인 캐시를 비울 수 없는 프록시면 true. 어드바이스를 {@link SwitchedInterceptor} 로 감싼다.
+     */
+    synchronized Advisor wrap(Advised proxy, Advisor advisor, boolean gated) {
+        proxies.add(new WeakReference<>(proxy));
+        return new SwitchedAdvisor(this, (PointcutAdvisor) advisor, gated);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public synchronized void setEnabled(boolean enabled) {
+        if (this.enabled == enabled) {
+            return;
+        }
+        // 플래그를 먼저 바꿔야 캐시를 비운 뒤에 만드는 체인이 바뀐 값을 본다.
+        this.enabled = enabled;
+        owner.invalidate();
+        log.info("[switch] {} {} (프록시 {}개)", name, enabled ? "on" : "off", getProxyCount());
+    }
+
+    @Override
+    public synchronized int getProxyCount() {
+        proxies.removeIf(proxy -> proxy.get() == null);
+        return proxies.size();
+    }
+
+    /**
+     * 원래 어드바이저의 순서를 그대로 쓰고, 포인트컷이나 어드바이스 중 하나만 스위치를 따르게 바꾼다.
+     */
+    static final class SwitchedAdvisor implements PointcutAdvisor, Ordered {
+
+        private final PointcutAdvisor advisor;
+        private final Pointcut pointcut;
+        private final Advice advice;
+
+        SwitchedAdvisor(AspectSwitch owner, PointcutAdvisor advisor, boolean gated) {
+            this.advisor = advisor;
+            if (gated) {
+                // `@Before` 같은 어드바이스는 스프링이 체인을 만들 때처럼 인터셉터로 바꿔 둔다.
+                MethodInterceptor delegate = GlobalAdvisorAdapterRegistry.getInstance().getInterceptors(advisor)[0];
+                this.pointcut = advisor.getPointcut();
+                this.advice = new SwitchedInterceptor(owner, advisor.getAdvice(), delegate);
+            } else {
+                this.pointcut = new SwitchedPointcut(owner, advisor.getPointcut());
+                this.advice = advisor.getAdvice();
+            }
+        }
+
+        Advisor getAdvisor() {
+            return advisor;
+        }
+
+        @Override
+        public Pointcut getPointcut() {
+            return pointcut;
+        }
+
+        @Override
+        public Advice getAdvice() {
+            return advice;
+        }
+
+        @Override
+        public boolean isPerInstance() {
+            return advisor.isPerInstance();
+        }
+
+        @Override
+        public int getOrder() {
+            return advisor instanceof Ordered ? ((Ordered) advisor).getOrder() : Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public String toString() {
+            return "SwitchedAdvisor: " + advisor;
+        }
+    }
+
+    /**
+     * 스위치가 꺼져 있으면 어떤 메서드에도 맞지 않는 포인트컷. 체인을 만들 때만 물어보므로 호출마다 드는 비용은 없다.
+     * 호출마다 하는 동적 판단(`isRuntime()`)은 원래 포인트컷에 그대로 맡긴다.
+     */
+    static final class SwitchedPointcut implements Pointcut, IntroductionAwareMethodMatcher {
+
+        private final AspectSwitch owner;
+        private final Pointcut pointcut;
+        private final MethodMatcher matcher;
+
+        SwitchedPointcut(AspectSwitch owner, Pointcut pointcut) {
+            this.owner = owner;
+            this.pointcut = pointcut;
+            this.matcher = pointcut.getMethodMatcher();
+        }
+
+        /**
+         * 감싸기 전의 메서드 매처
+         */
+        MethodMatcher getDelegate() {
+            return matcher;
+        }
+
+        @Override
+        public ClassFilter getClassFilter() {
+            return pointcut.getClassFilter();
+        }
+
+        @Override
+        public MethodMatcher getMethodMatcher() {
+            return this;
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass, boolean hasIntroductions) {
+            if (!owner.enabled) {
+                return false;
+            }
+            return matcher instanceof IntroductionAwareMethodMatcher
+                    ? ((IntroductionAwareMethodMatcher) matcher).matches(method, targetClass, hasIntroductions)
+                    : matcher.matches(method, targetClass);
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return owner.enabled && matcher.matches(method, targetClass);
+        }
+
+        @Override
+        public boolean isRuntime() {
+            return matcher.isRuntime();
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass, Object... args) {
+            return matcher.matches(method, targetClass, args);
+        }
+
+        // CGLIB 프록시 클래스 캐시가 포인트컷을 비교하므로, 같은 스위치와 포인트컷이면 같은 프록시 클래스를 쓰게 한다.
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof SwitchedPointcut)) {
+                return false;
+            }
+            SwitchedPointcut that = (SwitchedPointcut) other;
+            return owner == that.owner && pointcut.equals(that.pointcut);
+        }
+
+        @Override
+        public int hashCode() {
+            return pointcut.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "SwitchedPointcut: " + pointcut;
+        }
+    }
+
+    static final class SwitchedInterceptor implements MethodInterceptor {
+
+        private final AspectSwitch owner;
+        private final Advice advice;
+        private final MethodInterceptor delegate;
+
+        SwitchedInterceptor(AspectSwitch owner, Advice advice, MethodInterceptor delegate) {
+            this.owner = owner;
+            this.advice = advice;
+            this.delegate = delegate;
+        }
+
+        /**
+         * 감싸기 전의 어드바이스
+         */
+        Advice getAdvice() {
+            return advice;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            return owner.enabled ? delegate.invoke(invocation) : invocation.proceed();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package hello.aop.proxy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * `aop.switch.enabled=true` 이면 {@link AspectSwitches} 를 등록해서 어드바이스를 실행 중에 켜고 끌 수 있게 한다.
+ *
+ * <pre>
+ * aop.switch.off=AspectV4Pointcut.doLog   # 처음부터 꺼 둘 어드바이스, 쉼표로 구분
+ * aop.switch.jmx=true                     # 스위치를 JMX MBean 으로 등록
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(name = "aop.switch.enabled", havingValue = "true")
+public class AspectSwitchConfig {
+
+    // 빈 후처리기라서 설정 클래스를 일찍 만들지 않도록 static 으로 둔다.
+    @Bean
+    public static AspectSwitches aspectSwitches(
+            @Value("${aop.switch.jmx:true}") boolean jmx,
+            @Value("${aop.switch.off:}") String[] off) {
+        return new AspectSwitches(jmx, Arrays.asList(off));
+    }
+}
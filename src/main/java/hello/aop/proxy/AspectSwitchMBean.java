@@ -0,0 +1,18 @@
+package hello.aop.proxy;
+
+/**
+ * JMX 로 보이는 어드바이스 스위치. `Enabled` 를 바꾸면 바로 모든 프록시에 반영된다.
+ */
+public interface AspectSwitchMBean {
+
+    String getName();
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * 이 어드바이스가 걸린 프록시 수
+     */
+    int getProxyCount();
+}
@@ -0,0 +1,248 @@
+package hello.aop.proxy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.AdvisedSupport;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.lang.Nullable;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 프록시의 `@Aspect` 어드바이스마다 {@link AspectSwitch} 를 붙인다.
+ * 켜져 있으면 스위치를 `hello.aop:type=AspectSwitch,name=<애스펙트.어드바이스메서드>` MBean 으로 등록한다.
+ *
+ * <p>{@link OptimizedAspectJAutoProxyCreator} 는 프록시를 만들기 전에 그 설정을 {@link #register(AdvisedSupport)} 로 넘긴다.
+ * 이 경로의 프록시는 꺼진 어드바이스가 체인에 없고, 스위치를 바꾸면 체인 캐시({@link SwitchedMethodCache})만 비운다.
+ * 다른 방법으로 만든 프록시는 빈 후처리기로 받아서 어드바이스를 감싼다. 자동 프록시 생성기(가장 높은 우선순위)보다 뒤에 돌므로
+ * 완성된 프록시를 받는다. 합쳐진 어드바이저(`aop.proxy.fused-advices`)와 `@Aspect` 가 아닌 어드바이저는 스위치가 없다.</p>
+ *
+ * <p>같은 JVM 에서 다른 컨텍스트가 같은 이름의 MBean 을 먼저 등록했으면 `registry=<아이디>` 키를 붙인 이름으로 등록한다.
+ * 닫을 때는 이 객체가 등록해서 아직 남아 있는 MBean 만 지운다.</p>
+ */
+@Slf4j
+public class AspectSwitches implements BeanPostProcessor, AutoCloseable {
+
+    public static final String DOMAIN = "hello.aop";
+
+    private final Map<String, AspectSwitch> switches = new ConcurrentHashMap<>();
+    private final Set<String> initiallyOff;
+    @Nullable
+    private final MBeanServer mBeanServer;
+    // 스위치 이름 -> 등록한 MBean 이름
+    private final Map<String, ObjectName> registered = new ConcurrentHashMap<>();
+    // 스위치가 바뀔 때 비울 체인 캐시. 세대와 함께 이 객체의 락으로 보호한다.
+    private final List<WeakReference<SwitchedMethodCache>> caches = new ArrayList<>();
+    private long generation;
+
+    public AspectSwitches(boolean jmx, Collection<String> initiallyOff) {
+        this.mBeanServer = jmx ? ManagementFactory.getPlatformMBeanServer() : null;
+        this.initiallyOff = new HashSet<>(initiallyOff);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Advised) {
+            register((Advised) bean);
+        }
+        return bean;
+    }
+
+    /**
+     * 다 만들어진 프록시의 `@Aspect` 어드바이저를 같은 자리에서 각자의 스위치를 따르는 어드바이저로 바꾼다.
+     * 체인 캐시를 바꿀 수 없으므로 어드바이스를 감싼다. 프록시 설정을 받으면 {@link #register(AdvisedSupport)} 와 같다.
+     */
+    public void register(Advised proxy) {
+        if (proxy instanceof AdvisedSupport) {
+            register((AdvisedSupport) proxy);
+            return;
+        }
+        replaceAdvisors(proxy, true);
+    }
+
+    /**
+     * 프록시를 만들기 전의 설정에서 `@Aspect` 어드바이저를 같은 자리에서 각자의 스위치를 따르는 어드바이저로 바꾸고,
+     * 체인 캐시를 스위치가 바뀔 때 비울 수 있는 것으로 바꾼다. 캐시를 바꾸지 못하면 {@link #register(Advised)} 처럼 감싼다.
+     */
+    public void register(AdvisedSupport config) {
+        if (Arrays.stream(config.getAdvisors()).noneMatch(advisor -> switchName(advisor) != null)) {
+            return;
+        }
+        boolean gated = true;
+        if (!config.isFrozen()) {
+            SwitchedMethodCache cache = SwitchedMethodCache.install(config, this);
+            if (cache != null) {
+                synchronized (this) {
+                    caches.add(new WeakReference<>(cache));
+                }
+                gated = false;
+            } else {
+                log.debug("[switch] method cache not replaced, advices are wrapped: {}", config.getTargetSource());
+            }
+        }
+        replaceAdvisors(config, gated);
+    }
+
+    /**
+     * 프록시가 만들어진 직후, 다른 스레드에 보이기 전에 한 번만 바꾼다.
+     */
+    private void replaceAdvisors(Advised proxy, boolean gated) {
+        if (proxy.isFrozen()) {
+            log.debug("[switch] frozen proxy, skipped: {}", proxy.getTargetSource());
+            return;
+        }
+        for (Advisor advisor : proxy.getAdvisors()) {
+            if (advisor instanceof AspectSwitch.SwitchedAdvisor) {
+                continue;
+            }
+            String name = switchName(advisor);
+            if (name != null) {
+                proxy.replaceAdvisor(advisor, switches.computeIfAbsent(name, this::create).wrap(proxy, advisor, gated));
+            }
+        }
+    }
+
+    /**
+     * 스위치가 바뀐 뒤에 부른다. 등록한 프록시의 체인 캐시를 비워서 다음 호출부터 바뀐 스위치로 체인을 다시 만들게 한다.
+     */
+    synchronized void invalidate() {
+        generation++;
+        caches.removeIf(reference -> {
+            SwitchedMethodCache cache = reference.get();
+            if (cache == null) {
+                return true;
+            }
+            cache.clear();
+            return false;
+        });
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    @Nullable
+    public AspectSwitch get(String name) {
+        return switches.get(name);
+    }
+
+    public Collection<AspectSwitch> all() {
+        return Collections.unmodifiableCollection(switches.values());
+    }
+
+    /**
+     * @return 그런 스위치가 없으면 false
+     */
+    public boolean setEnabled(String name, boolean enabled) {
+        AspectSwitch found = switches.get(name);
+        if (found == null) {
+            return false;
+        }
+        found.setEnabled(enabled);
+        return true;
+    }
+
+    /**
+     * `애스펙트 클래스 단순 이름.어드바이스 메서드 이름`. `@Aspect` 어드바이스가 아니면 null
+     */
+    @Nullable
+    public static String switchName(Advisor advisor) {
+        if (advisor instanceof AspectSwitch.SwitchedAdvisor) {
+            advisor = ((AspectSwitch.SwitchedAdvisor) advisor).getAdvisor();
+        }
+        if (!(advisor.getAdvice() instanceof AbstractAspectJAdvice)) {
+            return null;
+        }
+        Method adviceMethod = ((AbstractAspectJAdvice) advisor.getAdvice()).getAspectJAdviceMethod();
+        return adviceMethod.getDeclaringClass().getSimpleName() + "." + adviceMethod.getName();
+    }
+
+    public static ObjectName objectName(String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=AspectSwitch,name=" + ObjectName.quote(name));
+    }
+
+    /**
+     * 이 객체가 등록해서 아직 남아 있는 MBean 이름. 다른 컨텍스트가 먼저 등록했으면 `registry=<아이디>` 키가 붙어 있다.
+     */
+    @Nullable
+    public ObjectName registeredName(String name) {
+        return registered.get(name);
+    }
+
+    private AspectSwitch create(String name) {
+        AspectSwitch created = new AspectSwitch(this, name, !initiallyOff.contains(name));
+        if (mBeanServer != null) {
+            registerMBean(name, created);
+        }
+        return created;
+    }
+
+    private void registerMBean(String name, AspectSwitch created) {
+        try {
+            ObjectName objectName = objectName(name);
+            Registration registration = new Registration(name, created);
+            try {
+                mBeanServer.registerMBean(registration, objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                // 같은 JVM 에서 다른 컨텍스트가 먼저 등록했다. 그쪽 것은 그대로 둔다.
+                objectName = ObjectName.getInstance(objectName + ",registry=" + Integer.toHexString(System.identityHashCode(this)));
+                mBeanServer.registerMBean(registration, objectName);
+            }
+            registered.put(name, objectName);
+        } catch (JMException e) {
+            log.warn("[switch] JMX 등록 실패 {}", name, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        registered.forEach((name, objectName) -> {
+            try {
+                mBeanServer.unregisterMBean(objectName);
+            } catch (InstanceNotFoundException e) {
+                // 그 사이에 다른 쪽에서 지웠다.
+            } catch (JMException e) {
+                log.warn("[switch] JMX 해제 실패 {}", objectName, e);
+            }
+        });
+        registered.clear();
+    }
+
+    /**
+     * 등록한 MBean. 누가 지우든 지워지면 {@link #registered} 에서 빠지므로, 같은 이름으로 새로 등록된 남의 MBean 을 지우지 않는다.
+     */
+    private final class Registration extends StandardMBean {
+
+        private final String name;
+
+        Registration(String name, AspectSwitch aspectSwitch) throws NotCompliantMBeanException {
+            super(aspectSwitch, AspectSwitchMBean.class);
+            this.name = name;
+        }
+
+        @Override
+        public void postDeregister() {
+            registered.remove(name);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package hello.aop.proxy;
+
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * `aop.proxy.*` 나 `aop.switch.enabled` 설정이 하나라도 있으면 `@EnableAspectJAutoProxy` 가 등록한 자동 프록시 생성기 빈을
+ * {@link OptimizedAspectJAutoProxyCreator} 로 바꾸고 설정 값을 프로퍼티로 넘긴다.
+ *
+ * <p>빈 후처리기는 모든 `BeanFactoryPostProcessor` 가 끝난 뒤에 만들어지므로 여기서 빈 정의만 바꾸면 된다.</p>
+ */
+@Component
+public class AutoProxyCreatorConfigurer implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    /**
+     * 설정 키 -> {@link OptimizedAspectJAutoProxyCreator} 프로퍼티 이름
+     */
+    private static final Map<String, String> PROPERTIES = new LinkedHashMap<>();
+
+    static {
+        PROPERTIES.put("aop.proxy.compiled-pointcuts", "compiledPointcuts");
+        PROPERTIES.put("aop.proxy.pointcut-index", "pointcutIndexEnabled");
+        PROPERTIES.put("aop.proxy.fused-advices", "fusedAdvices");
+        PROPERTIES.put("aop.proxy.warmup", "warmup");
+        PROPERTIES.put("aop.proxy.warmup-invocations", "warmupInvocations");
+        PROPERTIES.put("aop.proxy.parallel-matching", "parallelMatching");
+        PROPERTIES.put("aop.switch.enabled", "aspectSwitches");
+    }
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        if (!beanFactory.containsBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)) {
+            return;
+        }
+
+        BeanDefinition definition = beanFactory.getBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME);
+        boolean configured = false;
+        for (Map.Entry<String, String> property : PROPERTIES.entrySet()) {
+            String value = environment.getProperty(property.getKey());
+            if (value != null) {
+                definition.getPropertyValues().add(property.getValue(), value);
+                configured = true;
+            }
+        }
+        if (configured) {
+            definition.setBeanClassName(OptimizedAspectJAutoProxyCreator.class.getName());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package hello.aop.proxy;
+
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.lang.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 한 애스펙트에서 같은 포인트컷에 걸린 어드바이스 여러 개를 체인의 한 칸으로 합친 인터셉터.
+ * 어드바이스는 원래 체인의 순서 그대로 부른다.
+ */
+public class FusedAdviceInterceptor implements MethodInterceptor {
+
+    private final Object[] advices;
+
+    public FusedAdviceInterceptor(List<? extends Advice> advices) {
+        this.advices = advices.toArray();
+    }
+
+    @Override
+    @Nullable
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!(invocation instanceof ProxyMethodInvocation)) {
+            throw new IllegalStateException("MethodInvocation is not a Spring ProxyMethodInvocation: " + invocation);
+        }
+        return new FusedInvocation((ProxyMethodInvocation) invocation, advices, 0).proceed();
+    }
+
+    public List<Object> getAdvices() {
+        return Collections.unmodifiableList(Arrays.asList(advices));
+    }
+}
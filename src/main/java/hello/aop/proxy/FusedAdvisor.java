@@ -0,0 +1,64 @@
+package hello.aop.proxy;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.core.Ordered;
+
+/**
+ * {@link FusedAdviceInterceptor} 를 담은 어드바이저. 합쳐진 어드바이스들의 포인트컷 표현식과 그 선언 위치를 기억해서
+ * 나중에 포인트컷만 바꿔 끼울 수 있다.
+ */
+public class FusedAdvisor implements PointcutAdvisor, Ordered {
+
+    private final Pointcut pointcut;
+    private final FusedAdviceInterceptor advice;
+    private final String expression;
+    private final Class<?> declarationScope;
+    private final int order;
+
+    FusedAdvisor(Pointcut pointcut, FusedAdviceInterceptor advice, String expression, Class<?> declarationScope, int order) {
+        this.pointcut = pointcut;
+        this.advice = advice;
+        this.expression = expression;
+        this.declarationScope = declarationScope;
+        this.order = order;
+    }
+
+    FusedAdvisor withPointcut(Pointcut pointcut) {
+        return new FusedAdvisor(pointcut, advice, expression, declarationScope, order);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return advice;
+    }
+
+    @Override
+    public boolean isPerInstance() {
+        return true;
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public Class<?> getDeclarationScope() {
+        return declarationScope;
+    }
+
+    @Override
+    public String toString() {
+        return "FusedAdvisor: pointcut [" + expression + "]; advices " + advice.getAdvices();
+    }
+}
@@ -0,0 +1,103 @@
+package hello.aop.proxy;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.AfterReturningAdvice;
+import org.springframework.aop.MethodBeforeAdvice;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+
+/**
+ * {@link FusedAdviceInterceptor} 안에서 합쳐진 어드바이스를 차례로 부르는 호출.
+ * 바깥 체인의 `ReflectiveMethodInvocation` 이 하던 일을 합쳐진 어드바이스 범위 안에서 대신하고, 끝에 닿으면 바깥 체인을 이어 간다.
+ *
+ * <p>`@Around` 의 `proceed()` 는 스프링과 같이 {@link #invocableClone()} 으로 복사본을 만들어 진행하고,
+ * 복사본은 바깥 호출도 함께 복사한다. 인자, 속성 같은 나머지는 모두 바깥 호출에 맡긴다.</p>
+ */
+final class FusedInvocation implements ProxyMethodInvocation {
+
+    private final ProxyMethodInvocation outer;
+    private final Object[] advices;
+    private int index;
+
+    FusedInvocation(ProxyMethodInvocation outer, Object[] advices, int index) {
+        this.outer = outer;
+        this.advices = advices;
+        this.index = index;
+    }
+
+    @Override
+    @Nullable
+    public Object proceed() throws Throwable {
+        if (index == advices.length) {
+            return outer.proceed();
+        }
+
+        Object advice = advices[index++];
+        // `MethodBeforeAdviceInterceptor`, `AfterReturningAdviceInterceptor` 를 거치지 않고 바로 부른다.
+        if (advice instanceof MethodBeforeAdvice) {
+            ((MethodBeforeAdvice) advice).before(getMethod(), getArguments(), getThis());
+            return proceed();
+        }
+        if (advice instanceof AfterReturningAdvice) {
+            Object returnValue = proceed();
+            ((AfterReturningAdvice) advice).afterReturning(returnValue, getMethod(), getArguments(), getThis());
+            return returnValue;
+        }
+        return ((MethodInterceptor) advice).invoke(this);
+    }
+
+    @Override
+    public Object getProxy() {
+        return outer.getProxy();
+    }
+
+    @Override
+    public FusedInvocation invocableClone() {
+        return new FusedInvocation((ProxyMethodInvocation) outer.invocableClone(), advices, index);
+    }
+
+    @Override
+    public FusedInvocation invocableClone(Object... arguments) {
+        return new FusedInvocation((ProxyMethodInvocation) outer.invocableClone(arguments), advices, index);
+    }
+
+    @Override
+    public void setArguments(Object... arguments) {
+        outer.setArguments(arguments);
+    }
+
+    @Override
+    public void setUserAttribute(String key, @Nullable Object value) {
+        outer.setUserAttribute(key, value);
+    }
+
+    @Override
+    @Nullable
+    public Object getUserAttribute(String key) {
+        return outer.getUserAttribute(key);
+    }
+
+    @Override
+    public Method getMethod() {
+        return outer.getMethod();
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return outer.getArguments();
+    }
+
+    @Override
+    @Nullable
+    public Object getThis() {
+        return outer.getThis();
+    }
+
+    @Override
+    public AccessibleObject getStaticPart() {
+        return outer.getStaticPart();
+    }
+}
@@ -0,0 +1,297 @@
+package hello.aop.proxy;
+
+import hello.aop.pointcut.PointcutCompiler;
+import hello.aop.pointcut.PointcutIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.IntroductionAdvisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.InstantiationModelAwarePointcutAdvisor;
+import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.framework.autoproxy.ProxyCreationContext;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 스프링 부트가 등록하는 {@link AnnotationAwareAspectJAutoProxyCreator} 를 대신하는 자동 프록시 생성기.
+ * 기능은 모두 `aop.proxy.*` 설정으로 켜며, 아무것도 켜지 않으면 {@link AutoProxyCreatorConfigurer} 가 이 클래스로 바꾸지 않는다.
+ *
+ * <ul>
+ *     <li>`compiledPointcuts`: `@Aspect` 어드바이저의 포인트컷을 {@link PointcutCompiler} 로 컴파일해서
+ *     프록시 생성 시의 매칭과 프록시의 어드바이저 체인 모두에 사용한다. 컴파일할 수 없는 표현식은 원래 포인트컷을 쓴다.
+ *     `args(..)` 같은 동적 판단은 {@link ResidueAdvisorChainFactory} 가 메서드마다 남는 것만 확인한다.</li>
+ *     <li>`warmup`: 만든 프록시를 {@link ProxyWarmup} 에 모아 두었다가 컨텍스트 refresh 직후에 체인을 미리 만든다.
+ *     `warmupInvocations` 는 메서드마다 실행할 합성 호출 수다. 어드바이저가 모두 {@link SideEffectFree} 인 프록시에만 돌린다.</li>
+ *     <li>`pointcutIndexEnabled`: 빌드 때 만든 {@link PointcutIndex} 가 있으면 프록시 생성 시 매칭 대신 색인을 조회한다.
+ *     색인에 없는 클래스나 어드바이스는 원래대로 매칭한다.</li>
+ *     <li>`parallelMatching`: 처음 프록시를 만들 때 빈 팩토리의 모든 빈 클래스에 대한 매칭을 {@link ParallelAdvisorMatching} 으로
+ *     fork-join 풀에서 한꺼번에 하고, 이후 빈마다 그 결과를 쓴다. 위 두 방식과 같이 쓸 수 있다.</li>
+ * </ul>
+ */
+@Slf4j
+public class OptimizedAspectJAutoProxyCreator extends AnnotationAwareAspectJAutoProxyCreator
+        implements ApplicationListener<ContextRefreshedEvent> {
+
+    private final PointcutCompiler pointcutCompiler = new PointcutCompiler();
+    private final Map<Advisor, Advisor> compiledAdvisors = new ConcurrentHashMap<>();
+
+    private boolean compiledPointcuts;
+    private boolean usePointcutIndex;
+    private boolean fusedAdvices;
+    private PointcutIndex pointcutIndex;
+    private boolean warmup;
+    private int warmupInvocations;
+    @Nullable
+    private ProxyWarmup proxyWarmup;
+    private boolean parallelMatching;
+    @Nullable
+    private ParallelAdvisorMatching parallelAdvisorMatching;
+    private boolean aspectSwitches;
+    @Nullable
+    private ObjectProvider<AspectSwitches> aspectSwitchesProvider;
+
+    public void setCompiledPointcuts(boolean compiledPointcuts) {
+        this.compiledPointcuts = compiledPointcuts;
+    }
+
+    public void setPointcutIndexEnabled(boolean usePointcutIndex) {
+        this.usePointcutIndex = usePointcutIndex;
+    }
+
+    public void setFusedAdvices(boolean fusedAdvices) {
+        this.fusedAdvices = fusedAdvices;
+    }
+
+    public void setWarmup(boolean warmup) {
+        this.warmup = warmup;
+    }
+
+    public void setWarmupInvocations(int warmupInvocations) {
+        this.warmupInvocations = warmupInvocations;
+    }
+
+    public void setParallelMatching(boolean parallelMatching) {
+        this.parallelMatching = parallelMatching;
+    }
+
+    public void setAspectSwitches(boolean aspectSwitches) {
+        this.aspectSwitches = aspectSwitches;
+    }
+
+    @Override
+    protected void initBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        super.initBeanFactory(beanFactory);
+        if (warmup) {
+            proxyWarmup = new ProxyWarmup(warmupInvocations);
+        }
+        if (parallelMatching) {
+            parallelAdvisorMatching = new ParallelAdvisorMatching(this::findAdvisorsThatCanApply,
+                    () -> beanClasses(beanFactory));
+        }
+        if (aspectSwitches) {
+            // 빈 후처리기끼리라서 여기서 바로 만들지 않고 처음 프록시를 만들 때 찾는다.
+            aspectSwitchesProvider = beanFactory.getBeanProvider(AspectSwitches.class);
+        }
+        if (usePointcutIndex) {
+            try {
+                pointcutIndex = PointcutIndex.load(getProxyClassLoader());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (pointcutIndex == null) {
+                log.warn("aop.proxy.pointcut-index is set but {} is not on the classpath", PointcutIndex.LOCATION);
+            }
+        }
+    }
+
+    @Override
+    protected List<Advisor> findAdvisorsThatCanApply(List<Advisor> candidateAdvisors, Class<?> beanClass, String beanName) {
+        if (parallelAdvisorMatching != null) {
+            List<Advisor> eligible = parallelAdvisorMatching.findAdvisorsThatCanApply(candidateAdvisors, beanClass);
+            if (eligible != null) {
+                return eligible;
+            }
+        }
+        if (!compiledPointcuts && pointcutIndex == null) {
+            return super.findAdvisorsThatCanApply(candidateAdvisors, beanClass, beanName);
+        }
+
+        ProxyCreationContext.setCurrentProxiedBeanName(beanName);
+        try {
+            return findAdvisorsThatCanApply(candidateAdvisors, beanClass);
+        } finally {
+            ProxyCreationContext.setCurrentProxiedBeanName(null);
+        }
+    }
+
+    /**
+     * {@link AopUtils#findAdvisorsThatCanApply} 와 같지만 켜져 있으면 색인이나 컴파일된 포인트컷으로 판단한다.
+     * 정렬은 `AspectJPrecedenceInformation` 이 필요하므로 원래 어드바이저를 돌려준다.
+     */
+    private List<Advisor> findAdvisorsThatCanApply(List<Advisor> candidateAdvisors, Class<?> beanClass) {
+        if (!compiledPointcuts && pointcutIndex == null) {
+            return AopUtils.findAdvisorsThatCanApply(candidateAdvisors, beanClass);
+        }
+        List<Advisor> eligibleAdvisors = new ArrayList<>();
+        for (Advisor candidate : candidateAdvisors) {
+            if (candidate instanceof IntroductionAdvisor && AopUtils.canApply(candidate, beanClass)) {
+                eligibleAdvisors.add(candidate);
+            }
+        }
+        boolean hasIntroductions = !eligibleAdvisors.isEmpty();
+        for (Advisor candidate : candidateAdvisors) {
+            if (!(candidate instanceof IntroductionAdvisor) && canApply(candidate, beanClass, hasIntroductions)) {
+                eligibleAdvisors.add(candidate);
+            }
+        }
+        return eligibleAdvisors;
+    }
+
+    private boolean canApply(Advisor candidate, Class<?> beanClass, boolean hasIntroductions) {
+        // 색인은 인트로덕션이 없는 경우의 매칭 결과만 담고 있다.
+        Boolean indexed = hasIntroductions ? null : indexed(candidate, beanClass);
+        if (indexed != null) {
+            return indexed;
+        }
+        return AopUtils.canApply(compiledPointcuts ? compiled(candidate) : candidate, beanClass, hasIntroductions);
+    }
+
+    @Nullable
+    private Boolean indexed(Advisor candidate, Class<?> beanClass) {
+        AbstractAspectJAdvice advice = pointcutIndex != null ? aspectJAdvice(candidate) : null;
+        if (advice == null) {
+            return null;
+        }
+        return pointcutIndex.canApply(PointcutIndex.adviceKey(advice.getAspectJAdviceMethod()),
+                advice.getPointcut().getExpression(), ClassUtils.getUserClass(beanClass).getName());
+    }
+
+    @Override
+    protected void customizeProxyFactory(ProxyFactory proxyFactory) {
+        if (compiledPointcuts) {
+            proxyFactory.setAdvisorChainFactory(new ResidueAdvisorChainFactory());
+        }
+        AspectSwitches switches = aspectSwitchesProvider != null ? aspectSwitchesProvider.getIfAvailable() : null;
+        if (switches != null) {
+            switches.register(proxyFactory);
+        }
+        if (proxyWarmup != null) {
+            proxyWarmup.add(proxyFactory);
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (event.getApplicationContext().getAutowireCapableBeanFactory() != getBeanFactory()) {
+            return;
+        }
+        if (parallelAdvisorMatching != null) {
+            parallelAdvisorMatching.close();
+        }
+        if (proxyWarmup != null) {
+            proxyWarmup.run(true);
+        }
+    }
+
+    /**
+     * 빈 정의에서 알 수 있는 빈 클래스. 빈을 만들거나 `FactoryBean` 을 초기화하지는 않는다.
+     */
+    private Collection<Class<?>> beanClasses(ConfigurableListableBeanFactory beanFactory) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            try {
+                Class<?> beanClass = beanFactory.getType(beanName, false);
+                if (beanClass != null && !isInfrastructureClass(beanClass)) {
+                    classes.add(beanClass);
+                }
+            } catch (BeansException e) {
+                log.debug("[parallel-matching] no type for {}: {}", beanName, e.getMessage());
+            }
+        }
+        return classes;
+    }
+
+    @Override
+    protected List<Advisor> sortAdvisors(List<Advisor> advisors) {
+        List<Advisor> sorted = super.sortAdvisors(advisors);
+        if (fusedAdvices) {
+            sorted = AdvisorFusion.fuse(sorted);
+        }
+        if (compiledPointcuts) {
+            sorted.replaceAll(this::compiled);
+        }
+        return sorted;
+    }
+
+    /**
+     * 컴파일된 포인트컷을 쓰는 어드바이저. 컴파일할 수 없으면 원래 어드바이저를 그대로 돌려준다.
+     */
+    private Advisor compiled(Advisor advisor) {
+        return compiledAdvisors.computeIfAbsent(advisor, this::compile);
+    }
+
+    private Advisor compile(Advisor advisor) {
+        if (advisor instanceof FusedAdvisor) {
+            FusedAdvisor fused = (FusedAdvisor) advisor;
+            try {
+                return fused.withPointcut(pointcutCompiler.compile(fused.getExpression(), fused.getDeclarationScope()));
+            } catch (IllegalArgumentException e) {
+                log.debug("Pointcut not compiled, using AspectJ matching: {}", e.getMessage());
+                return advisor;
+            }
+        }
+
+        AbstractAspectJAdvice advice = aspectJAdvice(advisor);
+        if (advice == null) {
+            return advisor;
+        }
+
+        String expression = advice.getPointcut().getExpression();
+        try {
+            DefaultPointcutAdvisor compiled = new DefaultPointcutAdvisor(
+                    pointcutCompiler.compile(expression, advice.getAspectJAdviceMethod().getDeclaringClass()), advice);
+            if (advisor instanceof Ordered) {
+                compiled.setOrder(((Ordered) advisor).getOrder());
+            }
+            return compiled;
+        } catch (IllegalArgumentException e) {
+            log.debug("Pointcut not compiled, using AspectJ matching: {}", e.getMessage());
+            return advisor;
+        }
+    }
+
+    /**
+     * 싱글톤 `@Aspect` 에서 만들어진 어드바이저의 어드바이스. 그 외의 어드바이저는 {@code null}.
+     */
+    @Nullable
+    static AbstractAspectJAdvice aspectJAdvice(Advisor advisor) {
+        if (!(advisor instanceof InstantiationModelAwarePointcutAdvisor)) {
+            return null;
+        }
+        InstantiationModelAwarePointcutAdvisor aspectAdvisor = (InstantiationModelAwarePointcutAdvisor) advisor;
+        if (aspectAdvisor.isLazy() || aspectAdvisor.isPerInstance()
+                || !(aspectAdvisor.getAdvice() instanceof AbstractAspectJAdvice)) {
+            return null;
+        }
+        return (AbstractAspectJAdvice) aspectAdvisor.getAdvice();
+    }
+}
@@ -0,0 +1,239 @@
+package hello.aop.proxy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * 빈 팩토리에 정의된 모든 빈 클래스에 대해 적용할 어드바이저를 fork-join 공용 풀에서 한꺼번에 판단해 두고,
+ * 프록시를 만들 때는 그 결과를 클래스로 찾아 쓴다. 같은 클래스의 빈이 여러 개여도 한 번만 판단한다.
+ *
+ * <ul>
+ *     <li>처음 판단하는 클래스 하나는 호출한 스레드에서 판단한다. 포인트컷 표현식의 파싱 같은 지연 초기화를 먼저 끝내고,
+ *     병렬 구간에서는 스프링이 실행 중에도 여러 스레드에서 하는 매칭만 하게 한다.</li>
+ *     <li>어드바이저 후보가 바뀌면(시작 중에 어드바이저 빈이 늘어나면) 다시 판단한다.</li>
+ *     <li>`bean(..)` 포인트컷은 빈 이름에 따라 달라서 클래스로 묶을 수 없다. 후보에 있으면 판단하지 않고 {@code null} 을 돌려준다.
+ *     `Pointcuts.allOrder()` 같은 이름 참조는 `@Pointcut` 선언을 따라가서 보고, 따라갈 수 없으면 `bean(..)` 이 있다고 본다.</li>
+ *     <li>미리 판단하지 못한 클래스(팩토리 메서드가 인터페이스를 돌려주는 빈 등)는 찾을 때 판단해서 넣는다.</li>
+ * </ul>
+ */
+@Slf4j
+final class ParallelAdvisorMatching {
+
+    private final BiFunction<List<Advisor>, Class<?>, List<Advisor>> matcher;
+    private final Supplier<Collection<Class<?>>> beanClasses;
+
+    private static final Set<String> DESIGNATORS = Set.of("execution", "call", "within", "withincode", "this", "target",
+            "args", "bean", "get", "set", "handler", "initialization", "preinitialization", "staticinitialization",
+            "adviceexecution", "cflow", "cflowbelow", "if");
+
+    @Nullable
+    private volatile Snapshot snapshot;
+    private volatile boolean closed;
+
+    ParallelAdvisorMatching(BiFunction<List<Advisor>, Class<?>, List<Advisor>> matcher,
+                            Supplier<Collection<Class<?>>> beanClasses) {
+        this.matcher = matcher;
+        this.beanClasses = beanClasses;
+    }
+
+    /**
+     * @return 적용할 어드바이저. 호출한 쪽이 바꿔도 되는 새 목록이다. 쓸 수 없으면 {@code null}
+     */
+    @Nullable
+    List<Advisor> findAdvisorsThatCanApply(List<Advisor> candidateAdvisors, Class<?> beanClass) {
+        if (closed) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        if (current == null || !current.candidates.equals(candidateAdvisors)) {
+            current = match(candidateAdvisors);
+        }
+        if (current.results == null) {
+            return null;
+        }
+        List<Advisor> eligible = current.results.get(beanClass);
+        if (eligible == null) {
+            eligible = matcher.apply(candidateAdvisors, beanClass);
+            current.results.put(beanClass, eligible);
+        }
+        return new ArrayList<>(eligible);
+    }
+
+    /**
+     * 컨텍스트 refresh 가 끝나면 결과를 버린다. 이후에 만들어지는 빈은 원래대로 판단한다.
+     */
+    void close() {
+        closed = true;
+        snapshot = null;
+    }
+
+    private synchronized Snapshot match(List<Advisor> candidateAdvisors) {
+        Snapshot current = snapshot;
+        if (current != null && current.candidates.equals(candidateAdvisors)) {
+            return current;
+        }
+        List<Advisor> candidates = new ArrayList<>(candidateAdvisors);
+        if (candidates.stream().anyMatch(ParallelAdvisorMatching::dependsOnBeanName)) {
+            log.debug("[parallel-matching] bean() pointcut found, matching per bean");
+            snapshot = new Snapshot(candidates, null);
+            return snapshot;
+        }
+
+        long start = System.nanoTime();
+        Map<Class<?>, List<Advisor>> results = new ConcurrentHashMap<>();
+        Collection<Class<?>> classes = beanClasses.get();
+        Iterator<Class<?>> iterator = classes.iterator();
+        if (iterator.hasNext()) {
+            Class<?> first = iterator.next();
+            results.put(first, matcher.apply(candidates, first));
+        }
+        classes.parallelStream()
+                .filter(beanClass -> !results.containsKey(beanClass))
+                .forEach(beanClass -> {
+                    try {
+                        results.put(beanClass, matcher.apply(candidates, beanClass));
+                    } catch (RuntimeException | LinkageError e) {
+                        // 찾을 때 다시 판단하면서 원래 예외가 난다.
+                        log.debug("[parallel-matching] {} skipped: {}", beanClass.getName(), e.toString());
+                    }
+                });
+        log.info("[parallel-matching] classes={} advisors={} time={}ms", results.size(), candidates.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        snapshot = new Snapshot(candidates, results);
+        return snapshot;
+    }
+
+    private static boolean dependsOnBeanName(Advisor advisor) {
+        if (!(advisor instanceof PointcutAdvisor)) {
+            return false;
+        }
+        Pointcut pointcut = ((PointcutAdvisor) advisor).getPointcut();
+        if (!(pointcut instanceof AspectJExpressionPointcut)) {
+            return false;
+        }
+        String expression = ((AspectJExpressionPointcut) pointcut).getExpression();
+        if (expression == null) {
+            return false;
+        }
+        // 애노테이션 애스펙트의 이름 참조는 애스펙트 클래스 기준이다.
+        Class<?> scope = advisor.getAdvice() instanceof AbstractAspectJAdvice
+                ? ((AbstractAspectJAdvice) advisor.getAdvice()).getAspectJAdviceMethod().getDeclaringClass()
+                : null;
+        return dependsOnBeanName(expression, scope, new HashSet<>());
+    }
+
+    /**
+     * @param visited 이미 본 `클래스#메서드`. 서로 참조하는 포인트컷에서 멈추려고 둔다.
+     */
+    static boolean dependsOnBeanName(String expression, @Nullable Class<?> scope, Set<String> visited) {
+        if (expression.contains("bean(")) {
+            return true;
+        }
+        for (String reference : namedReferences(expression)) {
+            int dot = reference.lastIndexOf('.');
+            Class<?> declaringClass = scope;
+            if (dot > 0) {
+                try {
+                    ClassLoader classLoader = scope != null ? scope.getClassLoader() : ParallelAdvisorMatching.class.getClassLoader();
+                    declaringClass = Class.forName(reference.substring(0, dot), false, classLoader);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    return true;
+                }
+            }
+            if (declaringClass == null) {
+                return true;
+            }
+            String name = reference.substring(dot + 1);
+            if (!visited.add(declaringClass.getName() + "#" + name)) {
+                continue;
+            }
+            org.aspectj.lang.annotation.Pointcut declaration = findPointcut(declaringClass, name);
+            if (declaration == null || dependsOnBeanName(declaration.value(), declaringClass, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 포인트컷 지정자(`execution(..)`, `@annotation(..)` 등)가 아닌 `이름(..)` 들. 지정자 괄호 안은 보지 않는다.
+     */
+    private static List<String> namedReferences(String expression) {
+        List<String> references = new ArrayList<>();
+        int length = expression.length();
+        int i = 0;
+        while (i < length) {
+            char c = expression.charAt(i);
+            if (c != '@' && !Character.isJavaIdentifierStart(c)) {
+                i++;
+                continue;
+            }
+            int start = i++;
+            while (i < length && (Character.isJavaIdentifierPart(expression.charAt(i)) || expression.charAt(i) == '.')) {
+                i++;
+            }
+            String name = expression.substring(start, i);
+            while (i < length && Character.isWhitespace(expression.charAt(i))) {
+                i++;
+            }
+            if (i == length || expression.charAt(i) != '(') {
+                continue; // and, or, not
+            }
+            int depth = 0;
+            do {
+                char p = expression.charAt(i++);
+                if (p == '(') {
+                    depth++;
+                } else if (p == ')') {
+                    depth--;
+                }
+            } while (depth > 0 && i < length);
+            if (c != '@' && !DESIGNATORS.contains(name)) {
+                references.add(name);
+            }
+        }
+        return references;
+    }
+
+    @Nullable
+    private static org.aspectj.lang.annotation.Pointcut findPointcut(Class<?> declaringClass, String name) {
+        for (Class<?> type = declaringClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                org.aspectj.lang.annotation.Pointcut pointcut = method.getAnnotation(org.aspectj.lang.annotation.Pointcut.class);
+                if (pointcut != null && method.getName().equals(name)) {
+                    return pointcut;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static final class Snapshot {
+        final List<Advisor> candidates;
+        // null 이면 클래스로 묶을 수 없는 후보다.
+        @Nullable
+        final Map<Class<?>, List<Advisor>> results;
+
+        Snapshot(List<Advisor> candidates, @Nullable Map<Class<?>, List<Advisor>> results) {
+            this.candidates = candidates;
+            this.results = results;
+        }
+    }
+}
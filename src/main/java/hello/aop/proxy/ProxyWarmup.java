@@ -0,0 +1,201 @@
+package hello.aop.proxy;
+
+import hello.aop.member.annotation.CachedResult;
+import hello.aop.pointcut.AnnotationIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.framework.AdvisedSupport;
+import org.springframework.aop.framework.ReflectiveMethodInvocation;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 자동 프록시 생성기가 만든 프록시의 어드바이저 체인을 컨텍스트 refresh 직후에 미리 만든다.
+ * 스프링은 메서드마다 첫 호출 때 체인을 계산해서 캐시하므로, 그대로 두면 배포 직후의 첫 호출이 그 비용을 낸다.
+ *
+ * <ul>
+ *     <li>체인: 프록시가 가로채는 메서드마다 체인을 계산해서 프록시 설정의 캐시에 넣는다.</li>
+ *     <li>얼리기: `freeze` 면 프록시 설정을 얼려서 어드바이저가 바뀌어 캐시가 비워지는 일이 없게 한다.
+ *     {@link AspectSwitches} 는 프록시를 만들 때 어드바이저를 바꿔 두고, 스위치를 바꿀 때는 체인 캐시만 비우므로
+ *     얼린 뒤에도 스위치가 그대로 동작한다. 꺼져 있던 어드바이스의 체인은 켠 뒤 첫 호출 때 다시 만든다.</li>
+ *     <li>합성 호출: `invocations` 가 0 보다 크면 메서드마다 그만큼 체인을 실행해서 어드바이스 코드가 JIT 컴파일되게 한다.
+ *     인수는 타입의 기본값이고 대상 메서드 대신 반환 타입의 기본값을 돌려준다. 어드바이스의 부수 효과(트랜잭션, 감사 로그,
+ *     지표, 제한기의 토큰과 RTT)는 실제 호출처럼 남으므로, 프록시의 어드바이저가 모두 {@link SideEffectFree} 일 때만 돌린다.
+ *     아니면 체인만 만든다. 기본값 결과가 캐시에 남는 {@link CachedResult} 메서드는 그래도 건너뛴다.</li>
+ * </ul>
+ */
+@Slf4j
+public class ProxyWarmup {
+
+    private final int invocations;
+    private final List<AdvisedSupport> proxies = new ArrayList<>();
+    private boolean done;
+
+    public ProxyWarmup(int invocations) {
+        this.invocations = invocations;
+    }
+
+    /**
+     * 프록시를 만들 때 그 설정을 받아 둔다. 한 번 실행한 뒤에 만들어진 프록시는 받지 않는다.
+     */
+    public synchronized void add(AdvisedSupport config) {
+        if (!done) {
+            proxies.add(config);
+        }
+    }
+
+    /**
+     * @return 체인을 미리 만든 메서드 수
+     */
+    public synchronized int run(boolean freeze) {
+        if (done) {
+            return 0;
+        }
+        done = true;
+        long start = System.nanoTime();
+        int methods = 0;
+        for (AdvisedSupport config : proxies) {
+            methods += warmUp(config);
+            if (freeze) {
+                config.setFrozen(true);
+            }
+        }
+        log.info("[warmup] proxies={} methods={} invocations={} frozen={} time={}ms", proxies.size(), methods,
+                invocations, freeze, (System.nanoTime() - start) / 1_000_000);
+        proxies.clear();
+        return methods;
+    }
+
+    private int warmUp(AdvisedSupport config) {
+        Class<?> targetClass = config.getTargetClass();
+        if (targetClass == null) {
+            return 0;
+        }
+        int methods = 0;
+        boolean invoke = invocations > 0 && sideEffectFree(config);
+        for (Method method : interceptedMethods(config, targetClass)) {
+            List<Object> chain = config.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+            methods++;
+            if (invoke && !chain.isEmpty()
+                    && AnnotationIndex.of(targetClass).methodAnnotation(method, CachedResult.class) == null) {
+                invoke(config, method, targetClass, chain);
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * CGLIB 프록시는 대상 클래스의 오버라이드 가능한 메서드를, JDK 프록시는 인터페이스 메서드를 가로챈다.
+     */
+    private static List<Method> interceptedMethods(AdvisedSupport config, Class<?> targetClass) {
+        List<Method> methods = new ArrayList<>();
+        if (config.isProxyTargetClass() || config.getProxiedInterfaces().length == 0) {
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(targetClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+                int modifiers = method.getModifiers();
+                if (method.getDeclaringClass() != Object.class && !Modifier.isStatic(modifiers)
+                        && !Modifier.isFinal(modifiers) && !Modifier.isPrivate(modifiers)) {
+                    methods.add(method);
+                }
+            }
+        } else {
+            for (Class<?> proxied : config.getProxiedInterfaces()) {
+                for (Method method : proxied.getMethods()) {
+                    if (!method.isDefault() && !Modifier.isStatic(method.getModifiers())) {
+                        methods.add(method);
+                    }
+                }
+            }
+        }
+        return methods;
+    }
+
+    private static boolean sideEffectFree(AdvisedSupport config) {
+        for (Advisor advisor : config.getAdvisors()) {
+            if (!sideEffectFree(advisor.getAdvice())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sideEffectFree(Object advice) {
+        if (advice == ExposeInvocationInterceptor.INSTANCE) {
+            return true;
+        }
+        if (advice instanceof AspectSwitch.SwitchedInterceptor) {
+            return sideEffectFree(((AspectSwitch.SwitchedInterceptor) advice).getAdvice());
+        }
+        if (advice instanceof FusedAdviceInterceptor) {
+            return ((FusedAdviceInterceptor) advice).getAdvices().stream().allMatch(ProxyWarmup::sideEffectFree);
+        }
+        Class<?> type = advice instanceof AbstractAspectJAdvice
+                ? ((AbstractAspectJAdvice) advice).getAspectJAdviceMethod().getDeclaringClass()
+                : advice.getClass();
+        return type.isAnnotationPresent(SideEffectFree.class);
+    }
+
+    private void invoke(AdvisedSupport config, Method method, Class<?> targetClass, List<Object> chain) {
+        Object target;
+        TargetSource targetSource = config.getTargetSource();
+        try {
+            target = targetSource.getTarget();
+        } catch (Exception e) {
+            log.debug("[warmup] no target for {}: {}", targetClass.getName(), e.toString());
+            return;
+        }
+        if (target == null) {
+            return;
+        }
+        try {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int i = 0; i < invocations; i++) {
+                Object[] args = new Object[parameterTypes.length];
+                for (int p = 0; p < args.length; p++) {
+                    args[p] = defaultValue(parameterTypes[p]);
+                }
+                new WarmupInvocation(target, method, args, targetClass, chain).proceed();
+            }
+        } catch (Throwable e) {
+            // 기본값 인수를 받아들이지 않는 어드바이스. 체인은 이미 만들어졌으므로 이 메서드의 합성 호출만 그만둔다.
+            log.debug("[warmup] synthetic call stopped at {}: {}", method, e.toString());
+        } finally {
+            if (!targetSource.isStatic()) {
+                try {
+                    targetSource.releaseTarget(target);
+                } catch (Exception e) {
+                    log.debug("[warmup] release failed: {}", e.toString());
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static Object defaultValue(Class<?> type) {
+        return type.isPrimitive() && type != void.class ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+
+    /**
+     * 체인만 실행하고 대상 메서드는 부르지 않는 호출. 프록시 대신 대상 객체를 `this` 로 쓴다.
+     */
+    private static final class WarmupInvocation extends ReflectiveMethodInvocation {
+
+        WarmupInvocation(Object target, Method method, Object[] args, Class<?> targetClass, List<Object> chain) {
+            super(target, target, method, args, targetClass, chain);
+        }
+
+        @Override
+        @Nullable
+        protected Object invokeJoinpoint() {
+            return defaultValue(getMethod().getReturnType());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package hello.aop.proxy;
+
+import hello.aop.pointcut.CompiledPointcut;
+import hello.aop.pointcut.Residue;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.IntroductionAdvisor;
+import org.springframework.aop.IntroductionAwareMethodMatcher;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.AdvisorChainFactory;
+import org.springframework.aop.framework.DefaultAdvisorChainFactory;
+import org.springframework.aop.framework.adapter.AdvisorAdapterRegistry;
+import org.springframework.aop.framework.adapter.GlobalAdvisorAdapterRegistry;
+import org.springframework.lang.Nullable;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link DefaultAdvisorChainFactory} 와 같은 체인을 만들되, {@link CompiledPointcut} 의 동적 판단은 메서드마다 미리 줄여 둔다.
+ *
+ * <p>스프링은 `isRuntime()` 인 포인트컷이면 어느 메서드든 호출마다 `matches(Method, Class, Object...)` 를 부른다.
+ * 여기서는 체인을 만들 때(메서드마다 한 번) {@link CompiledPointcut#residue} 를 구해서, 파라미터 타입만으로 결정되면
+ * 인터셉터를 그대로 넣고, 남는 판단이 있으면 그 판단만 하는 {@link ResidueInterceptor} 로 감싼다.
+ * 컴파일되지 않은 런타임 포인트컷은 스프링과 같이 호출마다 판단한다.</p>
+ */
+public class ResidueAdvisorChainFactory implements AdvisorChainFactory, Serializable {
+
+    @Override
+    public List<Object> getInterceptorsAndDynamicInterceptionAdvice(Advised config, Method method, @Nullable Class<?> targetClass) {
+        AdvisorAdapterRegistry registry = GlobalAdvisorAdapterRegistry.getInstance();
+        Advisor[] advisors = config.getAdvisors();
+        List<Object> interceptors = new ArrayList<>(advisors.length);
+        Class<?> actualClass = targetClass != null ? targetClass : method.getDeclaringClass();
+        Boolean hasIntroductions = null;
+
+        for (Advisor advisor : advisors) {
+            if (advisor instanceof PointcutAdvisor) {
+                PointcutAdvisor pointcutAdvisor = (PointcutAdvisor) advisor;
+                if (!config.isPreFiltered() && !pointcutAdvisor.getPointcut().getClassFilter().matches(actualClass)) {
+                    continue;
+                }
+                MethodMatcher matcher = pointcutAdvisor.getPointcut().getMethodMatcher();
+                boolean matches;
+                if (matcher instanceof IntroductionAwareMethodMatcher) {
+                    if (hasIntroductions == null) {
+                        hasIntroductions = hasMatchingIntroductions(advisors, actualClass);
+                    }
+                    matches = ((IntroductionAwareMethodMatcher) matcher).matches(method, actualClass, hasIntroductions);
+                } else {
+                    matches = matcher.matches(method, actualClass);
+                }
+                if (!matches) {
+                    continue;
+                }
+                for (MethodInterceptor interceptor : registry.getInterceptors(advisor)) {
+                    interceptors.add(dynamic(matcher, method, actualClass, interceptor));
+                }
+            } else if (advisor instanceof IntroductionAdvisor) {
+                if (config.isPreFiltered() || ((IntroductionAdvisor) advisor).getClassFilter().matches(actualClass)) {
+                    interceptors.addAll(Arrays.asList(registry.getInterceptors(advisor)));
+                }
+            } else {
+                interceptors.addAll(Arrays.asList(registry.getInterceptors(advisor)));
+            }
+        }
+        return interceptors;
+    }
+
+    private static MethodInterceptor dynamic(MethodMatcher matcher, Method method, Class<?> targetClass,
+                                             MethodInterceptor interceptor) {
+        if (!matcher.isRuntime()) {
+            return interceptor;
+        }
+        // 스위치는 체인을 만들 때 이미 확인했다. 호출마다 남는 판단은 원래 포인트컷의 것이다.
+        MethodMatcher runtime = matcher instanceof AspectSwitch.SwitchedPointcut
+                ? ((AspectSwitch.SwitchedPointcut) matcher).getDelegate() : matcher;
+        if (runtime instanceof CompiledPointcut) {
+            Residue residue = ((CompiledPointcut) runtime).residue(method, targetClass);
+            return residue == null ? interceptor : new ResidueInterceptor(residue, interceptor);
+        }
+        return invocation -> matcher.matches(invocation.getMethod(), targetClass, invocation.getArguments())
+                ? interceptor.invoke(invocation) : invocation.proceed();
+    }
+
+    private static boolean hasMatchingIntroductions(Advisor[] advisors, Class<?> actualClass) {
+        for (Advisor advisor : advisors) {
+            if (advisor instanceof IntroductionAdvisor && ((IntroductionAdvisor) advisor).getClassFilter().matches(actualClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 남는 판단을 통과할 때만 감싼 인터셉터를 부르고, 아니면 다음 칸으로 넘어간다.
+     */
+    static final class ResidueInterceptor implements MethodInterceptor {
+        private final Residue residue;
+        private final MethodInterceptor interceptor;
+
+        ResidueInterceptor(Residue residue, MethodInterceptor interceptor) {
+            this.residue = residue;
+            this.interceptor = interceptor;
+        }
+
+        @Override
+        @Nullable
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            return residue.matches(invocation.getArguments()) ? interceptor.invoke(invocation) : invocation.proceed();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package hello.aop.proxy;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 실행해도 밖에 남는 것이 없는 어드바이스. `@Aspect` 클래스나 어드바이스(인터셉터) 클래스에 붙인다.
+ * {@link ProxyWarmup} 은 프록시의 어드바이저가 모두 이 표시를 가졌을 때만 합성 호출을 돌린다.
+ *
+ * <p>트랜잭션, 감사 로그, 지표, 토큰/동시성 제한처럼 호출을 세거나 기록하는 어드바이스에는 붙이지 않는다.
+ * 기본값 인수로 한 합성 호출이 실제 호출처럼 남는다.</p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SideEffectFree {
+}
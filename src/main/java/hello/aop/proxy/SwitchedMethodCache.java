@@ -0,0 +1,86 @@
+package hello.aop.proxy;
+
+import org.springframework.aop.framework.AdvisedSupport;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link AspectSwitches} 에 등록한 프록시 설정({@link AdvisedSupport})의 메서드별 체인 캐시를 대신한다.
+ *
+ * <p>스프링은 캐시에 체인이 없으면 만들어서 넣는데, 만드는 사이에 스위치가 바뀌어 캐시를 비웠다면 바뀌기 전 스위치로 만든 체인이
+ * 비운 뒤에 들어간다. 그래서 없다고 답할 때의 세대를 기억해 두고, 넣을 때 세대가 그대로일 때만 넣는다.
+ * 세대 확인과 넣기, {@link AspectSwitches#invalidate()} 의 세대 올리기와 비우기는 모두 {@link AspectSwitches} 의 락 안에서 한다.
+ * 캐시에 있는 체인을 읽는 호출 경로는 원래 캐시와 같다.</p>
+ */
+final class SwitchedMethodCache extends ConcurrentHashMap<Object, List<Object>> {
+
+    @Nullable
+    private static final Field METHOD_CACHE = methodCacheField();
+    // 이 스레드가 마지막으로 캐시에 없다고 답했을 때의 세대
+    private static final ThreadLocal<Long> MISSED = new ThreadLocal<>();
+
+    private final transient AspectSwitches owner;
+
+    private SwitchedMethodCache(AspectSwitches owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * 프록시 설정의 캐시를 이 캐시로 바꾼다. 스프링 버전이 달라 캐시 필드를 찾지 못하면 {@code null}.
+     */
+    @Nullable
+    static SwitchedMethodCache install(AdvisedSupport config, AspectSwitches owner) {
+        if (METHOD_CACHE == null) {
+            return null;
+        }
+        SwitchedMethodCache cache = new SwitchedMethodCache(owner);
+        try {
+            METHOD_CACHE.set(config, cache);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+        return cache;
+    }
+
+    @Override
+    @Nullable
+    public List<Object> get(Object key) {
+        List<Object> chain = super.get(key);
+        if (chain == null) {
+            MISSED.set(owner.generation());
+        }
+        return chain;
+    }
+
+    @Override
+    @Nullable
+    public List<Object> put(Object key, List<Object> chain) {
+        Long missed = MISSED.get();
+        MISSED.remove();
+        synchronized (owner) {
+            // 없다고 답한 뒤에 스위치가 바뀌었으면 이 체인은 이미 낡았다. 이번 호출에만 쓰고 넣지 않는다.
+            if (missed == null || missed != owner.generation()) {
+                return null;
+            }
+            return super.put(key, chain);
+        }
+    }
+
+    @Nullable
+    private static Field methodCacheField() {
+        Field field = ReflectionUtils.findField(AdvisedSupport.class, "methodCache");
+        if (field == null || !field.getType().isAssignableFrom(SwitchedMethodCache.class)) {
+            return null;
+        }
+        try {
+            ReflectionUtils.makeAccessible(field);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return field;
+    }
+}
@@ -0,0 +1,59 @@
+package hello.aop.sampling;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 정해진 비율로 호출을 고른다. 스레드마다 따로 있는 {@link ThreadLocalRandom} 을 써서 스레드끼리 경합하지 않는다.
+ * 비율이 0 이나 1 이면 난수도 뽑지 않는다.
+ */
+public final class Sampler {
+
+    public static final Sampler ALWAYS = new Sampler(1.0);
+    public static final Sampler NEVER = new Sampler(0.0);
+
+    // 53비트 난수와 비교할 경계. nextDouble() 과 같은 해상도지만 double 연산이 없다.
+    private static final double SCALE = 1L << 53;
+
+    private final double rate;
+    private final long threshold;
+
+    private Sampler(double rate) {
+        this.rate = rate;
+        this.threshold = (long) (rate * SCALE);
+    }
+
+    /**
+     * @param rate 0.0 ~ 1.0
+     */
+    public static Sampler of(double rate) {
+        if (Double.isNaN(rate) || rate < 0.0 || rate > 1.0) {
+            throw new IllegalArgumentException("sampling rate must be between 0 and 1: " + rate);
+        }
+        if (rate == 0.0) {
+            return NEVER;
+        }
+        if (rate == 1.0) {
+            return ALWAYS;
+        }
+        return new Sampler(rate);
+    }
+
+    public boolean sample() {
+        if (this == ALWAYS) {
+            return true;
+        }
+        if (this == NEVER) {
+            return false;
+        }
+        return (ThreadLocalRandom.current().nextLong() >>> 11) < threshold;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    @Override
+    public String toString() {
+        return "Sampler(" + rate + ")";
+    }
+}
@@ -0,0 +1,41 @@
+package hello.aop.sampling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * `aop.sampling.enabled=true` 이면 {@link SamplingPolicy} 를 등록한다. 샘플링 애스펙트는 없으면 모든 호출을 남긴다.
+ *
+ * <pre>
+ * aop.sampling.rate=0.01                    # 맞는 포인트컷이 없을 때 비율
+ * aop.sampling.always-on-error=true         # 고르지 않은 호출도 예외는 남긴다
+ * aop.sampling.rules[0].pointcut=orderAndService  # 포인트컷별 비율, 번호 순서대로 맞춰 보고 처음 맞는 것을 쓴다
+ * aop.sampling.rules[0].rate=0.1                  # 포인트컷은 Pointcuts 의 이름이나 표현식
+ * aop.sampling.rules[1].pointcut=allOrder
+ * aop.sampling.rules[1].rate=0.001
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(name = "aop.sampling.enabled", havingValue = "true")
+public class SamplingConfig {
+
+    @Bean
+    public SamplingPolicy samplingPolicy(
+            Environment environment,
+            @Value("${aop.sampling.rate:1.0}") double rate,
+            @Value("${aop.sampling.always-on-error:true}") boolean alwaysOnError) {
+        // 맵은 바인딩 순서가 설정 순서와 같다는 보장이 없어서 목록으로 받는다.
+        List<SamplingPolicy.PointcutRate> pointcutRates = Binder.get(environment)
+                .bind("aop.sampling.rules", Bindable.listOf(SamplingPolicy.PointcutRate.class))
+                .orElse(Collections.emptyList());
+        return new SamplingPolicy(pointcutRates, rate, alwaysOnError);
+    }
+}
@@ -0,0 +1,129 @@
+package hello.aop.sampling;
+
+import hello.aop.advice.MethodIds;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 메서드마다 {@link Sampler} 를 정한다.
+ * <ul>
+ *     <li>포인트컷별 비율: 설정한 순서대로 포인트컷을 맞춰 보고 처음 맞는 것의 비율을 쓴다.</li>
+ *     <li>기본 비율: 맞는 포인트컷이 없으면 쓴다.</li>
+ *     <li>alwaysOnError: 고르지 않은 호출도 예외가 나면 로그를 남긴다.</li>
+ * </ul>
+ * 포인트컷은 처음 보는 메서드에서 한 번만 맞춰 보고, 이후에는 {@link MethodIds} 아이디로 배열에서 바로 꺼낸다.
+ */
+public class SamplingPolicy {
+
+    private final List<Rule> rules;
+    private final Sampler defaultSampler;
+    private final boolean alwaysOnError;
+    // MethodIds 아이디 -> Sampler. 아직 정하지 않았으면 null
+    private volatile Sampler[] samplers = new Sampler[64];
+
+    /**
+     * @param pointcutRates 맞춰 볼 순서대로의 포인트컷별 비율
+     */
+    public SamplingPolicy(List<PointcutRate> pointcutRates, double defaultRate, boolean alwaysOnError) {
+        List<Rule> rules = new ArrayList<>();
+        for (PointcutRate pointcutRate : pointcutRates) {
+            rules.add(new Rule(pointcutRate.getPointcut(), Sampler.of(pointcutRate.getRate())));
+        }
+        this.rules = Collections.unmodifiableList(rules);
+        this.defaultSampler = Sampler.of(defaultRate);
+        this.alwaysOnError = alwaysOnError;
+    }
+
+    /**
+     * 모든 호출을 고른다. 설정이 없을 때 쓴다.
+     */
+    public static SamplingPolicy always() {
+        return new SamplingPolicy(Collections.emptyList(), 1.0, true);
+    }
+
+    public Sampler sampler(int methodId, Class<?> targetClass) {
+        Sampler[] current = samplers;
+        if (methodId < current.length) {
+            Sampler sampler = current[methodId];
+            if (sampler != null) {
+                return sampler;
+            }
+        }
+        return resolve(methodId, targetClass);
+    }
+
+    public boolean isAlwaysOnError() {
+        return alwaysOnError;
+    }
+
+    private synchronized Sampler resolve(int methodId, Class<?> targetClass) {
+        Sampler[] current = samplers;
+        if (methodId < current.length && current[methodId] != null) {
+            return current[methodId];
+        }
+
+        Method method = MethodIds.method(methodId);
+        Sampler resolved = defaultSampler;
+        for (Rule rule : rules) {
+            if (rule.pointcut.matches(method, targetClass)) {
+                resolved = rule.sampler;
+                break;
+            }
+        }
+
+        // 배열을 복사해서 바꾼다. 읽는 쪽은 락 없이 volatile 읽기 한 번이다.
+        Sampler[] next = Arrays.copyOf(current, Math.max(current.length, Integer.highestOneBit(methodId) * 2));
+        next[methodId] = resolved;
+        samplers = next;
+        return resolved;
+    }
+
+    /**
+     * 포인트컷 하나와 그 비율. 설정에서 `aop.sampling.rules[0].pointcut`, `aop.sampling.rules[0].rate` 로 바인딩한다.
+     */
+    public static class PointcutRate {
+        // 포인트컷 이름 또는 표현식. 이름(`allOrder`)은 hello.aop.order.aop.Pointcuts 에서 찾는다.
+        private String pointcut;
+        private double rate;
+
+        public PointcutRate() {
+        }
+
+        public PointcutRate(String pointcut, double rate) {
+            this.pointcut = pointcut;
+            this.rate = rate;
+        }
+
+        public String getPointcut() {
+            return pointcut;
+        }
+
+        public void setPointcut(String pointcut) {
+            this.pointcut = pointcut;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+    }
+
+    private static class Rule {
+        final AspectJExpressionPointcut pointcut;
+        final Sampler sampler;
+
+        Rule(String pointcut, Sampler sampler) {
+            this.pointcut = new AspectJExpressionPointcut();
+            this.pointcut.setExpression(pointcut.contains("(") ? pointcut : "hello.aop.order.aop.Pointcuts." + pointcut + "()");
+            this.sampler = sampler;
+        }
+    }
+}
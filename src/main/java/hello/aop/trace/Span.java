@@ -0,0 +1,91 @@
+package hello.aop.trace;
+
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link SpanReader} 가 파일에서 읽은 스팬 하나. 트리로 묶으면 자식 스팬을 시작 순서대로 갖는다.
+ */
+public class Span {
+
+    private final long traceId;
+    private final int spanId;
+    private final int parentId;
+    private final String signature;
+    private final int depth;
+    private final long startEpochNanos;
+    private final long durationNanos;
+    @Nullable
+    private final String error;
+    private final List<Span> children = new ArrayList<>();
+
+    Span(long traceId, int spanId, int parentId, String signature, int depth,
+         long startEpochNanos, long durationNanos, @Nullable String error) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.signature = signature;
+        this.depth = depth;
+        this.startEpochNanos = startEpochNanos;
+        this.durationNanos = durationNanos;
+        this.error = error;
+    }
+
+    void addChild(Span child) {
+        children.add(child);
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public int getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * 루트 스팬이면 0
+     */
+    public int getParentId() {
+        return parentId;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * 1970-01-01 부터의 나노초. 파일을 열 때의 벽시계 기준이다.
+     */
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * 예외로 끝났으면 `예외클래스: 메시지`, 아니면 null
+     */
+    @Nullable
+    public String getError() {
+        return error;
+    }
+
+    public List<Span> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    @Override
+    public String toString() {
+        return signature + " " + (durationNanos / 1000) + "us" + (error != null ? " !" + error : "");
+    }
+}
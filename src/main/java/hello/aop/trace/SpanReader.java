@@ -0,0 +1,137 @@
+package hello.aop.trace;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SpanWriter} 가 쓴 파일을 읽어서 트레이스별 스팬 트리로 묶는다.
+ * 쓰는 중이던 파일의 잘린 마지막 레코드는 건너뛴다.
+ *
+ * <pre>SpanReader &lt;스팬 파일 또는 디렉터리&gt;</pre>
+ */
+public final class SpanReader {
+
+    private SpanReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("usage: SpanReader <span-file-or-dir>");
+        }
+        Path path = Paths.get(args[0]);
+        List<Span> spans = Files.isDirectory(path) ? readDirectory(path) : read(path);
+        for (Span root : tree(spans)) {
+            print(root, System.out);
+        }
+    }
+
+    /**
+     * 디렉터리의 스팬 파일을 오래된 것부터 읽는다.
+     */
+    public static List<Span> readDirectory(Path dir) throws IOException {
+        List<Span> spans = new ArrayList<>();
+        for (Path file : SpanWriter.files(dir)) {
+            spans.addAll(read(file));
+        }
+        return spans;
+    }
+
+    public static List<Span> read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        List<Span> spans = new ArrayList<>();
+        if (buffer.remaining() < SpanWriter.HEADER_SIZE) {
+            return spans;
+        }
+        if (buffer.getInt() != SpanWriter.MAGIC) {
+            throw new IOException("not a span file: " + file);
+        }
+        short version = buffer.getShort();
+        if (version != SpanWriter.VERSION) {
+            throw new IOException("unsupported span file version " + version + ": " + file);
+        }
+        long epochMillis = buffer.getLong();
+        long baseNanos = buffer.getLong();
+
+        Map<Integer, String> signatures = new HashMap<>();
+        try {
+            while (buffer.hasRemaining()) {
+                byte type = buffer.get();
+                if (type == SpanWriter.METHOD) {
+                    int methodId = buffer.getInt();
+                    signatures.put(methodId, text(buffer));
+                } else if (type == SpanWriter.SPAN) {
+                    long traceId = buffer.getLong();
+                    int spanId = buffer.getInt();
+                    int parentId = buffer.getInt();
+                    int methodId = buffer.getInt();
+                    int depth = buffer.getShort();
+                    long startNanos = buffer.getLong();
+                    long durationNanos = buffer.getLong();
+                    String error = buffer.get() != 0 ? text(buffer) : null;
+                    long startEpochNanos = epochMillis * 1_000_000 + (startNanos - baseNanos);
+                    spans.add(new Span(traceId, spanId, parentId, signatures.getOrDefault(methodId, "#" + methodId),
+                            depth, startEpochNanos, durationNanos, error));
+                } else {
+                    throw new IOException("corrupt span file " + file + " at " + (buffer.position() - 1));
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // 쓰는 도중에 잘린 마지막 레코드
+        }
+        return spans;
+    }
+
+    /**
+     * 스팬을 부모 아래로 묶는다. 부모를 못 찾은 스팬(이전 파일이 지워진 경우 등)도 루트로 돌려준다.
+     *
+     * @return 루트 스팬, 시작 순서대로
+     */
+    public static List<Span> tree(List<Span> spans) {
+        Map<Long, Map<Integer, Span>> traces = new HashMap<>();
+        for (Span span : spans) {
+            traces.computeIfAbsent(span.getTraceId(), traceId -> new HashMap<>()).put(span.getSpanId(), span);
+        }
+
+        List<Span> roots = new ArrayList<>();
+        List<Span> ordered = new ArrayList<>(spans);
+        ordered.sort(Comparator.comparingLong(Span::getStartEpochNanos));
+        for (Span span : ordered) {
+            Span parent = span.getParentId() != 0 ? traces.get(span.getTraceId()).get(span.getParentId()) : null;
+            if (parent != null) {
+                parent.addChild(span);
+            } else {
+                roots.add(span);
+            }
+        }
+        return roots;
+    }
+
+    public static void print(Span root, PrintStream out) {
+        out.printf("trace %016x%n", root.getTraceId());
+        printTree(root, out);
+    }
+
+    private static void printTree(Span span, PrintStream out) {
+        out.println("  ".repeat(span.getDepth() + 1) + span);
+        for (Span child : span.getChildren()) {
+            printTree(child, out);
+        }
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
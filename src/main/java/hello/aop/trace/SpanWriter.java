@@ -0,0 +1,389 @@
+package hello.aop.trace;
+
+import hello.aop.advice.MethodIds;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 끝난 스팬을 `spans-00000001.bin` 같은 파일에 바이너리로 쓴다. 파일이 maxFileSize 를 넘으면 다음 파일로 넘어가고,
+ * maxFiles 개보다 오래된 파일은 지운다. 쓰기는 메모리 버퍼에 모았다가 가득 차거나 flushInterval 마다 내보낸다.
+ *
+ * <p>버퍼는 두 개다. 스팬은 모니터를 잡고 한쪽 버퍼에 인코딩만 한다. 가득 찬 버퍼는 빈 버퍼와 바꾼 다음
+ * 모니터를 놓고 파일에 쓰므로, 파일 쓰기와 `force` 동안에도 다른 스레드는 다른 버퍼에 계속 쓴다.
+ * 두 버퍼가 모두 차 있을 때만 내보내기가 끝나기를 기다린다.</p>
+ *
+ * <pre>
+ * 파일 헤더: [magic int][version short][epochMillis long][nanoTime long]  (nanoTime 기준 시각을 벽시계로 바꿀 때 쓴다)
+ * METHOD:   [1][methodId int][len short][signature utf-8]               (파일마다 처음 나오는 메서드 앞에 한 번)
+ * SPAN:     [2][traceId long][spanId int][parentId int][methodId int][depth short]
+ *           [startNanos long][durationNanos long][hasError byte]([len short][예외 utf-8])
+ * </pre>
+ *
+ * 스팬을 못 쓰면 호출은 그대로 두고 버린 수만 센다.
+ */
+@Slf4j
+public class SpanWriter implements Closeable {
+
+    static final int MAGIC = 0x5350414e; // "SPAN"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 8 + 8;
+    static final byte METHOD = 1;
+    static final byte SPAN = 2;
+    static final String PREFIX = "spans-";
+    static final String SUFFIX = ".bin";
+
+    private static final int SPAN_SIZE = 1 + 8 + 4 + 4 + 4 + 2 + 8 + 8 + 1;
+    private static final int MAX_TEXT = 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path dir;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    @Nullable
+    private final ScheduledExecutorService flusher;
+
+    // 모니터(this)로 지킨다.
+    private Buffer active = new Buffer();
+    // 내보내는 중이면 null
+    @Nullable
+    private Buffer spare = new Buffer();
+    private final BitSet definedMethods = new BitSet();
+    // 지금 파일에 쓰일 바이트 수. 아직 버퍼에 있는 것도 센다.
+    private long fileSize;
+    private boolean closed;
+
+    // 파일 쓰기. io 를 잡고 쓴다. 버퍼는 바꾼 순서대로 들어온다.
+    private final Object io = new Object();
+    private FileChannel channel;
+    private long fileIndex;
+    // 다음 파일로 넘어가야 하는데 아직 새 파일을 못 열었다. 다음 버퍼는 새 파일 헤더로 시작하므로 쓰기 전에 넘어간다.
+    private boolean rollPending;
+
+    public SpanWriter(Path dir, long maxFileSize, int maxFiles, Duration flushInterval) throws IOException {
+        if (maxFileSize < HEADER_SIZE + 64 * 1024) {
+            throw new IllegalArgumentException("maxFileSize too small: " + maxFileSize);
+        }
+        this.dir = Files.createDirectories(dir);
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.fileIndex = files(dir).stream().mapToLong(SpanWriter::index).max().orElse(0);
+        openFile();
+        startFile();
+
+        if (flushInterval.isZero()) {
+            this.flusher = null;
+        } else {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "span-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = flushInterval.toMillis();
+            this.flusher.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void write(long traceId, int spanId, int parentId, int methodId, int depth,
+                      long startNanos, long durationNanos, @Nullable Throwable error) {
+        byte[] errorText = error != null ? text(error.toString()) : null;
+        int spanSize = SPAN_SIZE + (errorText != null ? 2 + errorText.length : 0);
+        Buffer full = null;
+        synchronized (this) {
+            boolean define;
+            int methodSize;
+            while (true) {
+                if (closed) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                define = !definedMethods.get(methodId);
+                methodSize = define ? methodSize(methodId) : 0;
+                boolean roll = fileSize > HEADER_SIZE && fileSize + spanSize + methodSize > maxFileSize;
+                if (!roll && active.bytes.remaining() >= spanSize + methodSize) {
+                    break;
+                }
+                if (awaitSpare()) {
+                    // 기다리는 동안 다른 스레드가 버퍼나 파일을 바꿨을 수 있다.
+                    continue;
+                }
+                // 다음 파일로 넘어가면 지금 버퍼를 다 쓰고 나서 파일을 바꾸도록 표시해서 넘긴다.
+                active.roll = roll;
+                full = swap();
+                if (roll) {
+                    startFile();
+                }
+            }
+
+            ByteBuffer buffer = active.bytes;
+            if (define) {
+                byte[] signature = text(MethodIds.signature(methodId));
+                buffer.put(METHOD).putInt(methodId).putShort((short) signature.length).put(signature);
+                definedMethods.set(methodId);
+            }
+            buffer.put(SPAN)
+                    .putLong(traceId).putInt(spanId).putInt(parentId).putInt(methodId).putShort((short) depth)
+                    .putLong(startNanos).putLong(durationNanos);
+            if (errorText == null) {
+                buffer.put((byte) 0);
+            } else {
+                buffer.put((byte) 1).putShort((short) errorText.length).put(errorText);
+            }
+            fileSize += spanSize + methodSize;
+            active.spans++;
+            written.incrementAndGet();
+        }
+        if (full != null) {
+            drainQuietly(full);
+        }
+    }
+
+    public void flush() throws IOException {
+        Buffer full;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            while (awaitSpare() && !closed) {
+                // 다른 스레드의 내보내기가 끝나기를 기다렸다.
+            }
+            if (closed) {
+                return;
+            }
+            full = active.bytes.position() > 0 ? swap() : null;
+        }
+        synchronized (io) {
+            try {
+                if (full != null) {
+                    drain(full);
+                }
+            } finally {
+                if (full != null) {
+                    giveBack(full);
+                }
+            }
+            if (channel.isOpen()) {
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * 쓴 스팬 수. 아직 버퍼에 있는 것도 센다.
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            // 인터럽트하면 쓰던 채널이 닫히므로 shutdownNow 가 아니라 shutdown 이다.
+            flusher.shutdown();
+        }
+        Buffer last;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            while (awaitSpare()) {
+                // 위와 같다.
+            }
+            last = swap();
+        }
+        synchronized (io) {
+            try {
+                drain(last);
+            } finally {
+                giveBack(last);
+                channel.close();
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            log.warn("[trace] flush 실패 {}", dir, e);
+        }
+    }
+
+    /**
+     * 모니터를 잡고 부른다. 다른 스레드가 버퍼를 내보내는 중이면 한 번 기다린다. 기다리는 동안 모니터를 놓는다.
+     *
+     * @return 기다렸으면 true. 그 사이에 바뀐 상태를 다시 확인해야 한다.
+     */
+    private boolean awaitSpare() {
+        if (spare != null) {
+            return false;
+        }
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            // 내보내기는 곧 끝나므로 인터럽트는 표시만 하고 마저 기다린다.
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * 모니터를 잡고, {@link #awaitSpare()} 가 false 일 때 부른다. 지금 버퍼를 내보낼 차례로 돌려주고 빈 버퍼로 바꾼다.
+     */
+    private Buffer swap() {
+        Buffer full = active;
+        active = spare;
+        spare = null;
+        return full;
+    }
+
+    private synchronized void giveBack(Buffer drained) {
+        drained.bytes.clear();
+        drained.spans = 0;
+        drained.roll = false;
+        spare = drained;
+        notifyAll();
+    }
+
+    private void drainQuietly(Buffer full) {
+        synchronized (io) {
+            try {
+                drain(full);
+            } catch (IOException e) {
+                log.warn("[trace] 스팬 쓰기 실패 {}", dir, e);
+            } finally {
+                giveBack(full);
+            }
+        }
+    }
+
+    /**
+     * io 를 잡고 부른다. 못 쓴 버퍼의 스팬은 버린 수로 센다.
+     * 넘어가기로 한 버퍼는 쓰기가 실패해도 파일을 바꾼다. 파일을 못 바꿨으면 다음 버퍼를 옛 파일에 쓰지 않고 다시 바꿔 본다.
+     */
+    private void drain(Buffer full) throws IOException {
+        ByteBuffer bytes = full.bytes;
+        bytes.flip();
+        try {
+            if (rollPending) {
+                roll();
+            }
+            writeFully(channel, bytes);
+        } catch (IOException e) {
+            dropped.addAndGet(full.spans);
+            throw e;
+        } finally {
+            rollPending |= full.roll;
+        }
+        if (rollPending) {
+            roll();
+        }
+    }
+
+    /**
+     * 테스트가 쓰기 실패를 넣을 수 있게 따로 뺐다.
+     */
+    void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * io 를 잡고 부른다. 새 파일이 열린 다음에야 넘어간 것으로 친다.
+     */
+    private void roll() throws IOException {
+        if (channel.isOpen()) {
+            try {
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+        openFile();
+        rollPending = false;
+        List<Path> files = files(dir);
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private void openFile() throws IOException {
+        // 열지 못하면 번호를 그대로 두고 다음에 같은 번호로 다시 연다.
+        long next = fileIndex + 1;
+        Path file = dir.resolve(String.format("%s%08d%s", PREFIX, next, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        fileIndex = next;
+    }
+
+    /**
+     * 모니터를 잡고 부른다. 새 파일의 헤더를 지금 버퍼에 넣는다.
+     */
+    private void startFile() {
+        active.bytes.putInt(MAGIC).putShort(VERSION).putLong(System.currentTimeMillis()).putLong(System.nanoTime());
+        fileSize = HEADER_SIZE;
+        definedMethods.clear();
+    }
+
+    private static int methodSize(int methodId) {
+        return 1 + 4 + 2 + text(MethodIds.signature(methodId)).length;
+    }
+
+    private static byte[] text(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= MAX_TEXT ? bytes : Arrays.copyOf(bytes, MAX_TEXT);
+    }
+
+    /**
+     * 디렉터리의 스팬 파일을 오래된 것부터
+     */
+    static List<Path> files(Path dir) throws IOException {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                            && file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long index(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static final class Buffer {
+        final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        int spans;
+        // 다 쓰고 나서 다음 파일로 넘어간다.
+        boolean roll;
+    }
+}
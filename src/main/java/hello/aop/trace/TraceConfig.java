@@ -0,0 +1,44 @@
+package hello.aop.trace;
+
+import hello.aop.sampling.Sampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * `aop.trace.enabled=true` 이면 `TraceAspect` 가 쓰는 {@link Tracer} 를 등록한다.
+ *
+ * <pre>
+ * aop.trace.dir=/tmp/hello-aop/trace   # 스팬 파일 디렉터리
+ * aop.trace.max-file-size=16MB         # 넘으면 다음 파일로
+ * aop.trace.max-files=8                # 남겨 둘 파일 수
+ * aop.trace.flush-interval=1s          # 버퍼를 파일로 내보내는 주기, 0 이면 가득 찰 때만
+ * aop.trace.rate=1.0                   # 트레이스 샘플링 비율
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(name = "aop.trace.enabled", havingValue = "true")
+public class TraceConfig {
+
+    @Bean
+    public Tracer tracer(
+            @Value("${aop.trace.dir:${java.io.tmpdir}/hello-aop/trace}") String dir,
+            @Value("${aop.trace.max-file-size:16MB}") DataSize maxFileSize,
+            @Value("${aop.trace.max-files:8}") int maxFiles,
+            @Value("${aop.trace.flush-interval:1s}") Duration flushInterval,
+            @Value("${aop.trace.rate:1.0}") double rate) {
+        try {
+            SpanWriter writer = new SpanWriter(Paths.get(dir), maxFileSize.toBytes(), maxFiles, flushInterval);
+            return new Tracer(writer, Sampler.of(rate));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
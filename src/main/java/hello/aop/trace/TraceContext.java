@@ -0,0 +1,33 @@
+package hello.aop.trace;
+
+import java.util.Arrays;
+
+/**
+ * 스레드 하나의 현재 트레이스. 열린 스팬을 배열 스택으로 들고 있어서 중첩 호출마다 아무것도 할당하지 않는다.
+ * {@link Tracer} 만 읽고 쓴다.
+ */
+public final class TraceContext {
+
+    long traceId;
+    boolean sampled;
+    int depth;
+    int nextSpanId;
+    int[] spanIds = new int[16];
+    long[] startNanos = new long[16];
+
+    TraceContext() {
+    }
+
+    void grow() {
+        spanIds = Arrays.copyOf(spanIds, spanIds.length * 2);
+        startNanos = Arrays.copyOf(startNanos, startNanos.length * 2);
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
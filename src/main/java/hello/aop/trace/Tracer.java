@@ -0,0 +1,73 @@
+package hello.aop.trace;
+
+import hello.aop.sampling.Sampler;
+import org.springframework.lang.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 중첩된 조인 포인트를 하나의 트레이스로 묶는다. 바깥 호출이 트레이스를 열고 샘플링 여부를 정하면, 안쪽 호출은 그 결정을 따른다.
+ * 끝난 스팬은 {@link SpanWriter} 로 쓴다. 스팬은 안쪽부터 끝나므로 파일에는 자식이 부모보다 먼저 나온다.
+ *
+ * <pre>
+ * TraceContext context = tracer.enter();
+ * try { ... } finally { tracer.exit(context, methodId, error); }
+ * </pre>
+ */
+public class Tracer implements Closeable {
+
+    private final ThreadLocal<TraceContext> contexts = ThreadLocal.withInitial(TraceContext::new);
+    private final SpanWriter writer;
+    private final Sampler sampler;
+
+    public Tracer(SpanWriter writer, Sampler sampler) {
+        this.writer = writer;
+        this.sampler = sampler;
+    }
+
+    public TraceContext enter() {
+        TraceContext context = contexts.get();
+        if (context.depth == 0) {
+            long traceId;
+            do {
+                traceId = ThreadLocalRandom.current().nextLong();
+            } while (traceId == 0);
+            context.traceId = traceId;
+            context.sampled = sampler.sample();
+            context.nextSpanId = 0;
+        }
+
+        int depth = context.depth++;
+        if (depth == context.spanIds.length) {
+            context.grow();
+        }
+        context.spanIds[depth] = ++context.nextSpanId;
+        context.startNanos[depth] = System.nanoTime();
+        return context;
+    }
+
+    /**
+     * @param error 정상 종료면 null
+     */
+    public void exit(TraceContext context, int methodId, @Nullable Throwable error) {
+        int depth = --context.depth;
+        if (!context.sampled) {
+            return;
+        }
+        long start = context.startNanos[depth];
+        int parentId = depth > 0 ? context.spanIds[depth - 1] : 0;
+        writer.write(context.traceId, context.spanIds[depth], parentId, methodId, depth,
+                start, System.nanoTime() - start, error);
+    }
+
+    public SpanWriter getWriter() {
+        return writer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
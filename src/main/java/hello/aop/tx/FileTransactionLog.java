@@ -0,0 +1,164 @@
+package hello.aop.tx;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 커밋 레코드를 파일 끝에 이어 쓰는 {@link TransactionLog}.
+ *
+ * <pre>
+ * record = [int 본문 길이][int crc32][long 트랜잭션 id][int 쓰기 수] ([int 키 길이][키 UTF-8])*
+ * </pre>
+ * 마지막 레코드가 잘려 있거나 crc 가 맞지 않으면 그 앞까지만 커밋된 것으로 본다.
+ * 그래서 깨진 바이트 뒤에 레코드가 붙지 않게, 열 때 끝의 깨진 부분을 잘라 내고 쓰기가 실패하면 쓰기 전 길이로 되돌린다.
+ */
+public class FileTransactionLog implements TransactionLog {
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final FileChannel channel;
+    // 한 번에 한 스레드(그룹 커밋 리더)만 쓰므로 버퍼를 재사용한다.
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    public FileTransactionLog(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (Files.size(file) > 0) {
+            long valid = scan(ByteBuffer.wrap(Files.readAllBytes(file)), new ArrayList<>());
+            if (valid < channel.size()) {
+                channel.truncate(valid);
+                channel.force(true);
+            }
+        }
+    }
+
+    @Override
+    public void append(List<Transaction> transactions) throws IOException {
+        buffer.clear();
+        for (Transaction transaction : transactions) {
+            encode(transaction);
+        }
+        buffer.flip();
+        long size = channel.size();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException | Error e) {
+            try {
+                channel.truncate(size);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private void encode(Transaction transaction) {
+        List<byte[]> keys = new ArrayList<>(transaction.getWrites().size());
+        int bodySize = Long.BYTES + Integer.BYTES;
+        for (String write : transaction.getWrites()) {
+            byte[] key = write.getBytes(StandardCharsets.UTF_8);
+            keys.add(key);
+            bodySize += Integer.BYTES + key.length;
+        }
+        ensureCapacity(HEADER_SIZE + bodySize);
+
+        int start = buffer.position();
+        buffer.putInt(bodySize).putInt(0);
+        buffer.putLong(transaction.getId()).putInt(keys.size());
+        for (byte[] key : keys) {
+            buffer.putInt(key.length).put(key);
+        }
+        buffer.putInt(start + Integer.BYTES, crc(buffer, start + HEADER_SIZE, bodySize));
+    }
+
+    private void ensureCapacity(int size) {
+        if (buffer.remaining() >= size) {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + size));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.limit(offset + length).position(offset);
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 로그에 남은 커밋된 트랜잭션을 순서대로 읽는다. 끝의 깨진 레코드는 버린다.
+     */
+    public static List<Transaction> read(Path file) throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return transactions;
+        }
+
+        scan(ByteBuffer.wrap(Files.readAllBytes(file)), transactions);
+        return transactions;
+    }
+
+    /**
+     * @return 마지막 온전한 레코드의 끝
+     */
+    private static int scan(ByteBuffer data, List<Transaction> transactions) {
+        int valid = 0;
+        while (data.remaining() >= HEADER_SIZE) {
+            int start = data.position();
+            int bodySize = data.getInt();
+            int crc = data.getInt();
+            if (bodySize < Long.BYTES + Integer.BYTES || bodySize > data.remaining()
+                    || crc(data, start + HEADER_SIZE, bodySize) != crc) {
+                break;
+            }
+            try {
+                transactions.add(decode(data));
+            } catch (EOFException e) {
+                break;
+            }
+            valid = start + HEADER_SIZE + bodySize;
+            data.position(valid);
+        }
+        return valid;
+    }
+
+    private static Transaction decode(ByteBuffer data) throws EOFException {
+        long id = data.getLong();
+        int count = data.getInt();
+        List<String> writes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = data.getInt();
+            if (length < 0 || length > data.remaining()) {
+                throw new EOFException();
+            }
+            byte[] key = new byte[length];
+            data.get(key);
+            writes.add(new String(key, StandardCharsets.UTF_8));
+        }
+        return new Transaction(id, writes, Transaction.Status.COMMITTED);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,127 @@
+package hello.aop.tx;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 동시에 들어온 커밋을 모아 {@link TransactionLog} 에 한 번에 쓴다 (group commit).
+ *
+ * <p>커밋하는 스레드는 요청을 큐에 넣고 락을 기다린다. 락을 얻은 스레드(리더)는 그때까지 쌓인 요청을
+ * 최대 `maxBatchSize` 개까지 한 번에 쓰고 fsync 한다. 리더가 쓰는 동안 들어온 요청은 다음 리더가 묶어서 쓰므로
+ * 동시 커밋이 많을수록 fsync 한 번에 더 많은 트랜잭션이 실린다. 락을 얻었을 때 이미 앞 리더가 내 요청까지 썼으면 바로 돌아간다.</p>
+ */
+public class GroupCommitLog implements Closeable {
+
+    private final TransactionLog log;
+    private final int maxBatchSize;
+    private final Queue<Request> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder commitCount = new LongAdder();
+
+    /**
+     * @param maxBatchSize fsync 한 번에 쓸 최대 트랜잭션 수. 1 이면 모으지 않는다.
+     */
+    public GroupCommitLog(TransactionLog log, int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.log = log;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 트랜잭션이 디스크에 반영될 때까지 기다린다.
+     */
+    public void commit(Transaction transaction) throws IOException {
+        Request request = new Request(transaction);
+        pending.add(request);
+
+        flushLock.lock();
+        try {
+            while (!request.done) {
+                flush();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+
+        if (request.failure != null) {
+            // 같은 묶음의 커밋이 같은 예외를 받으므로 각자 감싸서 던진다.
+            throw new IOException("group commit failed: " + request.failure, request.failure);
+        }
+    }
+
+    private void flush() {
+        List<Request> batch = new ArrayList<>();
+        Request request;
+        while (batch.size() < maxBatchSize && (request = pending.poll()) != null) {
+            batch.add(request);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Transaction> transactions = new ArrayList<>(batch.size());
+        for (Request each : batch) {
+            transactions.add(each.transaction);
+        }
+
+        // 어떤 예외가 나도 묶음을 끝내야 기다리는 커밋이 `while (!request.done)` 에서 빠져나온다.
+        Throwable failure = null;
+        try {
+            log.append(transactions);
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            flushCount.increment();
+            commitCount.add(batch.size());
+            for (Request each : batch) {
+                each.failure = failure;
+                each.done = true;
+            }
+        }
+    }
+
+    /**
+     * @return 지금까지 fsync 한 횟수
+     */
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    /**
+     * @return 지금까지 로그에 쓴 트랜잭션 수. {@link #getFlushCount()} 로 나누면 평균 묶음 크기다.
+     */
+    public long getCommitCount() {
+        return commitCount.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushLock.lock();
+        try {
+            log.close();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private static class Request {
+        final Transaction transaction;
+        // 리더가 락을 잡은 채로 쓰고, 기다리는 쪽도 같은 락을 잡은 뒤에 읽는다.
+        boolean done;
+        Throwable failure;
+
+        Request(Transaction transaction) {
+            this.transaction = transaction;
+        }
+    }
+}
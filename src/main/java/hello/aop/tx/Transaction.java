@@ -0,0 +1,92 @@
+package hello.aop.tx;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 커밋 전까지 쓰기를 모아 두는 트랜잭션. 시작한 스레드에서만 쓴다.
+ * 이미 진행 중인 트랜잭션 안에서 다시 시작하면 같은 트랜잭션에 참여한다.
+ */
+public class Transaction {
+
+    public enum Status {
+        ACTIVE, COMMITTED, ROLLED_BACK
+    }
+
+    /**
+     * 키 하나의 최대 UTF-8 길이. 주문 저장소의 레코드가 키 길이를 short 로 쓴다.
+     */
+    public static final int MAX_KEY_BYTES = Short.MAX_VALUE;
+
+    private final long id;
+    private final List<String> writes = new ArrayList<>();
+    private Status status = Status.ACTIVE;
+    private int depth = 1;
+    private boolean rollbackOnly;
+
+    Transaction(long id) {
+        this.id = id;
+    }
+
+    Transaction(long id, List<String> writes, Status status) {
+        this.id = id;
+        this.writes.addAll(writes);
+        this.status = status;
+    }
+
+    /**
+     * 커밋할 때 로그에 남길 쓰기를 추가한다. 롤백하면 버려진다.
+     *
+     * @throws IllegalArgumentException 키가 {@link #MAX_KEY_BYTES} 보다 길면. 그룹 커밋까지 가서 실패하지 않게 여기서 막는다.
+     */
+    public void write(String key) {
+        if (status != Status.ACTIVE) {
+            throw new TransactionException("이미 끝난 트랜잭션: " + id + " " + status);
+        }
+        // UTF-8 은 char 하나에 최대 3 바이트라 짧은 키는 인코딩하지 않고 넘긴다.
+        if (key.length() * 3 > MAX_KEY_BYTES) {
+            int bytes = key.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes > MAX_KEY_BYTES) {
+                throw new IllegalArgumentException("key too long: " + bytes + " bytes");
+            }
+        }
+        writes.add(key);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public List<String> getWrites() {
+        return Collections.unmodifiableList(writes);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+    void join() {
+        depth++;
+    }
+
+    /**
+     * @return 바깥에 아직 참여 중인 호출이 남아 있으면 true
+     */
+    boolean leave() {
+        return --depth > 0;
+    }
+
+    void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    void complete(Status status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,41 @@
+package hello.aop.tx;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * `aop.tx.enabled=true` 이면 트랜잭션 애스펙트가 쓰는 {@link TransactionManager} 를 등록한다.
+ * {@link TransactionLog} 빈이 없으면 파일 로그를 쓴다. 등록하지 않으면 애스펙트는 로그만 남긴다.
+ *
+ * <pre>
+ * aop.tx.log-file=/tmp/hello-aop/tx.log   # 커밋 로그 파일
+ * aop.tx.max-batch-size=256               # fsync 한 번에 묶을 최대 트랜잭션 수
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(name = "aop.tx.enabled", havingValue = "true")
+public class TransactionConfig {
+
+    @Bean
+    public TransactionManager transactionManager(
+            ObjectProvider<TransactionLog> transactionLog,
+            @Value("${aop.tx.log-file:${java.io.tmpdir}/hello-aop/tx.log}") String logFile,
+            @Value("${aop.tx.max-batch-size:" + TransactionManager.DEFAULT_MAX_BATCH_SIZE + "}") int maxBatchSize) {
+        return new TransactionManager(transactionLog.getIfAvailable(() -> open(logFile)), maxBatchSize);
+    }
+
+    private static TransactionLog open(String logFile) {
+        try {
+            return new FileTransactionLog(Paths.get(logFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
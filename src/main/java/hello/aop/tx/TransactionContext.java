@@ -0,0 +1,29 @@
+package hello.aop.tx;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * 현재 스레드에서 진행 중인 트랜잭션. 리포지토리는 여기서 꺼내 쓰기를 추가한다.
+ */
+public final class TransactionContext {
+
+    private static final ThreadLocal<Transaction> CURRENT = new ThreadLocal<>();
+
+    private TransactionContext() {
+    }
+
+    @Nullable
+    public static Transaction current() {
+        return CURRENT.get();
+    }
+
+    static void bind(Transaction transaction) {
+        CURRENT.set(transaction);
+    }
+
+    static void unbind(Transaction transaction) {
+        if (CURRENT.get() == transaction) {
+            CURRENT.remove();
+        }
+    }
+}
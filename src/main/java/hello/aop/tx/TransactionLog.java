@@ -0,0 +1,17 @@
+package hello.aop.tx;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 커밋된 트랜잭션을 남기는 곳. {@link GroupCommitLog} 가 여러 트랜잭션을 모아 한 번에 넘긴다.
+ */
+public interface TransactionLog extends Closeable {
+
+    /**
+     * 트랜잭션들의 쓰기를 기록하고, 반환하기 전에 디스크에 반영(fsync)한다.
+     * 한 번에 한 스레드만 호출한다.
+     */
+    void append(List<Transaction> transactions) throws IOException;
+}
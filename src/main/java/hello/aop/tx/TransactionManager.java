@@ -0,0 +1,101 @@
+package hello.aop.tx;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 트랜잭션 시작/커밋/롤백. 쓰기가 있는 트랜잭션은 커밋할 때 {@link GroupCommitLog} 로 디스크에 반영된 뒤에 돌아간다.
+ * 이미 트랜잭션이 진행 중이면 새로 시작하지 않고 참여한다. 참여한 쪽에서 롤백하면 바깥 트랜잭션도 커밋할 수 없다.
+ */
+public class TransactionManager implements Closeable {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private final GroupCommitLog commitLog;
+    private final AtomicLong ids = new AtomicLong();
+    private final LongAdder commitCount = new LongAdder();
+    private final LongAdder rollbackCount = new LongAdder();
+
+    public TransactionManager(TransactionLog log) {
+        this(log, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public TransactionManager(TransactionLog log, int maxBatchSize) {
+        this.commitLog = new GroupCommitLog(log, maxBatchSize);
+    }
+
+    public Transaction begin() {
+        Transaction current = TransactionContext.current();
+        if (current != null) {
+            current.join();
+            return current;
+        }
+
+        Transaction transaction = new Transaction(ids.incrementAndGet());
+        TransactionContext.bind(transaction);
+        return transaction;
+    }
+
+    public void commit(Transaction transaction) {
+        if (transaction.leave()) {
+            return;
+        }
+
+        try {
+            if (transaction.isRollbackOnly()) {
+                complete(transaction, Transaction.Status.ROLLED_BACK);
+                throw new TransactionException("롤백 전용으로 표시된 트랜잭션: " + transaction.getId());
+            }
+            if (!transaction.getWrites().isEmpty()) {
+                commitLog.commit(transaction);
+            }
+            complete(transaction, Transaction.Status.COMMITTED);
+        } catch (IOException e) {
+            complete(transaction, Transaction.Status.ROLLED_BACK);
+            throw new TransactionException("커밋 실패: " + transaction.getId(), e);
+        }
+    }
+
+    /**
+     * 이미 끝난 트랜잭션(커밋 실패 등)이면 아무것도 하지 않는다.
+     */
+    public void rollback(Transaction transaction) {
+        if (transaction.getStatus() != Transaction.Status.ACTIVE) {
+            return;
+        }
+        if (transaction.leave()) {
+            transaction.setRollbackOnly();
+            return;
+        }
+        complete(transaction, Transaction.Status.ROLLED_BACK);
+    }
+
+    private void complete(Transaction transaction, Transaction.Status status) {
+        transaction.complete(status);
+        TransactionContext.unbind(transaction);
+        if (status == Transaction.Status.COMMITTED) {
+            commitCount.increment();
+        } else {
+            rollbackCount.increment();
+        }
+    }
+
+    public long getCommitCount() {
+        return commitCount.sum();
+    }
+
+    public long getRollbackCount() {
+        return rollbackCount.sum();
+    }
+
+    public GroupCommitLog getCommitLog() {
+        return commitLog;
+    }
+
+    @Override
+    public void close() throws IOException {
+        commitLog.close();
+    }
+}
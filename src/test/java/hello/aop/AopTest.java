@@ -5,21 +5,27 @@ import hello.aop.order.OrderService;
 import hello.aop.order.aop.AspectV4Pointcut;
 import hello.aop.order.aop.AspectV5Order;
 import hello.aop.order.aop.AspectV6Advice;
+import hello.aop.tx.TransactionContext;
+import hello.aop.tx.TransactionManager;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.*;
 
 @Slf4j
-@SpringBootTest
+@SpringBootTest(properties = "aop.tx.enabled=true")
 @Import(AspectV6Advice.class)
 public class AopTest {
     @Autowired OrderService orderService;
     @Autowired OrderRepository orderRepository;
+    @Autowired TransactionManager transactionManager;
 
     @Test
     void aopInfo() {
@@ -29,12 +35,68 @@ public class AopTest {
 
     @Test
     void success() {
+        long commits = transactionManager.getCommitCount();
+        long flushedCommits = transactionManager.getCommitLog().getCommitCount();
+
         orderService.orderItem("itemA");
+
+        assertThat(transactionManager.getCommitCount()).isEqualTo(commits + 1);
+        assertThat(transactionManager.getCommitLog().getCommitCount()).isEqualTo(flushedCommits + 1);
+        assertThat(TransactionContext.current()).isNull();
     }
 
     @Test
     void exception() {
+        long rollbacks = transactionManager.getRollbackCount();
+        long flushedCommits = transactionManager.getCommitLog().getCommitCount();
+
         assertThatThrownBy(() -> orderService.orderItem("ex"))
                 .isInstanceOf(IllegalStateException.class);
+
+        assertThat(transactionManager.getRollbackCount()).isEqualTo(rollbacks + 1);
+        assertThat(transactionManager.getCommitLog().getCommitCount()).isEqualTo(flushedCommits);
+        assertThat(TransactionContext.current()).isNull();
+    }
+
+    @Test
+    void errorRollsBackAndUnbinds() {
+        long rollbacks = transactionManager.getRollbackCount();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new OrderService(new OrderRepository() {
+            @Override
+            public String save(String itemId) {
+                throw new AssertionError(itemId);
+            }
+        }));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new AspectV6Advice(transactionManager, null, null));
+        OrderService proxy = factory.getProxy();
+
+        assertThatThrownBy(() -> proxy.orderItem("itemA"))
+                .isInstanceOf(AssertionError.class);
+
+        assertThat(transactionManager.getRollbackCount()).isEqualTo(rollbacks + 1);
+        assertThat(TransactionContext.current()).isNull();
+    }
+
+    @Test
+    void batch() {
+        long commits = transactionManager.getCommitCount();
+        long flushedCommits = transactionManager.getCommitLog().getCommitCount();
+
+        orderService.orderItems(List.of("itemA", "itemB", "itemC"));
+
+        // 배치 전체가 트랜잭션 하나로 커밋된다.
+        assertThat(transactionManager.getCommitCount()).isEqualTo(commits + 1);
+        assertThat(transactionManager.getCommitLog().getCommitCount()).isEqualTo(flushedCommits + 1);
+    }
+
+    @Test
+    void batchException() {
+        long rollbacks = transactionManager.getRollbackCount();
+
+        assertThatThrownBy(() -> orderService.orderItems(List.of("itemA", "ex")))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(transactionManager.getRollbackCount()).isEqualTo(rollbacks + 1);
     }
 }
@@ -0,0 +1,65 @@
+package hello.aop;
+
+import hello.aop.member.MemberServiceImpl;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * `./gradlew test -Pweaving=ltw` 로 돌릴 때만 실행된다. 프록시 없이 위빙된 `AspectV5Order` 와 `MethodAopAspect` 가
+ * 적용되는지 본다.
+ */
+@SpringBootTest(properties = "spring.aop.auto=false")
+@EnabledIfSystemProperty(named = "aop.weaving", matches = "ltw")
+@ExtendWith(OutputCaptureExtension.class)
+public class WeavingModeTest {
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired MemberServiceImpl memberService;
+
+    @Test
+    void noProxies(CapturedOutput output) {
+        assertThat(AopUtils.isAopProxy(orderService)).isFalse();
+        assertThat(AopUtils.isAopProxy(orderRepository)).isFalse();
+
+        orderService.orderItem("itemA");
+
+        assertThat(output.getOut())
+                .contains("[트랜잭션 시작] void hello.aop.order.OrderService.orderItem(String)")
+                .contains("[log] String hello.aop.order.OrderRepository.save(String)");
+    }
+
+    @Test
+    void appliesToObjectsCreatedOutsideSpring(CapturedOutput output) {
+        // 프록시 방식이라면 어드바이스가 적용되지 않는 경우
+        new OrderService(new OrderRepository()).orderItem("itemB");
+
+        assertThat(output.getOut()).contains("[log] void hello.aop.order.OrderService.orderItem(String)");
+    }
+
+    @Test
+    void selfInvocationIsAdvised(CapturedOutput output) {
+        // 프록시 방식이라면 hello 안에서 부른 internal 에는 어드바이스가 적용되지 않는다.
+        memberService.hello("helloA");
+
+        assertThat(output.getOut())
+                .contains("[@annotation] String hello.aop.member.MemberServiceImpl.internal(String) value=internal");
+    }
+
+    @Test
+    void exception(CapturedOutput output) {
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(output.getOut()).contains("[트랜잭션 롤백] void hello.aop.order.OrderService.orderItem(String)");
+    }
+}
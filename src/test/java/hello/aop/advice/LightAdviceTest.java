@@ -0,0 +1,41 @@
+package hello.aop.advice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LightAdviceTest {
+
+    @Test
+    void binaryAndSpreadReceiveArguments() throws Exception {
+        List<Object> received = new ArrayList<>();
+        LightAdvice.Binary<String, Integer> binary = (methodId, target, itemId, quantity, chain) -> {
+            received.add(itemId + "x" + quantity);
+            return chain.proceed();
+        };
+        LightAdvice.Spread spread = (methodId, target, args, chain) -> {
+            received.add(MethodIds.signature(methodId) + " " + args.length);
+            return chain.proceed();
+        };
+
+        ProxyFactory factory = new ProxyFactory(new Lookup());
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(LightAdviceInterceptor.advisor("execution(* find(..))", 1, binary, 0, 1));
+        factory.addAdvisor(LightAdviceInterceptor.advisor("execution(* find(..))", 2, spread));
+        Lookup lookup = (Lookup) factory.getProxy();
+
+        assertThat(lookup.find("itemA", 2, 7L)).isEqualTo("itemA-2-7");
+        assertThat(received).containsExactly("itemAx2",
+                "String hello.aop.advice.LightAdviceTest$Lookup.find(String, int, long) 3");
+    }
+
+    static class Lookup {
+        public String find(String itemId, int quantity, long version) {
+            return itemId + "-" + quantity + "-" + version;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package hello.aop.advice;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MethodIdsTest {
+
+    @Test
+    void signatureMatchesJoinPointSignature() throws Exception {
+        SignatureAspect aspect = new SignatureAspect();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Lookup());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        Lookup lookup = factory.getProxy();
+        lookup.find("itemA", 1);
+
+        Method find = Lookup.class.getMethod("find", String.class, int.class);
+        assertThat(MethodIds.signature(MethodIds.id(find))).isEqualTo(aspect.signature);
+        assertThat(MethodIds.name(find)).isEqualTo("find(String, int)");
+        assertThat(MethodIds.qualifiedName(find)).isEqualTo("find(java.lang.String, int)");
+    }
+
+    static class Lookup {
+        public String find(String itemId, int quantity) {
+            return itemId + quantity;
+        }
+    }
+
+    @Aspect
+    static class SignatureAspect {
+        String signature;
+
+        @Around("execution(* find(..))")
+        public Object capture(ProceedingJoinPoint joinPoint) throws Throwable {
+            signature = joinPoint.getSignature().toString();
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package hello.aop.audit;
+
+import hello.aop.advice.MethodIds;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AuditWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentAppendsSurviveRotation() throws Exception {
+        int save = MethodIds.id(OrderRepository.class.getMethod("save", String.class));
+        List<CompletableFuture<Void>> writers = new ArrayList<>();
+
+        try (AuditWriter writer = new AuditWriter(dir, 128 * 1024, 100)) {
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                writers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        writer.append(save, new Object[]{"item-" + thread + "-" + i}, "ok");
+                    }
+                }));
+            }
+            writers.forEach(CompletableFuture::join);
+            assertThat(writer.getDroppedCount()).isZero();
+        }
+
+        assertThat(AuditWriter.files(dir)).hasSizeGreaterThan(1);
+        List<AuditRecord> records = AuditReader.readDirectory(dir);
+        assertThat(records).hasSize(20_000)
+                .allSatisfy(record -> {
+                    assertThat(record.getSignature()).isEqualTo("String hello.aop.order.OrderRepository.save(String)");
+                    assertThat(record.getResult()).isEqualTo("ok");
+                });
+        assertThat(records.stream().map(record -> record.getArgs().get(0)).distinct().count()).isEqualTo(20_000);
+    }
+
+    @Test
+    void doReturnWritesAuditRecord() throws Exception {
+        try (AuditWriter writer = new AuditWriter(dir, 1 << 20, 4)) {
+            AspectJProxyFactory factory = new AspectJProxyFactory(new OrderService(new OrderRepository()));
+            factory.addAspect(new AspectV6Advice(null, null, writer));
+            OrderService orderService = factory.getProxy();
+
+            orderService.orderItem("itemA");
+            orderService.orderItems(List.of("itemB", "itemC"));
+        }
+
+        List<AuditRecord> records = AuditReader.readDirectory(dir).stream()
+                .filter(AuditReader.option("--method=orderItem("))
+                .collect(Collectors.toList());
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getArgs()).containsExactly("itemA");
+        assertThat(records.get(0).getResult()).isNull();
+        assertThat(AuditReader.readDirectory(dir)).hasSize(2);
+    }
+
+    @Test
+    void unfinishedRecordDoesNotHideLaterOnes() throws Exception {
+        int save = MethodIds.id(OrderRepository.class.getMethod("save", String.class));
+        try (AuditWriter writer = new AuditWriter(dir, 128 * 1024, 4)) {
+            writer.append(save, new Object[]{"itemA"}, "ok");
+            writer.append(save, new Object[]{"itemB"}, "ok");
+            writer.append(save, new Object[]{"itemC"}, "ok");
+        }
+
+        // itemB 를 쓰던 스레드가 길이를 커밋하지 못한 것처럼 만든다.
+        Path file = AuditWriter.files(dir).get(0);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        int offset = AuditWriter.HEADER_SIZE;
+        for (int i = 0; i < 2; i++) {
+            offset += (bytes.getInt(offset) + 7) & ~7;
+        }
+        bytes.putInt(offset, -((bytes.getInt(offset) + 7) & ~7));
+        Files.write(file, bytes.array());
+
+        assertThat(AuditReader.read(file)).extracting(record -> record.getArgs().get(0))
+                .containsExactly("itemA", "itemC");
+    }
+}
@@ -0,0 +1,141 @@
+package hello.aop.cache;
+
+import hello.aop.member.annotation.CachedResult;
+import hello.aop.member.annotation.Coalesce;
+import hello.aop.order.aop.CachedResultAspect;
+import hello.aop.order.aop.CoalesceAspect;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CachedResultTest {
+
+    Lookup target = new Lookup();
+    CachedResultAspect aspect = new CachedResultAspect();
+    Lookup lookup = proxy(target, aspect);
+
+    @Test
+    void sameArgumentsHitTheCache() throws Exception {
+        assertThat(lookup.find("itemA", 1)).isEqualTo("itemA-1-1");
+        assertThat(lookup.find("itemA", 1)).isEqualTo("itemA-1-1");
+        assertThat(lookup.find("itemA", 2)).isEqualTo("itemA-2-2");
+        assertThat(lookup.none(3)).isNull();
+        assertThat(lookup.none(3)).isNull();
+
+        assertThat(target.executions.get()).isEqualTo(3);
+        TinyLfuCache<Object, Object> cache = aspect.cache(target, Lookup.class.getMethod("find", String.class, int.class));
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void exceptionsAreNotCached() {
+        assertThatThrownBy(() -> lookup.find("ex", 1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> lookup.find("ex", 1)).isInstanceOf(IllegalStateException.class);
+        assertThat(target.executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    void differentTargetsHaveTheirOwnCache() {
+        Lookup otherTarget = new Lookup();
+        Lookup other = proxy(otherTarget, aspect);
+
+        assertThat(lookup.find("itemA", 1)).isEqualTo("itemA-1-1");
+        assertThat(other.find("itemA", 1)).isEqualTo("itemA-1-1");
+        assertThat(target.executions.get()).isEqualTo(1);
+        assertThat(otherTarget.executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void cacheRunsOutsideCoalesce() {
+        CoalesceAspect coalesceAspect = new CoalesceAspect();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        // 추가한 순서와 상관없이 @Order 로 정해진다.
+        factory.addAspect(coalesceAspect);
+        factory.addAspect(aspect);
+        Lookup both = factory.getProxy();
+
+        assertThat(both.coalesced(1)).isEqualTo("1");
+        assertThat(both.coalesced(1)).isEqualTo("1");
+        assertThat(target.executions.get()).isEqualTo(1);
+        assertThat(coalesceAspect.getInFlight().getExecutedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void frequentKeysSurviveAScan() {
+        TinyLfuCache<Object, Object> cache = new TinyLfuCache<>(100, 0);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, i);
+                }
+            }
+        }
+        // 한 번씩만 쓰이는 키가 쭉 지나가도 자주 쓰인 키는 남는다.
+        for (int i = 1_000; i < 100_000; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+
+        int retained = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(i) != null) {
+                retained++;
+            }
+        }
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(retained).isGreaterThanOrEqualTo(45);
+        assertThat(cache.getEvictionCount()).isEqualTo(50 + 99_000 - 100);
+    }
+
+    @Test
+    void entriesExpireAfterWrite() throws InterruptedException {
+        TinyLfuCache<Object, Object> cache = new TinyLfuCache<>(100, TimeUnit.MILLISECONDS.toNanos(20));
+        cache.put("a", 1);
+        assertThat(cache.get("a")).isEqualTo(1);
+
+        Thread.sleep(50);
+        assertThat(cache.get("a")).isNull();
+        cache.cleanUp();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    private static Lookup proxy(Lookup target, CachedResultAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    static class Lookup {
+        final AtomicInteger executions = new AtomicInteger();
+
+        @CachedResult(maximumSize = 100)
+        public String find(String itemId, int quantity) {
+            int execution = executions.incrementAndGet();
+            if (itemId.equals("ex")) {
+                throw new IllegalStateException("예외 발생");
+            }
+            return itemId + "-" + quantity + "-" + execution;
+        }
+
+        @Coalesce
+        @CachedResult
+        public String coalesced(int quantity) {
+            executions.incrementAndGet();
+            return String.valueOf(quantity);
+        }
+
+        @CachedResult
+        public String none(int quantity) {
+            executions.incrementAndGet();
+            return null;
+        }
+    }
+}
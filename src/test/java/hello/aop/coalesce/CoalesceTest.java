@@ -0,0 +1,195 @@
+package hello.aop.coalesce;
+
+import hello.aop.member.annotation.Coalesce;
+import hello.aop.order.aop.CoalesceAspect;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CoalesceTest {
+
+    static final int CALLERS = 8;
+
+    SlowLookup target = new SlowLookup();
+    CoalesceAspect aspect = new CoalesceAspect();
+    SlowLookup lookup = proxy(target, aspect);
+    ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @Test
+    void concurrentSameArgumentsRunOnce() throws Exception {
+        List<Future<String>> results = burst("itemA");
+        target.release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("itemA-1");
+        }
+        assertThat(target.executions.get()).isEqualTo(1);
+        assertThat(aspect.getInFlight().getCoalescedCount()).isEqualTo(CALLERS - 1);
+
+        // 끝난 뒤의 호출은 새로 실행한다.
+        assertThat(lookup.find("itemA")).isEqualTo("itemA-2");
+        executor.shutdown();
+    }
+
+    @Test
+    void everyWaiterGetsTheException() throws Exception {
+        List<Future<String>> results = burst("ex");
+        target.release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("예외 발생");
+        }
+        assertThat(target.executions.get()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    @Test
+    void waitersGetTheirOwnExceptionInstance() throws Exception {
+        List<Future<String>> results = burst("ex");
+        target.release.countDown();
+
+        Set<Throwable> thrown = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Throwable> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<String> result : results) {
+            Throwable error = catchThrowable(() -> result.get(5, TimeUnit.SECONDS)).getCause();
+            thrown.add(error);
+            roots.add(error.getCause() != null ? error.getCause() : error);
+        }
+        assertThat(thrown).hasSize(CALLERS);
+        assertThat(roots).as("모두 리더의 예외 하나를 원인으로 한다").hasSize(1);
+        executor.shutdown();
+    }
+
+    @Test
+    void interruptedWaiterStopsWaiting() throws Exception {
+        List<Future<String>> results = burst("itemA");
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                lookup.find("itemA");
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        waiter.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (aspect.getInFlight().getCoalescedCount() < CALLERS && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        waiter.interrupt();
+        waiter.join(TimeUnit.SECONDS.toMillis(5));
+        assertThat(waiter.isAlive()).as("리더가 끝나기 전에 돌아온다").isFalse();
+        assertThat(error.get()).isInstanceOf(InterruptedException.class);
+
+        target.release.countDown();
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("itemA-1");
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void waiterRunsItselfAfterTimeout() throws Throwable {
+        InFlightTable table = new InFlightTable();
+        CallKey key = new CallKey(target, SlowLookup.class.getMethod("find", String.class), new Object[]{"itemA"});
+        Future<Object> leader = executor.submit(() -> {
+            try {
+                return table.execute(key, () -> target.find("itemA"));
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(target.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(table.execute(key, TimeUnit.MILLISECONDS.toNanos(10), () -> "own")).isEqualTo("own");
+        assertThat(table.getExecutedCount()).isEqualTo(2);
+        assertThat(table.getCoalescedCount()).isZero();
+        target.release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("itemA-1");
+        executor.shutdown();
+    }
+
+    @Test
+    void differentTargetsAreNotMerged() throws Exception {
+        SlowLookup other = new SlowLookup();
+        SlowLookup otherLookup = proxy(other, aspect);
+        Future<String> first = executor.submit(() -> lookup.find("itemA"));
+        Future<String> second = executor.submit(() -> otherLookup.find("itemA"));
+        assertThat(target.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(other.entered.await(5, TimeUnit.SECONDS)).as("다른 빈의 호출은 기다리지 않는다").isTrue();
+        target.release.countDown();
+        other.release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("itemA-1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("itemA-1");
+        assertThat(aspect.getInFlight().getCoalescedCount()).isZero();
+        executor.shutdown();
+    }
+
+    @Test
+    void differentArgumentsAreNotMerged() throws Exception {
+        target.release.countDown();
+
+        assertThat(lookup.find("itemA")).isEqualTo("itemA-1");
+        assertThat(lookup.find("itemB")).isEqualTo("itemB-2");
+        assertThat(aspect.getInFlight().getExecutedCount()).isEqualTo(2);
+    }
+
+    /**
+     * 리더가 실행 중인 동안 나머지 호출이 모두 들어와 기다리게 만든다.
+     */
+    private List<Future<String>> burst(String itemId) throws InterruptedException {
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> lookup.find(itemId)));
+        assertThat(target.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(() -> lookup.find(itemId)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (aspect.getInFlight().getCoalescedCount() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return results;
+    }
+
+    private static SlowLookup proxy(SlowLookup target, CoalesceAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    static class SlowLookup {
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Coalesce
+        public String find(String itemId) throws InterruptedException {
+            int execution = executions.incrementAndGet();
+            entered.countDown();
+            release.await();
+            if (itemId.equals("ex")) {
+                throw new IllegalStateException("예외 발생");
+            }
+            return itemId + "-" + execution;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package hello.aop.event;
+
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "aop.event.enabled=true")
+@Import({AspectV6Advice.class, AdviceEventAopTest.Config.class})
+class AdviceEventAopTest {
+    @Autowired OrderService orderService;
+    @Autowired QueueSink sink;
+
+    @Test
+    void success() throws InterruptedException {
+        orderService.orderItem("itemA");
+
+        assertThat(sink.take(3)).containsExactly("BEFORE orderItem", "RETURN orderItem", "AFTER orderItem");
+    }
+
+    @Test
+    void exception() throws InterruptedException {
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(sink.take(3)).containsExactly("BEFORE orderItem", "THROWING orderItem", "AFTER orderItem");
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        QueueSink queueSink() {
+            return new QueueSink();
+        }
+    }
+
+    static class QueueSink implements AdviceEventSink {
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onEvent(AdviceEvent event) {
+            events.add(event.getType() + " " + event.getMethod().getName());
+        }
+
+        List<String> take(int count) throws InterruptedException {
+            List<String> taken = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                taken.add(events.poll(5, TimeUnit.SECONDS));
+            }
+            return taken;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package hello.aop.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AdviceEventPipelineTest {
+    Method method = ReflectionUtils.findMethod(Object.class, "toString");
+
+    @Test
+    void deliversEveryEventInOrderPerThread() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        int threads = 4;
+        int perThread = 10_000;
+
+        try (AdviceEventPipeline pipeline = new AdviceEventPipeline(sink, 64, OverflowPolicy.BLOCK, 1, Duration.ZERO)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        assertThat(pipeline.publish(AdviceEventType.RETURN, method, i)).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+        }
+
+        // 버퍼보다 훨씬 많이 발행해도 BLOCK 이면 잃지 않고, 스레드마다 발행 순서대로 받는다.
+        assertThat(sink.values).hasSize(threads * perThread);
+        sink.lastValueByThread.values().forEach(last -> assertThat(last).isEqualTo(perThread - 1));
+        assertThat(sink.outOfOrder).isZero();
+    }
+
+    @Test
+    void dropWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(release);
+
+        AdviceEventPipeline pipeline = new AdviceEventPipeline(sink, 8, OverflowPolicy.DROP, 1, Duration.ZERO);
+        for (int i = 0; i < 100; i++) {
+            pipeline.publish(AdviceEventType.BEFORE, method, null);
+        }
+
+        // 소비자가 첫 이벤트에서 멈춰 있으므로 버퍼 크기만큼만 들어간다.
+        assertThat(pipeline.getDroppedCount()).isGreaterThanOrEqualTo(100 - 8 - 1);
+        assertThat(pipeline.getDepth()).isLessThanOrEqualTo(8);
+
+        release.countDown();
+        pipeline.close();
+        assertThat(sink.values.size() + pipeline.getDroppedCount()).isEqualTo(100);
+        assertThat(pipeline.getPublishedCount()).isEqualTo(sink.values.size());
+    }
+
+    @Test
+    void sampleWhenHalfFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(release);
+
+        AdviceEventPipeline pipeline = new AdviceEventPipeline(sink, 1024, OverflowPolicy.SAMPLE, 10, Duration.ZERO);
+        for (int i = 0; i < 1000; i++) {
+            pipeline.publish(AdviceEventType.BEFORE, method, null);
+        }
+
+        // 절반(512)까지는 모두 들어가고, 그 뒤로는 대략 10 개 중 하나만 들어간다.
+        assertThat(pipeline.getPublishedCount()).isBetween(512L, 700L);
+        assertThat(pipeline.getMaxDepth()).isLessThanOrEqualTo(1024);
+
+        release.countDown();
+        pipeline.close();
+        assertThat(pipeline.getDepth()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidBufferSize() {
+        assertThatThrownBy(() -> new AdviceEventPipeline(new RecordingSink(), 100, OverflowPolicy.DROP, 1, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static class RecordingSink implements AdviceEventSink {
+        final List<Object> values = new ArrayList<>();
+        final Map<Long, Integer> lastValueByThread = new HashMap<>();
+        int outOfOrder;
+        final CountDownLatch release;
+
+        RecordingSink() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingSink(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onEvent(AdviceEvent event) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            values.add(event.getValue());
+            if (event.getValue() instanceof Integer) {
+                int value = (Integer) event.getValue();
+                Integer last = lastValueByThread.put(event.getThreadId(), value);
+                if (last != null && last + 1 != value) {
+                    outOfOrder++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package hello.aop.event;
+
+import hello.aop.audit.AuditWriter;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {"aop.event.enabled=true", "aop.audit.enabled=true",
+        "aop.audit.dir=${java.io.tmpdir}/hello-aop/audited-event-test"})
+@Import({AspectV6Advice.class, AdviceEventAopTest.Config.class})
+class AuditedAdviceEventAopTest {
+    @Autowired OrderService orderService;
+    @Autowired AdviceEventAopTest.QueueSink sink;
+    @Autowired AuditWriter audit;
+
+    @Test
+    void returnIsAuditedAndPublished() throws InterruptedException {
+        long written = audit.getWrittenCount();
+
+        orderService.orderItem("itemA");
+
+        // 감사 기록은 return 로그만 대신하고, 이벤트는 그대로 나간다.
+        assertThat(sink.take(3)).containsExactly("BEFORE orderItem", "RETURN orderItem", "AFTER orderItem");
+        assertThat(audit.getWrittenCount()).isEqualTo(written + 1);
+    }
+}
@@ -0,0 +1,91 @@
+package hello.aop.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 지연(RTT)을 직접 넣어서 한도 계산을 확인한다. 실제 시간은 재지 않는다.
+ */
+class AdaptiveLimiterTest {
+
+    @Test
+    void rejectsImmediatelyAtLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 4, 1, 10);
+        // 처음에는 무부하 지연을 재려고 한도의 4분의 1로 시작한다.
+        assertThat(limiter.getLimit()).isEqualTo(1);
+
+        int inFlight = limiter.tryAcquire();
+        assertThat(inFlight).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isEqualTo(-1);
+        assertThat(limiter.getRejectedCount()).isEqualTo(1);
+
+        limiter.release(1_000, inFlight);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void gradientFollowsLatency() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 40, 1, 200);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+
+        // 무부하 지연 1us 를 재고 나면 설정한 한도로 올라간다.
+        window(limiter, 1_000, 10);
+        window(limiter, 1_000, 10);
+        assertThat(limiter.getLimit()).isEqualTo(40);
+
+        // 지연이 세 배가 되면 gradient = 1.5 / 3 = 0.5 로 줄인다. 0.2 만큼만 반영해서 40 * 0.8 + (40 * 0.5 + √40) * 0.2 = 37.
+        window(limiter, 3_000, 40);
+        assertThat(limiter.getLimit()).isEqualTo(37);
+
+        // 지연이 돌아오면 다시 늘린다.
+        window(limiter, 1_000, limiter.getLimit());
+        assertThat(limiter.getLimit()).isEqualTo(38);
+    }
+
+    @Test
+    void lowInFlightDoesNotRaiseTheLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 40, 1, 200);
+        window(limiter, 1_000, 10);
+        window(limiter, 1_000, 10);
+        int limit = limiter.getLimit();
+
+        // 한 번에 하나씩만 부르면 한도가 모자란 게 아니므로 늘리지 않는다.
+        for (int i = 0; i < limit; i++) {
+            limiter.release(1_000, limiter.tryAcquire());
+        }
+        assertThat(limiter.getLimit()).isEqualTo(limit);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void steadyLatencyKeepsTheLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 40, 1, 200);
+        // 첫 윈도우는 한도 10 에서 무부하 지연을 잰다.
+        for (int i = 0; i < AdaptiveLimiter.MIN_WINDOW; i++) {
+            limiter.release(1_000, limiter.tryAcquire());
+        }
+        assertThat(limiter.getLimit()).isEqualTo(40);
+
+        int lowest = limiter.getLimit();
+        for (int i = 0; i < 500 * 40; i++) {
+            limiter.release(1_000, limiter.tryAcquire());
+            lowest = Math.min(lowest, limiter.getLimit());
+        }
+        assertThat(lowest).as("지연이 그대로면 다시 재지 않는다").isEqualTo(40);
+    }
+
+    /**
+     * 허가 n 개를 한꺼번에 받은 뒤 모두 같은 지연으로 돌려준다.
+     */
+    private static void window(AdaptiveLimiter limiter, long rttNanos, int n) {
+        int[] inFlight = new int[n];
+        for (int i = 0; i < n; i++) {
+            inFlight[i] = limiter.tryAcquire();
+            assertThat(inFlight[i]).isPositive();
+        }
+        for (int i = 0; i < n; i++) {
+            limiter.release(rttNanos, inFlight[i]);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package hello.aop.limit;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.aop.ConcurrencyLimitAspect;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 커넥션 4개짜리 느린 저장소(호출당 2ms)에 스레드 32개로 부하를 걸어서, 리미터가 없을 때와 있을 때의 p99 를 비교한다.
+ * 리미터가 없으면 대기열이 길어져 p99 가 커넥션 수 대비 스레드 수만큼 늘어난다.
+ * 리미터가 있으면 넘친 호출은 바로 실패하고, 성공한 호출의 p99 는 서비스 시간 근처에 머문다.
+ *
+ * <p>실제 시간을 재므로 머신 부하에 따라 흔들린다. `test` 에서는 빠지고 `./gradlew loadTest` 로 돌린다.
+ * 한도 계산 자체는 {@link AdaptiveLimiterTest} 가 지연을 넣어서 확인한다.</p>
+ */
+@Slf4j
+@Tag("load")
+class ConcurrencyLimitLoadTest {
+
+    static final int CONNECTIONS = 4;
+    static final long SERVICE_MILLIS = 2;
+    static final int THREADS = 32;
+    static final long WARMUP_MILLIS = 300;
+    static final long RUN_MILLIS = 1500;
+
+    Logger repositoryLogger = (Logger) LoggerFactory.getLogger(OrderRepository.class);
+
+    @BeforeEach
+    void quiet() {
+        // 호출마다 남는 "[orderRepository] 실행" 로그를 끈다.
+        repositoryLogger.setLevel(Level.WARN);
+    }
+
+    @AfterEach
+    void restore() {
+        repositoryLogger.setLevel(null);
+    }
+
+    @Test
+    void p99StaysBounded() throws Exception {
+        Result unlimited = run(repository());
+        ConcurrencyLimitAspect limitAspect = new ConcurrencyLimitAspect();
+        Result limited = run(repository(limitAspect));
+        AdaptiveLimiter limiter = limitAspect.limiters().iterator().next();
+        log.info("unlimited {}", unlimited);
+        log.info("limited {} limit={}", limited, limiter.getLimit());
+
+        assertThat(unlimited.completed).isPositive();
+        assertThat(limited.completed).isPositive();
+        assertThat(limited.rejected).isPositive();
+        assertThat(limiter.getLimit()).isLessThan(THREADS);
+        assertThat(limited.p99Nanos).isLessThan(unlimited.p99Nanos / 2);
+    }
+
+    private static OrderRepository repository(Object... aspects) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new OrderRepository());
+        factory.setProxyTargetClass(true);
+        // 먼저 넣은 리미터가 바깥에서 돈다.
+        for (Object aspect : aspects) {
+            factory.addAspect(aspect);
+        }
+        factory.addAspect(new SlowDatabase());
+        return factory.getProxy();
+    }
+
+    private static Result run(OrderRepository repository) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.MILLISECONDS.toNanos(WARMUP_MILLIS);
+        long end = measureFrom + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+        AtomicLong rejected = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            long[] samples = new long[100_000];
+            latencies.add(samples);
+            Thread thread = new Thread(() -> {
+                int count = 0;
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    try {
+                        repository.save("itemA");
+                        if (now >= measureFrom && count < samples.length - 1) {
+                            samples[++count] = System.nanoTime() - now;
+                        }
+                    } catch (ConcurrencyLimitExceededException e) {
+                        rejected.incrementAndGet();
+                        sleepQuietly(1);
+                    }
+                }
+                samples[0] = count;
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] all = latencies.stream()
+                .flatMapToLong(samples -> Arrays.stream(samples, 1, (int) samples[0] + 1))
+                .sorted()
+                .toArray();
+        return new Result(all.length, rejected.get(), percentile(all, 0.99));
+    }
+
+    /**
+     * 정렬된 표본의 백분위. 표본이 없으면 0 을 돌려주고, 완료 건수 검증에서 실패하게 둔다.
+     */
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))];
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 커넥션 풀이 작은 데이터베이스 흉내. 커넥션을 못 받으면 줄을 선다.
+     */
+    @Aspect
+    static class SlowDatabase {
+        private final Semaphore connections = new Semaphore(CONNECTIONS, true);
+
+        @Around("execution(* hello.aop.order.OrderRepository.save(..))")
+        public Object slow(ProceedingJoinPoint joinPoint) throws Throwable {
+            connections.acquire();
+            try {
+                Thread.sleep(SERVICE_MILLIS);
+                return joinPoint.proceed();
+            } finally {
+                connections.release();
+            }
+        }
+    }
+
+    static class Result {
+        final int completed;
+        final long rejected;
+        final long p99Nanos;
+
+        Result(int completed, long rejected, long p99Nanos) {
+            this.completed = completed;
+            this.rejected = rejected;
+            this.p99Nanos = p99Nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "completed=" + completed + " rejected=" + rejected + " p99=" + TimeUnit.NANOSECONDS.toMicros(p99Nanos) + "us";
+        }
+    }
+}
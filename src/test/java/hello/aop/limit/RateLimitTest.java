@@ -0,0 +1,152 @@
+package hello.aop.limit;
+
+import hello.aop.member.annotation.RateLimited;
+import hello.aop.order.aop.RateLimitAspect;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RateLimitTest {
+
+    static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tokenBucketRefills() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(10, 1, now);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryAcquire(now)).isTrue();
+        }
+        assertThat(bucket.tryAcquire(now)).isFalse();
+
+        // 0.1초에 하나씩 찬다.
+        assertThat(bucket.tryAcquire(now + SECOND / 10)).isTrue();
+        assertThat(bucket.tryAcquire(now + SECOND / 10)).isFalse();
+        // 오래 쉬어도 용량 이상은 쌓이지 않는다.
+        int permits = 0;
+        while (bucket.tryAcquire(now + 60 * SECOND)) {
+            permits++;
+        }
+        assertThat(permits).isEqualTo(10);
+    }
+
+    @Test
+    void keyedBucketsAreBoundedAndEvictIdle() {
+        long now = 0;
+        KeyedTokenBuckets buckets = new KeyedTokenBuckets(1, 1, 2, SECOND, now);
+
+        assertThat(buckets.tryAcquire("a", now)).isTrue();
+        assertThat(buckets.tryAcquire("a", now)).isFalse();
+        assertThat(buckets.tryAcquire("b", now)).isTrue();
+        // 자리가 없어서 c, d 는 overflow 버킷을 같이 쓴다.
+        assertThat(buckets.tryAcquire("c", now)).isTrue();
+        assertThat(buckets.tryAcquire("d", now)).isFalse();
+        assertThat(buckets.size()).isEqualTo(2);
+
+        // 한참 뒤에는 쉬고 있던 a, b 가 지워져서 d 가 자기 버킷을 받는다.
+        long later = now + 10 * SECOND;
+        assertThat(buckets.tryAcquire("d", later)).isTrue();
+        assertThat(buckets.tryAcquire("d", later)).isFalse();
+        assertThat(buckets.size()).isEqualTo(1);
+    }
+
+    @Test
+    void permitsAreTakenTogether() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+        assertThat(bucket.tryAcquire(0, 11)).isFalse();
+        assertThat(bucket.tryAcquire(0, 7)).isTrue();
+        assertThat(bucket.tryAcquire(0, 4)).isFalse();
+        assertThat(bucket.tryAcquire(0, 3)).isTrue();
+        assertThat(bucket.tryAcquire(0)).isFalse();
+    }
+
+    @Test
+    void fullBucketsWaitForTheNextSweep() {
+        KeyedTokenBuckets buckets = new KeyedTokenBuckets(1, 1, 2, SECOND, 0);
+        assertThat(buckets.tryAcquire("a", 0)).isTrue();
+        assertThat(buckets.tryAcquire("b", 0)).isTrue();
+        // 여기서 정리하고 다음 정리는 2.1초
+        long swept = SECOND + SECOND / 10;
+        assertThat(buckets.tryAcquire("a", swept)).isTrue();
+
+        // b 는 쉬고 있지만 정리할 때가 아니라서 e, f 는 overflow 버킷을 같이 쓴다.
+        long idle = 2 * SECOND + SECOND / 20;
+        assertThat(buckets.tryAcquire("e", idle)).isTrue();
+        assertThat(buckets.tryAcquire("f", idle)).isFalse();
+        assertThat(buckets.size()).isEqualTo(2);
+    }
+
+    @Test
+    void aspectLimitsPerKeyThenGlobally() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Limited());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new RateLimitAspect());
+        Limited limited = factory.getProxy();
+
+        // 키마다 2번, 전체 3번
+        assertThat(limited.call("a")).isEqualTo("a");
+        assertThat(limited.call("a")).isEqualTo("a");
+        assertThatThrownBy(() -> limited.call("a"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessage("rate limit exceeded: Limited.call")
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+        assertThat(limited.call("b")).isEqualTo("b");
+        assertThatThrownBy(() -> limited.call("c")).isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void namedLimitIsConfiguredAndSharedWithBatches() {
+        // 애노테이션의 100 대신 설정의 3 을 쓴다.
+        Orders orders = orders(new MockEnvironment().withProperty("aop.rate-limit.orders.permits-per-second", "3"));
+
+        // 배치는 주문 수만큼 쓰고, 단건과 같은 한도를 쓴다.
+        assertThat(orders.orderAll(List.of("a", "b"))).isEqualTo(2);
+        assertThat(orders.order("c")).isEqualTo("c");
+        assertThatThrownBy(() -> orders.order("d"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessage("rate limit exceeded: orders");
+    }
+
+    @Test
+    void batchOverTheLimitTakesNothing() {
+        Orders orders = orders(new MockEnvironment().withProperty("aop.rate-limit.orders.permits-per-second", "3"));
+
+        assertThatThrownBy(() -> orders.orderAll(List.of("a", "b", "c", "d")))
+                .isInstanceOf(RateLimitExceededException.class);
+        assertThat(orders.orderAll(List.of("a", "b", "c"))).isEqualTo(3);
+    }
+
+    private static Orders orders(MockEnvironment environment) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Orders());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new RateLimitAspect(environment));
+        return factory.getProxy();
+    }
+
+    static class Orders {
+        @RateLimited(name = "orders", permitsPerSecond = 100)
+        public String order(String itemId) {
+            return itemId;
+        }
+
+        @RateLimited(name = "orders", permitsPerSecond = 100, batch = true)
+        public int orderAll(Collection<String> itemIds) {
+            return itemIds.size();
+        }
+    }
+
+    static class Limited {
+        @RateLimited(permitsPerSecond = 3, permitsPerSecondPerKey = 2, burstSeconds = 1)
+        public String call(String key) {
+            return key;
+        }
+    }
+}
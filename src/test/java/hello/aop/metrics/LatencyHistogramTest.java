@@ -0,0 +1,48 @@
+package hello.aop.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketBoundaries() {
+        for (long value : new long[]{0, 1, 31, 32, 33, 63, 64, 1000, 123_456_789, LatencyHistogram.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(LatencyHistogram.highestValueIn(index)).isGreaterThanOrEqualTo(value);
+            assertThat(LatencyHistogram.highestValueIn(index)).isLessThanOrEqualTo((long) (value * 1.04) + 1);
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestValueIn(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(10_000);
+        assertThat(snapshot.getMax()).isEqualTo(10_000_000);
+        assertThat(snapshot.getMean()).isCloseTo(5_000_500, within(1.0));
+        assertThat(snapshot.getValueAtPercentile(50)).isCloseTo(5_000_000, withinPercentage(4));
+        assertThat(snapshot.getValueAtPercentile(99)).isCloseTo(9_900_000, withinPercentage(4));
+        assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(10_000_000);
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(2);
+        assertThat(snapshot.getValueAtPercentile(50)).isZero();
+        assertThat(snapshot.getMax()).isEqualTo(LatencyHistogram.MAX_VALUE);
+    }
+}
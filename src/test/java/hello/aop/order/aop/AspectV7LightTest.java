@@ -0,0 +1,96 @@
+package hello.aop.order.aop;
+
+import hello.aop.advice.MethodIds;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.tx.TransactionContext;
+import hello.aop.tx.TransactionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "aop.tx.enabled=true")
+@Import(AspectV7Light.class)
+@ExtendWith(OutputCaptureExtension.class)
+class AspectV7LightTest {
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired TransactionManager transactionManager;
+
+    @Test
+    void sameLogAsAspectV5Order(CapturedOutput output) {
+        assertThat(AopUtils.isAopProxy(orderService)).isTrue();
+        assertThat(AopUtils.isAopProxy(orderRepository)).isTrue();
+        long commits = transactionManager.getCommitCount();
+
+        orderService.orderItem("itemA");
+
+        assertThat(transactionManager.getCommitCount()).isEqualTo(commits + 1);
+        assertThat(output.getOut())
+                .contains("[트랜잭션 시작] void hello.aop.order.OrderService.orderItem(String)")
+                .contains("[log] void hello.aop.order.OrderService.orderItem(String)")
+                .contains("[log] String hello.aop.order.OrderRepository.save(String)")
+                .contains("[트랜잭션 커밋] void hello.aop.order.OrderService.orderItem(String)")
+                .contains("[리소스 릴리즈] void hello.aop.order.OrderService.orderItem(String)");
+        // 트랜잭션이 바깥, 로그가 안쪽이다.
+        assertThat(output.getOut().indexOf("[트랜잭션 시작] void hello.aop.order.OrderService.orderItem"))
+                .isLessThan(output.getOut().indexOf("[log] void hello.aop.order.OrderService.orderItem"));
+    }
+
+    @Test
+    void exception(CapturedOutput output) {
+        long rollbacks = transactionManager.getRollbackCount();
+
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(transactionManager.getRollbackCount()).isEqualTo(rollbacks + 1);
+        assertThat(output.getOut()).contains("[트랜잭션 롤백] void hello.aop.order.OrderService.orderItem(String)");
+    }
+
+    @Test
+    void errorRollsBackAndUnbinds() {
+        long rollbacks = transactionManager.getRollbackCount();
+        ProxyFactory factory = new ProxyFactory(new OrderService(new OrderRepository() {
+            @Override
+            public String save(String itemId) {
+                throw new AssertionError(itemId);
+            }
+        }));
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(AspectV7Light.TxAdvice.advisor(transactionManager));
+        OrderService proxy = (OrderService) factory.getProxy();
+
+        assertThatThrownBy(() -> proxy.orderItem("itemA"))
+                .isInstanceOf(AssertionError.class);
+
+        assertThat(transactionManager.getRollbackCount()).isEqualTo(rollbacks + 1);
+        assertThat(TransactionContext.current()).isNull();
+    }
+
+    @Test
+    void batch(CapturedOutput output) {
+        orderService.orderItems(List.of("itemA", "itemB"));
+
+        assertThat(output.getOut()).contains("[log] void hello.aop.order.OrderService.orderItems(Collection) batch=2");
+    }
+
+    @Test
+    void methodIds() throws Exception {
+        int id = MethodIds.id(OrderRepository.class.getMethod("save", String.class));
+
+        assertThat(MethodIds.id(OrderRepository.class.getMethod("save", String.class))).isEqualTo(id);
+        assertThat(MethodIds.method(id).getName()).isEqualTo("save");
+        assertThat(MethodIds.signature(id)).isEqualTo("String hello.aop.order.OrderRepository.save(String)");
+    }
+}
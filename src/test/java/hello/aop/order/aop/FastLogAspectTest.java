@@ -0,0 +1,41 @@
+package hello.aop.order.aop;
+
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Import(FastLogAspect.class)
+@ExtendWith(OutputCaptureExtension.class)
+class FastLogAspectTest {
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+
+    @Test
+    void sameLogAsAspectV1(CapturedOutput output) {
+        assertThat(AopUtils.isAopProxy(orderService)).isTrue();
+        assertThat(AopUtils.isAopProxy(orderRepository)).isTrue();
+
+        orderService.orderItem("itemA");
+        orderService.orderItem("itemB");
+
+        assertThat(output.getOut())
+                .contains("[log] void hello.aop.order.OrderService.orderItem(String)")
+                .contains("[log] String hello.aop.order.OrderRepository.save(String)");
+    }
+
+    @Test
+    void exception() {
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
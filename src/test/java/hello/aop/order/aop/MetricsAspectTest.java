@@ -0,0 +1,68 @@
+package hello.aop.order.aop;
+
+import hello.aop.metrics.MethodMetrics;
+import hello.aop.metrics.MetricsRegistry;
+import hello.aop.order.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Import(MetricsAspect.class)
+class MetricsAspectTest {
+    @Autowired OrderService orderService;
+    @Autowired MetricsRegistry registry;
+
+    @Test
+    void recordsCallsErrorsAndLatency() throws Exception {
+        Method orderItem = OrderService.class.getMethod("orderItem", String.class);
+        MethodMetrics metrics = registry.metrics(orderItem);
+        long calls = metrics.getCalls();
+        long errors = metrics.getErrors();
+
+        orderService.orderItem("itemA");
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(metrics.getCalls()).isEqualTo(calls + 2);
+        assertThat(metrics.getErrors()).isEqualTo(errors + 1);
+        assertThat(metrics.getMaxNanos()).isPositive();
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        // 다른 테스트 컨텍스트의 레지스트리가 기본 이름을 쓰고 있을 수 있다.
+        ObjectName name = registry.registeredName(orderItem);
+        assertThat(mBeanServer.getAttribute(name, "Calls")).isEqualTo(calls + 2);
+        assertThat(mBeanServer.getAttribute(name, "Method")).isEqualTo("orderItem(String)");
+    }
+
+    @Test
+    void closeLeavesOtherRegistriesMBeans() throws Exception {
+        Method orderItems = OrderService.class.getMethod("orderItems", Collection.class);
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        MetricsRegistry first = new MetricsRegistry(true);
+        MetricsRegistry second = new MetricsRegistry(true);
+        try {
+            first.metrics(orderItems);
+            second.metrics(orderItems);
+            ObjectName firstName = first.registeredName(orderItems);
+            ObjectName secondName = second.registeredName(orderItems);
+            assertThat(firstName).isNotNull().isNotEqualTo(secondName);
+
+            first.close();
+            assertThat(mBeanServer.isRegistered(firstName)).isFalse();
+            assertThat(mBeanServer.isRegistered(secondName)).isTrue();
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+}
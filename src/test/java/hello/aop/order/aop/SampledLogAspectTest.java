@@ -0,0 +1,46 @@
+package hello.aop.order.aop;
+
+import hello.aop.order.OrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "aop.sampling.enabled=true",
+        "aop.sampling.rate=0",
+        // orderItem 은 둘 다 맞지만 먼저 나온 규칙을 쓴다.
+        "aop.sampling.rules[0].pointcut=orderAndService",
+        "aop.sampling.rules[0].rate=1",
+        "aop.sampling.rules[1].pointcut=allOrder",
+        "aop.sampling.rules[1].rate=0"})
+@Import(SampledLogAspect.class)
+@ExtendWith(OutputCaptureExtension.class)
+class SampledLogAspectTest {
+    @Autowired OrderService orderService;
+
+    @Test
+    void onlySampledPointcutIsLogged(CapturedOutput output) {
+        orderService.orderItem("itemA");
+
+        assertThat(output.getOut())
+                .contains("[log] void hello.aop.order.OrderService.orderItem(String) arg=itemA")
+                .doesNotContain("[log] String hello.aop.order.OrderRepository.save(String)");
+    }
+
+    @Test
+    void errorsAreAlwaysLogged(CapturedOutput output) {
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+
+        // 리포지토리는 비율 0 이지만 예외가 나서 남는다.
+        assertThat(output.getOut())
+                .contains("[ex] String hello.aop.order.OrderRepository.save(String) arg=ex message=예외 발생")
+                .doesNotContain("[log] String hello.aop.order.OrderRepository.save(String)");
+    }
+}
@@ -0,0 +1,44 @@
+package hello.aop.order.aop;
+
+import hello.aop.order.OrderFailureException;
+import hello.aop.order.OrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "aop.order.stackless-failures=true")
+@Import(AspectV6Advice.class)
+@ExtendWith(OutputCaptureExtension.class)
+class StacklessFailureTest {
+    @Autowired OrderService orderService;
+    @Autowired AspectV6Advice aspect;
+
+    @Test
+    void failureHasNoStackTrace() {
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class)
+                .isInstanceOf(OrderFailureException.class)
+                .hasMessage("예외 발생")
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+    }
+
+    @Test
+    void failureIsCountedNotLogged(CapturedOutput output) throws Exception {
+        long before = aspect.getFailures().count(OrderService.class.getMethod("orderItem", String.class));
+
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(OrderFailureException.class);
+
+        assertThat(aspect.getFailures().count(OrderService.class.getMethod("orderItem", String.class)))
+                .isEqualTo(before + 1);
+        assertThat(output.getOut())
+                .contains("[트랜잭션 롤백]")
+                .doesNotContain("[ex]");
+    }
+}
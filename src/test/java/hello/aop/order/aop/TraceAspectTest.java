@@ -0,0 +1,58 @@
+package hello.aop.order.aop;
+
+import hello.aop.order.OrderService;
+import hello.aop.trace.Span;
+import hello.aop.trace.SpanReader;
+import hello.aop.trace.Tracer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "aop.trace.enabled=true")
+@Import({TraceAspect.class, AspectV5Order.TxAspect.class})
+class TraceAspectTest {
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void traceDir(DynamicPropertyRegistry registry) {
+        registry.add("aop.trace.dir", () -> dir.toString());
+    }
+
+    @Autowired OrderService orderService;
+    @Autowired Tracer tracer;
+
+    @Test
+    void orderItemIsSpanTree() throws Exception {
+        orderService.orderItem("itemA");
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+        tracer.getWriter().flush();
+
+        List<Span> roots = SpanReader.tree(SpanReader.readDirectory(dir)).stream()
+                .filter(root -> root.getSignature().endsWith("OrderService.orderItem(String)"))
+                .collect(Collectors.toList());
+        assertThat(roots).hasSize(2);
+
+        Span success = roots.get(0);
+        assertThat(success.getError()).isNull();
+        assertThat(success.getChildren()).extracting(Span::getSignature)
+                .containsExactly("String hello.aop.order.OrderRepository.save(String)");
+
+        Span failure = roots.get(1);
+        assertThat(failure.getError()).startsWith("java.lang.IllegalStateException");
+        assertThat(failure.getChildren().get(0).getError()).startsWith("java.lang.IllegalStateException");
+        assertThat(failure.getTraceId()).isNotEqualTo(success.getTraceId());
+    }
+}
@@ -0,0 +1,158 @@
+package hello.aop.order.store;
+
+import hello.aop.tx.Transaction;
+import hello.aop.tx.TransactionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderStoreTest {
+    @TempDir Path dir;
+
+    @Test
+    void saveAndFind() throws IOException {
+        try (OrderStore store = OrderStore.open(dir)) {
+            store.save("itemA");
+            store.save("itemB");
+
+            assertThat(store.find("itemA")).get().extracting(StoredOrder::getItemId).isEqualTo("itemA");
+            assertThat(store.find("itemC")).isEmpty();
+            assertThat(store.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void saveAllIsOneCommit() throws IOException {
+        try (OrderStore store = OrderStore.open(dir)) {
+            store.saveAll(List.of("itemA", "itemB", "itemC"));
+
+            assertThat(store.size()).isEqualTo(3);
+            assertThat(store.find("itemB")).isPresent();
+        }
+
+        try (OrderStore store = OrderStore.open(dir)) {
+            assertThat(store.size()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void recoverAfterReopen() throws IOException {
+        try (OrderStore store = OrderStore.open(dir, 256, Duration.ZERO)) {
+            for (int i = 0; i < 50; i++) {
+                store.save("item" + i);
+            }
+            assertThat(store.segmentCount()).isGreaterThan(1);
+        }
+
+        try (OrderStore store = OrderStore.open(dir, 256, Duration.ZERO)) {
+            assertThat(store.size()).isEqualTo(50);
+            assertThat(store.find("item0")).isPresent();
+            assertThat(store.find("item49")).isPresent();
+        }
+    }
+
+    @Test
+    void uncommittedTailIsDiscarded() throws IOException {
+        Path segment;
+        try (OrderStore store = OrderStore.open(dir)) {
+            store.save("itemA");
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        long committedSize = Files.size(segment);
+
+        // 커밋 플래그가 없는 레코드와 잘린 레코드. 커밋 도중에 죽은 경우다.
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            byte[] key = Records.key("itemB");
+            ByteBuffer buffer = ByteBuffer.allocate(Records.size(key) + 5);
+            Records.write(buffer, key, 7, 0, false);
+            buffer.put(new byte[]{1, 2, 3, 4, 5});
+            buffer.flip();
+            channel.write(buffer);
+        }
+
+        try (OrderStore store = OrderStore.open(dir)) {
+            assertThat(store.find("itemA")).isPresent();
+            assertThat(store.find("itemB")).isEmpty();
+            store.save("itemC");
+        }
+        assertThat(Files.size(segment)).isEqualTo(committedSize + Records.size(Records.key("itemC")));
+    }
+
+    @Test
+    void transactionsCommitThroughStore() throws IOException {
+        OrderStore store = OrderStore.open(dir);
+        try (TransactionManager transactionManager = new TransactionManager(store)) {
+            Transaction committed = transactionManager.begin();
+            committed.write("itemA");
+            committed.write("itemB");
+            transactionManager.commit(committed);
+
+            Transaction rolledBack = transactionManager.begin();
+            rolledBack.write("itemC");
+            transactionManager.rollback(rolledBack);
+
+            assertThat(store.find("itemA")).get().extracting(StoredOrder::getTransactionId).isEqualTo(committed.getId());
+            assertThat(store.find("itemB")).isPresent();
+            assertThat(store.find("itemC")).isEmpty();
+        }
+    }
+
+    @Test
+    void compactKeepsLatestOrders() throws IOException {
+        try (OrderStore store = OrderStore.open(dir, 256, Duration.ZERO)) {
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 10; i++) {
+                    store.save("item" + i);
+                }
+            }
+            StoredOrder latest = store.find("item3").orElseThrow();
+            int segmentsBefore = store.segmentCount();
+
+            store.compact();
+
+            assertThat(store.segmentCount()).isLessThan(segmentsBefore);
+            assertThat(store.size()).isEqualTo(10);
+            assertThat(store.find("item3").orElseThrow().getSavedAt()).isEqualTo(latest.getSavedAt());
+            try (Stream<Path> files = Files.list(dir)) {
+                assertThat(files.count()).isEqualTo(store.segmentCount());
+            }
+        }
+
+        try (OrderStore store = OrderStore.open(dir, 256, Duration.ZERO)) {
+            assertThat(store.size()).isEqualTo(10);
+        }
+    }
+
+    @Test
+    void compactClosesRetiredSegments() throws IOException {
+        try (OrderStore store = OrderStore.open(dir, 256, Duration.ZERO)) {
+            for (int i = 0; i < 50; i++) {
+                store.save("item" + (i % 10));
+            }
+            List<Segment> retired = store.sealedSegments();
+            assertThat(retired).hasSizeGreaterThan(1);
+
+            store.compact();
+
+            assertThat(store.sealedSegments()).doesNotContainAnyElementsOf(retired);
+            for (Segment segment : retired) {
+                assertThatThrownBy(() -> segment.read(0, 1)).isInstanceOf(ClosedChannelException.class);
+            }
+            assertThat(store.find("item3")).isPresent();
+        }
+    }
+}
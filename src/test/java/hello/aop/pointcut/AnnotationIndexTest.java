@@ -0,0 +1,66 @@
+package hello.aop.pointcut;
+
+import hello.aop.member.MemberService;
+import hello.aop.member.MemberServiceImpl;
+import hello.aop.member.annotation.ClassAop;
+import hello.aop.member.annotation.MethodAop;
+import hello.aop.order.aop.MethodAopAspect;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.support.AopUtils;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AnnotationIndexTest {
+    PointcutCompiler compiler = new PointcutCompiler();
+
+    @Test
+    void methodAnnotationFromInterfaceMethod() throws NoSuchMethodException {
+        AnnotationIndex index = AnnotationIndex.of(MemberServiceImpl.class);
+        Method hello = MemberService.class.getMethod("hello", String.class);
+
+        assertThat(index.methodAnnotation(hello, MethodAop.class).value()).isEqualTo("test value");
+        assertThat(index.methodAnnotation(MemberServiceImpl.class.getMethod("internal", String.class), MethodAop.class))
+                .isNull();
+        assertThat(index.targetAnnotation(ClassAop.class)).isNotNull();
+        assertThat(AnnotationIndex.of(MemberServiceImpl.class)).isSameAs(index);
+    }
+
+    @Test
+    void targetAndWithinOnInheritedMethod() throws NoSuchMethodException {
+        Method parentMethod = Parent.class.getMethod("parentMethod");
+        Method childMethod = Child.class.getMethod("childMethod");
+        CompiledPointcut target = compiler.compile("@target(hello.aop.member.annotation.ClassAop)");
+        CompiledPointcut within = compiler.compile("@within(hello.aop.member.annotation.ClassAop)");
+
+        // `@target` 은 인스턴스 기준이라 부모 메서드도, `@within` 은 선언 클래스 기준이라 자식 메서드만
+        assertThat(target.isRuntime()).isFalse();
+        assertThat(target.matches(parentMethod, Child.class)).isTrue();
+        assertThat(target.matches(childMethod, Child.class)).isTrue();
+        assertThat(target.matches(Parent.class)).isFalse();
+        assertThat(within.matches(parentMethod, Child.class)).isFalse();
+        assertThat(within.matches(childMethod, Child.class)).isTrue();
+    }
+
+    @Test
+    void adviceReadsValueFromIndex() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new MemberServiceImpl());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new MethodAopAspect());
+        MemberServiceImpl proxy = factory.getProxy();
+
+        assertThat(AopUtils.isAopProxy(proxy)).isTrue();
+        assertThat(proxy.hello("helloA")).isEqualTo("ok");
+    }
+
+    static class Parent {
+        public void parentMethod() {}
+    }
+
+    @ClassAop
+    static class Child extends Parent {
+        public void childMethod() {}
+    }
+}
@@ -0,0 +1,181 @@
+package hello.aop.pointcut;
+
+import hello.aop.member.MemberService;
+import hello.aop.member.MemberServiceImpl;
+import hello.aop.member.MyClass;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.Pointcuts;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 기존 포인트컷 테스트(`ExecutionTest`, `WithinTest`, `ArgsTest`)와 `Pointcuts` 의 모든 표현식에 대해
+ * 컴파일된 포인트컷이 `AspectJExpressionPointcut` 과 같은 결과를 내는지 비교한다.
+ */
+public class CompiledPointcutTest {
+    PointcutCompiler compiler = new PointcutCompiler();
+
+    List<String> expressions = List.of(
+            // ExecutionTest
+            "execution(public String hello.aop.member.MemberServiceImpl.hello(String))",
+            "execution(* *(..))",
+            "execution(* hello(..))",
+            "execution(* hel*(..))",
+            "execution(* *el*(..))",
+            "execution(* eel*(..))",
+            "execution(* hello.aop.member.MemberServiceImpl.hello(..))",
+            "execution(* hello.aop.*.*(..))",
+            "execution(* hello.aop..*.*(..))",
+            "execution(* hello.aop.member..*.*(..))",
+            "execution(* hello.aop.member.MemberServiceImpl.*(..))",
+            "execution(* hello.aop.member.MemberService.*(..))",
+            "execution(* *(String))",
+            "execution(* *())",
+            "execution(* *(*))",
+            "execution(* *(String, ..))",
+            "execution(* *(String, *))",
+            // WithinTest
+            "within(hello.aop.member.MemberServiceImpl)",
+            "within(hello.aop.member.*Service*)",
+            "within(hello.aop..*)",
+            "within(hello.aop.member.MemberService.*)",
+            // ArgsTest
+            "args(String)",
+            "args(Object)",
+            "args()",
+            "args(..)",
+            "args(*)",
+            "args(String, ..)",
+            "args(java.io.Serializable)",
+            "execution(* *(java.io.Serializable))",
+            "execution(* *(Object))",
+            // AtAnnotationTest, AtTargetAtWithinTest
+            "execution(* hello..*(..)) && @annotation(hello.aop.member.annotation.MethodAop)",
+            "@annotation(hello.aop.member.annotation.ArgsAop)",
+            "execution(* hello.aop..*(..)) && @within(hello.aop.member.annotation.ClassAop)",
+            // Pointcuts
+            "hello.aop.order.aop.Pointcuts.allOrder()",
+            "hello.aop.order.aop.Pointcuts.allService()",
+            "hello.aop.order.aop.Pointcuts.orderAndService()",
+            "allOrder() && !allService()",
+            "allService() || within(hello.aop.member..*)");
+
+    @Test
+    @DisplayName("정적 매칭 결과가 AspectJ 와 같다")
+    void staticMatch() throws NoSuchMethodException {
+        List<Target> targets = List.of(
+                new Target(MemberServiceImpl.class.getMethod("hello", String.class), MemberServiceImpl.class),
+                new Target(MemberService.class.getMethod("hello", String.class), MemberServiceImpl.class),
+                new Target(MemberServiceImpl.class.getMethod("internal", String.class), MemberServiceImpl.class),
+                new Target(MemberServiceImpl.class.getMethod("testMethod", MyClass.class), MemberServiceImpl.class),
+                new Target(OrderService.class.getMethod("orderItem", String.class), OrderService.class),
+                new Target(OrderRepository.class.getMethod("save", String.class), OrderRepository.class));
+
+        for (String expression : expressions) {
+            AspectJExpressionPointcut expected = aspectJ(expression);
+            CompiledPointcut actual = compiler.compile(expression, Pointcuts.class);
+
+            for (Target target : targets) {
+                assertThat(matches(actual, target))
+                        .as("%s on %s", expression, target.method)
+                        .isEqualTo(matches(expected, target));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("args 는 런타임 인수로 다시 판단한 결과도 AspectJ 와 같다")
+    void runtimeMatch() throws NoSuchMethodException {
+        Method helloMethod = MemberServiceImpl.class.getMethod("hello", String.class);
+        Method equalsMethod = Object.class.getMethod("equals", Object.class);
+
+        for (String expression : List.of("args(String)", "args(Object)", "args(java.io.Serializable)",
+                "args(Integer)", "args(String, ..)", "args(*)", "execution(* *(..)) && args(String)")) {
+            AspectJExpressionPointcut expected = aspectJ(expression);
+            CompiledPointcut actual = compiler.compile(expression);
+            assertThat(actual.isRuntime()).as(expression).isTrue();
+
+            for (Object arg : new Object[]{"helloA", 1, new MyClass()}) {
+                for (Method method : List.of(helloMethod, equalsMethod)) {
+                    boolean expectedMatch = expected.matches(method, MemberServiceImpl.class)
+                            && expected.matches(method, MemberServiceImpl.class, arg);
+                    boolean actualMatch = actual.matches(method, MemberServiceImpl.class)
+                            && actual.matches(method, MemberServiceImpl.class, arg);
+                    assertThat(actualMatch).as("%s on %s with %s", expression, method, arg).isEqualTo(expectedMatch);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("파라미터 타입으로 결정되는 args 는 동적 판단이 남지 않는다")
+    void residue() throws NoSuchMethodException {
+        Method helloMethod = MemberServiceImpl.class.getMethod("hello", String.class);
+        Method equalsMethod = Object.class.getMethod("equals", Object.class);
+
+        for (String expression : List.of("args(String)", "args(Object)", "args(java.io.Serializable)",
+                "args(String, ..)", "execution(* *(..)) && args(String)", "args(Integer) || args(String)")) {
+            assertThat(compiler.compile(expression).residue(helloMethod, MemberServiceImpl.class))
+                    .as(expression).isNull();
+        }
+
+        Residue residue = compiler.compile("execution(* *(..)) && args(String)").residue(equalsMethod, MemberServiceImpl.class);
+        assertThat(residue).isNotNull();
+        assertThat(residue.matches(new Object[]{"helloA"})).isTrue();
+        assertThat(residue.matches(new Object[]{1})).isFalse();
+        assertThat(residue.matches(new Object[]{null})).isFalse();
+    }
+
+    @Test
+    @DisplayName("target 은 대상 클래스로 정적으로 판단한다")
+    void target() throws NoSuchMethodException {
+        CompiledPointcut pointcut = compiler.compile("target(hello.aop.member.MemberService)");
+        assertThat(pointcut.isRuntime()).isFalse();
+        assertThat(pointcut.matches(MemberServiceImpl.class)).isTrue();
+        assertThat(pointcut.matches(OrderService.class)).isFalse();
+        assertThat(pointcut.matches(MemberServiceImpl.class.getMethod("internal", String.class), MemberServiceImpl.class))
+                .isTrue();
+    }
+
+    @Test
+    @DisplayName("컴파일할 수 없는 표현식은 예외로 알려준다")
+    void unsupported() {
+        assertThatThrownBy(() -> compiler.compile("bean(orderService)"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compiler.compile("execution(* *(..)) && args(param)"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compiler.compile("!args(String)"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compiler.compile("@annotation(methodAop)"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private AspectJExpressionPointcut aspectJ(String expression) {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setPointcutDeclarationScope(Pointcuts.class);
+        pointcut.setExpression(expression);
+        return pointcut;
+    }
+
+    private boolean matches(org.springframework.aop.Pointcut pointcut, Target target) {
+        return pointcut.getClassFilter().matches(target.targetClass)
+                && pointcut.getMethodMatcher().matches(target.method, target.targetClass);
+    }
+
+    static class Target {
+        final Method method;
+        final Class<?> targetClass;
+
+        Target(Method method, Class<?> targetClass) {
+            this.method = method;
+            this.targetClass = targetClass;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package hello.aop.pointcut;
+
+import hello.aop.member.MemberServiceImpl;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV1;
+import hello.aop.order.aop.AspectV5Order;
+import hello.aop.order.aop.AspectV6Advice;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.annotation.ReflectiveAspectJAdvisorFactory;
+import org.springframework.aop.aspectj.annotation.SimpleMetadataAwareAspectInstanceFactory;
+import org.springframework.aop.support.AopUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class PointcutIndexTest {
+    List<Class<?>> aspects = List.of(AspectV1.class, AspectV5Order.LogAspect.class, AspectV5Order.TxAspect.class,
+            AspectV6Advice.class);
+    List<Class<?>> targets = List.of(OrderService.class, OrderRepository.class, MemberServiceImpl.class);
+
+    @Test
+    void sameResultAsRuntimeMatching() throws IOException {
+        PointcutIndex generated = PointcutIndexGenerator.generate(List.of(AspectV1.class, AspectV5Order.LogAspect.class,
+                AspectV5Order.TxAspect.class, AspectV6Advice.class, OrderService.class, OrderRepository.class,
+                MemberServiceImpl.class));
+
+        // 파일로 쓰고 다시 읽은 색인으로 비교한다.
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generated.write(out);
+        PointcutIndex index = PointcutIndex.read(new ByteArrayInputStream(out.toByteArray()));
+
+        ReflectiveAspectJAdvisorFactory advisorFactory = new ReflectiveAspectJAdvisorFactory();
+        for (Class<?> aspect : aspects) {
+            for (Advisor advisor : advisorFactory.getAdvisors(
+                    new SimpleMetadataAwareAspectInstanceFactory(aspect, aspect.getName()))) {
+                AbstractAspectJAdvice advice = (AbstractAspectJAdvice) advisor.getAdvice();
+                String adviceKey = PointcutIndex.adviceKey(advice.getAspectJAdviceMethod());
+                String expression = advice.getPointcut().getExpression();
+
+                for (Class<?> target : targets) {
+                    assertThat(index.canApply(adviceKey, expression, target.getName()))
+                            .as("%s on %s", adviceKey, target.getSimpleName())
+                            .isEqualTo(AopUtils.canApply(advisor, target));
+                }
+            }
+        }
+
+        assertThat(index.matchedMethods(AspectV1.class.getName() + "#doLog(org.aspectj.lang.ProceedingJoinPoint)",
+                "execution(* hello.aop.order..*(..))", OrderService.class.getName()))
+                .containsExactly("orderItem(java.lang.String)");
+    }
+
+    @Test
+    void unknownOrChangedEntries() {
+        PointcutIndex index = PointcutIndexGenerator.generate(List.of(AspectV1.class, OrderService.class));
+        String adviceKey = AspectV1.class.getName() + "#doLog(org.aspectj.lang.ProceedingJoinPoint)";
+
+        // 표현식이 바뀌었거나 색인에 없는 클래스는 판단하지 않는다.
+        assertThat(index.canApply(adviceKey, "execution(* *(..))", OrderService.class.getName())).isNull();
+        assertThat(index.canApply(adviceKey, "execution(* hello.aop.order..*(..))", MemberServiceImpl.class.getName())).isNull();
+    }
+}
@@ -0,0 +1,142 @@
+package hello.aop.proxy;
+
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV4Pointcut;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {"aop.switch.enabled=true", "aop.switch.off=AspectV4Pointcut.doLog"})
+@Import(AspectV4Pointcut.class)
+@ExtendWith(OutputCaptureExtension.class)
+class AspectSwitchTest {
+    @Autowired OrderService orderService;
+    @Autowired AspectSwitches switches;
+
+    @AfterEach
+    void restore() {
+        switches.setEnabled("AspectV4Pointcut.doLog", false);
+    }
+
+    @Test
+    void offUntilEnabledOverJmx(CapturedOutput output) throws Exception {
+
+        orderService.orderItem("itemA");
+        assertThat(output.getOut())
+                .contains("[트랜잭션 시작] void hello.aop.order.OrderService.orderItem(String)")
+                .doesNotContain("[log] void hello.aop.order.OrderService.orderItem(String)");
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        mBeanServer.setAttribute(switches.registeredName("AspectV4Pointcut.doLog"), new Attribute("Enabled", true));
+
+        orderService.orderItem("itemB");
+        assertThat(output.getOut()).contains("[log] void hello.aop.order.OrderService.orderItem(String)");
+    }
+
+    @Test
+    void switchingDoesNotChangeTheAdvisors() {
+        Advisor[] off = ((Advised) orderService).getAdvisors();
+
+        switches.setEnabled("AspectV4Pointcut.doLog", true);
+
+        // 같은 애스펙트의 어드바이스는 메서드 이름 순서다.
+        assertThat(switchNames()).containsExactly("AspectV4Pointcut.doLog", "AspectV4Pointcut.doTransaction");
+        assertThat(((Advised) orderService).getAdvisors()).containsExactly(off);
+        assertThat(switches.get("AspectV4Pointcut.doLog").getProxyCount()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void createdProxiesKeepTheOriginalAdvice() {
+        // 자동 프록시 생성기가 만든 프록시는 포인트컷이 스위치를 따르고, 어드바이스는 감싸지 않는다.
+        for (Advisor advisor : ((Advised) orderService).getAdvisors()) {
+            if (AspectSwitches.switchName(advisor) != null) {
+                assertThat(advisor.getAdvice()).isInstanceOf(AbstractAspectJAdvice.class);
+            }
+        }
+    }
+
+    @Test
+    void offAdviceIsNotInTheChain() throws Exception {
+        AspectSwitches local = new AspectSwitches(false, List.of("AspectV4Pointcut.doLog"));
+        AspectJProxyFactory factory = new AspectJProxyFactory(new OrderService(new OrderRepository()));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new AspectV4Pointcut());
+        local.register(factory);
+        Method orderItem = OrderService.class.getMethod("orderItem", String.class);
+
+        assertThat(adviceNames(factory.getInterceptorsAndDynamicInterceptionAdvice(orderItem, OrderService.class)))
+                .containsExactly("doTransaction");
+
+        local.setEnabled("AspectV4Pointcut.doLog", true);
+        assertThat(adviceNames(factory.getInterceptorsAndDynamicInterceptionAdvice(orderItem, OrderService.class)))
+                .containsExactly("doLog", "doTransaction");
+
+        local.setEnabled("AspectV4Pointcut.doLog", false);
+        assertThat(adviceNames(factory.getInterceptorsAndDynamicInterceptionAdvice(orderItem, OrderService.class)))
+                .containsExactly("doTransaction");
+    }
+
+    @Test
+    void switchedWhileCalledFromOtherThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                callers.add(executor.submit(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        orderService.orderItem("item" + j);
+                    }
+                }));
+            }
+            for (int i = 0; i < 100; i++) {
+                switches.setEnabled("AspectV4Pointcut.doLog", i % 2 == 0);
+            }
+            for (Future<?> caller : callers) {
+                caller.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(switchNames()).containsExactly("AspectV4Pointcut.doLog", "AspectV4Pointcut.doTransaction");
+    }
+
+    private static List<String> adviceNames(List<Object> chain) {
+        return chain.stream()
+                .filter(AbstractAspectJAdvice.class::isInstance)
+                .map(advice -> ((AbstractAspectJAdvice) advice).getAspectJAdviceMethod().getName())
+                .collect(Collectors.toList());
+    }
+
+    private List<String> switchNames() {
+        Advisor[] advisors = ((Advised) orderService).getAdvisors();
+        return Arrays.stream(advisors)
+                .map(AspectSwitches::switchName)
+                .filter(name -> name != null)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,49 @@
+package hello.aop.proxy;
+
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import hello.aop.pointcut.CompiledPointcut;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest(properties = "aop.proxy.compiled-pointcuts=true")
+@Import(AspectV6Advice.class)
+public class CompiledPointcutProxyTest {
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+
+    @Test
+    void proxyWithCompiledPointcuts() {
+        assertThat(AopUtils.isAopProxy(orderService)).isTrue();
+        // orderAndService() 는 `*Service` 에만 적용된다.
+        assertThat(AopUtils.isAopProxy(orderRepository)).isFalse();
+
+        assertThat(Arrays.stream(((Advised) orderService).getAdvisors())
+                .filter(advisor -> advisor instanceof PointcutAdvisor)
+                .map(advisor -> ((PointcutAdvisor) advisor).getPointcut()))
+                .hasAtLeastOneElementOfType(CompiledPointcut.class);
+    }
+
+    @Test
+    void success() {
+        orderService.orderItem("itemA");
+    }
+
+    @Test
+    void exception() {
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,57 @@
+package hello.aop.proxy;
+
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import hello.aop.tx.TransactionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * `AopTest` 와 같은 시나리오를 어드바이스를 합친 프록시로 돌린다.
+ */
+@SpringBootTest(properties = {"aop.proxy.fused-advices=true", "aop.tx.enabled=true"})
+@Import(AspectV6Advice.class)
+public class FusedAdviceProxyTest {
+    @Autowired OrderService orderService;
+    @Autowired TransactionManager transactionManager;
+
+    @Test
+    void aopInfo() {
+        assertThat(AopUtils.isAopProxy(orderService)).isTrue();
+
+        // AspectV6Advice 의 다섯 어드바이스가 한 칸이 된다.
+        Advisor[] advisors = ((Advised) orderService).getAdvisors();
+        assertThat(advisors).hasSize(2);
+        assertThat(advisors[1]).isInstanceOf(FusedAdvisor.class);
+        assertThat(((FusedAdviceInterceptor) advisors[1].getAdvice()).getAdvices()).hasSize(5);
+    }
+
+    @Test
+    void success() {
+        long commits = transactionManager.getCommitCount();
+
+        orderService.orderItem("itemA");
+        orderService.orderItems(List.of("itemB", "itemC"));
+
+        assertThat(transactionManager.getCommitCount()).isEqualTo(commits + 2);
+    }
+
+    @Test
+    void exception() {
+        long rollbacks = transactionManager.getRollbackCount();
+
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(transactionManager.getRollbackCount()).isEqualTo(rollbacks + 1);
+    }
+}
@@ -0,0 +1,139 @@
+package hello.aop.proxy;
+
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.Advised;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 같은 애스펙트를 합친 체인과 원래 체인에 적용했을 때 어드바이스가 같은 순서, 같은 값으로 실행되는지 비교한다.
+ */
+class FusedAdviceTest {
+
+    @Test
+    void success() {
+        assertThat(run(true, "itemA")).isEqualTo(run(false, "itemA"))
+                .containsExactly(
+                        "around start [itemA]", "before [itemA]", "before2", "repository [itemA]",
+                        "afterReturning null", "after", "around end");
+    }
+
+    @Test
+    void exception() {
+        assertThat(run(true, "ex")).isEqualTo(run(false, "ex"))
+                .containsExactly(
+                        "around start [ex]", "before [ex]", "before2", "repository [ex]",
+                        "afterThrowing 예외 발생", "after", "around failed 예외 발생");
+    }
+
+    @Test
+    void aroundChangesArguments() {
+        // proceed(args) 로 바꾼 인자가 대상까지 전달되어야 한다. 저장소 쪽 로그에서 확인한다.
+        assertThat(run(true, "swap")).isEqualTo(run(false, "swap"));
+        assertThat(run(true, "swap")).contains("repository [swapped]");
+    }
+
+    @Test
+    void chainIsShorter() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new OrderService(new OrderRepository()));
+        factory.addAspect(new RecordingAspect());
+        int before = factory.getAdvisors().length;
+
+        assertThat(AdvisorFusion.fuse(factory)).isTrue();
+
+        // ExposeInvocationInterceptor + 합쳐진 어드바이저 하나
+        assertThat(factory.getAdvisors()).hasSize(2);
+        assertThat(factory.getAdvisors()[1]).isInstanceOf(FusedAdvisor.class);
+        assertThat(before).isEqualTo(7);
+    }
+
+    private List<String> run(boolean fused, String itemId) {
+        RecordingAspect aspect = new RecordingAspect();
+        OrderRepository repository = proxy(new OrderRepository(), aspect, fused);
+        OrderService orderService = proxy(new OrderService(repository), aspect, fused);
+
+        try {
+            orderService.orderItem(itemId);
+        } catch (IllegalStateException e) {
+            // 예외 경로도 기록을 비교한다.
+        }
+        return aspect.events;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target, Object aspect, boolean fused) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        if (fused) {
+            AdvisorFusion.fuse((Advised) factory);
+        }
+        return (T) factory.getProxy();
+    }
+
+    @Aspect
+    static class RecordingAspect {
+        final List<String> events = new ArrayList<>();
+
+        @Around("execution(* hello.aop.order.OrderRepository.*(..))")
+        public Object repository(ProceedingJoinPoint joinPoint) throws Throwable {
+            events.add("repository " + Arrays.toString(joinPoint.getArgs()));
+            return joinPoint.proceed();
+        }
+
+        @Around("execution(* hello.aop.order.OrderService.*(..))")
+        public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+            events.add("around start " + Arrays.toString(joinPoint.getArgs()));
+            try {
+                Object result = "swap".equals(joinPoint.getArgs()[0])
+                        ? joinPoint.proceed(new Object[]{"swapped"})
+                        : joinPoint.proceed();
+                events.add("around end");
+                return result;
+            } catch (IllegalStateException e) {
+                events.add("around failed " + e.getMessage());
+                throw e;
+            }
+        }
+
+        @Before("execution(* hello.aop.order.OrderService.*(..))")
+        public void before(JoinPoint joinPoint) {
+            events.add("before " + Arrays.toString(joinPoint.getArgs()));
+        }
+
+        @Before("execution(* hello.aop.order.OrderService.*(..))")
+        public void before2() {
+            events.add("before2");
+        }
+
+        @AfterReturning(value = "execution(* hello.aop.order.OrderService.*(..))", returning = "result")
+        public void afterReturning(Object result) {
+            events.add("afterReturning " + result);
+        }
+
+        @AfterThrowing(value = "execution(* hello.aop.order.OrderService.*(..))", throwing = "ex")
+        public void afterThrowing(IllegalStateException ex) {
+            events.add("afterThrowing " + ex.getMessage());
+        }
+
+        @After("execution(* hello.aop.order.OrderService.*(..))")
+        public void after() {
+            events.add("after");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package hello.aop.proxy;
+
+import hello.aop.member.MemberService;
+import hello.aop.member.MemberServiceImpl;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import hello.aop.order.aop.MethodAopAspect;
+import hello.aop.order.aop.Pointcuts;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aspectj.lang.annotation.Pointcut;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "aop.proxy.parallel-matching=true")
+@Import({AspectV6Advice.class, MethodAopAspect.class})
+class ParallelAdvisorMatchingTest {
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+
+    @Test
+    void beansAreProxiedWithPrecomputedAdvisors() {
+        assertThat(AopUtils.isAopProxy(orderService)).isTrue();
+        assertThat(AopUtils.isAopProxy(memberService)).isTrue();
+        assertThat(((Advised) memberService).getAdvisors())
+                .anyMatch(advisor -> advisor.getAdvice().toString().contains("MethodAopAspect.doMethodAop"));
+        orderService.orderItem("itemA");
+        assertThat(memberService.hello("helloA")).isEqualTo("ok");
+    }
+
+    @Test
+    void eachClassIsMatchedOnce() {
+        Map<Class<?>, AtomicInteger> calls = new ConcurrentHashMap<>();
+        List<Advisor> candidates = List.of(new DefaultPointcutAdvisor((MethodInterceptor) invocation -> invocation.proceed()));
+        ParallelAdvisorMatching matching = new ParallelAdvisorMatching((advisors, beanClass) -> {
+            calls.computeIfAbsent(beanClass, key -> new AtomicInteger()).incrementAndGet();
+            return advisors;
+        }, () -> List.of(OrderService.class, OrderRepository.class, MemberServiceImpl.class));
+
+        assertThat(matching.findAdvisorsThatCanApply(new ArrayList<>(candidates), OrderService.class)).isEqualTo(candidates);
+        assertThat(matching.findAdvisorsThatCanApply(new ArrayList<>(candidates), OrderRepository.class)).isEqualTo(candidates);
+        assertThat(matching.findAdvisorsThatCanApply(new ArrayList<>(candidates), String.class)).isEqualTo(candidates);
+        assertThat(matching.findAdvisorsThatCanApply(new ArrayList<>(candidates), String.class)).isEqualTo(candidates);
+
+        assertThat(calls).containsOnlyKeys(OrderService.class, OrderRepository.class, MemberServiceImpl.class, String.class)
+                .allSatisfy((beanClass, count) -> assertThat(count.get()).isEqualTo(1));
+
+        matching.close();
+        assertThat(matching.findAdvisorsThatCanApply(candidates, OrderService.class)).isNull();
+    }
+
+    @Test
+    void beanNamePointcutIsNotPrecomputed() {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression("bean(orderService)");
+        List<Advisor> candidates = List.of(new DefaultPointcutAdvisor(pointcut, (MethodInterceptor) invocation -> invocation.proceed()));
+        ParallelAdvisorMatching matching = new ParallelAdvisorMatching((advisors, beanClass) -> {
+            throw new AssertionError("matched " + beanClass);
+        }, () -> List.of(OrderService.class));
+
+        assertThat(matching.findAdvisorsThatCanApply(candidates, OrderService.class)).isNull();
+    }
+
+    @Test
+    void namedPointcutsAreFollowed() {
+        assertThat(ParallelAdvisorMatching.dependsOnBeanName("hello.aop.order.aop.Pointcuts.orderAndService()",
+                null, new HashSet<>())).isFalse();
+        assertThat(ParallelAdvisorMatching.dependsOnBeanName("allOrder() && @annotation(hello.aop.member.annotation.ClassAop)",
+                Pointcuts.class, new HashSet<>())).isFalse();
+        assertThat(ParallelAdvisorMatching.dependsOnBeanName("allOrder() || orderServiceBean()",
+                BeanPointcuts.class, new HashSet<>())).isTrue();
+        // 찾을 수 없는 참조는 bean(..) 이 있다고 본다.
+        assertThat(ParallelAdvisorMatching.dependsOnBeanName("unknown()", Pointcuts.class, new HashSet<>())).isTrue();
+    }
+
+    static class BeanPointcuts extends Pointcuts {
+        @Pointcut("bean(orderService)")
+        public void orderServiceBean() {}
+    }
+}
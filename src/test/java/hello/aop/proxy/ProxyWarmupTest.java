@@ -0,0 +1,90 @@
+package hello.aop.proxy;
+
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {"aop.proxy.warmup=true", "aop.proxy.warmup-invocations=2"})
+@Import(AspectV6Advice.class)
+class ProxyWarmupTest {
+    @Autowired OrderService orderService;
+
+    @Test
+    void syntheticCallsRunTheChainButNotTheTarget() {
+        CountingAdvice advice = new CountingAdvice();
+        Target target = new Target();
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(advice);
+        Target proxy = (Target) factory.getProxy();
+
+        ProxyWarmup warmup = new ProxyWarmup(3);
+        warmup.add(factory);
+        assertThat(warmup.run(true)).isEqualTo(2);
+
+        assertThat(advice.calls.get()).isEqualTo(2 * 3);
+        assertThat(target.calls.get()).isZero();
+        assertThat(factory.isFrozen()).isTrue();
+        assertThat(proxy.count(1)).isEqualTo(1);
+        assertThat(warmup.run(true)).as("한 번만 실행한다").isZero();
+    }
+
+    @Test
+    void adviceWithSideEffectsIsNotInvoked() {
+        AtomicInteger advised = new AtomicInteger();
+        ProxyFactory factory = new ProxyFactory(new Target());
+        factory.setProxyTargetClass(true);
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            advised.incrementAndGet();
+            return invocation.proceed();
+        });
+
+        ProxyWarmup warmup = new ProxyWarmup(3);
+        warmup.add(factory);
+        assertThat(warmup.run(true)).isEqualTo(2);
+
+        assertThat(advised.get()).as("체인만 만들고 호출하지 않는다").isZero();
+        assertThat(factory.isFrozen()).isTrue();
+    }
+
+    @Test
+    void proxiesAreFrozenAfterRefresh() {
+        assertThat(((Advised) orderService).isFrozen()).isTrue();
+        orderService.orderItem("itemA");
+    }
+
+    @SideEffectFree
+    static class CountingAdvice implements MethodInterceptor {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            calls.incrementAndGet();
+            return invocation.proceed();
+        }
+    }
+
+    static class Target {
+        final AtomicInteger calls = new AtomicInteger();
+
+        public int count(int amount) {
+            return calls.addAndGet(amount);
+        }
+
+        public String name(String prefix) {
+            calls.incrementAndGet();
+            return prefix + "target";
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package hello.aop.proxy;
+
+import hello.aop.pointcut.PointcutCompiler;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ResidueAdvisorChainFactoryTest {
+
+    List<Object> advised = new ArrayList<>();
+    MethodInterceptor interceptor = invocation -> {
+        advised.add(invocation.getArguments()[0]);
+        return invocation.proceed();
+    };
+
+    @Test
+    void residueOnlyWhereParameterTypesDoNotDecide() throws NoSuchMethodException {
+        ProxyFactory factory = new ProxyFactory(new Target());
+        factory.setProxyTargetClass(true);
+        factory.setAdvisorChainFactory(new ResidueAdvisorChainFactory());
+        factory.addAdvisor(new DefaultPointcutAdvisor(new PointcutCompiler().compile("args(String)"), interceptor));
+        Target proxy = (Target) factory.getProxy();
+
+        Method hello = Target.class.getMethod("hello", String.class);
+        Method any = Target.class.getMethod("any", Object.class);
+        // `hello(String)` 은 타입으로 결정되어 인터셉터가 그대로, `any(Object)` 는 남는 판단으로 감싸진다.
+        assertThat(factory.getInterceptorsAndDynamicInterceptionAdvice(hello, Target.class)).containsExactly(interceptor);
+        assertThat(factory.getInterceptorsAndDynamicInterceptionAdvice(any, Target.class))
+                .singleElement().isInstanceOf(ResidueAdvisorChainFactory.ResidueInterceptor.class);
+
+        proxy.hello("helloA");
+        proxy.any("anyA");
+        proxy.any(1);
+        assertThat(advised).containsExactly("helloA", "anyA");
+    }
+
+    static class Target {
+        public String hello(String param) {
+            return "ok";
+        }
+
+        public Object any(Object param) {
+            return param;
+        }
+    }
+}
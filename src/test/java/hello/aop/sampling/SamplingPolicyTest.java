@@ -0,0 +1,52 @@
+package hello.aop.sampling;
+
+import hello.aop.advice.MethodIds;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SamplingPolicyTest {
+
+    @Test
+    void fixedRate() {
+        assertThat(Sampler.of(0.0).sample()).isFalse();
+        assertThat(Sampler.of(1.0).sample()).isTrue();
+
+        Sampler sampler = Sampler.of(0.25);
+        int sampled = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (sampler.sample()) {
+                sampled++;
+            }
+        }
+        assertThat(sampled).isBetween(23_000, 27_000);
+    }
+
+    @Test
+    void invalidRate() {
+        assertThatThrownBy(() -> Sampler.of(1.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Sampler.of(-0.1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ratePerPointcut() throws Exception {
+        SamplingPolicy policy = new SamplingPolicy(List.of(
+                new SamplingPolicy.PointcutRate("orderAndService", 0.5),
+                new SamplingPolicy.PointcutRate("allOrder", 0.01)), 1.0, true);
+
+        int orderItem = MethodIds.id(OrderService.class.getMethod("orderItem", String.class));
+        int save = MethodIds.id(OrderRepository.class.getMethod("save", String.class));
+        int toString = MethodIds.id(Object.class.getMethod("toString"));
+
+        // 처음 맞는 포인트컷의 비율을 쓴다.
+        assertThat(policy.sampler(orderItem, OrderService.class).getRate()).isEqualTo(0.5);
+        assertThat(policy.sampler(save, OrderRepository.class).getRate()).isEqualTo(0.01);
+        assertThat(policy.sampler(toString, Object.class).getRate()).isEqualTo(1.0);
+        // 두 번째부터는 같은 객체를 돌려준다.
+        assertThat(policy.sampler(save, OrderRepository.class)).isSameAs(policy.sampler(save, OrderRepository.class));
+    }
+}
@@ -0,0 +1,137 @@
+package hello.aop.trace;
+
+import hello.aop.advice.MethodIds;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.sampling.Sampler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TracerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void nestedSpansBecomeTree() throws Exception {
+        int orderItem = MethodIds.id(OrderService.class.getMethod("orderItem", String.class));
+        int save = MethodIds.id(OrderRepository.class.getMethod("save", String.class));
+
+        try (Tracer tracer = new Tracer(new SpanWriter(dir, 1 << 20, 4, Duration.ZERO), Sampler.ALWAYS)) {
+            TraceContext outer = tracer.enter();
+            TraceContext inner = tracer.enter();
+            assertThat(inner.getDepth()).isEqualTo(2);
+            tracer.exit(inner, save, new IllegalStateException("예외 발생"));
+            tracer.exit(outer, orderItem, null);
+            assertThat(outer.getDepth()).isZero();
+        }
+
+        List<Span> roots = SpanReader.tree(SpanReader.readDirectory(dir));
+        assertThat(roots).hasSize(1);
+        Span root = roots.get(0);
+        assertThat(root.getSignature()).isEqualTo("void hello.aop.order.OrderService.orderItem(String)");
+        assertThat(root.getError()).isNull();
+        assertThat(root.getChildren()).hasSize(1);
+
+        Span child = root.getChildren().get(0);
+        assertThat(child.getSignature()).isEqualTo("String hello.aop.order.OrderRepository.save(String)");
+        assertThat(child.getDepth()).isEqualTo(1);
+        assertThat(child.getError()).isEqualTo("java.lang.IllegalStateException: 예외 발생");
+        assertThat(child.getDurationNanos()).isLessThanOrEqualTo(root.getDurationNanos());
+        assertThat(child.getStartEpochNanos()).isGreaterThanOrEqualTo(root.getStartEpochNanos());
+    }
+
+    @Test
+    void rotatesAndKeepsMaxFiles() throws Exception {
+        int save = MethodIds.id(OrderRepository.class.getMethod("save", String.class));
+
+        try (Tracer tracer = new Tracer(new SpanWriter(dir, 100_000, 2, Duration.ZERO), Sampler.ALWAYS)) {
+            for (int i = 0; i < 10_000; i++) {
+                tracer.exit(tracer.enter(), save, null);
+            }
+        }
+
+        List<Path> files = SpanWriter.files(dir);
+        assertThat(files).hasSize(2);
+        // 파일마다 메서드 정의가 다시 나와서 파일 하나만 읽어도 이름이 있다.
+        assertThat(SpanReader.read(files.get(1)))
+                .isNotEmpty()
+                .allSatisfy(span -> assertThat(span.getSignature()).endsWith("save(String)"));
+    }
+
+    @Test
+    void failedWriteStillRollsToNextFile() throws Exception {
+        int save = MethodIds.id(OrderRepository.class.getMethod("save", String.class));
+        SpanWriter writer = new SpanWriter(dir, 100_000, 10, Duration.ZERO) {
+            int drains;
+
+            @Override
+            void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+                // 64K 버퍼 하나를 쓰고 나면 두 번째 버퍼가 100_000 에 닿아 파일을 넘긴다. 그 버퍼를 못 쓰게 한다.
+                if (++drains == 2) {
+                    throw new IOException("disk full");
+                }
+                super.writeFully(channel, bytes);
+            }
+        };
+        for (int i = 0; i < 4_000; i++) {
+            writer.write(1, i, 0, save, 0, System.nanoTime(), 1_000, null);
+        }
+        writer.close();
+
+        assertThat(writer.getDroppedCount()).isPositive();
+        // 새 파일의 헤더와 스팬이 옛 파일에 섞이지 않는다.
+        List<Path> files = SpanWriter.files(dir);
+        assertThat(files).hasSize(2);
+        assertThat(SpanReader.read(files.get(1)))
+                .isNotEmpty()
+                .allSatisfy(span -> assertThat(span.getSignature()).endsWith("save(String)"));
+        assertThat(SpanReader.readDirectory(dir)).hasSize((int) (4_000 - writer.getDroppedCount()));
+    }
+
+    @Test
+    void concurrentWritersLoseNothingWhileFlushing() throws Exception {
+        int save = MethodIds.id(OrderRepository.class.getMethod("save", String.class));
+        SpanWriter writer = new SpanWriter(dir, 100_000, 1_000, Duration.ofMillis(1));
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long traceId = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    writer.write(traceId, i, 0, save, 0, System.nanoTime(), 1_000, null);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.close();
+
+        assertThat(writer.getDroppedCount()).isZero();
+        assertThat(SpanWriter.files(dir)).hasSizeGreaterThan(1);
+        assertThat(SpanReader.readDirectory(dir)).hasSize(4 * 10_000);
+    }
+
+    @Test
+    void unsampledTraceWritesNothing() throws Exception {
+        int save = MethodIds.id(OrderRepository.class.getMethod("save", String.class));
+
+        try (Tracer tracer = new Tracer(new SpanWriter(dir, 1 << 20, 4, Duration.ZERO), Sampler.NEVER)) {
+            tracer.exit(tracer.enter(), save, null);
+            assertThat(tracer.getWriter().getWrittenCount()).isZero();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package hello.aop.tx;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TransactionManagerTest {
+    @TempDir Path dir;
+    TransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (transactionManager != null) {
+            transactionManager.close();
+        }
+    }
+
+    @Test
+    void commitAndRollback() throws IOException {
+        Path file = dir.resolve("tx.log");
+        transactionManager = new TransactionManager(new FileTransactionLog(file));
+
+        Transaction committed = transactionManager.begin();
+        committed.write("itemA");
+        committed.write("itemB");
+        transactionManager.commit(committed);
+
+        Transaction rolledBack = transactionManager.begin();
+        rolledBack.write("ex");
+        transactionManager.rollback(rolledBack);
+
+        assertThat(committed.getStatus()).isEqualTo(Transaction.Status.COMMITTED);
+        assertThat(rolledBack.getStatus()).isEqualTo(Transaction.Status.ROLLED_BACK);
+        assertThat(TransactionContext.current()).isNull();
+
+        List<Transaction> logged = FileTransactionLog.read(file);
+        assertThat(logged).hasSize(1);
+        assertThat(logged.get(0).getId()).isEqualTo(committed.getId());
+        assertThat(logged.get(0).getWrites()).containsExactly("itemA", "itemB");
+    }
+
+    @Test
+    void innerRollbackMarksOuterRollbackOnly() throws IOException {
+        transactionManager = new TransactionManager(new FileTransactionLog(dir.resolve("tx.log")));
+
+        Transaction outer = transactionManager.begin();
+        Transaction inner = transactionManager.begin();
+        assertThat(inner).isSameAs(outer);
+
+        inner.write("itemA");
+        transactionManager.rollback(inner);
+        assertThat(outer.getStatus()).isEqualTo(Transaction.Status.ACTIVE);
+
+        assertThatThrownBy(() -> transactionManager.commit(outer))
+                .isInstanceOf(TransactionException.class);
+        assertThat(outer.getStatus()).isEqualTo(Transaction.Status.ROLLED_BACK);
+        assertThat(TransactionContext.current()).isNull();
+    }
+
+    @Test
+    void concurrentCommitsShareFlushes() throws Exception {
+        // fsync 가 느린 로그. 리더가 쓰는 동안 다른 스레드의 커밋이 쌓인다.
+        List<Integer> batchSizes = new ArrayList<>();
+        TransactionLog slowLog = new TransactionLog() {
+            @Override
+            public void append(List<Transaction> transactions) {
+                batchSizes.add(transactions.size());
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        transactionManager = new TransactionManager(slowLog);
+
+        int threads = 8;
+        int perThread = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    Transaction transaction = transactionManager.begin();
+                    transaction.write("item" + i);
+                    transactionManager.commit(transaction);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        GroupCommitLog commitLog = transactionManager.getCommitLog();
+        assertThat(commitLog.getCommitCount()).isEqualTo(threads * perThread);
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(threads * perThread);
+        assertThat(commitLog.getFlushCount()).isLessThan(threads * perThread);
+    }
+
+    @Test
+    void failedFlushRollsBack() {
+        transactionManager = new TransactionManager(new TransactionLog() {
+            @Override
+            public void append(List<Transaction> transactions) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        Transaction transaction = transactionManager.begin();
+        transaction.write("itemA");
+        assertThatThrownBy(() -> transactionManager.commit(transaction))
+                .isInstanceOf(TransactionException.class)
+                .hasCauseInstanceOf(IOException.class);
+        assertThat(transaction.getStatus()).isEqualTo(Transaction.Status.ROLLED_BACK);
+        assertThat(TransactionContext.current()).isNull();
+    }
+
+    @Test
+    void runtimeFailureCompletesBatch() {
+        transactionManager = new TransactionManager(new TransactionLog() {
+            boolean failed;
+
+            @Override
+            public void append(List<Transaction> transactions) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("encode failed");
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        Transaction failed = transactionManager.begin();
+        failed.write("itemA");
+        assertThatThrownBy(() -> transactionManager.commit(failed))
+                .isInstanceOf(TransactionException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+
+        // 앞 묶음이 끝나지 않았으면 여기서 멈춘다.
+        Transaction next = transactionManager.begin();
+        next.write("itemB");
+        transactionManager.commit(next);
+        assertThat(next.getStatus()).isEqualTo(Transaction.Status.COMMITTED);
+    }
+
+    @Test
+    void oversizedKeyIsRejectedOnWrite() throws IOException {
+        transactionManager = new TransactionManager(new FileTransactionLog(dir.resolve("tx.log")));
+        Transaction transaction = transactionManager.begin();
+        try {
+            assertThatThrownBy(() -> transaction.write("가".repeat(Transaction.MAX_KEY_BYTES / 3 + 1)))
+                    .isInstanceOf(IllegalArgumentException.class);
+            transaction.write("a".repeat(Transaction.MAX_KEY_BYTES));
+        } finally {
+            transactionManager.rollback(transaction);
+        }
+    }
+}